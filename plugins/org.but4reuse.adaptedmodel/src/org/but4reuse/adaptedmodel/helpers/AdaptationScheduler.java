@@ -0,0 +1,304 @@
+package org.but4reuse.adaptedmodel.helpers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.but4reuse.adaptedmodel.AdaptedArtefact;
+import org.but4reuse.adaptedmodel.AdaptedModel;
+import org.but4reuse.adaptedmodel.AdaptedModelFactory;
+import org.but4reuse.adaptedmodel.manager.AdaptedModelManager;
+import org.but4reuse.adapters.IAdapter;
+import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.helper.AdaptersHelper;
+import org.but4reuse.artefactmodel.Artefact;
+import org.but4reuse.artefactmodel.ArtefactModel;
+import org.but4reuse.artefactmodel.ComposedArtefact;
+import org.but4reuse.utils.metrics.MetricsRegistry;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.emf.common.util.EList;
+
+/**
+ * Adaptation scheduler. Adapts the artefacts concurrently in a bounded pool (a
+ * fixed thread pool sized to the number of processors by default). The number
+ * of artefacts adapted at the same time by a given adapter can be limited (see
+ * the maxConcurrency attribute of the adapters extension point), the tasks
+ * waiting for a permit block their thread so a plain thread pool is used
+ * instead of a fork-join pool. The adapted artefacts are added to the adapted
+ * model as soon as they are finished and the artefact model order is restored
+ * at the end. The progress is only reported from the calling thread.
+ * Cancellation interrupts the running adaptations and the tasks also check
+ * the monitor before each adapter.
+ * 
+ * Some adapters keep state of the current adaptation in their fields (e.g.
+ * the rootURI of the EclipseAdapter and the FileStructureAdapter) so an
+ * adapter instance must not be used by concurrent adaptations. The scheduler
+ * creates a new instance of the adapter class for each artefact and the given
+ * instances are only used as the keys of the limits.
+ * 
+ * @author jabier.martinez
+ */
+public class AdaptationScheduler {
+
+	// time to wait for a finished adaptation before checking the monitor again
+	private static final long POLL_MILLIS = 100;
+
+	private ExecutorService executor;
+	private Map<IAdapter, Semaphore> adapterPermits = new HashMap<IAdapter, Semaphore>();
+
+	/**
+	 * Scheduler using a fixed thread pool
+	 * 
+	 * @param parallelism
+	 *            number of threads or 0 to use the number of processors
+	 */
+	public AdaptationScheduler(int parallelism) {
+		if (parallelism <= 0) {
+			parallelism = Runtime.getRuntime().availableProcessors();
+		}
+		executor = Executors.newFixedThreadPool(parallelism);
+	}
+
+	/**
+	 * Scheduler using a given executor
+	 * 
+	 * @param executor
+	 *            its threads can be blocked waiting for the adapter limits
+	 *            and they are interrupted on cancel, so it should not be a
+	 *            fork-join pool
+	 */
+	public AdaptationScheduler(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Limit the number of artefacts adapted at the same time with a given
+	 * adapter. It overrides the maxConcurrency declared in the extension.
+	 * 
+	 * @param adapter
+	 * @param maxConcurrency
+	 *            0 for no limit
+	 */
+	public void setMaxConcurrency(IAdapter adapter, int maxConcurrency) {
+		if (maxConcurrency > 0) {
+			adapterPermits.put(adapter, new Semaphore(maxConcurrency, true));
+		} else {
+			adapterPermits.put(adapter, null);
+		}
+	}
+
+	/**
+	 * Adapt an artefact model to create the list of elements of each artefact
+	 * 
+	 * @param artefactModel
+	 * @param adapters
+	 * @param monitor
+	 * @return the adapted model, with the adapted artefacts in the same order
+	 *         as the artefact model
+	 */
+	public AdaptedModel adapt(ArtefactModel artefactModel, List<IAdapter> adapters, IProgressMonitor monitor) {
+		// When we adapt we consider that we are starting a new analysis
+		MetricsRegistry.getDefault().clear();
+		long startTime = System.nanoTime();
+
+		AdaptedModel adaptedModel = AdaptedModelFactory.eINSTANCE.createAdaptedModel();
+
+		// Limits declared by the adapters
+		for (IAdapter adapter : adapters) {
+			if (!adapterPermits.containsKey(adapter)) {
+				setMaxConcurrency(adapter, AdaptersHelper.getAdapterMaxConcurrency(adapter));
+			}
+		}
+
+		List<Artefact> artefacts = AdaptersHelper.getActiveArtefacts(artefactModel);
+		CompletionService<AdaptationResult> completionService = new ExecutorCompletionService<AdaptationResult>(
+				executor);
+		List<Future<AdaptationResult>> futures = new ArrayList<Future<AdaptationResult>>();
+		for (Artefact artefact : artefacts) {
+			futures.add(completionService.submit(task(artefact, adapters, monitor)));
+		}
+
+		Map<Artefact, AdaptedArtefact> adaptedArtefacts = new HashMap<Artefact, AdaptedArtefact>();
+		int finished = 0;
+		try {
+			while (finished < futures.size()) {
+				// user cancel
+				if (monitor.isCanceled()) {
+					cancel(futures);
+					return adaptedModel;
+				}
+				Future<AdaptationResult> future = completionService.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (future == null) {
+					continue;
+				}
+				finished++;
+				AdaptationResult result = null;
+				try {
+					result = future.get();
+				} catch (ExecutionException e) {
+					e.printStackTrace();
+				} catch (CancellationException e) {
+					// nothing to add
+				}
+				if (result != null) {
+					// Add it as soon as it is finished
+					AdaptedArtefact adaptedArtefact = result.adaptedArtefact;
+					adaptedArtefact.setArtefact(result.artefact);
+					adaptedModel.getOwnedAdaptedArtefacts().add(adaptedArtefact);
+					adaptedArtefacts.put(result.artefact, adaptedArtefact);
+					String name = AdaptedModelHelper.getArtefactName(result.artefact);
+					monitor.subTask("Adapted: " + name + " " + finished + "/" + futures.size());
+				}
+				monitor.worked(1);
+			}
+		} catch (InterruptedException e) {
+			cancel(futures);
+			Thread.currentThread().interrupt();
+			return adaptedModel;
+		}
+
+		// Same order as in the artefact model
+		EList<AdaptedArtefact> owned = adaptedModel.getOwnedAdaptedArtefacts();
+		int position = 0;
+		for (Artefact artefact : artefacts) {
+			AdaptedArtefact adaptedArtefact = adaptedArtefacts.get(artefact);
+			if (adaptedArtefact != null) {
+				owned.move(position, adaptedArtefact);
+				position++;
+			}
+		}
+
+		// Add info to the manager
+		MetricsRegistry.getDefault().stop("Adapt all artefacts", startTime);
+		AdaptedModelManager.setAdaptedModel(adaptedModel);
+		AdaptedModelManager.setAdapters(adapters);
+		return adaptedModel;
+	}
+
+	/**
+	 * Stop accepting adaptations and release the threads of the pool
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	private void cancel(List<Future<AdaptationResult>> futures) {
+		for (Future<AdaptationResult> future : futures) {
+			future.cancel(true);
+		}
+	}
+
+	private Callable<AdaptationResult> task(final Artefact artefact, final List<IAdapter> adapters,
+			final IProgressMonitor monitor) {
+		return new Callable<AdaptationResult>() {
+			@Override
+			public AdaptationResult call() throws Exception {
+				// user cancel before starting
+				if (monitor.isCanceled()) {
+					return null;
+				}
+				long startTimeArtefact = System.nanoTime();
+				List<IElement> elements = getElements(artefact, adapters, monitor);
+				// user cancel during the adaptation
+				if (elements == null) {
+					return null;
+				}
+				AdaptationResult result = new AdaptationResult();
+				result.artefact = artefact;
+				result.adaptedArtefact = AdaptedModelHelper.wrapElementsToCreateAdaptedArtefact(elements);
+				// the registry is thread safe
+				MetricsRegistry metrics = MetricsRegistry.getDefault();
+				metrics.stop("Adapt " + artefact.getName(), startTimeArtefact);
+				metrics.add("Elements " + artefact.getName(), elements.size());
+				return result;
+			}
+		};
+	}
+
+	/**
+	 * Same as AdaptersHelper.getElements but respecting the limits of each
+	 * adapter
+	 * 
+	 * @param artefact
+	 * @param adapters
+	 * @param monitor
+	 * @return list of elements or null if the user cancelled
+	 * @throws InterruptedException
+	 */
+	private List<IElement> getElements(Artefact artefact, List<IAdapter> adapters, IProgressMonitor monitor)
+			throws InterruptedException {
+		List<IElement> list = new ArrayList<IElement>();
+		if (artefact.isActive()) {
+			if (artefact instanceof ComposedArtefact) {
+				ComposedArtefact cArtefact = (ComposedArtefact) artefact;
+				for (Artefact a : cArtefact.getOwnedArtefacts()) {
+					List<IElement> elements = getElements(a, adapters, monitor);
+					if (elements == null) {
+						return null;
+					}
+					list.addAll(elements);
+				}
+			} else {
+				for (IAdapter adapter : adapters) {
+					// user cancel
+					if (monitor.isCanceled()) {
+						return null;
+					}
+					Semaphore permits = adapterPermits.get(adapter);
+					if (permits != null) {
+						// wait for a permit but stop waiting if the user cancels
+						while (!permits.tryAcquire(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+							if (monitor.isCanceled()) {
+								return null;
+							}
+						}
+					}
+					try {
+						list.addAll(AdaptersHelper.getElements(artefact, newInstance(adapter)));
+					} finally {
+						if (permits != null) {
+							permits.release();
+						}
+					}
+				}
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Create an instance of the adapter for one adaptation
+	 * 
+	 * @param adapter
+	 * @return a new instance of the same class or the given adapter if it
+	 *         cannot be instantiated
+	 */
+	private static IAdapter newInstance(IAdapter adapter) {
+		try {
+			return adapter.getClass().newInstance();
+		} catch (Exception e) {
+			e.printStackTrace();
+			return adapter;
+		}
+	}
+
+	/**
+	 * The result of adapting one artefact
+	 */
+	private static class AdaptationResult {
+		Artefact artefact;
+		AdaptedArtefact adaptedArtefact;
+	}
+
+}
@@ -0,0 +1,48 @@
+package org.but4reuse.adaptedmodel.helpers;
+
+import org.but4reuse.adaptedmodel.AdaptedModel;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+
+/**
+ * Keeps the structures calculated from an adapted model (block presence
+ * matrix and index) and forgets them when the adapted model changes
+ * 
+ * @author jabier.martinez
+ */
+class AdaptedModelCache extends AdapterImpl {
+
+	BlockPresenceMatrix matrix;
+	AdaptedModelIndex index;
+
+	/**
+	 * Get the cache of an adapted model
+	 * 
+	 * @param adaptedModel
+	 * @return the cache, created the first time
+	 */
+	static AdaptedModelCache get(AdaptedModel adaptedModel) {
+		synchronized (adaptedModel) {
+			for (Object adapter : adaptedModel.eAdapters()) {
+				if (adapter instanceof AdaptedModelCache) {
+					return (AdaptedModelCache) adapter;
+				}
+			}
+			AdaptedModelCache cache = new AdaptedModelCache();
+			adaptedModel.eAdapters().add(cache);
+			return cache;
+		}
+	}
+
+	@Override
+	public void notifyChanged(Notification notification) {
+		if (!notification.isTouch()) {
+			invalidate();
+		}
+	}
+
+	synchronized void invalidate() {
+		matrix = null;
+		index = null;
+	}
+}
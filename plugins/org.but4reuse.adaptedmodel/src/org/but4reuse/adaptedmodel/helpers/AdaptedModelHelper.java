@@ -1,8 +1,9 @@
 package org.but4reuse.adaptedmodel.helpers;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -20,10 +21,12 @@ import org.but4reuse.adapters.IAdapter;
 import org.but4reuse.adapters.IDependencyObject;
 import org.but4reuse.adapters.IElement;
 import org.but4reuse.adapters.helper.AdaptersHelper;
+import org.but4reuse.adapters.impl.AbstractElement;
+import org.but4reuse.adapters.impl.ElementsMatchingMap;
 import org.but4reuse.adapters.preferences.PreferencesHelper;
 import org.but4reuse.artefactmodel.Artefact;
 import org.but4reuse.artefactmodel.ArtefactModel;
-import org.but4reuse.utils.strings.StringUtils;
+import org.but4reuse.utils.metrics.MetricsRegistry;
 import org.eclipse.core.runtime.IProgressMonitor;
 
 /**
@@ -51,26 +54,27 @@ public class AdaptedModelHelper {
 		}
 
 		// When we adapt we consider that we are starting a new analysis
-		AdaptedModelManager.getElapsedTimeRegistry().clear();
-		long startTime = System.currentTimeMillis();
+		MetricsRegistry metrics = MetricsRegistry.getDefault();
+		metrics.clear();
+		long startTime = System.nanoTime();
 
 		AdaptedModel adaptedModel = AdaptedModelFactory.eINSTANCE.createAdaptedModel();
 
 		for (Artefact artefact : artefactModel.getOwnedArtefacts()) {
 			if (artefact.isActive()) {
-				long startTimeArtefact = System.currentTimeMillis();
+				long startTimeArtefact = System.nanoTime();
 				AdaptedArtefact adaptedArtefact = adapt(artefact, adapters, monitor);
 				adaptedModel.getOwnedAdaptedArtefacts().add(adaptedArtefact);
 				monitor.worked(1);
 				if (monitor.isCanceled()) {
 					return adaptedModel;
 				}
-				AdaptedModelManager.registerTime("Adapt " + artefact.getName(),
-						System.currentTimeMillis() - startTimeArtefact);
+				metrics.stop("Adapt " + artefact.getName(), startTimeArtefact);
+				metrics.add("Elements " + artefact.getName(), adaptedArtefact.getOwnedElementWrappers().size());
 			}
 		}
 		// Add info to the manager
-		AdaptedModelManager.registerTime("Adapt all artefacts", System.currentTimeMillis() - startTime);
+		metrics.stop("Adapt all artefacts", startTime);
 		AdaptedModelManager.setAdaptedModel(adaptedModel);
 		AdaptedModelManager.setAdapters(adapters);
 		return adaptedModel;
@@ -117,13 +121,26 @@ public class AdaptedModelHelper {
 
 	public static double similarity(ElementWrapper e1, ElementWrapper e2) {
 		if (e1.getElement() != null && e2.getElement() != null) {
-			return ((IElement) e1).similarity((IElement) e2);
+			return AbstractElement.countedSimilarity((IElement) e1.getElement(), (IElement) e2.getElement());
 		} else {
 			return 0;
 		}
 	}
 
 	public static List<ElementWrapper> findElementWrappers(List<AdaptedArtefact> artefacts, IElement ie) {
+		AdaptedModel adaptedModel = getAdaptedModel(artefacts);
+		if (adaptedModel != null) {
+			// use the index of the adapted model
+			Set<AdaptedArtefact> artefactsSet = Collections.newSetFromMap(new IdentityHashMap<AdaptedArtefact, Boolean>());
+			artefactsSet.addAll(artefacts);
+			List<ElementWrapper> elementWrappers = new ArrayList<ElementWrapper>();
+			for (ElementWrapper ew : AdaptedModelIndex.get(adaptedModel).getElementWrappers(ie)) {
+				if (artefactsSet.contains(ew.eContainer())) {
+					elementWrappers.add(ew);
+				}
+			}
+			return elementWrappers;
+		}
 		// expensive task, it is better if you use a hashmap IElement,
 		// IElementWrappers instead
 		List<ElementWrapper> elementWrappers = new ArrayList<ElementWrapper>();
@@ -139,6 +156,10 @@ public class AdaptedModelHelper {
 
 	// TODO to be removed
 	public static ElementWrapper findOneElementWrapper(List<AdaptedArtefact> artefacts, IElement ie) {
+		if (getAdaptedModel(artefacts) != null) {
+			List<ElementWrapper> elementWrappers = findElementWrappers(artefacts, ie);
+			return elementWrappers.isEmpty() ? null : elementWrappers.get(0);
+		}
 		// expensive task, it is better if you use a hashmap IElement,
 		// IElementWrappers instead
 		// List<ElementWrapper> elementWrappers = new
@@ -153,8 +174,29 @@ public class AdaptedModelHelper {
 		return null;
 	}
 
+	/**
+	 * Get the adapted model containing all the adapted artefacts
+	 * 
+	 * @param artefacts
+	 * @return the adapted model or null if they are not in the same one
+	 */
+	private static AdaptedModel getAdaptedModel(List<AdaptedArtefact> artefacts) {
+		AdaptedModel adaptedModel = null;
+		for (AdaptedArtefact artefact : artefacts) {
+			if (!(artefact.eContainer() instanceof AdaptedModel)) {
+				return null;
+			}
+			if (adaptedModel == null) {
+				adaptedModel = (AdaptedModel) artefact.eContainer();
+			} else if (adaptedModel != artefact.eContainer()) {
+				return null;
+			}
+		}
+		return adaptedModel;
+	}
+
 	public static Map<IElement, ElementWrapper> createMapIEEW(AdaptedModel adaptedModel) {
-		Map<IElement, ElementWrapper> result = new HashMap<IElement, ElementWrapper>();
+		Map<IElement, ElementWrapper> result = new ElementsMatchingMap<ElementWrapper>();
 		for (AdaptedArtefact artefact : adaptedModel.getOwnedAdaptedArtefacts()) {
 			for (ElementWrapper ew : artefact.getOwnedElementWrappers()) {
 				result.put((IElement) ew.getElement(), ew);
@@ -164,7 +206,7 @@ public class AdaptedModelHelper {
 	}
 
 	public static Map<IElement, BlockElement> createMapIEBE(AdaptedModel adaptedModel) {
-		Map<IElement, BlockElement> result = new HashMap<IElement, BlockElement>();
+		Map<IElement, BlockElement> result = new ElementsMatchingMap<BlockElement>();
 		for (Block block : adaptedModel.getOwnedBlocks()) {
 			for (BlockElement be : block.getOwnedBlockElements()) {
 				for (ElementWrapper ew : be.getElementWrappers()) {
@@ -194,9 +236,10 @@ public class AdaptedModelHelper {
 
 	public static List<Artefact> getArtefactsContainingBlockElement(BlockElement blockElement) {
 		List<Artefact> artefacts = new ArrayList<Artefact>();
+		Set<Artefact> found = Collections.newSetFromMap(new IdentityHashMap<Artefact, Boolean>());
 		for (ElementWrapper ew : blockElement.getElementWrappers()) {
 			AdaptedArtefact aa = (AdaptedArtefact) ew.eContainer();
-			if (!artefacts.contains(aa.getArtefact())) {
+			if (found.add(aa.getArtefact())) {
 				artefacts.add(aa.getArtefact());
 			}
 		}
@@ -268,33 +311,14 @@ public class AdaptedModelHelper {
 	}
 
 	/**
-	 * Return the list of blocks that are present in an Adapted artefact TODO
-	 * improve
+	 * Return the list of blocks that are present in an Adapted artefact
 	 * 
 	 * @param adaptedArtefact
 	 * @return the list of blocks
 	 */
 	public static List<Block> getBlocksOfAdaptedArtefact(AdaptedArtefact adaptedArtefact) {
-		List<Block> blocks = new ArrayList<Block>();
-		for (ElementWrapper ew : adaptedArtefact.getOwnedElementWrappers()) {
-			for (BlockElement be : ew.getBlockElements()) {
-				Block block = (Block) be.eContainer();
-				if (!blocks.contains(block)) {
-					blocks.add(block);
-				}
-			}
-		}
-
-		// Sort them
-		List<Block> orderedBlocks = new ArrayList<Block>();
 		AdaptedModel am = (AdaptedModel) adaptedArtefact.eContainer();
-		for (Block block : am.getOwnedBlocks()) {
-			if (blocks.contains(block)) {
-				orderedBlocks.add(block);
-			}
-		}
-
-		return orderedBlocks;
+		return BlockPresenceMatrix.get(am).getBlocksOfAdaptedArtefact(adaptedArtefact);
 	}
 
 	/**
@@ -352,10 +376,10 @@ public class AdaptedModelHelper {
 	 */
 	public static List<IElement> getElementsOfBlockFromAdaptedArtefact(Block block, AdaptedArtefact adaptedArtefact) {
 		List<IElement> elements = new ArrayList<IElement>();
-		adaptedArtefact.getOwnedElementWrappers();
 		for (BlockElement be : block.getOwnedBlockElements()) {
 			for (ElementWrapper ew : be.getElementWrappers()) {
-				if (adaptedArtefact.getOwnedElementWrappers().contains(ew)) {
+				// owned element wrappers are contained in the adapted artefact
+				if (ew.eContainer() == adaptedArtefact) {
 					elements.add((IElement) ew.getElement());
 				}
 			}
@@ -401,24 +425,8 @@ public class AdaptedModelHelper {
 	 * @return a non-empty list
 	 */
 	public static List<Block> getCommonBlocks(AdaptedModel adaptedModel) {
-		// do not modify the adaptedModel
-		List<Block> blocks = adaptedModel.getOwnedBlocks();
-		List<Block> toBeRemoved = new ArrayList<Block>();
-		for (AdaptedArtefact aa : adaptedModel.getOwnedAdaptedArtefacts()) {
-			List<Block> aaBlocks = getBlocksOfAdaptedArtefact(aa);
-			for (Block b : blocks) {
-				if (!toBeRemoved.contains(b) && !aaBlocks.contains(b)) {
-					toBeRemoved.add(b);
-				}
-			}
-		}
-		List<Block> common = new ArrayList<Block>();
-		for (Block b : blocks) {
-			if (!toBeRemoved.contains(b)) {
-				common.add(b);
-			}
-		}
-		return common;
+		BlockPresenceMatrix matrix = BlockPresenceMatrix.get(adaptedModel);
+		return matrix.getBlocks(matrix.getCommonBlocks());
 	}
 
 	/**
@@ -430,21 +438,16 @@ public class AdaptedModelHelper {
 	 */
 	public static List<IDependencyObject> getDependingOnIElement(AdaptedModel adaptedModel, IElement element,
 			Map<IElement, ElementWrapper> ieewMap) {
-		List<IDependencyObject> result = new ArrayList<IDependencyObject>();
+		Set<IDependencyObject> result = new LinkedHashSet<IDependencyObject>();
 		BlockElement blockElement = ieewMap.get(element).getBlockElements().get(0);
 		for (ElementWrapper ew : blockElement.getElementWrappers()) {
 			IElement e = (IElement) ew.getElement();
 			Map<String, List<IDependencyObject>> dependants = e.getDependants();
 			for (String dk : dependants.keySet()) {
-				List<IDependencyObject> ide = dependants.get(dk);
-				for (IDependencyObject iDependencyObject : ide) {
-					if (!result.contains(iDependencyObject)) {
-						result.add(iDependencyObject);
-					}
-				}
+				result.addAll(dependants.get(dk));
 			}
 		}
-		return result;
+		return new ArrayList<IDependencyObject>(result);
 	}
 
 	public static Set<IDependencyObject> getDependingOnIElementBE(AdaptedModel adaptedModel, IElement element,
@@ -458,11 +461,7 @@ public class AdaptedModelHelper {
 				Map<String, List<IDependencyObject>> dependants = e.getDependants();
 				// keep ordering
 				for (Entry<String, List<IDependencyObject>> entry : dependants.entrySet()) {
-					for (IDependencyObject ido : entry.getValue()) {
-						if (!result.contains(ido)) {
-							result.add(ido);
-						}
-					}
+					result.addAll(entry.getValue());
 				}
 			}
 		}
@@ -519,12 +518,7 @@ public class AdaptedModelHelper {
 	 * @return the adapted artefact or null if not found
 	 */
 	public static AdaptedArtefact getAdaptedArtefact(AdaptedModel adaptedModel, Artefact artefact) {
-		for (AdaptedArtefact aa : adaptedModel.getOwnedAdaptedArtefacts()) {
-			if (aa.getArtefact().equals(artefact)) {
-				return aa;
-			}
-		}
-		return null;
+		return AdaptedModelIndex.get(adaptedModel).getAdaptedArtefact(artefact);
 	}
 
 	/**
@@ -535,12 +529,7 @@ public class AdaptedModelHelper {
 	 * @return the block or null if not found
 	 */
 	public static Block getBlockByName(AdaptedModel adaptedModel, String blockName) {
-		for (Block block : adaptedModel.getOwnedBlocks()) {
-			if (block.getName().equals(blockName)) {
-				return block;
-			}
-		}
-		return null;
+		return AdaptedModelIndex.get(adaptedModel).getBlockByName(blockName);
 	}
 	
 	/**
@@ -551,12 +540,7 @@ public class AdaptedModelHelper {
 	 * @return the block or null if not found
 	 */
 	public static Block getBlockByValidName(AdaptedModel adaptedModel, String blockValidName) {
-		for (Block block : adaptedModel.getOwnedBlocks()) {
-			if (StringUtils.validName(block.getName()).equals(blockValidName)) {
-				return block;
-			}
-		}
-		return null;
+		return AdaptedModelIndex.get(adaptedModel).getBlockByValidName(blockValidName);
 	}
 
 }
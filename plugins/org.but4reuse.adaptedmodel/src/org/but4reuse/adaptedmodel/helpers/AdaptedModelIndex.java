@@ -0,0 +1,238 @@
+package org.but4reuse.adaptedmodel.helpers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.but4reuse.adaptedmodel.AdaptedArtefact;
+import org.but4reuse.adaptedmodel.AdaptedModel;
+import org.but4reuse.adaptedmodel.Block;
+import org.but4reuse.adaptedmodel.BlockElement;
+import org.but4reuse.adaptedmodel.ElementWrapper;
+import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.impl.ElementsMatchingMap;
+import org.but4reuse.artefactmodel.Artefact;
+import org.but4reuse.utils.strings.StringUtils;
+
+/**
+ * Adapted model index. Lookup structures for the queries of the adapted model
+ * helper: the adapted artefact of an artefact, the blocks by name and the
+ * element wrappers and block elements of an element. The element wrappers are
+ * partitioned with the blocking keys of their elements so the equals method
+ * is only called inside one partition.
+ * 
+ * The index is cached in the adapted model together with the block presence
+ * matrix and built again after any change in its blocks or adapted artefacts.
+ * The results obtained by name or artefact are checked so a renamed block or
+ * a changed artefact is looked up again in the adapted model.
+ * 
+ * @author jabier.martinez
+ */
+public class AdaptedModelIndex {
+
+	private AdaptedModel adaptedModel;
+	private Map<Artefact, AdaptedArtefact> adaptedArtefacts = new IdentityHashMap<Artefact, AdaptedArtefact>();
+	private Map<String, Block> blocksByName = new HashMap<String, Block>();
+	private Map<String, Block> blocksByValidName = new HashMap<String, Block>();
+	// the wrapper of each element instance
+	private Map<IElement, ElementWrapper> wrappers = new IdentityHashMap<IElement, ElementWrapper>();
+	// partitions of the wrappers by blocking key or by hash code
+	private Map<Object, List<ElementWrapper>> keyedWrappers = new HashMap<Object, List<ElementWrapper>>();
+	private Map<Integer, List<ElementWrapper>> hashWrappers = new HashMap<Integer, List<ElementWrapper>>();
+
+	private AdaptedModelIndex(AdaptedModel adaptedModel) {
+		this.adaptedModel = adaptedModel;
+		for (AdaptedArtefact aa : adaptedModel.getOwnedAdaptedArtefacts()) {
+			if (!adaptedArtefacts.containsKey(aa.getArtefact())) {
+				adaptedArtefacts.put(aa.getArtefact(), aa);
+			}
+			for (ElementWrapper ew : aa.getOwnedElementWrappers()) {
+				IElement element = (IElement) ew.getElement();
+				if (element == null) {
+					continue;
+				}
+				if (!wrappers.containsKey(element)) {
+					wrappers.put(element, ew);
+				}
+				getPartition(element, true).add(ew);
+			}
+		}
+		for (Block block : adaptedModel.getOwnedBlocks()) {
+			if (block.getName() != null && !blocksByName.containsKey(block.getName())) {
+				blocksByName.put(block.getName(), block);
+				String validName = StringUtils.validName(block.getName());
+				if (!blocksByValidName.containsKey(validName)) {
+					blocksByValidName.put(validName, block);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the index of an adapted model
+	 * 
+	 * @param adaptedModel
+	 * @return the cached index or a new one if the adapted model changed
+	 */
+	public static AdaptedModelIndex get(AdaptedModel adaptedModel) {
+		AdaptedModelCache cache = AdaptedModelCache.get(adaptedModel);
+		synchronized (cache) {
+			if (cache.index == null) {
+				cache.index = new AdaptedModelIndex(adaptedModel);
+			}
+			return cache.index;
+		}
+	}
+
+	/**
+	 * The adapted artefacts or the blocks were modified, the index will be
+	 * built again
+	 * 
+	 * @param adaptedModel
+	 */
+	public static void invalidate(AdaptedModel adaptedModel) {
+		AdaptedModelCache.get(adaptedModel).invalidate();
+	}
+
+	/**
+	 * Get adapted artefact of a given artefact
+	 * 
+	 * @param artefact
+	 * @return the adapted artefact or null if not found
+	 */
+	public AdaptedArtefact getAdaptedArtefact(Artefact artefact) {
+		AdaptedArtefact aa = adaptedArtefacts.get(artefact);
+		if (aa != null && aa.getArtefact() == artefact) {
+			return aa;
+		}
+		for (AdaptedArtefact other : adaptedModel.getOwnedAdaptedArtefacts()) {
+			if (other.getArtefact().equals(artefact)) {
+				return other;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get block by name
+	 * 
+	 * @param blockName
+	 * @return the block or null if not found
+	 */
+	public Block getBlockByName(String blockName) {
+		Block block = blocksByName.get(blockName);
+		if (block != null && blockName.equals(block.getName())) {
+			return block;
+		}
+		for (Block other : adaptedModel.getOwnedBlocks()) {
+			if (other.getName().equals(blockName)) {
+				return other;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get block by valid name
+	 * 
+	 * @param blockValidName
+	 * @return the block or null if not found
+	 */
+	public Block getBlockByValidName(String blockValidName) {
+		Block block = blocksByValidName.get(blockValidName);
+		if (block != null && blockValidName.equals(StringUtils.validName(block.getName()))) {
+			return block;
+		}
+		for (Block other : adaptedModel.getOwnedBlocks()) {
+			if (StringUtils.validName(other.getName()).equals(blockValidName)) {
+				return other;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get the element wrapper of an element instance
+	 * 
+	 * @param element
+	 * @return the element wrapper or null if the element is not in the
+	 *         adapted model
+	 */
+	public ElementWrapper getElementWrapper(IElement element) {
+		return wrappers.get(element);
+	}
+
+	/**
+	 * Get the element wrappers of the elements equal to a given one
+	 * 
+	 * @param element
+	 * @return the element wrappers in the order of the adapted artefacts
+	 */
+	public List<ElementWrapper> getElementWrappers(IElement element) {
+		List<ElementWrapper> result = new ArrayList<ElementWrapper>();
+		List<ElementWrapper> partition = getPartition(element, false);
+		if (partition != null) {
+			for (ElementWrapper ew : partition) {
+				if (ew.getElement() == element || ew.getElement().equals(element)) {
+					result.add(ew);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Get the block element of an element
+	 * 
+	 * @param element
+	 * @return the block element of its wrapper or of the wrapper of an equal
+	 *         element, null if it is not in any block
+	 */
+	public BlockElement getBlockElement(IElement element) {
+		ElementWrapper ew = wrappers.get(element);
+		if (ew != null && !ew.getBlockElements().isEmpty()) {
+			return ew.getBlockElements().get(0);
+		}
+		for (ElementWrapper other : getElementWrappers(element)) {
+			if (!other.getBlockElements().isEmpty()) {
+				return other.getBlockElements().get(0);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get the block of an element
+	 * 
+	 * @param element
+	 * @return the block or null if it is not in any block
+	 */
+	public Block getBlock(IElement element) {
+		BlockElement be = getBlockElement(element);
+		if (be == null) {
+			return null;
+		}
+		return (Block) be.eContainer();
+	}
+
+	private List<ElementWrapper> getPartition(IElement element, boolean create) {
+		Object blockingKey = ElementsMatchingMap.getBlockingKey(element);
+		List<ElementWrapper> partition;
+		if (blockingKey != null) {
+			partition = keyedWrappers.get(blockingKey);
+			if (partition == null && create) {
+				partition = new ArrayList<ElementWrapper>(1);
+				keyedWrappers.put(blockingKey, partition);
+			}
+		} else {
+			partition = hashWrappers.get(element.hashCode());
+			if (partition == null && create) {
+				partition = new ArrayList<ElementWrapper>(1);
+				hashWrappers.put(element.hashCode(), partition);
+			}
+		}
+		return partition;
+	}
+}
@@ -0,0 +1,278 @@
+package org.but4reuse.adaptedmodel.helpers;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.but4reuse.adaptedmodel.AdaptedArtefact;
+import org.but4reuse.adaptedmodel.AdaptedModel;
+import org.but4reuse.adaptedmodel.Block;
+import org.but4reuse.adaptedmodel.BlockElement;
+import org.but4reuse.adaptedmodel.ElementWrapper;
+import org.but4reuse.artefactmodel.Artefact;
+import org.but4reuse.featurelist.Feature;
+import org.but4reuse.featurelist.FeatureList;
+
+/**
+ * Block presence matrix. Presence of the blocks in the adapted artefacts
+ * (blocks x adapted artefacts), calculated with only one pass over the
+ * element wrappers of the blocks. The presence of the blocks in the features
+ * is obtained from it with bitset intersections.
+ * 
+ * The matrix is cached in the adapted model and calculated again after any
+ * change in its blocks or adapted artefacts. Changes inside the blocks that
+ * are not notified by the adapted model need a call to invalidate.
+ * 
+ * @author jabier.martinez
+ */
+public class BlockPresenceMatrix {
+
+	private List<Block> blocks;
+	private List<AdaptedArtefact> adaptedArtefacts;
+	private Map<Block, Integer> blockIndexes = new IdentityHashMap<Block, Integer>();
+	private Map<AdaptedArtefact, Integer> adaptedArtefactIndexes = new IdentityHashMap<AdaptedArtefact, Integer>();
+	// for each block, the adapted artefacts where it is present
+	private BitSet[] artefactsOfBlocks;
+	// for each adapted artefact, the blocks present in it
+	private BitSet[] blocksOfArtefacts;
+	// more than one adapted artefact for the same artefact
+	private boolean repeatedArtefacts;
+
+	private BlockPresenceMatrix(AdaptedModel adaptedModel) {
+		blocks = new ArrayList<Block>(adaptedModel.getOwnedBlocks());
+		adaptedArtefacts = new ArrayList<AdaptedArtefact>(adaptedModel.getOwnedAdaptedArtefacts());
+		Map<Artefact, Boolean> artefacts = new IdentityHashMap<Artefact, Boolean>();
+		for (int a = 0; a < adaptedArtefacts.size(); a++) {
+			adaptedArtefactIndexes.put(adaptedArtefacts.get(a), a);
+			if (artefacts.put(adaptedArtefacts.get(a).getArtefact(), Boolean.TRUE) != null) {
+				repeatedArtefacts = true;
+			}
+		}
+		artefactsOfBlocks = new BitSet[blocks.size()];
+		blocksOfArtefacts = new BitSet[adaptedArtefacts.size()];
+		for (int a = 0; a < adaptedArtefacts.size(); a++) {
+			blocksOfArtefacts[a] = new BitSet(blocks.size());
+		}
+		for (int b = 0; b < blocks.size(); b++) {
+			Block block = blocks.get(b);
+			blockIndexes.put(block, b);
+			BitSet present = new BitSet(adaptedArtefacts.size());
+			for (BlockElement be : block.getOwnedBlockElements()) {
+				for (ElementWrapper ew : be.getElementWrappers()) {
+					Integer a = adaptedArtefactIndexes.get(ew.eContainer());
+					if (a != null && !present.get(a)) {
+						present.set(a);
+						blocksOfArtefacts[a].set(b);
+					}
+				}
+			}
+			artefactsOfBlocks[b] = present;
+		}
+	}
+
+	/**
+	 * Get the block presence matrix of an adapted model
+	 * 
+	 * @param adaptedModel
+	 * @return the cached matrix or a new one if the adapted model changed
+	 */
+	public static BlockPresenceMatrix get(AdaptedModel adaptedModel) {
+		AdaptedModelCache cache = AdaptedModelCache.get(adaptedModel);
+		synchronized (cache) {
+			if (cache.matrix == null) {
+				cache.matrix = new BlockPresenceMatrix(adaptedModel);
+			}
+			return cache.matrix;
+		}
+	}
+
+	/**
+	 * The blocks were modified, the matrix will be calculated again
+	 * 
+	 * @param adaptedModel
+	 */
+	public static void invalidate(AdaptedModel adaptedModel) {
+		AdaptedModelCache.get(adaptedModel).invalidate();
+	}
+
+	public List<Block> getBlocks() {
+		return blocks;
+	}
+
+	public List<AdaptedArtefact> getAdaptedArtefacts() {
+		return adaptedArtefacts;
+	}
+
+	/**
+	 * Get the index of a block
+	 * 
+	 * @param block
+	 * @return the index or -1 if it is not a block of the adapted model
+	 */
+	public int getBlockIndex(Block block) {
+		Integer b = blockIndexes.get(block);
+		return b == null ? -1 : b;
+	}
+
+	/**
+	 * Get the index of an adapted artefact
+	 * 
+	 * @param adaptedArtefact
+	 * @return the index or -1 if it is not in the adapted model
+	 */
+	public int getAdaptedArtefactIndex(AdaptedArtefact adaptedArtefact) {
+		Integer a = adaptedArtefactIndexes.get(adaptedArtefact);
+		return a == null ? -1 : a;
+	}
+
+	public boolean isPresent(int block, int adaptedArtefact) {
+		return artefactsOfBlocks[block].get(adaptedArtefact);
+	}
+
+	/**
+	 * Get the adapted artefacts where a block is present
+	 * 
+	 * @param block
+	 *            index
+	 * @return a copy of the bitset of adapted artefact indexes
+	 */
+	public BitSet getAdaptedArtefactsOfBlock(int block) {
+		return (BitSet) artefactsOfBlocks[block].clone();
+	}
+
+	/**
+	 * Get the blocks present in an adapted artefact
+	 * 
+	 * @param adaptedArtefact
+	 *            index
+	 * @return a copy of the bitset of block indexes
+	 */
+	public BitSet getBlocksOfAdaptedArtefact(int adaptedArtefact) {
+		return (BitSet) blocksOfArtefacts[adaptedArtefact].clone();
+	}
+
+	/**
+	 * Get the blocks present in an adapted artefact
+	 * 
+	 * @param adaptedArtefact
+	 * @return the list of blocks in the order of the adapted model
+	 */
+	public List<Block> getBlocksOfAdaptedArtefact(AdaptedArtefact adaptedArtefact) {
+		int a = getAdaptedArtefactIndex(adaptedArtefact);
+		if (a == -1) {
+			return new ArrayList<Block>();
+		}
+		return getBlocks(blocksOfArtefacts[a]);
+	}
+
+	/**
+	 * Get the blocks present in an artefact
+	 * 
+	 * @param artefact
+	 * @return a bitset of block indexes, empty if the artefact is not adapted
+	 */
+	public BitSet getBlocksOfArtefact(Artefact artefact) {
+		BitSet present = new BitSet(blocks.size());
+		for (int a = 0; a < adaptedArtefacts.size(); a++) {
+			if (adaptedArtefacts.get(a).getArtefact() == artefact) {
+				present.or(blocksOfArtefacts[a]);
+			}
+		}
+		return present;
+	}
+
+	/**
+	 * Get the blocks present in all the adapted artefacts
+	 * 
+	 * @return a bitset of block indexes
+	 */
+	public BitSet getCommonBlocks() {
+		BitSet common = new BitSet(blocks.size());
+		common.set(0, blocks.size());
+		for (BitSet present : blocksOfArtefacts) {
+			common.and(present);
+		}
+		return common;
+	}
+
+	/**
+	 * Get the blocks of a bitset of block indexes
+	 * 
+	 * @param indexes
+	 * @return the list of blocks in the order of the adapted model
+	 */
+	public List<Block> getBlocks(BitSet indexes) {
+		List<Block> result = new ArrayList<Block>(indexes.cardinality());
+		for (int b = indexes.nextSetBit(0); b >= 0; b = indexes.nextSetBit(b + 1)) {
+			result.add(blocks.get(b));
+		}
+		return result;
+	}
+
+	/**
+	 * Percentage of the artefacts implementing a feature where a block is
+	 * present
+	 * 
+	 * @param block
+	 *            index
+	 * @param feature
+	 * @return the percentage between 0 and 1
+	 */
+	public double getPercentageOfBlockInFeature(int block, Feature feature) {
+		return getPercentageOfBlockInFeature(block, getAdaptedArtefactsOfFeature(feature),
+				feature.getImplementedInArtefacts().size());
+	}
+
+	/**
+	 * Presence of the blocks in the features
+	 * 
+	 * @param featureList
+	 * @return the matrix of percentages with a row per feature and a column
+	 *         per block
+	 */
+	public double[][] getPresenceInFeatures(FeatureList featureList) {
+		List<Feature> features = featureList.getOwnedFeatures();
+		double[][] presence = new double[features.size()][blocks.size()];
+		for (int f = 0; f < features.size(); f++) {
+			Feature feature = features.get(f);
+			BitSet featureArtefacts = getAdaptedArtefactsOfFeature(feature);
+			int nbArtefacts = feature.getImplementedInArtefacts().size();
+			for (int b = 0; b < blocks.size(); b++) {
+				presence[f][b] = getPercentageOfBlockInFeature(b, featureArtefacts, nbArtefacts);
+			}
+		}
+		return presence;
+	}
+
+	private double getPercentageOfBlockInFeature(int block, BitSet featureArtefacts, int nbArtefacts) {
+		BitSet found = (BitSet) artefactsOfBlocks[block].clone();
+		found.and(featureArtefacts);
+		int nbFound;
+		if (!repeatedArtefacts) {
+			nbFound = found.cardinality();
+		} else {
+			Map<Artefact, Boolean> foundArtefacts = new IdentityHashMap<Artefact, Boolean>();
+			for (int a = found.nextSetBit(0); a >= 0; a = found.nextSetBit(a + 1)) {
+				foundArtefacts.put(adaptedArtefacts.get(a).getArtefact(), Boolean.TRUE);
+			}
+			nbFound = foundArtefacts.size();
+		}
+		return (double) nbFound / nbArtefacts;
+	}
+
+	private BitSet getAdaptedArtefactsOfFeature(Feature feature) {
+		Map<Artefact, Boolean> artefacts = new IdentityHashMap<Artefact, Boolean>();
+		for (Artefact artefact : feature.getImplementedInArtefacts()) {
+			artefacts.put(artefact, Boolean.TRUE);
+		}
+		BitSet featureArtefacts = new BitSet(adaptedArtefacts.size());
+		for (int a = 0; a < adaptedArtefacts.size(); a++) {
+			if (artefacts.containsKey(adaptedArtefacts.get(a).getArtefact())) {
+				featureArtefacts.set(a);
+			}
+		}
+		return featureArtefacts;
+	}
+}
@@ -1,13 +1,13 @@
 package org.but4reuse.adaptedmodel.manager;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.but4reuse.adaptedmodel.AdaptedModel;
 import org.but4reuse.adapters.IAdapter;
 import org.but4reuse.featurelist.FeatureList;
+import org.but4reuse.utils.metrics.MetricsRegistry;
 import org.eclipse.core.resources.IContainer;
 
 /**
@@ -21,7 +21,6 @@ public class AdaptedModelManager {
 	private static AdaptedModel adaptedModel = null;
 	private static FeatureList featureList = null;
 	private static List<IAdapter> adapters = new ArrayList<IAdapter>();
-	private static Map<String, Long> elapsedTimeRegistry = new LinkedHashMap<String, Long>();
 	private static IContainer defaultOutput = null;
 
 	public static AdaptedModel getAdaptedModel() {
@@ -43,17 +42,24 @@ public class AdaptedModelManager {
 	}
 
 	/**
-	 * Register elapsed time. Use milliseconds.
+	 * Register elapsed time. Use milliseconds. If the text was already
+	 * registered its time is replaced. The times are kept in the metrics
+	 * registry, use MetricsRegistry.stop to accumulate nanoseconds.
 	 * 
 	 * @param text
 	 * @param timestamp
 	 */
 	public static void registerTime(String text, long timestamp) {
-		elapsedTimeRegistry.put(text, timestamp);
+		MetricsRegistry.getDefault().setTime(text, timestamp * 1000000);
 	}
 
+	/**
+	 * Get the registered times
+	 * 
+	 * @return a copy with the milliseconds of each stage
+	 */
 	public static Map<String, Long> getElapsedTimeRegistry() {
-		return elapsedTimeRegistry;
+		return MetricsRegistry.getDefault().getElapsedMillis();
 	}
 
 	public static FeatureList getFeatureList() {
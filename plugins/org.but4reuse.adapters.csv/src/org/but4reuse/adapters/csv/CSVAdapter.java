@@ -7,21 +7,32 @@ import java.io.FileInputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import org.but4reuse.adapters.IAdapter;
+import org.but4reuse.adapters.ICacheableAdapter;
 import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.csv.activator.Activator;
+import org.but4reuse.adapters.csv.preferences.CSVAdapterPreferencePage;
+import org.but4reuse.adapters.helper.AdaptationCache;
 import org.but4reuse.utils.files.CSVUtils;
 import org.but4reuse.utils.files.FileUtils;
+import org.but4reuse.utils.files.MappedTextFile;
+import org.but4reuse.utils.files.MappedTextFile.LineVisitor;
+import org.but4reuse.utils.files.TextSpan;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.swt.graphics.Point;
 
 /**
- * CSV Adapter
+ * CSV Adapter. For big files the memory mapped mode can be selected in the
+ * preferences. In this mode the file is memory mapped and each cell element
+ * only keeps the offset, the length and the hash of its value, so the heap
+ * used does not depend on the size of the values.
  * 
  * @author jabier.martinez
  */
-public class CSVAdapter implements IAdapter {
+public class CSVAdapter implements ICacheableAdapter {
 
 	@Override
 	/**
@@ -35,11 +46,20 @@ public class CSVAdapter implements IAdapter {
 		return false;
 	}
 
+	@Override
+	public String getCacheKey() {
+		return AdaptationCache.getPreferencesKey(Activator.getDefault().getPreferenceStore(),
+				CSVAdapterPreferencePage.MEMORY_MAPPED);
+	}
+
 	@Override
 	/**
 	 * Read the file and loop through the comma separated values
 	 */
 	public List<IElement> adapt(URI uri, IProgressMonitor monitor) {
+		if (Activator.getDefault().getPreferenceStore().getBoolean(CSVAdapterPreferencePage.MEMORY_MAPPED)) {
+			return adaptMapped(uri, monitor);
+		}
 		List<IElement> elements = new ArrayList<IElement>();
 		File file = FileUtils.getFile(uri);
 		try {
@@ -73,6 +93,57 @@ public class CSVAdapter implements IAdapter {
 		return elements;
 	}
 
+	/**
+	 * Map the file and loop through the comma separated values. Cells with the
+	 * same value share the same span.
+	 * 
+	 * @param uri
+	 * @param monitor
+	 * @return the elements
+	 */
+	private List<IElement> adaptMapped(final URI uri, final IProgressMonitor monitor) {
+		final List<IElement> elements = new ArrayList<IElement>();
+		File file = FileUtils.getFile(uri);
+		MappedTextFile mappedFile = null;
+		try {
+			mappedFile = new MappedTextFile(file);
+			final MappedTextFile text = mappedFile;
+			final Map<TextSpan, TextSpan> distinctSpans = new HashMap<TextSpan, TextSpan>();
+			text.scanLines(new LineVisitor() {
+				@Override
+				public boolean visit(int row, TextSpan line) {
+					int column = 0;
+					for (TextSpan cell : text.split(line, ';')) {
+						TextSpan span = distinctSpans.get(cell);
+						if (span == null) {
+							distinctSpans.put(cell, cell);
+							span = cell;
+						}
+						// Create cell element
+						MappedCellElement cellElement = new MappedCellElement(span, row, column);
+						// Add dependency to its position
+						cellElement.addDependency(new PositionDependencyObject(new Point(row, column)));
+						// Add marker
+						cellElement.setMarkerInfo(uri, row);
+						elements.add(cellElement);
+
+						column++;
+					}
+					// user cancel
+					return !monitor.isCanceled();
+				}
+			});
+		} catch (Exception e) {
+			e.printStackTrace();
+		} finally {
+			// release the mapping, the spans will read the file if needed
+			if (mappedFile != null) {
+				mappedFile.close();
+			}
+		}
+		return elements;
+	}
+
 	@Override
 	/**
 	 * Create a csv file with the given cells
@@ -29,24 +29,42 @@ public class CellElement extends AbstractElement implements IMarkerElement {
 		this.column = column;
 	}
 
+	/**
+	 * For subclasses that override getValue
+	 * 
+	 * @param row
+	 * @param column
+	 */
+	protected CellElement(int row, int column) {
+		this.row = row;
+		this.column = column;
+	}
+
 	@Override
 	/**
-	 * Identical when same position and value
+	 * Identical when same position and value. The cells of memory mapped files
+	 * are only compared between them.
 	 */
 	public double similarity(IElement anotherElement) {
-		if (anotherElement instanceof CellElement) {
+		if (anotherElement instanceof CellElement && !(anotherElement instanceof MappedCellElement)) {
 			CellElement cellElement = (CellElement) anotherElement;
 			if (cellElement.getRow() == row && cellElement.getColumn() == column
-					&& cellElement.getValue().equals(value)) {
+					&& cellElement.getValue().equals(getValue())) {
 				return 1;
 			}
 		}
 		return 0;
 	}
 
+	@Override
+	public Object getBlockingKey() {
+		// same position and value
+		return row + "," + column + "," + getValue();
+	}
+
 	@Override
 	public String getText() {
-		return "(" + row + "," + column + ") " + value;
+		return "(" + row + "," + column + ") " + getValue();
 	}
 
 	public String getValue() {
@@ -89,7 +107,7 @@ public class CellElement extends AbstractElement implements IMarkerElement {
 	@Override
 	public ArrayList<String> getWords() {
 		ArrayList<String> words = new ArrayList<String>();
-		words.add(value);
+		words.add(getValue());
 		return words;
 	}
 }
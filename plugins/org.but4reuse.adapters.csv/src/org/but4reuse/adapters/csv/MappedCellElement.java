@@ -0,0 +1,51 @@
+package org.but4reuse.adapters.csv;
+
+import java.util.Arrays;
+
+import org.but4reuse.adapters.IElement;
+import org.but4reuse.utils.files.TextSpan;
+
+/**
+ * Cell Element of a memory mapped file. It keeps the span of the value
+ * instead of its text, the value is decoded only when needed. Cells with the
+ * same value share the same span. They are only compared with other mapped
+ * cell elements, as the cell elements do with them, so the blocking key can
+ * use the span instead of the value.
+ * 
+ * @author jabier.martinez
+ */
+public class MappedCellElement extends CellElement {
+
+	private TextSpan span;
+
+	public MappedCellElement(TextSpan span, int row, int column) {
+		super(row, column);
+		this.span = span;
+	}
+
+	@Override
+	/**
+	 * Identical when same position and value
+	 */
+	public double similarity(IElement anotherElement) {
+		if (anotherElement instanceof MappedCellElement) {
+			MappedCellElement cellElement = (MappedCellElement) anotherElement;
+			if (cellElement.getRow() == getRow() && cellElement.getColumn() == getColumn()
+					&& cellElement.span.equals(span)) {
+				return 1;
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public Object getBlockingKey() {
+		// same position and value, without decoding the value
+		return Arrays.<Object> asList(getRow(), getColumn(), span);
+	}
+
+	@Override
+	public String getValue() {
+		return span.getText();
+	}
+}
@@ -0,0 +1,36 @@
+package org.but4reuse.adapters.csv.preferences;
+
+import org.but4reuse.adapters.csv.activator.Activator;
+import org.eclipse.jface.preference.BooleanFieldEditor;
+import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPreferencePage;
+
+/**
+ * Preference page for csv adapter
+ * 
+ * @author jabier.martinez
+ */
+public class CSVAdapterPreferencePage extends FieldEditorPreferencePage implements IWorkbenchPreferencePage {
+
+	public static final String MEMORY_MAPPED = "MEMORY_MAPPED";
+
+	public CSVAdapterPreferencePage() {
+		super(GRID);
+		this.setPreferenceStore(Activator.getDefault().getPreferenceStore());
+	}
+
+	/**
+	 * Creates the field editors.
+	 */
+	public void createFieldEditors() {
+		BooleanFieldEditor bfe = new BooleanFieldEditor(MEMORY_MAPPED,
+				"Memory mapped files: for big files, the values are not loaded in memory", getFieldEditorParent());
+		addField(bfe);
+	}
+
+	@Override
+	public void init(IWorkbench workbench) {
+	}
+
+}
@@ -0,0 +1,20 @@
+package org.but4reuse.adapters.csv.preferences;
+
+import org.but4reuse.adapters.csv.activator.Activator;
+import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
+import org.eclipse.jface.preference.IPreferenceStore;
+
+/**
+ * Initialize preferences
+ * 
+ * @author jabier.martinez
+ * 
+ */
+public class PreferenceInitializer extends AbstractPreferenceInitializer {
+
+	public void initializeDefaultPreferences() {
+		IPreferenceStore store = Activator.getDefault().getPreferenceStore();
+		store.setDefault(CSVAdapterPreferencePage.MEMORY_MAPPED, false);
+	}
+
+}
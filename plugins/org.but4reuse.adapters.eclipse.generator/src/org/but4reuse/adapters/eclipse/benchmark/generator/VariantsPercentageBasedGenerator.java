@@ -5,6 +5,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Future;
 
 import org.but4reuse.adapters.IElement;
 import org.but4reuse.adapters.eclipse.EclipseAdapter;
@@ -13,9 +14,9 @@ import org.but4reuse.adapters.eclipse.PluginElement;
 import org.but4reuse.adapters.eclipse.benchmark.ActualFeature;
 import org.but4reuse.adapters.eclipse.benchmark.FeatureHelper;
 import org.but4reuse.adapters.eclipse.benchmark.generator.utils.DependencyAnalyzer;
-import org.but4reuse.adapters.eclipse.benchmark.generator.utils.EclipseKeepOnlyMetadata;
+import org.but4reuse.adapters.eclipse.benchmark.generator.utils.VariantsMaterialiser;
+import org.but4reuse.adapters.eclipse.benchmark.generator.utils.VariantsMaterialiser.VariantResult;
 import org.but4reuse.adapters.eclipse.benchmark.generator.utils.VariantsUtils;
-import org.but4reuse.utils.files.FileUtils;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 
@@ -153,137 +154,126 @@ public class VariantsPercentageBasedGenerator implements IVariantsGenerator {
 		message.append("Preparation time (milliseconds): " + elapsedTimePreparation + "\n\n");
 
 		message.append(
-				"\"Variant\";\"Name\";\"Randomly selected features\";\"Features after dependency resolution\";\"Plugins\";\"Milliseconds\"\n");
+				"\"Variant\";\"Name\";\"Randomly selected features\";\"Features after dependency resolution\";\"Plugins\";\"Milliseconds\";\"BytesWritten\"\n");
 
 		// preparation is finished
 		monitor.worked(1);
 
-		// Loop for each variant
-		for (int i = 1; i <= nbVariants; i++) {
-			monitor.subTask("Generating variant " + i + " out of " + nbVariants);
-
-			// User pressed the cancel button
-			if (monitor.isCanceled()) {
-				break;
-			}
+		// The variants are selected here (sequentially so the random seed gives
+		// the same variants) and created in parallel
+		VariantsMaterialiser materialiser = null;
+		if (!noOutputOnlyStatistics) {
+			materialiser = new VariantsMaterialiser(eclipse, new File(output), allFileElements, keepOnlyMetadata, 0);
+		}
+		List<String> variantLines = new ArrayList<String>();
+		List<Long> selectionTimes = new ArrayList<Long>();
+		List<Future<VariantResult>> futures = new ArrayList<Future<VariantResult>>();
+		try {
+			// Loop for each variant
+			for (int i = 1; i <= nbVariants; i++) {
+				// User pressed the cancel button
+				if (monitor.isCanceled()) {
+					break;
+				}
 
-			long startTimeThisVariant = System.currentTimeMillis();
-			String output_variant = output + File.separator + VariantsUtils.VARIANT + "_" + i;
-			int nbSelectedFeatures = 0;
+				long startTimeThisVariant = System.currentTimeMillis();
+				String output_variant = output + File.separator + VariantsUtils.VARIANT + "_" + i;
+				int nbSelectedFeatures = 0;
 
-			List<PluginElement> pluginsList = null;
-			List<ActualFeature> chosenFeatures = null;
+				List<PluginElement> pluginsList = null;
+				List<ActualFeature> chosenFeatures = null;
 
-			if (percentage == 100) {
-				nbSelectedFeatures = allFeatures.size();
-				pluginsList = allPlugins;
-				chosenFeatures = allFeatures;
-			} else {
-				pluginsList = new ArrayList<PluginElement>();
-				chosenFeatures = new ArrayList<ActualFeature>();
-			}
+				if (percentage == 100) {
+					nbSelectedFeatures = allFeatures.size();
+					pluginsList = allPlugins;
+					chosenFeatures = allFeatures;
+				} else {
+					pluginsList = new ArrayList<PluginElement>();
+					chosenFeatures = new ArrayList<ActualFeature>();
+				}
 
-			if (percentage < 100 && percentage > 0) {
-				for (int cptFeature = 0; cptFeature < allFeatures.size(); cptFeature++) {
-					ActualFeature oneFeature = allFeatures.get(cptFeature);
-					boolean wasChosen = wasChosen(oneFeature);
-					if (wasChosen) {
-						nbSelectedFeatures++;
-					}
-					if (chosenFeatures.contains(oneFeature) || !wasChosen) {
-						// Check if not exists and apply the random choice
-						continue;
-					}
-					chosenFeatures.add(oneFeature);
-
-					List<ActualFeature> allFeatureDependencies = depAnalyzer.getFeatureDependencies(oneFeature);
-					if (allFeatureDependencies != null) {
-						for (ActualFeature depFeat : allFeatureDependencies) {
-							if (!chosenFeatures.contains(depFeat)) {
-								// Avoid duplicates dependencies in the
-								// chosenFeatures list
-								chosenFeatures.add(depFeat);
+				if (percentage < 100 && percentage > 0) {
+					for (int cptFeature = 0; cptFeature < allFeatures.size(); cptFeature++) {
+						ActualFeature oneFeature = allFeatures.get(cptFeature);
+						boolean wasChosen = wasChosen(oneFeature);
+						if (wasChosen) {
+							nbSelectedFeatures++;
+						}
+						if (chosenFeatures.contains(oneFeature) || !wasChosen) {
+							// Check if not exists and apply the random choice
+							continue;
+						}
+						chosenFeatures.add(oneFeature);
+
+						List<ActualFeature> allFeatureDependencies = depAnalyzer.getFeatureDependencies(oneFeature);
+						if (allFeatureDependencies != null) {
+							for (ActualFeature depFeat : allFeatureDependencies) {
+								if (!chosenFeatures.contains(depFeat)) {
+									// Avoid duplicates dependencies in the
+									// chosenFeatures list
+									chosenFeatures.add(depFeat);
+								}
 							}
 						}
-					}
 
-				} // end of iterate through allFeatures
+					} // end of iterate through allFeatures
 
-				for (ActualFeature one_manda : depAnalyzer.getMandatoryFeaturesForThisInput()) {
-					if (!chosenFeatures.contains(one_manda)) {
-						chosenFeatures.add(one_manda);
+					for (ActualFeature one_manda : depAnalyzer.getMandatoryFeaturesForThisInput()) {
+						if (!chosenFeatures.contains(one_manda)) {
+							chosenFeatures.add(one_manda);
+						}
 					}
-				}
 
-				// Get all plugins from chosen features
-				for (ActualFeature chosenFeature : chosenFeatures) {
-					List<PluginElement> allPluginDependencies = depAnalyzer.getPluginDependencies(chosenFeature);
-					if (allPluginDependencies != null) {
-						for (PluginElement depPlugin : allPluginDependencies) {
-							// Avoid duplicated dependencies in the plugins list
-							if (!pluginsList.contains(depPlugin)) {
-								pluginsList.add(depPlugin);
+					// Get all plugins from chosen features
+					for (ActualFeature chosenFeature : chosenFeatures) {
+						List<PluginElement> allPluginDependencies = depAnalyzer.getPluginDependencies(chosenFeature);
+						if (allPluginDependencies != null) {
+							for (PluginElement depPlugin : allPluginDependencies) {
+								// Avoid duplicated dependencies in the plugins list
+								if (!pluginsList.contains(depPlugin)) {
+									pluginsList.add(depPlugin);
+								}
 							}
 						}
 					}
+					pluginsList.addAll(depAnalyzer.getPluginsWithoutAnyFeatureDependencies());
 				}
-				pluginsList.addAll(depAnalyzer.getPluginsWithoutAnyFeatureDependencies());
-			}
 
-			if (!noOutputOnlyStatistics) {
-
-				// Create all dirs and copy features and plugins
-				File output_variantFile = new File(output_variant);
-				output_variantFile.mkdirs();
-
-				for (File file_eclipse : eclipse.listFiles()) {
-					// Copy eclipse files & dirs (except features & plugins)
-					if (!file_eclipse.getName().equals(VariantsUtils.FEATURES)
-							&& !file_eclipse.getName().equals(VariantsUtils.PLUGINS)) {
-						FileUtils.copyFileOrDirectoryToDirectory(file_eclipse, output_variantFile);
+				if (materialiser != null) {
+					List<File> featureFolders = new ArrayList<File>();
+					for (ActualFeature chosenFeature : chosenFeatures) {
+						featureFolders.add(new File(depAnalyzer.getPathFromFeature(chosenFeature)));
 					}
+					futures.add(materialiser.materialise(new File(output_variant), featureFolders, pluginsList));
 				}
-
-				// features copy
-				File featuresFolder = new File(output_variantFile, VariantsUtils.FEATURES);
-				File[] allFilesFeatures = new File[chosenFeatures.size()];
-				for (int j = 0; j < chosenFeatures.size(); j++) {
-					allFilesFeatures[j] = new File(depAnalyzer.getPathFromFeature(chosenFeatures.get(j)));
-					FileUtils.copyFileOrDirectoryToDirectory(allFilesFeatures[j], featuresFolder);
-				}
-
-				// plugins copy
-				File pluginsFolder = new File(output_variantFile, VariantsUtils.PLUGINS);
-				File[] allFilesPlugins = new File[pluginsList.size()];
-				for (int j = 0; j < pluginsList.size(); j++) {
-					allFilesPlugins[j] = new File(pluginsList.get(j).getAbsolutePath());
-					FileUtils.copyFileOrDirectoryToDirectory(allFilesPlugins[j], pluginsFolder);
-				}
-
-				if (!keepOnlyMetadata) {
-					// This call adapter construct mainly to fix the bundle.info
-					// configuration file to have a functional eclipse
-					List<IElement> allElements = new ArrayList<IElement>();
-					allElements.addAll(allFileElements);
-					allElements.addAll(pluginsList);
-
-					URI outputUri = output_variantFile.toURI();
-					adapter.construct(outputUri, allElements, new NullProgressMonitor());
-				}
-
-				if (keepOnlyMetadata) {
-					// We keep only manifests, properties and xmls
-					EclipseKeepOnlyMetadata.cleanAndKeepOnlyMetadata(output_variantFile);
+				variantLines.add(i + ";Variant_" + i + ";" + nbSelectedFeatures + ";" + chosenFeatures.size() + ";"
+						+ pluginsList.size());
+				selectionTimes.add(System.currentTimeMillis() - startTimeThisVariant);
+			} // end of variants loop
+
+			// Wait for the variants in order
+			for (int i = 1; i <= variantLines.size(); i++) {
+				monitor.subTask("Generating variant " + i + " out of " + nbVariants);
+				long elapsedTimeThisVariant = selectionTimes.get(i - 1);
+				long bytesThisVariant = 0;
+				if (materialiser != null) {
+					VariantResult result = materialiser.getResult(futures.get(i - 1), monitor);
+					if (result == null) {
+						// User pressed the cancel button
+						break;
+					}
+					elapsedTimeThisVariant += result.getMillis();
+					bytesThisVariant = result.getBytesWritten();
 				}
+				message.append(variantLines.get(i - 1) + ";" + elapsedTimeThisVariant + ";" + bytesThisVariant + "\n");
+				monitor.worked(1);
 			}
-
-			long stopTimeThisVariant = System.currentTimeMillis();
-			long elapsedTimeThisVariant = stopTimeThisVariant - startTimeThisVariant;
-			message.append(i + ";Variant_" + i + ";" + nbSelectedFeatures + ";" + chosenFeatures.size() + ";"
-					+ pluginsList.size() + ";" + elapsedTimeThisVariant + "\n");
-
-			monitor.worked(1);
-		} // end of variants loop
+		} finally {
+			if (materialiser != null) {
+				materialiser.shutdown();
+				message.append("\nBytes written: " + materialiser.getBytesWritten() + "\n");
+			}
+		}
 
 		long stopTime = System.currentTimeMillis();
 		long elapsedTime = stopTime - startTime;
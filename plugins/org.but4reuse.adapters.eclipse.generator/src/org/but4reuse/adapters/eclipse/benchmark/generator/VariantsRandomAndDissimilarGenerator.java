@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import org.but4reuse.adapters.IElement;
 import org.but4reuse.adapters.eclipse.EclipseAdapter;
@@ -12,11 +13,13 @@ import org.but4reuse.adapters.eclipse.FileElement;
 import org.but4reuse.adapters.eclipse.PluginElement;
 import org.but4reuse.adapters.eclipse.benchmark.ActualFeature;
 import org.but4reuse.adapters.eclipse.benchmark.FeatureHelper;
+import org.but4reuse.adapters.eclipse.benchmark.generator.utils.AppendedLinesReader;
 import org.but4reuse.adapters.eclipse.benchmark.generator.utils.DependencyAnalyzer;
-import org.but4reuse.adapters.eclipse.benchmark.generator.utils.EclipseKeepOnlyMetadata;
+import org.but4reuse.adapters.eclipse.benchmark.generator.utils.ProcessExecution;
 import org.but4reuse.adapters.eclipse.benchmark.generator.utils.SplotUtils;
+import org.but4reuse.adapters.eclipse.benchmark.generator.utils.VariantsMaterialiser;
+import org.but4reuse.adapters.eclipse.benchmark.generator.utils.VariantsMaterialiser.VariantResult;
 import org.but4reuse.adapters.eclipse.benchmark.generator.utils.VariantsUtils;
-import org.but4reuse.utils.files.FileUtils;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 
@@ -30,6 +33,11 @@ import org.eclipse.core.runtime.NullProgressMonitor;
  */
 public class VariantsRandomAndDissimilarGenerator implements IVariantsGenerator {
 
+	// time to wait for new configurations before checking the monitor again
+	private static final long POLL_MILLIS = 100;
+	// time for the generator to finish after its allowed time
+	private static final long GENERATOR_TIMEOUT_MARGIN_MILLIS = 5 * 60 * 1000;
+
 	private String input;
 	private String output;
 	private String generator;
@@ -128,154 +136,171 @@ public class VariantsRandomAndDissimilarGenerator implements IVariantsGenerator
 		SplotUtils.exportToSPLOT(outputFile, allFeatures);
 
 		File generatedConfigsFile = new File(output + File.separator + "generatedConfigs.txt");
+		// the configurations of a previous generation must not be read
+		generatedConfigsFile.delete();
 
 		ProcessBuilder processBuilder = new ProcessBuilder("java", "-jar", generator, "generate_products", "-fm",
 				outputFile.getAbsolutePath(), "-nbProds", Integer.toString(nbVariants), "-timeAllowedMS",
 				Integer.toString(time * 1000), "-o", generatedConfigsFile.getAbsolutePath());
-
+		ProcessExecution execution = new ProcessExecution(processBuilder,
+				new File(output + File.separator + "generator.log"));
 		try {
-			Process p = processBuilder.start();
-			while (p.isAlive()) {
-				// loop
-			}
+			execution.start();
 		} catch (IOException e) {
+			message.append("Error in generator: Impossible to start " + generator + "\n");
 			e.printStackTrace();
+			return message.toString();
 		}
 
+		// Analyse the dependencies only once before starting, the generator
+		// is running in the meantime
+		monitor.subTask("Preparation: Dependency analysis");
+		DependencyAnalyzer depAnalyzer = new DependencyAnalyzer(allFeatures, allPlugins, inputURI.toString());
+
 		long stopTimePreparation = System.currentTimeMillis();
 		long elapsedTimePreparation = stopTimePreparation - startTime;
 		message.append("Preparation time (milliseconds): " + elapsedTimePreparation + "\n\n");
 
-		message.append("\"Variant\";\"Name\";\"Selectedfeatures\";\"Plugins\";\"Milliseconds\"\n");
+		message.append("\"Variant\";\"Name\";\"Selectedfeatures\";\"Plugins\";\"Milliseconds\";\"BytesWritten\"\n");
 
-		List<String> generatedConfigs = FileUtils.getLinesOfFile(generatedConfigsFile);
-		// remove headers and empty line
-		List<String> linesToRemove = new ArrayList<String>();
-		for (String line : generatedConfigs) {
-			if (line.contains("->") || line.isEmpty()) {
-				linesToRemove.add(line);
-			}
+		// preparation is finished
+		monitor.worked(1);
+
+		// The variants are selected as soon as the generator writes their
+		// configurations and created in parallel
+		VariantsMaterialiser materialiser = null;
+		if (!noOutputOnlyStatistics) {
+			materialiser = new VariantsMaterialiser(eclipse, new File(output), allFileElements, keepOnlyMetadata, 0);
 		}
-		generatedConfigs.removeAll(linesToRemove);
+		List<String> variantLines = new ArrayList<String>();
+		List<Long> selectionTimes = new ArrayList<Long>();
+		List<Future<VariantResult>> futures = new ArrayList<Future<VariantResult>>();
+		AppendedLinesReader configsReader = new AppendedLinesReader(generatedConfigsFile);
+		long deadline = System.currentTimeMillis() + time * 1000 + GENERATOR_TIMEOUT_MARGIN_MILLIS;
+		try {
+			monitor.subTask("Generating configurations");
+			int i = 0;
+			boolean generatorFinished = false;
+			while (i < nbVariants && !generatorFinished && !monitor.isCanceled()) {
+				if (System.currentTimeMillis() > deadline) {
+					message.append("Generator timeout, see generator.log\n");
+					break;
+				}
+				generatorFinished = execution.waitFor(POLL_MILLIS);
+				List<String> configs;
+				if (generatorFinished) {
+					configs = configsReader.readRemainingLines();
+				} else {
+					configs = configsReader.readNewLines();
+				}
 
-		// Analyse the dependencies only once before starting
-		monitor.subTask("Preparation: Dependency analysis");
-		DependencyAnalyzer depAnalyzer = new DependencyAnalyzer(allFeatures, allPlugins, inputURI.toString());
+				// Variants loop
+				for (String c : configs) {
+					// ignore headers and empty lines
+					if (c.contains("->") || c.isEmpty() || i >= nbVariants) {
+						continue;
+					}
+					i++;
+					long startTimeThisVariant = System.currentTimeMillis();
+					String output_variant = output + File.separator + VariantsUtils.VARIANT + "_" + i;
+
+					List<PluginElement> pluginsList = new ArrayList<PluginElement>();
+					List<ActualFeature> chosenFeatures = new ArrayList<ActualFeature>();
+
+					// A config is an array of integers. 2 means that feature 2 is
+					// selected, -4 means that feature 4 is not selected
+					String[] numbers = c.split(";");
+
+					for (String x : numbers) {
+						int j = Integer.parseInt(x);
+						// positive number means that it was selected
+						if (j > 0) {
+							// the file creates a fake root and it starts from 1
+							j = j - 2;
+							// do not consider the fake root (1st feature)
+							if (j != -1) {
+								String id = allFeatures.get(j).getId();
+								for (ActualFeature oneFeat : allFeatures) {
+									if (oneFeat.getId().equals(id)) {
+										chosenFeatures.add(oneFeat);
+										break;
+									}
+								}
+							}
+						}
+					} // end of iterate through allFeatures
 
-		// preparation is finished
-		monitor.worked(1);
+					for (ActualFeature one_manda : depAnalyzer.getMandatoryFeaturesForThisInput()) {
+						if (!chosenFeatures.contains(one_manda)) {
+							chosenFeatures.add(one_manda);
+						}
+					}
 
-		// Variants loop
-		for (int i = 1; i <= nbVariants; i++) {
-			monitor.subTask("Generating variant " + i + " out of " + nbVariants);
-			long startTimeThisVariant = System.currentTimeMillis();
-			String output_variant = output + File.separator + VariantsUtils.VARIANT + "_" + i;
-
-			List<PluginElement> pluginsList = new ArrayList<PluginElement>();
-			List<ActualFeature> chosenFeatures = new ArrayList<ActualFeature>();
-
-			// A config is an array of integers. 2 means that feature 2 is
-			// selected, -4 means that feature 4 is not selected
-			String c = generatedConfigs.get(i - 1);
-			String[] numbers = c.split(";");
-
-			for (String x : numbers) {
-				int j = Integer.parseInt(x);
-				// positive number means that it was selected
-				if (j > 0) {
-					// the file creates a fake root and it starts from 1
-					j = j - 2;
-					// do not consider the fake root (1st feature)
-					if (j != -1) {
-						String id = allFeatures.get(j).getId();
-						for (ActualFeature oneFeat : allFeatures) {
-							if (oneFeat.getId().equals(id)) {
-								chosenFeatures.add(oneFeat);
-								break;
+					// Get all plugins from chosen features
+					for (ActualFeature chosenFeature : chosenFeatures) {
+						List<PluginElement> allPluginDependencies = depAnalyzer.getPluginDependencies(chosenFeature);
+						if (allPluginDependencies != null) {
+							for (PluginElement depPlugin : allPluginDependencies) {
+								// Avoid duplicates dependencies in the plugins list
+								if (!pluginsList.contains(depPlugin)) {
+									pluginsList.add(depPlugin);
+								}
 							}
 						}
 					}
-				}
-			} // end of iterate through allFeatures
 
-			for (ActualFeature one_manda : depAnalyzer.getMandatoryFeaturesForThisInput()) {
-				if (!chosenFeatures.contains(one_manda)) {
-					chosenFeatures.add(one_manda);
-				}
-			}
+					List<PluginElement> pluginsWithoutAnyFeatureDependencies = depAnalyzer
+							.getPluginsWithoutAnyFeatureDependencies();
+					pluginsList.addAll(pluginsWithoutAnyFeatureDependencies);
 
-			// Get all plugins from chosen features
-			for (ActualFeature chosenFeature : chosenFeatures) {
-				List<PluginElement> allPluginDependencies = depAnalyzer.getPluginDependencies(chosenFeature);
-				if (allPluginDependencies != null) {
-					for (PluginElement depPlugin : allPluginDependencies) {
-						// Avoid duplicates dependencies in the plugins list
-						if (!pluginsList.contains(depPlugin)) {
-							pluginsList.add(depPlugin);
+					if (materialiser != null) {
+						List<File> featureFolders = new ArrayList<File>();
+						for (ActualFeature chosenFeature : chosenFeatures) {
+							featureFolders.add(new File(depAnalyzer.getPathFromFeature(chosenFeature)));
 						}
+						futures.add(materialiser.materialise(new File(output_variant), featureFolders, pluginsList));
 					}
-				}
+					variantLines.add(i + ";Variant_" + i + ";" + chosenFeatures.size() + ";" + pluginsList.size());
+					selectionTimes.add(System.currentTimeMillis() - startTimeThisVariant);
+				} // end of variants loop
+			}
+			// stop it if it is still running
+			execution.destroy();
+			if (generatorFinished && execution.getExitValue() != 0) {
+				message.append("Generator exit value " + execution.getExitValue() + ", see generator.log\n");
+			}
+			if (i < nbVariants && !monitor.isCanceled()) {
+				message.append("Only " + i + " configurations were generated\n");
 			}
 
-			List<PluginElement> pluginsWithoutAnyFeatureDependencies = depAnalyzer
-					.getPluginsWithoutAnyFeatureDependencies();
-			pluginsList.addAll(pluginsWithoutAnyFeatureDependencies);
-
-			if (!noOutputOnlyStatistics) {
-
-				// Create all dirs and copy features and plugins
-				File output_variantFile = new File(output_variant);
-				output_variantFile.mkdirs();
-
-				for (File file_eclipse : eclipse.listFiles()) {
-					// Copy eclipse files & dirs (except features & plugins)
-					if (!file_eclipse.getName().equals(VariantsUtils.FEATURES)
-							&& !file_eclipse.getName().equals(VariantsUtils.PLUGINS)) {
-						FileUtils.copyFileOrDirectoryToDirectory(file_eclipse, output_variantFile);
+			// Wait for the variants in order
+			for (int v = 1; v <= variantLines.size(); v++) {
+				monitor.subTask("Generating variant " + v + " out of " + nbVariants);
+				long elapsedTimeThisVariant = selectionTimes.get(v - 1);
+				long bytesThisVariant = 0;
+				if (materialiser != null) {
+					VariantResult result = materialiser.getResult(futures.get(v - 1), monitor);
+					if (result == null) {
+						// User pressed the cancel button
+						break;
 					}
+					elapsedTimeThisVariant += result.getMillis();
+					bytesThisVariant = result.getBytesWritten();
 				}
-
-				// features copy
-				File featuresFolder = new File(output_variantFile, VariantsUtils.FEATURES);
-				File[] allFilesFeatures = new File[chosenFeatures.size()];
-				for (int j = 0; j < chosenFeatures.size(); j++) {
-					allFilesFeatures[j] = new File(depAnalyzer.getPathFromFeature(chosenFeatures.get(j)));
-					FileUtils.copyFileOrDirectoryToDirectory(allFilesFeatures[j], featuresFolder);
-				}
-
-				// plugins copy
-				File pluginsFolder = new File(output_variantFile, VariantsUtils.PLUGINS);
-				File[] allFilesPlugins = new File[pluginsList.size()];
-				for (int j = 0; j < pluginsList.size(); j++) {
-					allFilesPlugins[j] = new File(pluginsList.get(j).getAbsolutePath());
-					FileUtils.copyFileOrDirectoryToDirectory(allFilesPlugins[j], pluginsFolder);
-				}
-
-				if (!keepOnlyMetadata) {
-					// This call adapter construct mainly to fix the bundle.info
-					// configuration file to have a functional eclipse
-					List<IElement> allElements = new ArrayList<IElement>();
-					allElements.addAll(allFileElements);
-					allElements.addAll(pluginsList);
-
-					URI outputUri = output_variantFile.toURI();
-					adapter.construct(outputUri, allElements, new NullProgressMonitor());
-				}
-
-				if (keepOnlyMetadata) {
-					// We keep only manifests, properties and xmls
-					EclipseKeepOnlyMetadata.cleanAndKeepOnlyMetadata(output_variantFile);
-				}
+				message.append(variantLines.get(v - 1) + ";" + elapsedTimeThisVariant + ";" + bytesThisVariant + "\n");
+				monitor.worked(1);
 			}
-
-			long stopTimeThisVariant = System.currentTimeMillis();
-			long elapsedTimeThisVariant = stopTimeThisVariant - startTimeThisVariant;
-
-			message.append(i + ";Variant_" + i + ";" + chosenFeatures.size() + ";" + pluginsList.size() + ";"
-					+ elapsedTimeThisVariant + "\n");
-
-			monitor.worked(1);
-		} // end of variants loop
+		} catch (IOException e) {
+			e.printStackTrace();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			execution.destroy();
+			if (materialiser != null) {
+				materialiser.shutdown();
+				message.append("\nBytes written: " + materialiser.getBytesWritten() + "\n");
+			}
+		}
 
 		long stopTime = System.currentTimeMillis();
 		long elapsedTime = stopTime - startTime;
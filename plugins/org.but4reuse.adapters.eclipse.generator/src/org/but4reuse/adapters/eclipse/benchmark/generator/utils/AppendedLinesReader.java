@@ -0,0 +1,82 @@
+package org.but4reuse.adapters.eclipse.benchmark.generator.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the lines of a file while another process is still writing it. Each
+ * call returns the complete lines appended since the previous call.
+ * 
+ * @author jabier.martinez
+ */
+public class AppendedLinesReader {
+
+	private File file;
+	private long position = 0;
+	// the bytes of the last line while it is not complete
+	private ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+
+	public AppendedLinesReader(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Read the new complete lines
+	 * 
+	 * @return the new lines, empty if the file does not exist yet
+	 * @throws IOException
+	 */
+	public List<String> readNewLines() throws IOException {
+		List<String> lines = new ArrayList<String>();
+		if (!file.exists()) {
+			return lines;
+		}
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			long length = raf.length();
+			if (length <= position) {
+				return lines;
+			}
+			byte[] bytes = new byte[(int) Math.min(length - position, Integer.MAX_VALUE)];
+			raf.seek(position);
+			raf.readFully(bytes);
+			position += bytes.length;
+			for (byte b : bytes) {
+				if (b == '\n') {
+					lines.add(getPartialLine());
+				} else if (b != '\r') {
+					partialLine.write(b);
+				}
+			}
+		} finally {
+			raf.close();
+		}
+		return lines;
+	}
+
+	/**
+	 * Read the new lines once the file is complete, including the last line
+	 * even if it does not end with a line break
+	 * 
+	 * @return the new lines
+	 * @throws IOException
+	 */
+	public List<String> readRemainingLines() throws IOException {
+		List<String> lines = readNewLines();
+		if (partialLine.size() > 0) {
+			lines.add(getPartialLine());
+		}
+		return lines;
+	}
+
+	private String getPartialLine() throws IOException {
+		String line = partialLine.toString("UTF-8");
+		partialLine.reset();
+		return line;
+	}
+
+}
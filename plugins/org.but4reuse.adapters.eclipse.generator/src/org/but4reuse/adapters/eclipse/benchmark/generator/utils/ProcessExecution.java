@@ -0,0 +1,127 @@
+package org.but4reuse.adapters.eclipse.benchmark.generator.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Execution of an external process. The output and the error streams of the
+ * process are appended to a log file so the process never blocks on a full
+ * pipe. The end of the process is waited in a separate thread so the caller
+ * can wait with a timeout and check the progress monitor without consuming
+ * the processor.
+ * 
+ * @author jabier.martinez
+ */
+public class ProcessExecution {
+
+	// time to wait for the process before checking the monitor again
+	private static final long POLL_MILLIS = 100;
+
+	private ProcessBuilder processBuilder;
+	private Process process;
+	private CountDownLatch finished = new CountDownLatch(1);
+	private volatile int exitValue = -1;
+
+	/**
+	 * Process execution
+	 * 
+	 * @param processBuilder
+	 * @param log
+	 *            the file where the output and errors are appended
+	 */
+	public ProcessExecution(ProcessBuilder processBuilder, File log) {
+		this.processBuilder = processBuilder;
+		processBuilder.redirectErrorStream(true);
+		processBuilder.redirectOutput(Redirect.appendTo(log));
+	}
+
+	/**
+	 * Start the process
+	 * 
+	 * @throws IOException
+	 */
+	public void start() throws IOException {
+		process = processBuilder.start();
+		// the output is redirected, nothing will be written in its input
+		process.getOutputStream().close();
+		Thread waiter = new Thread("Waiting for " + processBuilder.command().get(0)) {
+			@Override
+			public void run() {
+				try {
+					exitValue = process.waitFor();
+				} catch (InterruptedException e) {
+					// not expected, the thread is never interrupted
+				}
+				finished.countDown();
+			}
+		};
+		waiter.setDaemon(true);
+		waiter.start();
+	}
+
+	/**
+	 * Wait for the end of the process
+	 * 
+	 * @param millis
+	 *            maximum time to wait
+	 * @return true if the process is finished
+	 * @throws InterruptedException
+	 */
+	public boolean waitFor(long millis) throws InterruptedException {
+		return finished.await(millis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Wait for the end of the process. It is destroyed if the user cancels or
+	 * if the timeout is reached.
+	 * 
+	 * @param timeoutMillis
+	 *            0 for no timeout
+	 * @param monitor
+	 * @return true if the process finished by itself
+	 */
+	public boolean waitFor(long timeoutMillis, IProgressMonitor monitor) {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		try {
+			while (!waitFor(POLL_MILLIS)) {
+				if (monitor.isCanceled() || (timeoutMillis > 0 && System.currentTimeMillis() > deadline)) {
+					destroy();
+					return false;
+				}
+			}
+			return true;
+		} catch (InterruptedException e) {
+			destroy();
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	public boolean isFinished() {
+		return finished.getCount() == 0;
+	}
+
+	/**
+	 * Exit value
+	 * 
+	 * @return the exit value or -1 if it is not finished
+	 */
+	public int getExitValue() {
+		return exitValue;
+	}
+
+	/**
+	 * Kill the process
+	 */
+	public void destroy() {
+		if (process != null) {
+			process.destroy();
+		}
+	}
+
+}
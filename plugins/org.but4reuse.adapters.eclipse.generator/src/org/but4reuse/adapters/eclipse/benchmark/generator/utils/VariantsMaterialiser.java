@@ -0,0 +1,280 @@
+package org.but4reuse.adapters.eclipse.benchmark.generator.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.eclipse.EclipseAdapter;
+import org.but4reuse.adapters.eclipse.FileElement;
+import org.but4reuse.adapters.eclipse.PluginElement;
+import org.but4reuse.utils.files.FileUtils;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+/**
+ * Variants materialiser. Creates the folders of the Eclipse variants in a
+ * bounded pool of threads. Each distinct file of the input Eclipse is written
+ * once in a content addressed store (the name of the file is the digest of its
+ * content) and the files of the variants are hard links to the store. If the
+ * file system does not support hard links the files are copied.
+ * 
+ * Symbolic links are not used because the metadata cleaning and the
+ * bundles.info replacement of one variant would follow them and modify the
+ * input or the other variants. With hard links they only remove the link, but
+ * editing the content of a file of a variant in place changes it in all the
+ * variants that have the same file.
+ * 
+ * @author jabier.martinez
+ */
+public class VariantsMaterialiser {
+
+	public static final String STORE = ".variantsStore";
+
+	// time to wait for a variant before checking the monitor again
+	private static final long POLL_MILLIS = 100;
+
+	private File eclipse;
+	private List<FileElement> allFileElements;
+	private boolean keepOnlyMetadata;
+	private ExecutorService executor;
+	private File store;
+	private volatile boolean hardLinks = true;
+	// file of the input to its file in the store
+	private ConcurrentMap<File, File> stored = new ConcurrentHashMap<File, File>();
+	private AtomicLong bytesWritten = new AtomicLong();
+
+	/**
+	 * Materialiser
+	 * 
+	 * @param eclipse
+	 *            the input eclipse folder
+	 * @param output
+	 *            the output folder, the store is created inside
+	 * @param allFileElements
+	 *            the file elements of the input eclipse
+	 * @param keepOnlyMetadata
+	 * @param parallelism
+	 *            number of variants created at the same time or 0 to use the
+	 *            number of processors
+	 */
+	public VariantsMaterialiser(File eclipse, File output, List<FileElement> allFileElements,
+			boolean keepOnlyMetadata, int parallelism) {
+		this.eclipse = eclipse;
+		this.allFileElements = allFileElements;
+		this.keepOnlyMetadata = keepOnlyMetadata;
+		if (parallelism <= 0) {
+			parallelism = Runtime.getRuntime().availableProcessors();
+		}
+		executor = Executors.newFixedThreadPool(parallelism);
+		store = new File(output, STORE);
+		store.mkdirs();
+	}
+
+	/**
+	 * Create a variant in another thread
+	 * 
+	 * @param variantFolder
+	 * @param features
+	 *            the folders of the chosen features
+	 * @param plugins
+	 *            the chosen plugins
+	 * @return the future result of the variant
+	 */
+	public Future<VariantResult> materialise(final File variantFolder, final List<File> features,
+			final List<PluginElement> plugins) {
+		return executor.submit(new Callable<VariantResult>() {
+			@Override
+			public VariantResult call() throws Exception {
+				VariantResult result = new VariantResult();
+				long start = System.currentTimeMillis();
+				materialiseVariant(variantFolder, features, plugins, result);
+				result.millis = System.currentTimeMillis() - start;
+				bytesWritten.addAndGet(result.bytesWritten);
+				return result;
+			}
+		});
+	}
+
+	/**
+	 * Wait for a variant checking the monitor
+	 * 
+	 * @param future
+	 * @param monitor
+	 * @return the result, an empty result if the variant failed or null if the
+	 *         user cancelled
+	 */
+	public VariantResult getResult(Future<VariantResult> future, IProgressMonitor monitor) {
+		while (!monitor.isCanceled()) {
+			try {
+				return future.get(POLL_MILLIS, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// check the monitor again
+			} catch (ExecutionException e) {
+				e.printStackTrace();
+				return new VariantResult();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Bytes written in the store and in the variants
+	 * 
+	 * @return the total of the finished variants
+	 */
+	public long getBytesWritten() {
+		return bytesWritten.get();
+	}
+
+	/**
+	 * Stop the pending variants and delete the store. The files of the created
+	 * variants are not affected.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+		try {
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		FileUtils.deleteFile(store);
+	}
+
+	private void materialiseVariant(File variantFolder, List<File> features, List<PluginElement> plugins,
+			VariantResult result) throws IOException {
+		variantFolder.mkdirs();
+		for (File file : eclipse.listFiles()) {
+			// eclipse files & dirs (except features & plugins)
+			if (!file.getName().equals(VariantsUtils.FEATURES) && !file.getName().equals(VariantsUtils.PLUGINS)) {
+				materialise(file, variantFolder, result);
+			}
+		}
+
+		File featuresFolder = new File(variantFolder, VariantsUtils.FEATURES);
+		featuresFolder.mkdirs();
+		for (File feature : features) {
+			materialise(feature, featuresFolder, result);
+		}
+
+		File pluginsFolder = new File(variantFolder, VariantsUtils.PLUGINS);
+		pluginsFolder.mkdirs();
+		for (PluginElement plugin : plugins) {
+			if (Thread.currentThread().isInterrupted()) {
+				return;
+			}
+			materialise(new File(plugin.getAbsolutePath()), pluginsFolder, result);
+		}
+
+		if (!keepOnlyMetadata) {
+			// This call adapter construct mainly to fix the bundle.info
+			// configuration file to have a functional eclipse
+			List<IElement> allElements = new ArrayList<IElement>();
+			allElements.addAll(allFileElements);
+			allElements.addAll(plugins);
+			URI outputUri = variantFolder.toURI();
+			new EclipseAdapter().construct(outputUri, allElements, new NullProgressMonitor());
+		} else {
+			// We keep only manifests, properties and xmls
+			EclipseKeepOnlyMetadata.cleanAndKeepOnlyMetadata(variantFolder);
+		}
+	}
+
+	/**
+	 * Same as FileUtils.copyFileOrDirectoryToDirectory but linking the files
+	 */
+	private void materialise(File source, File directory, VariantResult result) throws IOException {
+		File destination = new File(directory, source.getName());
+		if (source.isDirectory()) {
+			destination.mkdirs();
+			for (File child : source.listFiles()) {
+				materialise(child, destination, result);
+			}
+		} else {
+			Files.deleteIfExists(destination.toPath());
+			if (hardLinks) {
+				File storeFile = getStoreFile(source, result);
+				try {
+					Files.createLink(destination.toPath(), storeFile.toPath());
+					return;
+				} catch (IOException e) {
+					// for example, the store and the variants are in different
+					// devices
+					hardLinks = false;
+				} catch (UnsupportedOperationException e) {
+					hardLinks = false;
+				}
+			}
+			Files.copy(source.toPath(), destination.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			result.bytesWritten += source.length();
+		}
+	}
+
+	/**
+	 * Get the file of the store with the same content, writing it the first
+	 * time
+	 */
+	private File getStoreFile(File source, VariantResult result) throws IOException {
+		File storeFile = stored.get(source);
+		if (storeFile != null) {
+			return storeFile;
+		}
+		String digest = FileUtils.getChecksumMD5(source);
+		if (digest == null) {
+			throw new IOException("Digest not available for " + source);
+		}
+		storeFile = new File(store, digest);
+		if (!storeFile.exists()) {
+			// write it in a temporary file so other threads never link to an
+			// incomplete file
+			File tmp = File.createTempFile(digest, ".tmp", store);
+			Files.copy(source.toPath(), tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			result.bytesWritten += source.length();
+			try {
+				Files.move(tmp.toPath(), storeFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				tmp.delete();
+				// another thread could have stored the same content
+				if (!storeFile.exists()) {
+					throw e;
+				}
+			}
+		}
+		stored.putIfAbsent(source, storeFile);
+		return storeFile;
+	}
+
+	/**
+	 * The result of creating one variant
+	 */
+	public static class VariantResult {
+		long bytesWritten;
+		long millis;
+
+		public long getBytesWritten() {
+			return bytesWritten;
+		}
+
+		public long getMillis() {
+			return millis;
+		}
+	}
+
+}
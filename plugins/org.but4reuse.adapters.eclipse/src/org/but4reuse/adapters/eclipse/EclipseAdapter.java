@@ -14,6 +14,8 @@ import org.but4reuse.adapters.IElement;
 import org.but4reuse.adapters.eclipse.plugin_infos_extractor.utils.DependenciesBuilder;
 import org.but4reuse.adapters.eclipse.plugin_infos_extractor.utils.PluginInfosExtractor;
 import org.but4reuse.utils.files.FileUtils;
+import org.but4reuse.utils.files.ParallelFileWalker;
+import org.but4reuse.utils.files.ParallelFileWalker.Node;
 import org.eclipse.core.runtime.IProgressMonitor;
 
 /**
@@ -63,29 +65,46 @@ public class EclipseAdapter implements IAdapter {
 		// bundles.info file
 		bundlesInfoLines = PluginInfosExtractor.createBundlesInfoMap(uri);
 
-		// start the containment tree traversal, with null as initial container
-		adapt(file, elements, null);
+		// visit the containment tree in parallel
+		List<Node<FileElement>> nodes = ParallelFileWalker.walk(file, new ParallelFileWalker.Visitor<FileElement>() {
+			@Override
+			public FileElement visit(File current) {
+				return createElement(current);
+			}
 
-		// plugin dependencies
-		for (IElement elem : elements) {
-			if (elem instanceof PluginElement) {
-				PluginElement pe = (PluginElement) elem;
-				DependenciesBuilder.build(pe, elements);
+			@Override
+			public boolean visitChildren(File directory, FileElement element) {
+				// Exclude the features folder
+				return !element.getRelativeURI().toString().equals("features/");
 			}
+		}, monitor);
+
+		// merge in the traversal order
+		for (Node<FileElement> node : nodes) {
+			FileElement newElement = node.getResult();
+			// Add dependency to the parent folder
+			if (node.getParent() != null) {
+				newElement.addDependency("container", node.getParent().getResult());
+			}
+			// Add to the list
+			addElement(elements, newElement);
 		}
 
+		// plugin dependencies
+		DependenciesBuilder.build(elements);
+
 		// in elements we have the result
 		return elements;
 	}
 
 	/**
-	 * adapt recursively
+	 * Create the element of a file. It is called concurrently for the files
+	 * of the distribution.
 	 * 
 	 * @param file
-	 * @param elements
-	 * @param container
+	 * @return the file element or the plugin element
 	 */
-	private void adapt(File file, List<IElement> elements, IElement container) {
+	private FileElement createElement(File file) {
 		FileElement newElement = null;
 		if (PluginInfosExtractor.isAPlugin(file)) {
 			try {
@@ -108,11 +127,6 @@ public class EclipseAdapter implements IAdapter {
 		newElement.setUri(file.toURI());
 		newElement.setRelativeURI(rootURI.relativize(file.toURI()));
 
-		// Add dependency to the parent folder
-		if (container != null) {
-			newElement.addDependency("container", container);
-		}
-
 		// Add the bundles info
 		if (newElement instanceof PluginElement) {
 			PluginElement plugin = (PluginElement) newElement;
@@ -128,20 +142,7 @@ public class EclipseAdapter implements IAdapter {
 			// }
 
 		}
-
-		// Add to the list
-		addElement(elements, newElement);
-
-		// Go for the files in case of folder
-		if (file.isDirectory()) {
-			// Exclude the features folder
-			if (!newElement.getRelativeURI().toString().equals("features/")) {
-				File[] files = file.listFiles();
-				for (File subFile : files) {
-					adapt(subFile, elements, newElement);
-				}
-			}
-		}
+		return newElement;
 	}
 
 	/**
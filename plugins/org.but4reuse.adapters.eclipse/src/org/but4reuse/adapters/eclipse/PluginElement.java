@@ -1,7 +1,9 @@
 package org.but4reuse.adapters.eclipse;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.but4reuse.adapters.IElement;
 import org.but4reuse.utils.strings.StringUtils;
@@ -18,12 +20,19 @@ public class PluginElement extends FileElement {
 	private String pluginVersion;
 	private String bundleInfoLine;
 	private String fragmentHost;
+	private String fragmentHostVersion;
 	private String name;
 	// each pluginElement in require_Bundles, the list of require_Bundle will be
 	// empty.
 	// because we do not know the dependencies
 	// The same thing for absoluthPath
 	private ArrayList<String> require_Bundles;
+	// symbolic name of the required bundles to their bundle-version range
+	private Map<String, String> require_BundlesVersions;
+	// package names to their version range (Import-Package) or version
+	// (Export-Package)
+	private Map<String, String> importPackages;
+	private Map<String, String> exportPackages;
 
 	@Override
 	public double similarity(IElement anotherElement) {
@@ -50,6 +59,9 @@ public class PluginElement extends FileElement {
 
 	public PluginElement() {
 		require_Bundles = new ArrayList<String>();
+		require_BundlesVersions = new LinkedHashMap<String, String>();
+		importPackages = new LinkedHashMap<String, String>();
+		exportPackages = new LinkedHashMap<String, String>();
 	}
 
 	public String getSymbName() {
@@ -64,8 +76,61 @@ public class PluginElement extends FileElement {
 		this.require_Bundles.add(require_bundle);
 	}
 
+	/**
+	 * Add a required bundle
+	 * 
+	 * @param require_bundle
+	 *            the symbolic name
+	 * @param versionRange
+	 *            the bundle-version attribute or null
+	 */
+	public void addRequire_bundle(String require_bundle, String versionRange) {
+		this.require_Bundles.add(require_bundle);
+		if (versionRange != null) {
+			this.require_BundlesVersions.put(require_bundle, versionRange);
+		}
+	}
+
 	public void removeRequire_bundle(String require_bundle) {
 		this.require_Bundles.remove(require_bundle);
+		this.require_BundlesVersions.remove(require_bundle);
+	}
+
+	/**
+	 * Version range of a required bundle
+	 * 
+	 * @param require_bundle
+	 * @return the bundle-version attribute or null if any version is valid
+	 */
+	public String getRequire_bundleVersion(String require_bundle) {
+		return require_BundlesVersions.get(require_bundle);
+	}
+
+	/**
+	 * Imported packages
+	 * 
+	 * @return package names to their version range, null if any version is
+	 *         valid
+	 */
+	public Map<String, String> getImportPackages() {
+		return importPackages;
+	}
+
+	public void addImportPackage(String packageName, String versionRange) {
+		this.importPackages.put(packageName, versionRange);
+	}
+
+	/**
+	 * Exported packages
+	 * 
+	 * @return package names to their version, null if not specified
+	 */
+	public Map<String, String> getExportPackages() {
+		return exportPackages;
+	}
+
+	public void addExportPackage(String packageName, String version) {
+		this.exportPackages.put(packageName, version);
 	}
 
 	@Override
@@ -121,6 +186,14 @@ public class PluginElement extends FileElement {
 		this.fragmentHost = fragmentHost;
 	}
 
+	public String getFragmentHostVersion() {
+		return fragmentHostVersion;
+	}
+
+	public void setFragmentHostVersion(String fragmentHostVersion) {
+		this.fragmentHostVersion = fragmentHostVersion;
+	}
+
 	public boolean isFragment() {
 		return fragmentHost != null;
 	}
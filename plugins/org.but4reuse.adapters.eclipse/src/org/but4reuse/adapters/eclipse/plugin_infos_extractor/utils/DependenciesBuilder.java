@@ -1,50 +1,235 @@
 package org.but4reuse.adapters.eclipse.plugin_infos_extractor.utils;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
 import org.but4reuse.adapters.IElement;
 import org.but4reuse.adapters.eclipse.PluginElement;
+import org.osgi.framework.Version;
 
 /**
- * @author Diana Malabard
+ * Dependencies builder. The plugins of an artefact are indexed once by
+ * symbolic name (case insensitive) and by exported package so the required
+ * bundles, the fragment hosts and the imported packages of all the plugins are
+ * resolved in one pass. When several versions of a plugin are installed the
+ * highest version inside the required version range is chosen.
  * 
+ * @author Diana Malabard
+ * @author jabier.martinez
  */
 public class DependenciesBuilder {
 
+	public static final String REQUIRED_BUNDLE = "requiredBundle";
+	public static final String IMPORTED_PACKAGE = "importedPackage";
+
+	// lower case symbolic name to the plugins with this name
+	private Map<String, List<PluginElement>> symbNames = new HashMap<String, List<PluginElement>>();
+	// package name to the plugins exporting it
+	private Map<String, List<PluginElement>> exporters = new HashMap<String, List<PluginElement>>();
+
+	/**
+	 * Index the plugins
+	 * 
+	 * @param pluginsSet
+	 *            the elements of the artefact, the ones that are not plugins
+	 *            are ignored
+	 */
+	public DependenciesBuilder(List<IElement> pluginsSet) {
+		for (IElement elem : pluginsSet) {
+			if (elem instanceof PluginElement) {
+				PluginElement pe = (PluginElement) elem;
+				if (pe.getSymbName() != null) {
+					index(symbNames, pe.getSymbName().toLowerCase(Locale.ENGLISH), pe);
+				}
+				for (String packageName : pe.getExportPackages().keySet()) {
+					index(exporters, packageName, pe);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Resolve the dependencies of all the plugins of the artefact
+	 * 
+	 * @param elements
+	 */
+	public static void build(List<IElement> elements) {
+		DependenciesBuilder builder = new DependenciesBuilder(elements);
+		for (IElement elem : elements) {
+			if (elem instanceof PluginElement) {
+				builder.resolve((PluginElement) elem);
+			}
+		}
+	}
+
+	/**
+	 * Resolve the dependencies of one plugin. It indexes the plugins set each
+	 * time so use build(elements) for all the plugins of an artefact.
+	 * 
+	 * @param plugin
+	 * @param pluginsSet
+	 */
 	public static void build(PluginElement plugin, List<IElement> pluginsSet) {
+		new DependenciesBuilder(pluginsSet).resolve(plugin);
+	}
+
+	/**
+	 * Add the dependencies of a plugin to the indexed plugins
+	 * 
+	 * @param plugin
+	 */
+	public void resolve(PluginElement plugin) {
+		Set<PluginElement> resolved = Collections.newSetFromMap(new IdentityHashMap<PluginElement, Boolean>());
 
 		// Required bundles
 		for (String dependency_symbName : plugin.getRequire_Bundles()) {
-			for (IElement elem : pluginsSet) {
-				if (elem instanceof PluginElement) {
-					PluginElement pe = (PluginElement) elem;
-					if (pe.getSymbName().equalsIgnoreCase(dependency_symbName)) {
-						// TODO check versions
-						plugin.addDependency("requiredBundle", pe);
-						break;
-					}
-				}
+			PluginElement pe = getBundle(dependency_symbName, plugin.getRequire_bundleVersion(dependency_symbName));
+			if (pe != null && resolved.add(pe)) {
+				plugin.addDependency(REQUIRED_BUNDLE, pe);
 			}
 		}
 
-		// In case of a fragment
+		// In case of a fragment. We avoid a duplicate dependency if the host
+		// is also a required bundle
 		if (plugin.isFragment()) {
-			String hostSymbName = plugin.getFragmentHost();
-			// check if they already included, it is not needed for fragments
-			// but who knows. We put this to avoid duplicate dependencies
-			if (!plugin.getRequire_Bundles().contains(hostSymbName)) {
-				for (IElement elem : pluginsSet) {
-					if (elem instanceof PluginElement) {
-						PluginElement pe = (PluginElement) elem;
-						if (hostSymbName != null && hostSymbName.equalsIgnoreCase(pe.getSymbName())) {
-							// TODO check versions
-							// TODO maybe use another name for the dependency
-							plugin.addDependency("requiredBundle", pe);
-							break;
-						}
-					}
+			PluginElement pe = getBundle(plugin.getFragmentHost(), plugin.getFragmentHostVersion());
+			if (pe != null && resolved.add(pe)) {
+				// TODO maybe use another name for the dependency
+				plugin.addDependency(REQUIRED_BUNDLE, pe);
+			}
+		}
+
+		// Imported packages, the ones exported by the plugin itself or by an
+		// already resolved plugin do not add a dependency
+		resolved.add(plugin);
+		for (Entry<String, String> imported : plugin.getImportPackages().entrySet()) {
+			List<PluginElement> candidates = exporters.get(imported.getKey());
+			if (candidates != null) {
+				PluginElement pe = select(candidates, imported.getKey(), imported.getValue());
+				if (resolved.add(pe)) {
+					plugin.addDependency(IMPORTED_PACKAGE, pe);
 				}
 			}
 		}
 	}
+
+	/**
+	 * Get a plugin by symbolic name
+	 * 
+	 * @param symbName
+	 *            case insensitive
+	 * @param versionRange
+	 *            the bundle-version attribute or null
+	 * @return the plugin with the highest version in the range, if there is no
+	 *         version in the range the highest version. null if not found
+	 */
+	public PluginElement getBundle(String symbName, String versionRange) {
+		if (symbName == null) {
+			return null;
+		}
+		List<PluginElement> candidates = symbNames.get(symbName.toLowerCase(Locale.ENGLISH));
+		if (candidates == null) {
+			return null;
+		}
+		return select(candidates, null, versionRange);
+	}
+
+	/**
+	 * Select the candidate with the highest version inside the range. If none
+	 * is inside the range we still keep the highest one as before the versions
+	 * were checked.
+	 * 
+	 * @param candidates
+	 * @param packageName
+	 *            null to use the bundle versions or the name of the package to
+	 *            use its exported version
+	 * @param versionRange
+	 * @return the selected candidate
+	 */
+	private static PluginElement select(List<PluginElement> candidates, String packageName, String versionRange) {
+		if (candidates.size() == 1) {
+			return candidates.get(0);
+		}
+		PluginElement selected = null;
+		Version selectedVersion = null;
+		boolean selectedInRange = false;
+		for (PluginElement candidate : candidates) {
+			Version version = parseVersion(packageName == null ? candidate.getVersion() : candidate
+					.getExportPackages().get(packageName));
+			boolean inRange = isInRange(version, versionRange);
+			if (selected == null || (inRange && !selectedInRange)
+					|| (inRange == selectedInRange && version.compareTo(selectedVersion) > 0)) {
+				selected = candidate;
+				selectedVersion = version;
+				selectedInRange = inRange;
+			}
+		}
+		return selected;
+	}
+
+	/**
+	 * Check if a version is inside an OSGi version range. A single version
+	 * means this version or higher, otherwise the range is an interval like
+	 * [1.0,2.0) with inclusive or exclusive limits.
+	 * 
+	 * @param version
+	 * @param versionRange
+	 *            null means any version
+	 * @return true if inside the range or if the range is not valid
+	 */
+	public static boolean isInRange(Version version, String versionRange) {
+		if (versionRange == null) {
+			return true;
+		}
+		String range = versionRange.trim();
+		try {
+			if (range.startsWith("[") || range.startsWith("(")) {
+				int comma = range.indexOf(',');
+				char last = range.charAt(range.length() - 1);
+				if (comma == -1 || (last != ']' && last != ')')) {
+					return true;
+				}
+				int compareLeft = version.compareTo(Version.parseVersion(range.substring(1, comma)));
+				int compareRight = version.compareTo(Version.parseVersion(range
+						.substring(comma + 1, range.length() - 1)));
+				boolean leftOk = range.charAt(0) == '[' ? compareLeft >= 0 : compareLeft > 0;
+				boolean rightOk = last == ']' ? compareRight <= 0 : compareRight < 0;
+				return leftOk && rightOk;
+			}
+			return version.compareTo(Version.parseVersion(range)) >= 0;
+		} catch (IllegalArgumentException e) {
+			// malformed range, we do not discard any version
+			return true;
+		}
+	}
+
+	/**
+	 * Parse a version
+	 * 
+	 * @param version
+	 * @return the version or the empty version if null or malformed
+	 */
+	public static Version parseVersion(String version) {
+		try {
+			return Version.parseVersion(version);
+		} catch (IllegalArgumentException e) {
+			return Version.emptyVersion;
+		}
+	}
+
+	private static void index(Map<String, List<PluginElement>> map, String key, PluginElement pe) {
+		List<PluginElement> list = map.get(key);
+		if (list == null) {
+			list = new ArrayList<PluginElement>(1);
+			map.put(key, list);
+		}
+		list.add(pe);
+	}
 }
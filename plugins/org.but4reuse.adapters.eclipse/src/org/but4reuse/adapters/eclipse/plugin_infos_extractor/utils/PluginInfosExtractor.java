@@ -6,6 +6,9 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +19,7 @@ import java.util.jar.Manifest;
 import java.util.zip.ZipEntry;
 
 import org.but4reuse.adapters.eclipse.PluginElement;
+import org.but4reuse.utils.cache.LRUCache;
 import org.but4reuse.utils.files.FileUtils;
 
 public class PluginInfosExtractor {
@@ -30,10 +34,28 @@ public class PluginInfosExtractor {
 	private static final String DEFAULT_LOCALIZATION = "OSGI-INF/l10n/bundle";
 
 	private static final String FRAGMENT_HOST = "Fragment-Host";
+	private static final String IMPORT_PACKAGE = "Import-Package";
+	private static final String EXPORT_PACKAGE = "Export-Package";
 
-	private static String currentLocalization = null;
+	// manifest header parameters
+	private static final String BUNDLE_VERSION_ATTRIBUTE = "bundle-version";
+	private static final String VERSION_ATTRIBUTE = "version";
+	private static final String SPECIFICATION_VERSION_ATTRIBUTE = "specification-version";
+	private static final String RESOLUTION_DIRECTIVE = "resolution";
+	private static final String RESOLUTION_OPTIONAL = "optional";
 
-	private static void fillPluginElementInfo(PluginElement plugin, Manifest manifest) {
+	// Manifests already read, shared by all the artefacts. The variants of
+	// a distribution usually contain the same jars
+	private static LRUCache<String, ReadManifest> manifestsCache = new LRUCache<String, ReadManifest>(4096);
+
+	/**
+	 * Fill the plugin with the manifest information
+	 * 
+	 * @param plugin
+	 * @param manifest
+	 * @return the localization of the plugin
+	 */
+	private static String fillPluginElementInfo(PluginElement plugin, Manifest manifest) {
 		Attributes attributes = manifest.getMainAttributes();
 		String value = attributes.getValue(BUNDLE_SYMBOLIC_NAME);
 		int i = value.indexOf(';');
@@ -44,10 +66,12 @@ public class PluginInfosExtractor {
 		// Fragment info
 		String fragmentHost = attributes.getValue(FRAGMENT_HOST);
 		if (fragmentHost != null) {
-			i = fragmentHost.indexOf(';');
-			if (i != -1)
-				fragmentHost = fragmentHost.substring(0, i);
-			plugin.setFragmentHost(fragmentHost);
+			List<String> clauses = splitHeader(fragmentHost, ',');
+			if (!clauses.isEmpty()) {
+				List<String> parts = splitHeader(clauses.get(0), ';');
+				plugin.setFragmentHost(parts.get(0));
+				plugin.setFragmentHostVersion(getParameter(parts, BUNDLE_VERSION_ATTRIBUTE));
+			}
 		}
 
 		String version = attributes.getValue(BUNDLE_VERSION);
@@ -57,13 +81,24 @@ public class PluginInfosExtractor {
 			getRequireBundlesSymbNames(value, plugin);
 		}
 
+		// Packages
+		value = attributes.getValue(IMPORT_PACKAGE);
+		if (value != null) {
+			getImportPackages(value, plugin);
+		}
+		value = attributes.getValue(EXPORT_PACKAGE);
+		if (value != null) {
+			getExportPackages(value, plugin);
+		}
+
 		// Name
-		currentLocalization = attributes.getValue(BUNDLE_LOCALIZATION);
-		if (currentLocalization == null) {
-			currentLocalization = DEFAULT_LOCALIZATION;
+		String localization = attributes.getValue(BUNDLE_LOCALIZATION);
+		if (localization == null) {
+			localization = DEFAULT_LOCALIZATION;
 		}
 		String name = attributes.getValue(BUNDLE_NAME);
 		plugin.setName(name);
+		return localization;
 	}
 
 	/*
@@ -83,14 +118,17 @@ public class PluginInfosExtractor {
 		File f = new File(manifestFile);
 		f = f.getParentFile().getParentFile();
 		plugin.setAbsolutePath(f.getAbsolutePath());
+		String cacheKey = getCacheKey(new File(manifestFile));
+		if (fillFromCache(plugin, cacheKey)) {
+			return plugin;
+		}
 		try {
 			InputStream ips = new FileInputStream(manifestFile);
 			Manifest manifest = new Manifest(ips);
-			fillPluginElementInfo(plugin, manifest);
+			String localization = fillPluginElementInfo(plugin, manifest);
 			ips.close();
-			manifest = null;
 			if (plugin.getName() != null && plugin.getName().contains("%")) {
-				File localizationFile = new File(f, currentLocalization + ".properties");
+				File localizationFile = new File(f, localization + ".properties");
 				if (localizationFile.exists()) {
 					Properties prop = new Properties();
 					InputStream input = new FileInputStream(localizationFile);
@@ -102,6 +140,7 @@ public class PluginInfosExtractor {
 					input.close();
 				}
 			}
+			putInCache(cacheKey, manifest, plugin);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -123,12 +162,18 @@ public class PluginInfosExtractor {
 		PluginElement plugin = new PluginElement();
 		plugin.setJar(true);
 		plugin.setAbsolutePath(jarFile);
+		File f = new File(jarFile);
+		String cacheKey = getCacheKey(f);
+		if (fillFromCache(plugin, cacheKey)) {
+			return plugin;
+		}
 		try {
-			File f = new File(jarFile);
+			// only the central directory and the needed entries are read
 			JarFile jar = new JarFile(f);
-			fillPluginElementInfo(plugin, jar.getManifest());
+			Manifest manifest = jar.getManifest();
+			String localization = fillPluginElementInfo(plugin, manifest);
 			if (plugin.getName() != null && plugin.getName().contains("%")) {
-				ZipEntry zipEntry = jar.getEntry(currentLocalization + ".properties");
+				ZipEntry zipEntry = jar.getEntry(localization + ".properties");
 				if (zipEntry != null) {
 					Properties prop = new Properties();
 					prop.load(jar.getInputStream(zipEntry));
@@ -137,12 +182,64 @@ public class PluginInfosExtractor {
 				}
 			}
 			jar.close();
+			putInCache(cacheKey, manifest, plugin);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 		return plugin;
 	}
 
+	/**
+	 * Identify the content of a file without reading it. The file key (e.g.
+	 * the inode) is the same for hard links so the variants sharing a file
+	 * share the cache entry.
+	 * 
+	 * @param file
+	 * @return the key or null if the attributes are not available
+	 */
+	private static String getCacheKey(File file) {
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+			Object fileKey = attributes.fileKey();
+			return (fileKey != null ? fileKey.toString() : file.getAbsolutePath()) + ";" + attributes.size() + ";"
+					+ attributes.lastModifiedTime().toMillis();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static boolean fillFromCache(PluginElement plugin, String cacheKey) {
+		if (cacheKey == null) {
+			return false;
+		}
+		ReadManifest read = manifestsCache.get(cacheKey);
+		if (read == null) {
+			return false;
+		}
+		fillPluginElementInfo(plugin, read.manifest);
+		plugin.setName(read.name);
+		return true;
+	}
+
+	private static void putInCache(String cacheKey, Manifest manifest, PluginElement plugin) {
+		if (cacheKey != null && manifest != null) {
+			manifestsCache.put(cacheKey, new ReadManifest(manifest, plugin.getName()));
+		}
+	}
+
+	/**
+	 * A manifest with the name of the plugin already localized
+	 */
+	private static class ReadManifest {
+		Manifest manifest;
+		String name;
+
+		ReadManifest(Manifest manifest, String name) {
+			this.manifest = manifest;
+			this.name = name;
+		}
+	}
+
 	/*
 	 * BOTH
 	 */
@@ -158,20 +255,131 @@ public class PluginInfosExtractor {
 	 *            plugins
 	 */
 	private static void getRequireBundlesSymbNames(String value, PluginElement plugin) {
-		String[] values = value.split(",");
-		String previous = "";
-		for (String val : values) {
-			if (!val.matches("\\s*[0-9].*")) {
-				int i = val.indexOf(';');
-				if (i != -1)
-					val = val.substring(0, i);
-				val = val.replaceAll("\\s", "");
-				previous = val;
-				plugin.addRequire_bundle(val);
-			} else if (val.contains("resolution:=optional")) {
-				plugin.removeRequire_bundle(previous);
+		for (String clause : splitHeader(value, ',')) {
+			List<String> parts = splitHeader(clause, ';');
+			if (!RESOLUTION_OPTIONAL.equals(getParameter(parts, RESOLUTION_DIRECTIVE))) {
+				plugin.addRequire_bundle(parts.get(0), getParameter(parts, BUNDLE_VERSION_ATTRIBUTE));
+			}
+		}
+	}
+
+	/**
+	 * Extracts the mandatory imported packages and their version ranges from
+	 * the Import-Package field's value
+	 * 
+	 * @param value
+	 * @param plugin
+	 */
+	private static void getImportPackages(String value, PluginElement plugin) {
+		for (String clause : splitHeader(value, ',')) {
+			List<String> parts = splitHeader(clause, ';');
+			if (!RESOLUTION_OPTIONAL.equals(getParameter(parts, RESOLUTION_DIRECTIVE))) {
+				String range = getParameter(parts, VERSION_ATTRIBUTE);
+				if (range == null) {
+					range = getParameter(parts, SPECIFICATION_VERSION_ATTRIBUTE);
+				}
+				// several packages can share the same parameters
+				for (String packageName : getNames(parts)) {
+					plugin.addImportPackage(packageName, range);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Extracts the exported packages and their versions from the
+	 * Export-Package field's value
+	 * 
+	 * @param value
+	 * @param plugin
+	 */
+	private static void getExportPackages(String value, PluginElement plugin) {
+		for (String clause : splitHeader(value, ',')) {
+			List<String> parts = splitHeader(clause, ';');
+			String version = getParameter(parts, VERSION_ATTRIBUTE);
+			if (version == null) {
+				version = getParameter(parts, SPECIFICATION_VERSION_ATTRIBUTE);
+			}
+			for (String packageName : getNames(parts)) {
+				plugin.addExportPackage(packageName, version);
+			}
+		}
+	}
+
+	/**
+	 * Split a manifest header value ignoring the separators inside quotes, as
+	 * in the version ranges like bundle-version="[3.0.0,4.0.0)"
+	 * 
+	 * @param value
+	 * @param separator
+	 *            ',' for the clauses and ';' for the parts of a clause
+	 * @return the non empty parts without whitespaces
+	 */
+	private static List<String> splitHeader(String value, char separator) {
+		List<String> parts = new ArrayList<String>();
+		StringBuilder part = new StringBuilder();
+		boolean quoted = false;
+		for (char c : value.toCharArray()) {
+			if (c == '"') {
+				quoted = !quoted;
+			} else if (c == separator && !quoted) {
+				addPart(parts, part);
+				continue;
+			}
+			if (!Character.isWhitespace(c)) {
+				part.append(c);
+			}
+		}
+		addPart(parts, part);
+		return parts;
+	}
+
+	private static void addPart(List<String> parts, StringBuilder part) {
+		if (part.length() > 0) {
+			parts.add(part.toString());
+			part.setLength(0);
+		}
+	}
+
+	/**
+	 * Get the names of a clause, the parts that are not attributes nor
+	 * directives
+	 * 
+	 * @param parts
+	 * @return the names
+	 */
+	private static List<String> getNames(List<String> parts) {
+		List<String> names = new ArrayList<String>();
+		for (String part : parts) {
+			if (part.indexOf('=') == -1) {
+				names.add(part);
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Get the value of an attribute (name=value) or a directive (name:=value)
+	 * of a clause
+	 * 
+	 * @param parts
+	 * @param name
+	 * @return the value without quotes or null if not found
+	 */
+	private static String getParameter(List<String> parts, String name) {
+		for (String part : parts) {
+			int i = part.indexOf('=');
+			if (i != -1) {
+				String key = part.substring(0, i);
+				if (key.endsWith(":")) {
+					key = key.substring(0, key.length() - 1);
+				}
+				if (key.equals(name)) {
+					return part.substring(i + 1).replace("\"", "");
+				}
 			}
 		}
+		return null;
 	}
 
 	public static Map<String, String> createBundlesInfoMap(URI uri) {
@@ -10,6 +10,7 @@ import org.but4reuse.adapters.filestructure.activator.Activator;
 import org.but4reuse.adapters.filestructure.preferences.FileStructureAdapterPreferencePage;
 import org.but4reuse.adapters.impl.AbstractElement;
 import org.but4reuse.adapters.markers.IMarkerElement;
+import org.but4reuse.adapters.preferences.ComparisonContext;
 import org.but4reuse.utils.files.FileUtils;
 import org.but4reuse.utils.workbench.WorkbenchUtils;
 import org.eclipse.core.resources.IMarker;
@@ -25,6 +26,7 @@ public class FileElement extends AbstractElement implements IMarkerElement {
 
 	private URI uri;
 	private URI relativeURI;
+	private String contentDigest;
 
 	@Override
 	public double similarity(IElement anotherElement) {
@@ -37,19 +39,25 @@ public class FileElement extends AbstractElement implements IMarkerElement {
 			if (this.getRelativeURI().equals(anotherFileElement.getRelativeURI())) {
 
 				// file content comparison in case of files
-				boolean checkingContent = Activator.getDefault().getPreferenceStore()
-						.getBoolean(FileStructureAdapterPreferencePage.CONTENT_CHECK);
+				boolean checkingContent = ComparisonContext.getCurrent().getBoolean(
+						Activator.getDefault().getPreferenceStore(), FileStructureAdapterPreferencePage.CONTENT_CHECK);
 
 				if (!checkingContent) {
 					return 1;
 				} else {
-					File file1 = FileUtils.getFile(this.getUri());
-					File file2 = FileUtils.getFile(anotherFileElement.getUri());
-					if ((file1.isDirectory() && file2.isDirectory())
-							|| (!file1.isDirectory() && !file2.isDirectory() && FileUtils.isFileContentIdentical(file1,
-									file2))) {
+					boolean isDirectory1 = this instanceof FolderElement;
+					boolean isDirectory2 = anotherFileElement instanceof FolderElement;
+					if (isDirectory1 && isDirectory2) {
 						return 1;
 					}
+					// compare the content digests, calculated only once per
+					// file
+					if (!isDirectory1 && !isDirectory2) {
+						String digest1 = this.getContentDigest();
+						if (digest1 != null && digest1.equals(anotherFileElement.getContentDigest())) {
+							return 1;
+						}
+					}
 				}
 			}
 		}
@@ -101,6 +109,26 @@ public class FileElement extends AbstractElement implements IMarkerElement {
 		this.uri = uri;
 	}
 
+	/**
+	 * Get the MD5 checksum of the file content. It is calculated the first
+	 * time and then reused for the other comparisons.
+	 * 
+	 * @return the checksum or null if the file cannot be read
+	 */
+	public String getContentDigest() {
+		if (contentDigest == null) {
+			File file = FileUtils.getFile(getUri());
+			if (file != null && file.isFile()) {
+				contentDigest = FileUtils.getChecksumMD5(file);
+			}
+		}
+		return contentDigest;
+	}
+
+	public void setContentDigest(String contentDigest) {
+		this.contentDigest = contentDigest;
+	}
+
 	@Override
 	public ArrayList<String> getWords() {
 		ArrayList<String> words = new ArrayList<String>();
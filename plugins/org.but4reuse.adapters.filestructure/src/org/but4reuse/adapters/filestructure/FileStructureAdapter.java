@@ -7,12 +7,20 @@ import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
-import org.but4reuse.adapters.IAdapter;
+import org.but4reuse.adapters.ICacheableAdapter;
 import org.but4reuse.adapters.IElement;
 import org.but4reuse.adapters.filestructure.activator.Activator;
 import org.but4reuse.adapters.filestructure.preferences.FileStructureAdapterPreferencePage;
+import org.but4reuse.adapters.helper.AdaptationCache;
 import org.but4reuse.utils.files.FileUtils;
+import org.but4reuse.utils.files.ParallelFileWalker;
+import org.but4reuse.utils.files.ParallelFileWalker.Node;
 import org.eclipse.core.runtime.IProgressMonitor;
 
 /**
@@ -20,7 +28,11 @@ import org.eclipse.core.runtime.IProgressMonitor;
  * 
  * @author jabier.martinez
  */
-public class FileStructureAdapter implements IAdapter {
+public class FileStructureAdapter implements ICacheableAdapter {
+
+	// shared by all the adaptations so concurrent adaptations do not create
+	// more threads than processors to calculate the digests
+	private static ExecutorService digestsExecutor;
 
 	private URI rootURI;
 	public boolean ignoreFolders;
@@ -35,6 +47,12 @@ public class FileStructureAdapter implements IAdapter {
 		return false;
 	}
 
+	@Override
+	public String getCacheKey() {
+		return AdaptationCache.getPreferencesKey(Activator.getDefault().getPreferenceStore(),
+				FileStructureAdapterPreferencePage.IGNORE_FOLDERS, FileStructureAdapterPreferencePage.CONTENT_CHECK);
+	}
+
 	@Override
 	public List<IElement> adapt(URI uri, IProgressMonitor monitor) {
 		ignoreFolders = Activator.getDefault().getPreferenceStore().getBoolean(FileStructureAdapterPreferencePage.IGNORE_FOLDERS);
@@ -46,20 +64,108 @@ public class FileStructureAdapter implements IAdapter {
 		List<IElement> elements = new ArrayList<IElement>();
 		File file = FileUtils.getFile(uri);
 		rootURI = file.toURI();
-		// start the containment tree traversal, with null as initial container
-		adapt(file, elements, null);
+		// visit the containment tree in parallel and merge in the traversal
+		// order
+		List<Node<FileElement>> nodes = ParallelFileWalker.walk(file, new ParallelFileWalker.Visitor<FileElement>() {
+			@Override
+			public FileElement visit(File current) {
+				return createElement(current);
+			}
+
+			@Override
+			public boolean visitChildren(File directory, FileElement element) {
+				return true;
+			}
+		}, monitor);
+		for (Node<FileElement> node : nodes) {
+			FileElement newElement = node.getResult();
+			// Add dependency to the parent folder
+			if (!ignoreFolders && node.getParent() != null) {
+				newElement.addDependency(node.getParent().getResult());
+			}
+			// Add to the list
+			if (!(ignoreFolders && newElement instanceof FolderElement)) {
+				elements.add(newElement);
+			}
+		}
+		// content digests used for the similarity
+		boolean checkingContent = Activator.getDefault().getPreferenceStore()
+				.getBoolean(FileStructureAdapterPreferencePage.CONTENT_CHECK);
+		if (checkingContent) {
+			calculateContentDigests(elements, monitor);
+		}
 		// in elements we have the result
 		return elements;
 	}
 
 	/**
-	 * adapt recursively
+	 * Calculate the content digest of each file in parallel so they are not
+	 * calculated again during the comparisons
 	 * 
-	 * @param file
 	 * @param elements
-	 * @param container
+	 * @param monitor
 	 */
-	private void adapt(File file, List<IElement> elements, IElement container) {
+	private void calculateContentDigests(List<IElement> elements, final IProgressMonitor monitor) {
+		ExecutorService executor = getDigestsExecutor();
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (IElement element : elements) {
+			if (element instanceof FileElement && !(element instanceof FolderElement)) {
+				final FileElement fileElement = (FileElement) element;
+				futures.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						// user cancel
+						if (!monitor.isCanceled()) {
+							fileElement.getContentDigest();
+						}
+					}
+				}));
+			}
+		}
+		try {
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			// only the tasks of this adaptation are cancelled
+			for (Future<?> future : futures) {
+				future.cancel(true);
+			}
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Get the executor to calculate the digests. Its threads are daemons so it
+	 * does not need to be shut down.
+	 * 
+	 * @return the shared executor
+	 */
+	private static synchronized ExecutorService getDigestsExecutor() {
+		if (digestsExecutor == null) {
+			digestsExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "File structure digests");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+		return digestsExecutor;
+	}
+
+	/**
+	 * Create the element of a file. It is called concurrently for the files
+	 * of the artefact.
+	 * 
+	 * @param file
+	 * @return the file or folder element
+	 */
+	private FileElement createElement(File file) {
 		FileElement newElement;
 		// Distinguish between file and folder
 		if (file.isDirectory()) {
@@ -71,24 +177,7 @@ public class FileStructureAdapter implements IAdapter {
 		// Set the relevant information
 		newElement.setUri(file.toURI());
 		newElement.setRelativeURI(rootURI.relativize(file.toURI()));
-
-		// Add dependency to the parent folder
-		if (!ignoreFolders && container != null) {
-			newElement.addDependency(container);
-		}
-
-		// Add to the list
-		if(!(ignoreFolders && file.isDirectory())){
-			elements.add(newElement);
-		}
-
-		// Go for the files in case of folder
-		if (file.isDirectory()) {
-			File[] files = file.listFiles();
-			for (File subFile : files) {
-				adapt(subFile, elements, newElement);
-			}
-		}
+		return newElement;
 	}
 
 	@Override
@@ -8,6 +8,7 @@ import org.but4reuse.adapters.IElement;
 import org.but4reuse.adapters.graphs.activator.Activator;
 import org.but4reuse.adapters.graphs.preferences.GraphsAdapterPreferencePage;
 import org.but4reuse.adapters.impl.AbstractElement;
+import org.but4reuse.adapters.preferences.ComparisonContext;
 
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
@@ -25,7 +26,8 @@ public class EdgeElement extends AbstractElement {
 	public double similarity(IElement anotherElement) {
 		if (anotherElement instanceof EdgeElement) {
 			EdgeElement edgeElement = (EdgeElement) anotherElement;
-			String id = Activator.getDefault().getPreferenceStore().getString(GraphsAdapterPreferencePage.EDGE_ID);
+			String id = ComparisonContext.getCurrent().getString(Activator.getDefault().getPreferenceStore(),
+					GraphsAdapterPreferencePage.EDGE_ID);
 			if (id == null || id.isEmpty()) {
 				if (edgeElement.getEdge().getId().equals(edge.getId())) {
 					return 1;
@@ -62,7 +64,8 @@ public class EdgeElement extends AbstractElement {
 	@Override
 	public List<String> getWords() {
 		List<String> words = new ArrayList<String>();
-		String id = Activator.getDefault().getPreferenceStore().getString(GraphsAdapterPreferencePage.EDGE_ID);
+		String id = ComparisonContext.getCurrent().getString(Activator.getDefault().getPreferenceStore(),
+				GraphsAdapterPreferencePage.EDGE_ID);
 		if (id == null || id.isEmpty()) {
 			words.add(edge.getId().toString());
 		} else {
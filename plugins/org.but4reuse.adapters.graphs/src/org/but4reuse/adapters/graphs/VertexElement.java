@@ -8,6 +8,7 @@ import org.but4reuse.adapters.IElement;
 import org.but4reuse.adapters.graphs.activator.Activator;
 import org.but4reuse.adapters.graphs.preferences.GraphsAdapterPreferencePage;
 import org.but4reuse.adapters.impl.AbstractElement;
+import org.but4reuse.adapters.preferences.ComparisonContext;
 
 import com.tinkerpop.blueprints.Vertex;
 
@@ -24,7 +25,8 @@ public class VertexElement extends AbstractElement {
 	public double similarity(IElement anotherElement) {
 		if (anotherElement instanceof VertexElement) {
 			VertexElement vertexElement = (VertexElement) anotherElement;
-			String id = Activator.getDefault().getPreferenceStore().getString(GraphsAdapterPreferencePage.NODE_ID);
+			String id = ComparisonContext.getCurrent().getString(Activator.getDefault().getPreferenceStore(),
+					GraphsAdapterPreferencePage.NODE_ID);
 			if (id == null || id.isEmpty()) {
 				if (vertexElement.getVertex().getId().equals(vertex.getId())) {
 					return 1;
@@ -60,7 +62,8 @@ public class VertexElement extends AbstractElement {
 	@Override
 	public List<String> getWords() {
 		List<String> words = new ArrayList<String>();
-		String id = Activator.getDefault().getPreferenceStore().getString(GraphsAdapterPreferencePage.NODE_ID);
+		String id = ComparisonContext.getCurrent().getString(Activator.getDefault().getPreferenceStore(),
+				GraphsAdapterPreferencePage.NODE_ID);
 		if (id == null || id.isEmpty()) {
 			words.add(vertex.getId().toString());
 		} else {
@@ -5,9 +5,13 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.but4reuse.adapters.IAdapter;
+import org.but4reuse.adapters.ICacheableAdapter;
 import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.helper.AdaptationCache;
+import org.but4reuse.adapters.images.activator.Activator;
+import org.but4reuse.adapters.images.preferences.ImageAdapterPreferencePage;
 import org.but4reuse.adapters.images.utils.ImageUtils;
+import org.but4reuse.adapters.images.utils.PackedImage;
 import org.but4reuse.utils.files.FileUtils;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.swt.SWT;
@@ -17,11 +21,14 @@ import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.RGB;
 
 /**
- * Image adapter
+ * Image adapter. For big images the pixel segments mode can be selected in the
+ * preferences. In this mode the image is read in a packed int array and an
+ * element is only created for each run of consecutive pixels of a row with
+ * the same color, instead of one element for each pixel.
  * 
  * @author jabier.martinez
  */
-public class ImageAdapter implements IAdapter {
+public class ImageAdapter implements ICacheableAdapter {
 
 	@Override
 	public boolean isAdaptable(URI uri, IProgressMonitor monitor) {
@@ -32,8 +39,17 @@ public class ImageAdapter implements IAdapter {
 		return false;
 	}
 
+	@Override
+	public String getCacheKey() {
+		return AdaptationCache.getPreferencesKey(Activator.getDefault().getPreferenceStore(),
+				ImageAdapterPreferencePage.PIXEL_SEGMENTS);
+	}
+
 	@Override
 	public List<IElement> adapt(URI uri, IProgressMonitor monitor) {
+		if (Activator.getDefault().getPreferenceStore().getBoolean(ImageAdapterPreferencePage.PIXEL_SEGMENTS)) {
+			return adaptSegments(uri, monitor);
+		}
 		List<IElement> elements = new ArrayList<IElement>();
 		File file = FileUtils.getFile(uri);
 		Image image = ImageUtils.getImage(file.getAbsolutePath());
@@ -67,6 +83,51 @@ public class ImageAdapter implements IAdapter {
 		return elements;
 	}
 
+	/**
+	 * Create a PixelSegmentElement for each run of consecutive pixels of a row
+	 * with the same color
+	 * 
+	 * @param uri
+	 * @param monitor
+	 * @return the elements
+	 */
+	private List<IElement> adaptSegments(URI uri, IProgressMonitor monitor) {
+		List<IElement> elements = new ArrayList<IElement>();
+		File file = FileUtils.getFile(uri);
+		Image image = ImageUtils.getImage(file.getAbsolutePath());
+		if (image == null) {
+			return elements;
+		}
+		PackedImage packedImage = new PackedImage(image.getImageData());
+		image.dispose();
+
+		int[] argb = packedImage.argb;
+		for (int y = 0; y < packedImage.height; y++) {
+			int rowStart = y * packedImage.width;
+			int x = 0;
+			while (x < packedImage.width) {
+				int color = argb[rowStart + x];
+				int length = 1;
+				while (x + length < packedImage.width && argb[rowStart + x + length] == color) {
+					length++;
+				}
+				// Only add if it is not completely transparent
+				if (PackedImage.getAlpha(color) != 0) {
+					PixelSegmentElement segment = new PixelSegmentElement();
+					segment.x = x;
+					segment.y = y;
+					segment.length = length;
+					segment.argb = color;
+					// A segment depends on its position
+					segment.addDependency(new PositionDependencyObject(new Point(x, y)));
+					elements.add(segment);
+				}
+				x += length;
+			}
+		}
+		return elements;
+	}
+
 	@Override
 	public void construct(URI uri, List<IElement> elements, IProgressMonitor monitor) {
 		try {
@@ -90,6 +151,14 @@ public class ImageAdapter implements IAdapter {
 					if (maxHeight < pElement.position.y) {
 						maxHeight = pElement.position.y;
 					}
+				} else if (element instanceof PixelSegmentElement) {
+					PixelSegmentElement segment = (PixelSegmentElement) element;
+					if (maxWidth < segment.x + segment.length - 1) {
+						maxWidth = segment.x + segment.length - 1;
+					}
+					if (maxHeight < segment.y) {
+						maxHeight = segment.y;
+					}
 				}
 			}
 
@@ -102,6 +171,14 @@ public class ImageAdapter implements IAdapter {
 					PixelElement pElement = (PixelElement) element;
 					imageData.setAlpha(pElement.position.x, pElement.position.y, pElement.alpha);
 					imageData.setPixel(pElement.position.x, pElement.position.y, pElement.color.hashCode());
+				} else if (element instanceof PixelSegmentElement) {
+					PixelSegmentElement segment = (PixelSegmentElement) element;
+					int alpha = segment.getAlpha();
+					int pixel = segment.getColor().hashCode();
+					for (int x = segment.x; x < segment.x + segment.length; x++) {
+						imageData.setAlpha(x, segment.y, alpha);
+						imageData.setPixel(x, segment.y, pixel);
+					}
 				}
 			}
 
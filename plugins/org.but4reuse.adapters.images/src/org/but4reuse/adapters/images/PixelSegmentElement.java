@@ -0,0 +1,86 @@
+package org.but4reuse.adapters.images;
+
+import java.util.ArrayList;
+
+import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.images.utils.ColorUtils;
+import org.but4reuse.adapters.images.utils.ImageUtils;
+import org.but4reuse.adapters.images.utils.PackedImage;
+import org.but4reuse.adapters.impl.AbstractElement;
+import org.eclipse.swt.graphics.RGB;
+
+/**
+ * Pixel segment element. Consecutive pixels of a row with the same color and
+ * alpha. The position and the color are kept as ints and the RGB is only
+ * created when needed. Two segments can only be equal if they start in the
+ * same position and have the same length, so both are used in the hash code
+ * and in the blocking key.
+ * 
+ * @author jabier.martinez
+ */
+public class PixelSegmentElement extends AbstractElement {
+
+	public int x;
+	public int y;
+	public int length;
+	// 0xAARRGGBB
+	public int argb;
+
+	@Override
+	public String getText() {
+		String text = "Point {" + x + ", " + y + "} x" + length + ", " + getColor();
+		// show alpha only if it is not completely opaque
+		int alpha = getAlpha();
+		if (alpha != 255) {
+			text = text + ", Alpha: " + alpha;
+		}
+		return text;
+	}
+
+	public RGB getColor() {
+		return PackedImage.getRGB(argb);
+	}
+
+	public int getAlpha() {
+		return PackedImage.getAlpha(argb);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * x + y) + length;
+	}
+
+	@Override
+	public Object getBlockingKey() {
+		// only segments in the same position and with the same length can be
+		// similar
+		return x + "," + y + "," + length;
+	}
+
+	@Override
+	public double similarity(IElement anotherElement) {
+		if (anotherElement instanceof PixelSegmentElement) {
+			PixelSegmentElement segment = (PixelSegmentElement) anotherElement;
+			if (x == segment.x && y == segment.y && length == segment.length && getAlpha() == segment.getAlpha()) {
+				if (argb == segment.argb) {
+					return 1;
+				}
+				return ImageUtils.getColorSimilarity(getColor(), segment.getColor());
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public ArrayList<String> getWords() {
+		ArrayList<String> words = new ArrayList<String>();
+		if (!ColorUtils.isInit())
+			ColorUtils.init();
+
+		String name = ColorUtils.getColorName(getColor());
+		if (!name.equals("Erreur"))
+			words.add(name);
+		return words;
+	}
+
+}
@@ -34,6 +34,11 @@ public class PositionDependencyObject implements IDependencyObject {
 		return super.equals(obj);
 	}
 
+	@Override
+	public int hashCode() {
+		return position.hashCode();
+	}
+
 	@Override
 	public String getDependencyObjectText() {
 		return position.toString();
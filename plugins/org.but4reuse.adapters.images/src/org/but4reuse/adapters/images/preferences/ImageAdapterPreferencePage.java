@@ -0,0 +1,37 @@
+package org.but4reuse.adapters.images.preferences;
+
+import org.but4reuse.adapters.images.activator.Activator;
+import org.eclipse.jface.preference.BooleanFieldEditor;
+import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPreferencePage;
+
+/**
+ * Preference page for image adapter
+ * 
+ * @author jabier.martinez
+ */
+public class ImageAdapterPreferencePage extends FieldEditorPreferencePage implements IWorkbenchPreferencePage {
+
+	public static final String PIXEL_SEGMENTS = "PIXEL_SEGMENTS";
+
+	public ImageAdapterPreferencePage() {
+		super(GRID);
+		this.setPreferenceStore(Activator.getDefault().getPreferenceStore());
+	}
+
+	/**
+	 * Creates the field editors.
+	 */
+	public void createFieldEditors() {
+		BooleanFieldEditor bfe = new BooleanFieldEditor(PIXEL_SEGMENTS,
+				"Pixel segments: for big images, one element for consecutive pixels of a row with the same color",
+				getFieldEditorParent());
+		addField(bfe);
+	}
+
+	@Override
+	public void init(IWorkbench workbench) {
+	}
+
+}
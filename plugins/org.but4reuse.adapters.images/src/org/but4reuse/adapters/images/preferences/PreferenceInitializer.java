@@ -0,0 +1,20 @@
+package org.but4reuse.adapters.images.preferences;
+
+import org.but4reuse.adapters.images.activator.Activator;
+import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
+import org.eclipse.jface.preference.IPreferenceStore;
+
+/**
+ * Initialize preferences
+ * 
+ * @author jabier.martinez
+ * 
+ */
+public class PreferenceInitializer extends AbstractPreferenceInitializer {
+
+	public void initializeDefaultPreferences() {
+		IPreferenceStore store = Activator.getDefault().getPreferenceStore();
+		store.setDefault(ImageAdapterPreferencePage.PIXEL_SEGMENTS, false);
+	}
+
+}
@@ -0,0 +1,94 @@
+package org.but4reuse.adapters.images.utils;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+
+/**
+ * Packed image. The pixels are stored in one int array, the position of a
+ * pixel is its index (y * width + x) and its color is one int with the alpha,
+ * red, green and blue values (0xAARRGGBB). An alpha of 0 means that the pixel
+ * is completely transparent.
+ * 
+ * @author jabier.martinez
+ */
+public class PackedImage {
+
+	public int width;
+	public int height;
+	public int[] argb;
+
+	/**
+	 * Read the pixels of an image data row by row
+	 * 
+	 * @param imageData
+	 */
+	public PackedImage(ImageData imageData) {
+		width = imageData.width;
+		height = imageData.height;
+		argb = new int[width * height];
+		PaletteData palette = imageData.palette;
+		// the colors of an indexed palette are packed only once
+		int[] colors = null;
+		if (!palette.isDirect) {
+			colors = new int[palette.colors.length];
+			for (int i = 0; i < colors.length; i++) {
+				colors[i] = pack(0, palette.colors[i]);
+			}
+		}
+		boolean transparentPixel = imageData.getTransparencyType() == SWT.TRANSPARENCY_PIXEL;
+		int[] pixels = new int[width];
+		byte[] alphas = new byte[width];
+		for (int y = 0; y < height; y++) {
+			imageData.getPixels(0, y, width, pixels, 0);
+			if (imageData.alphaData != null) {
+				imageData.getAlphas(0, y, width, alphas, 0);
+			}
+			for (int x = 0; x < width; x++) {
+				int alpha;
+				// Take care of transparency types
+				if (transparentPixel && imageData.transparentPixel == pixels[x]) {
+					alpha = 0;
+				} else if (imageData.alphaData != null) {
+					alpha = alphas[x] & 0xff;
+				} else {
+					// same as getAlpha without alphaData
+					alpha = 255;
+				}
+				int rgb = colors != null ? colors[pixels[x]] : getDirectRGB(palette, pixels[x]);
+				argb[y * width + x] = (alpha << 24) | rgb;
+			}
+		}
+	}
+
+	/**
+	 * Same as PaletteData.getRGB for a direct palette without creating the RGB
+	 * 
+	 * @param palette
+	 * @param pixel
+	 * @return 0x00RRGGBB
+	 */
+	private static int getDirectRGB(PaletteData palette, int pixel) {
+		int r = shift(pixel & palette.redMask, palette.redShift);
+		int g = shift(pixel & palette.greenMask, palette.greenShift);
+		int b = shift(pixel & palette.blueMask, palette.blueShift);
+		return (r << 16) | (g << 8) | b;
+	}
+
+	private static int shift(int value, int shift) {
+		return shift < 0 ? value >>> -shift : value << shift;
+	}
+
+	public static int pack(int alpha, RGB rgb) {
+		return (alpha << 24) | (rgb.red << 16) | (rgb.green << 8) | rgb.blue;
+	}
+
+	public static int getAlpha(int argb) {
+		return (argb >>> 24) & 0xff;
+	}
+
+	public static RGB getRGB(int argb) {
+		return new RGB((argb >> 16) & 0xff, (argb >> 8) & 0xff, argb & 0xff);
+	}
+}
@@ -1,17 +1,24 @@
 package org.but4reuse.adapters.json;
 
 import java.io.BufferedReader;
-import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URI;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 
-import org.but4reuse.adapters.IAdapter;
+import org.but4reuse.adapters.ICacheableAdapter;
 import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.helper.AdaptationCache;
+import org.but4reuse.adapters.json.activator.Activator;
+import org.but4reuse.adapters.json.preferences.JsonAdapterPreferencePage;
 import org.but4reuse.adapters.json.tools.AdapterTools;
+import org.but4reuse.adapters.json.tools.CompiledPaths;
 import org.but4reuse.adapters.json.tools.JsonConstruct;
 import org.but4reuse.adapters.json.tools.JsonElement;
 import org.but4reuse.adapters.json.tools.Paths;
@@ -24,7 +31,7 @@ import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 import com.eclipsesource.json.WriterConfig;
 
-public class JsonAdapter implements IAdapter {
+public class JsonAdapter implements ICacheableAdapter {
 
 	@Override
 	public boolean isAdaptable(URI uri, IProgressMonitor monitor) {
@@ -35,6 +42,14 @@ public class JsonAdapter implements IAdapter {
 		return false;
 	}
 
+	@Override
+	public String getCacheKey() {
+		return AdaptationCache.getPreferencesKey(Activator.getDefault().getPreferenceStore(),
+				JsonAdapterPreferencePage.DELIMITER, JsonAdapterPreferencePage.ABSOLUTE_PATHS_TO_IGNORE,
+				JsonAdapterPreferencePage.RELATIVE_PATHS_TO_IGNORE, JsonAdapterPreferencePage.ABSOLUTE_PATHS_UNSPLITTABLE,
+				JsonAdapterPreferencePage.RELATIVE_PATHS_UNSPLITTABLE);
+	}
+
 	@Override
 	public List<IElement> adapt(URI uri, IProgressMonitor monitor) {
 		Paths pathsToIgnore = PathsTools.getPathsToIgnore();
@@ -56,19 +71,24 @@ public class JsonAdapter implements IAdapter {
 	public List<IElement> adapt(URI uri, IProgressMonitor monitor, Paths pathsToIgnore, Paths pathsUnsplittable) {
 		int id_file = AdapterTools.getUniqueId();
 
-		// the list that will be returned
+		// the list that will be returned. The elements are appended and the
+		// list is reversed at the end, prepending them is quadratic
 		List<IElement> atomicJsonElementList = new ArrayList<IElement>();
 
 		// this is a queue to iteratively feed the atomic json element list
-		List<JsonElement> jsonElementQueue = new ArrayList<JsonElement>();
+		Deque<JsonElement> jsonElementQueue = new ArrayDeque<JsonElement>();
 
+		// prepared only once for all the nodes
+		CompiledPaths compiledPathsToIgnore = new CompiledPaths(pathsToIgnore);
+		CompiledPaths compiledPathsUnsplittable = new CompiledPaths(pathsUnsplittable);
+
+		BufferedReader br = null;
 		try {
 			// Load json file
 			File file = FileUtils.getFile(uri);
 			FileInputStream fstream = new FileInputStream(file);
-			DataInputStream in = new DataInputStream(fstream);
-			InputStreamReader isr = new InputStreamReader(in);
-			BufferedReader br = new BufferedReader(isr);
+			InputStreamReader isr = new InputStreamReader(fstream);
+			br = new BufferedReader(isr);
 			JsonObject root = JsonObject.readFrom(br);
 
 			// Add root
@@ -79,32 +99,32 @@ public class JsonAdapter implements IAdapter {
 			for (String name : root.names()) {
 				KeyElement keyElement = new KeyElement(name, rootElement);
 				keyElement.addDependency(rootElement);
-				atomicJsonElementList.add(0, keyElement);
+				atomicJsonElementList.add(keyElement);
 				jsonElementQueue.add(new JsonElement(new Paths(name), root.get(name), keyElement, keyElement));
 			}
 
 			// while the queue is empty
 			while (!jsonElementQueue.isEmpty()) {
-				JsonElement jsonElement = jsonElementQueue.remove(0);
+				JsonElement jsonElement = jsonElementQueue.poll();
 				Paths paths = jsonElement.paths;
 				JsonValue jsonValue = jsonElement.jsonValue;
 				IElement parent = jsonElement.parent;
 				IElement dependency = jsonElement.dependency;
 
 				// paths to ignore
-				if (paths.matches(pathsToIgnore)) {
+				if (compiledPathsToIgnore.matches(paths)) {
 					IgnoredElement ignoredElement = new IgnoredElement(jsonValue, parent);
 					ignoredElement.addDependency(dependency);
-					atomicJsonElementList.add(0, ignoredElement);
+					atomicJsonElementList.add(ignoredElement);
 					continue;
 				}
 
 				// paths unsplittable
-				if (paths.matches(pathsUnsplittable)) {
-					JsonValue compare = PathsTools.removePaths(jsonValue, paths, pathsToIgnore);
+				if (compiledPathsUnsplittable.matches(paths)) {
+					JsonValue compare = PathsTools.removePaths(jsonValue, paths, compiledPathsToIgnore);
 					UnsplittableElement unsplittableElement = new UnsplittableElement(jsonValue, compare, parent);
 					unsplittableElement.addDependency(dependency);
-					atomicJsonElementList.add(0, unsplittableElement);
+					atomicJsonElementList.add(unsplittableElement);
 					continue;
 				}
 
@@ -113,24 +133,24 @@ public class JsonAdapter implements IAdapter {
 					Paths currentPaths = new Paths(paths);
 					currentPaths.extend("{}");
 
-					if (currentPaths.matches(pathsToIgnore)) {
+					if (compiledPathsToIgnore.matches(currentPaths)) {
 						IgnoredElement ignoredElement = new IgnoredElement(jsonValue, parent);
 						ignoredElement.addDependency(dependency);
-						atomicJsonElementList.add(0, ignoredElement);
+						atomicJsonElementList.add(ignoredElement);
 						continue;
 					}
-					if (currentPaths.matches(pathsUnsplittable)) {
-						JsonValue compare = PathsTools.removePaths(jsonValue, currentPaths, pathsToIgnore);
+					if (compiledPathsUnsplittable.matches(currentPaths)) {
+						JsonValue compare = PathsTools.removePaths(jsonValue, currentPaths, compiledPathsToIgnore);
 						UnsplittableElement unsplittableElement = new UnsplittableElement(jsonValue, compare, parent);
 						unsplittableElement.addDependency(dependency);
-						atomicJsonElementList.add(0, unsplittableElement);
+						atomicJsonElementList.add(unsplittableElement);
 						continue;
 					}
 
 					JsonObject jsonObject = jsonValue.asObject();
 					ObjectElement objectElement = new ObjectElement(parent);
 					objectElement.addDependency(dependency);
-					atomicJsonElementList.add(0, objectElement);
+					atomicJsonElementList.add(objectElement);
 
 					for (String name : jsonObject.names()) {
 						currentPaths = new Paths(paths);
@@ -138,7 +158,7 @@ public class JsonAdapter implements IAdapter {
 
 						KeyElement keyElement = new KeyElement(name, objectElement);
 						keyElement.addDependency(objectElement);
-						atomicJsonElementList.add(0, keyElement);
+						atomicJsonElementList.add(keyElement);
 
 						jsonElementQueue
 								.add(new JsonElement(currentPaths, jsonObject.get(name), keyElement, keyElement));
@@ -149,24 +169,24 @@ public class JsonAdapter implements IAdapter {
 					Paths currentPaths = new Paths(paths);
 					currentPaths.extend("[]");
 
-					if (currentPaths.matches(pathsToIgnore)) {
+					if (compiledPathsToIgnore.matches(currentPaths)) {
 						IgnoredElement ignoredElement = new IgnoredElement(jsonValue, parent);
 						ignoredElement.addDependency(dependency);
-						atomicJsonElementList.add(0, ignoredElement);
+						atomicJsonElementList.add(ignoredElement);
 						continue;
 					}
-					if (currentPaths.matches(pathsUnsplittable)) {
-						JsonValue compare = PathsTools.removePaths(jsonValue, currentPaths, pathsToIgnore);
+					if (compiledPathsUnsplittable.matches(currentPaths)) {
+						JsonValue compare = PathsTools.removePaths(jsonValue, currentPaths, compiledPathsToIgnore);
 						UnsplittableElement unsplittableElement = new UnsplittableElement(jsonValue, compare, parent);
 						unsplittableElement.addDependency(dependency);
-						atomicJsonElementList.add(0, unsplittableElement);
+						atomicJsonElementList.add(unsplittableElement);
 						continue;
 					}
 
 					JsonArray jsonArray = jsonValue.asArray();
 					ArrayElement arrayElement = new ArrayElement(parent);
 					arrayElement.addDependency(dependency);
-					atomicJsonElementList.add(0, arrayElement);
+					atomicJsonElementList.add(arrayElement);
 
 					List<IndexArrayElement> indexesAhead = new ArrayList<IndexArrayElement>();
 
@@ -185,14 +205,24 @@ public class JsonAdapter implements IAdapter {
 				} else {
 					ValueElement valueElement = new ValueElement(parent, jsonValue);
 					valueElement.addDependency(dependency);
-					atomicJsonElementList.add(0, valueElement);
+					atomicJsonElementList.add(valueElement);
 				}
 			}
 
 		} catch (Exception e) {
 			e.printStackTrace();
+		} finally {
+			if (br != null) {
+				try {
+					br.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
 		}
 
+		// children first, root last
+		Collections.reverse(atomicJsonElementList);
 		return atomicJsonElementList;
 	}
 
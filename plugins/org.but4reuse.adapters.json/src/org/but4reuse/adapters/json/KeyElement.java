@@ -35,6 +35,12 @@ public class KeyElement extends AbstractElement {
 		return 0;
 	}
 
+	@Override
+	public Object getBlockingKey() {
+		// they must have the same name to be similar
+		return name;
+	}
+
 	@Override
 	public String getText() {
 		if (parent.parent == null) {
@@ -0,0 +1,38 @@
+package org.but4reuse.adapters.json.tools;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Paths prepared to be matched many times (e.g. the paths to ignore or the
+ * unsplittable paths). The paths are kept in hash sets so matching does not
+ * depend on the number of paths.
+ * 
+ * @author jabier.martinez
+ */
+public class CompiledPaths {
+	private Set<String> absolutePaths;
+	private Set<String> relativePaths;
+
+	public CompiledPaths(Paths paths) {
+		this.absolutePaths = new HashSet<String>(paths.absolutePaths);
+		this.relativePaths = new HashSet<String>(paths.relativePaths);
+	}
+
+	public boolean isEmpty() {
+		return absolutePaths.isEmpty() && relativePaths.isEmpty();
+	}
+
+	// Same as Paths.matches
+	public boolean matches(Paths paths) {
+		if (isEmpty())
+			return false;
+		for (String path : paths.absolutePaths)
+			if (absolutePaths.contains(path))
+				return true;
+		for (String path : paths.relativePaths)
+			if (relativePaths.contains(path))
+				return true;
+		return false;
+	}
+}
@@ -45,14 +45,18 @@ public class PathsTools {
 	}
 
 	public static JsonValue removePaths(JsonValue jsonValue, Paths paths, Paths pathsToIgnore) {
-		if (paths.matches(pathsToIgnore))
+		return removePaths(jsonValue, paths, new CompiledPaths(pathsToIgnore));
+	}
+
+	public static JsonValue removePaths(JsonValue jsonValue, Paths paths, CompiledPaths pathsToIgnore) {
+		if (pathsToIgnore.matches(paths))
 			return JsonValue.NULL;
 
 		if (jsonValue.isObject()) {
 			paths = new Paths(paths);
 			paths.extend("{}");
 
-			if (paths.matches(pathsToIgnore))
+			if (pathsToIgnore.matches(paths))
 				return JsonValue.NULL;
 
 			JsonObject jsonObject = new JsonObject();
@@ -67,7 +71,7 @@ public class PathsTools {
 			Paths currentPaths = new Paths(paths);
 			currentPaths.extend("[]");
 
-			if (currentPaths.matches(pathsToIgnore))
+			if (pathsToIgnore.matches(currentPaths))
 				return JsonValue.NULL;
 
 			JsonArray jsonArray = new JsonArray();
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 
 import org.but4reuse.adapters.IElement;
 import org.but4reuse.adapters.impl.AbstractElement;
+import org.but4reuse.utils.strings.StringUtils;
 
 /**
  * 
@@ -13,6 +14,9 @@ public class BodyElement extends AbstractElement {
 
 	private String body;
 
+	// calculated once, it is used in each comparison
+	private String bodyDigest;
+
 	private FSTNodeElement parent;
 
 	@Override
@@ -23,11 +27,20 @@ public class BodyElement extends AbstractElement {
 		}
 		// check same content
 		BodyElement anotherBodyElement = (BodyElement) anotherElement;
-		if (!anotherBodyElement.getBody().equals(getBody())) {
+		if (!anotherBodyElement.getBodyDigest().equals(getBodyDigest())) {
 			return 0;
 		}
-		// check same parents
-		return FSTNodeElement.ancestorsSimilarity(parent, anotherBodyElement.getParent());
+		// check same ancestors of the parents
+		if (parent.getAncestorsPath() == anotherBodyElement.getParent().getAncestorsPath()) {
+			return 1;
+		}
+		return 0;
+	}
+
+	@Override
+	public Object getBlockingKey() {
+		// they must have the same content to be similar
+		return getBodyDigest();
 	}
 
 	@Override
@@ -44,6 +57,19 @@ public class BodyElement extends AbstractElement {
 
 	public void setBody(String body) {
 		this.body = body;
+		this.bodyDigest = StringUtils.getChecksumMD5(body);
+	}
+
+	/**
+	 * Get the digest of the body
+	 * 
+	 * @return the MD5 checksum of the body
+	 */
+	public String getBodyDigest() {
+		if (bodyDigest == null) {
+			bodyDigest = StringUtils.getChecksumMD5(body);
+		}
+		return bodyDigest;
 	}
 
 	public FSTNodeElement getParent() {
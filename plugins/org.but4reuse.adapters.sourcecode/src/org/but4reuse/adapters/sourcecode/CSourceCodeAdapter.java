@@ -8,7 +8,7 @@ import org.but4reuse.adapters.IAdapter;
 import org.but4reuse.adapters.IElement;
 import org.but4reuse.adapters.sourcecode.adapter.CLanguage;
 import org.but4reuse.adapters.sourcecode.adapter.Elements2FST;
-import org.but4reuse.adapters.sourcecode.adapter.LanguageManager;
+import org.but4reuse.adapters.sourcecode.adapter.ILanguage;
 import org.but4reuse.adapters.sourcecode.adapter.ReadFSTProduct;
 import org.but4reuse.utils.files.FileUtils;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -29,11 +29,10 @@ public class CSourceCodeAdapter implements IAdapter {
 
 	@Override
 	public List<IElement> adapt(URI uri, IProgressMonitor monitor) {
-		LanguageManager.setLanguage(new CLanguage());
-
 		// Step1: Read the input product variant.
 		List<IElement> artefact = null;
-		ReadFSTProduct rp1 = new ReadFSTProduct();
+		// each adaptation with its own language
+		ReadFSTProduct rp1 = new ReadFSTProduct(new CLanguage());
 		try {
 			rp1.readProduct(uri);
 			artefact = rp1.getArtefactElements();
@@ -48,8 +47,9 @@ public class CSourceCodeAdapter implements IAdapter {
 		Elements2FST ss = new Elements2FST();
 		List<FSTNode> nodesS = ss.elementsToFST(cps);
 		String absPath = FileUtils.getFile(uri).getAbsolutePath();
+		ILanguage language = new CLanguage();
 		for (FSTNode n : nodesS) {
-			LanguageManager.getLanguage().generateCode(n, absPath);
+			language.generateCode(n, absPath);
 		}
 	}
 
@@ -9,6 +9,7 @@ import java.util.List;
 
 import org.but4reuse.adapters.IElement;
 import org.but4reuse.adapters.impl.AbstractElement;
+import org.but4reuse.adapters.sourcecode.adapter.ILanguage;
 import org.but4reuse.adapters.sourcecode.adapter.LanguageManager;
 import org.but4reuse.utils.files.FileUtils;
 import org.but4reuse.utils.strings.StringUtils;
@@ -31,6 +32,15 @@ public abstract class FSTNodeElement extends AbstractElement {
 
 	private String type;
 
+	private ILanguage language;
+
+	// calculated once, they are used in each comparison
+	private String packageName;
+	private transient String path;
+	private transient String signature;
+
+	private static final char SEPARATOR = '\0';
+
 	@Override
 	public String getText() {
 		String t = "";
@@ -48,14 +58,17 @@ public abstract class FSTNodeElement extends AbstractElement {
 
 	public void setNode(FSTNode node) {
 		this.fstNode = node;
+		resetSignature();
 	}
 
 	public void setName(String name) {
 		this.name = name;
+		resetSignature();
 	}
 
 	public void setType(String type) {
 		this.type = type;
+		resetSignature();
 	}
 
 	public FSTNode getNode() {
@@ -70,12 +83,92 @@ public abstract class FSTNodeElement extends AbstractElement {
 		return type;
 	}
 
+	/**
+	 * Get the language of the adaptation that created this element
+	 * 
+	 * @return the language or the default one of the LanguageManager
+	 */
+	public ILanguage getLanguage() {
+		if (language == null) {
+			return LanguageManager.getLanguage();
+		}
+		return language;
+	}
+
+	public void setLanguage(ILanguage language) {
+		this.language = language;
+	}
+
+	/**
+	 * Get the package name of a non terminal node
+	 * 
+	 * @return the package name or empty string
+	 */
+	public String getPackageName() {
+		if (packageName == null) {
+			packageName = getLanguage().getPackageName((FSTNonTerminal) fstNode);
+		}
+		return packageName;
+	}
+
+	/**
+	 * Get the path from the root, with the name and type of this element and
+	 * all its ancestors. It is interned so two paths can be compared with ==
+	 * 
+	 * @return the path
+	 */
+	public String getPath() {
+		if (path == null) {
+			StringBuilder sb = new StringBuilder(getAncestorsPath());
+			sb.append(SEPARATOR).append(fstNode.getType()).append(SEPARATOR).append(name);
+			path = sb.toString().intern();
+		}
+		return path;
+	}
+
+	/**
+	 * Get the path of the parent
+	 * 
+	 * @return the path of the parent or empty string
+	 */
+	public String getAncestorsPath() {
+		if (parent == null) {
+			return "";
+		}
+		return parent.getPath();
+	}
+
+	/**
+	 * Signature of the element with the path and the package name of a non
+	 * terminal. Two elements are similar if they have the same signature. It
+	 * is interned so two signatures can be compared with ==
+	 * 
+	 * @return the signature
+	 */
+	public String getSignature() {
+		if (signature == null) {
+			if (fstNode instanceof FSTNonTerminal) {
+				signature = (getPath() + SEPARATOR + getPackageName()).intern();
+			} else {
+				signature = getPath();
+			}
+		}
+		return signature;
+	}
+
+	private void resetSignature() {
+		packageName = null;
+		path = null;
+		signature = null;
+	}
+
 	public FSTNodeElement getParent() {
 		return parent;
 	}
 
 	public void setParent(FSTNodeElement parent) {
 		this.parent = parent;
+		resetSignature();
 	}
 
 	public boolean construct(URI uri) {
@@ -88,7 +181,7 @@ public abstract class FSTNodeElement extends AbstractElement {
 				e.printStackTrace();
 			}
 			// Copy the content
-			LanguageManager.getLanguage().generateCode(this.fstNode, a.getAbsolutePath());
+			getLanguage().generateCode(this.fstNode, a.getAbsolutePath());
 		}
 		return true;
 	}
@@ -102,25 +195,17 @@ public abstract class FSTNodeElement extends AbstractElement {
 
 		FSTNodeElement element = (FSTNodeElement) anotherElement;
 
-		// Check same name and type
-		if (fstNode.getName().equals(element.getNode().getName())
-				&& fstNode.getType().equals(element.getNode().getType())) {
-			// Check same package name
-			if (element.getNode() instanceof FSTNonTerminal && fstNode instanceof FSTNonTerminal) {
-				String anotherElementPackage = LanguageManager.getLanguage()
-						.getPackageName((FSTNonTerminal) element.getNode());
-				String thisPackageName = LanguageManager.getLanguage().getPackageName((FSTNonTerminal) fstNode);
-				if (!anotherElementPackage.equals(thisPackageName)) {
-					return 0;
-				}
-			}
-
-			// Check the same ancestors
-			double ancestorsSimilarity = ancestorsSimilarity(element, this);
-			return ancestorsSimilarity;
-		} else {
-			return 0;
+		// Check same name, type, package name and ancestors
+		if (getSignature() == element.getSignature()) {
+			return 1;
 		}
+		return 0;
+	}
+
+	@Override
+	public Object getBlockingKey() {
+		// they must have the same signature to be similar
+		return getSignature();
 	}
 
 	public static double ancestorsSimilarity(FSTNodeElement element_1, FSTNodeElement element_2) {
@@ -7,8 +7,8 @@ import java.util.List;
 import org.but4reuse.adapters.IAdapter;
 import org.but4reuse.adapters.IElement;
 import org.but4reuse.adapters.sourcecode.adapter.Elements2FST;
+import org.but4reuse.adapters.sourcecode.adapter.ILanguage;
 import org.but4reuse.adapters.sourcecode.adapter.JavaLanguage;
-import org.but4reuse.adapters.sourcecode.adapter.LanguageManager;
 import org.but4reuse.adapters.sourcecode.adapter.ReadFSTProduct;
 import org.but4reuse.utils.files.FileUtils;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -29,8 +29,8 @@ public class JavaSourceCodeAdapter implements IAdapter {
 
 	@Override
 	public List<IElement> adapt(URI uri, IProgressMonitor monitor) {
-		LanguageManager.setLanguage(new JavaLanguage());
-		ReadFSTProduct rp1 = new ReadFSTProduct();
+		// each adaptation with its own language
+		ReadFSTProduct rp1 = new ReadFSTProduct(new JavaLanguage());
 		rp1.readProduct(uri);
 		List<IElement> elements = rp1.getArtefactElements();
 
@@ -63,8 +63,9 @@ public class JavaSourceCodeAdapter implements IAdapter {
 		Elements2FST elements2FST = new Elements2FST();
 		List<FSTNode> nodesS = elements2FST.elementsToFST(elements);
 		String absPath = FileUtils.getFile(uri).getAbsolutePath();
+		ILanguage language = new JavaLanguage();
 		for (FSTNode n : nodesS) {
-			LanguageManager.getLanguage().generateCode(n, absPath);
+			language.generateCode(n, absPath);
 		}
 	}
 
@@ -34,15 +34,22 @@ public class FST2ElementsAdapter extends AbstractFSTPrintVisitor {
 		return body;
 	}
 
+	private ILanguage language;
+
 	public FST2ElementsAdapter(PrintStream out) {
 		super(out);
 		generateSpaces = true;
+		language = LanguageManager.getLanguage();
 	}
 
 	public FST2ElementsAdapter() {
+		this(LanguageManager.getLanguage());
+	}
+
+	public FST2ElementsAdapter(ILanguage language) {
 		super();
 		generateSpaces = true;
-
+		this.language = language;
 	}
 
 	/**
@@ -72,6 +79,7 @@ public class FST2ElementsAdapter extends AbstractFSTPrintVisitor {
 			fstNt.setName(nonTerminal.getName());
 			fstNt.setType(nonTerminal.getType());
 			fstNt.setNode(nonTerminal);
+			fstNt.setLanguage(language);
 			// add dependency
 			if (parentNodeElement != null) {
 				fstNt.setParent(parentNodeElement);
@@ -90,14 +98,13 @@ public class FST2ElementsAdapter extends AbstractFSTPrintVisitor {
 
 			// TODO ???
 			// Omit package declarations
-			if (!LanguageManager.getLanguage().isImportDec(terminal) && !terminal.getType().equals("InitializerDecl")
+			if (!language.isImportDec(terminal) && !terminal.getType().equals("InitializerDecl")
 					&& !terminal.getName().contains("auto") && !terminal.getType().equals("EnumConstant1")) {
 
 				String key = terminal.getName() + terminal.getType();
 				// if (!this.constructions.contains(key)){
 				this.constructions.add(key);
-				if (LanguageManager.getLanguage().isMethod(terminal)
-						|| (LanguageManager.getLanguage().isConstructor(terminal))) {
+				if (language.isMethod(terminal) || (language.isConstructor(terminal))) {
 
 					String methodName = terminal.getName();
 					String methodBody = terminal.getBody();
@@ -112,6 +119,7 @@ public class FST2ElementsAdapter extends AbstractFSTPrintVisitor {
 				fstTN.setName(terminal.getName());
 				fstTN.setType(terminal.getType());
 				fstTN.setNode(terminal);
+				fstTN.setLanguage(language);
 				// add dependency
 				if (parentNodeElement != null) {
 					fstTN.setParent(parentNodeElement);
@@ -1,18 +1,22 @@
 package org.but4reuse.adapters.sourcecode.adapter;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 import de.ovgu.cide.fstgen.ast.FSTNode;
 
 /**
- * The current language
+ * The default language. The adapters do not set it anymore, each adaptation
+ * uses its own language that is kept in the elements. It is only used by the
+ * code that does not have a language.
  */
 public class LanguageManager {
 
-	private static ILanguage LANGUAGE;
+	private static volatile ILanguage LANGUAGE;
 
 	// TODO seems unused
-	public static HashMap<FSTNode, String> filesNames = new HashMap<FSTNode, String>();
+	public static Map<FSTNode, String> filesNames = Collections.synchronizedMap(new HashMap<FSTNode, String>());
 
 	public static ILanguage getLanguage() {
 		return LANGUAGE;
@@ -18,6 +18,30 @@ public class ReadFSTProduct {
 	private HashMap<String, ArrayList<HashMap<String, FSTTerminal>>> bodies_nodes = new HashMap<String, ArrayList<HashMap<String, FSTTerminal>>>();
 	HashMap<String, String> methodsOfProduct = null;
 
+	// FeatureHouse parsers are not thread safe
+	private static final Object PARSER_LOCK = new Object();
+
+	private ILanguage language;
+
+	private List<File> parsingFailures = new ArrayList<File>();
+
+	/**
+	 * Read product with the default language of the LanguageManager
+	 */
+	public ReadFSTProduct() {
+		this(LanguageManager.getLanguage());
+	}
+
+	/**
+	 * Read product
+	 * 
+	 * @param language
+	 *            used for parsing the files and kept in the elements
+	 */
+	public ReadFSTProduct(ILanguage language) {
+		this.language = language;
+	}
+
 	public HashMap<String, String> getBody() {
 		return methodsOfProduct;
 	}
@@ -31,20 +55,8 @@ public class ReadFSTProduct {
 	public void readProduct(URI uriToExplore) {
 		File file = FileUtils.getFile(uriToExplore);
 		List<File> allFiles = FileUtils.getAllFiles(file);
-		FST2ElementsAdapter fst2elements = new FST2ElementsAdapter();
-		List<FSTNode> theNodes = new ArrayList<FSTNode>();
-		for (File f : allFiles) {
-			String fileName = f.toString();
-			if (LanguageManager.getLanguage().isALanguageProgram(fileName)) {
-				FSTNonTerminal node = LanguageManager.getLanguage().parseFile(f);
-				// node is null when there was an exception or error in the
-				// parsing
-				if (node != null) {
-					// TODO report parsing errors to the user, not only console!
-					theNodes.add(node);
-				}
-			}
-		}
+		FST2ElementsAdapter fst2elements = new FST2ElementsAdapter(language);
+		List<FSTNode> theNodes = parseFiles(allFiles);
 		fst2elements.adapt(theNodes);
 
 		bodies_nodes = fst2elements.getBodies_nodes();
@@ -53,6 +65,60 @@ public class ReadFSTProduct {
 		this.methodsOfProduct = fst2elements.getBody();
 	}
 
+	/**
+	 * Parse the files of the language. FeatureHouse parsers use static state
+	 * (the list of created nodes and the counter used to name them) so the
+	 * files are parsed sequentially and only one product is parsed at the
+	 * same time, even when several artefacts are adapted concurrently. This
+	 * way the names generated for the nodes of a file are never interleaved
+	 * with the ones of other files.
+	 * 
+	 * @param allFiles
+	 * @return the roots of the parsed files
+	 */
+	private List<FSTNode> parseFiles(List<File> allFiles) {
+		List<FSTNode> theNodes = new ArrayList<FSTNode>();
+		parsingFailures = new ArrayList<File>();
+		synchronized (PARSER_LOCK) {
+			for (File f : allFiles) {
+				String fileName = f.toString();
+				if (language.isALanguageProgram(fileName)) {
+					FSTNonTerminal node = null;
+					try {
+						node = language.parseFile(f);
+					} catch (RuntimeException e) {
+						// continue with the other files
+						e.printStackTrace();
+					}
+					// node is null when there was an exception or error in the
+					// parsing
+					if (node != null) {
+						theNodes.add(node);
+					} else {
+						parsingFailures.add(f);
+					}
+				}
+			}
+		}
+		// TODO report parsing errors to the user, not only console!
+		if (!parsingFailures.isEmpty()) {
+			System.err.println("ReadFSTProduct: " + parsingFailures.size() + " files could not be parsed");
+			for (File f : parsingFailures) {
+				System.err.println(f);
+			}
+		}
+		return theNodes;
+	}
+
+	/**
+	 * The files of the last read product that could not be parsed
+	 * 
+	 * @return the list of files
+	 */
+	public List<File> getParsingFailures() {
+		return parsingFailures;
+	}
+
 	public HashMap<String, ArrayList<HashMap<String, FSTTerminal>>> getBodies_nodes() {
 		return bodies_nodes;
 	}
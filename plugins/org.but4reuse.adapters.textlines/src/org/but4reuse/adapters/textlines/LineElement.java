@@ -5,7 +5,7 @@ import java.net.URI;
 import org.but4reuse.adapters.IElement;
 import org.but4reuse.adapters.impl.AbstractElement;
 import org.but4reuse.adapters.markers.IMarkerElement;
-import org.but4reuse.adapters.preferences.PreferencesHelper;
+import org.but4reuse.adapters.preferences.ComparisonContext;
 import org.but4reuse.utils.nlp.similarity.LevenshteinDistance;
 import org.but4reuse.utils.workbench.WorkbenchUtils;
 import org.eclipse.core.resources.IMarker;
@@ -43,7 +43,7 @@ public class LineElement extends AbstractElement implements IMarkerElement {
 	@Override
 	public int hashCode() {
 		// We use the hash from the line string only if we are on identical mode
-		if (PreferencesHelper.isOnlyIdenticalMode()) {
+		if (ComparisonContext.getCurrent().isOnlyIdenticalMode()) {
 			final int prime = 31;
 			int result = 1;
 			result = prime * result + ((line == null) ? 0 : line.hashCode());
@@ -52,6 +52,15 @@ public class LineElement extends AbstractElement implements IMarkerElement {
 		return super.hashCode();
 	}
 
+	@Override
+	public Object getBlockingKey() {
+		// Only identical lines can be equal if we are on identical mode
+		if (ComparisonContext.getCurrent().isOnlyIdenticalMode()) {
+			return line;
+		}
+		return super.getBlockingKey();
+	}
+
 	// marker information
 	public URI uri;
 	public int lineNumber;
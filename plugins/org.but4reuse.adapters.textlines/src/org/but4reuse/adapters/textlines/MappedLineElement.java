@@ -0,0 +1,92 @@
+package org.but4reuse.adapters.textlines;
+
+import java.net.URI;
+
+import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.impl.AbstractElement;
+import org.but4reuse.adapters.markers.IMarkerElement;
+import org.but4reuse.adapters.preferences.ComparisonContext;
+import org.but4reuse.utils.files.TextSpan;
+import org.but4reuse.utils.nlp.similarity.LevenshteinDistance;
+import org.but4reuse.utils.workbench.WorkbenchUtils;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Line element of a memory mapped file. It keeps the span of the line instead
+ * of its text, the text is decoded only when needed. Identical lines share
+ * the same span. They are only compared with other mapped line elements, as
+ * the line elements do with them, so the hash code and the blocking key can
+ * use the hash of the span.
+ * 
+ * @author jabier.martinez
+ */
+public class MappedLineElement extends AbstractElement implements IMarkerElement {
+
+	public TextSpan span;
+
+	// marker information
+	public URI uri;
+	public int lineNumber;
+
+	public MappedLineElement(TextSpan span, URI uri, int lineNumber) {
+		this.span = span;
+		this.uri = uri;
+		this.lineNumber = lineNumber;
+	}
+
+	@Override
+	public double similarity(IElement anotherElement) {
+		if (anotherElement instanceof MappedLineElement) {
+			// identical content without decoding the text
+			TextSpan anotherSpan = ((MappedLineElement) anotherElement).span;
+			if (span.equals(anotherSpan)) {
+				return 1;
+			}
+			// similarity metric for two strings
+			return LevenshteinDistance.score(span.getText(), anotherSpan.getText());
+		}
+		return 0;
+	}
+
+	@Override
+	public String getText() {
+		return span.getText();
+	}
+
+	@Override
+	public int hashCode() {
+		// We use the hash of the span only if we are on identical mode
+		if (ComparisonContext.getCurrent().isOnlyIdenticalMode()) {
+			return span.hashCode();
+		}
+		return super.hashCode();
+	}
+
+	@Override
+	public Object getBlockingKey() {
+		// Only identical lines can be equal if we are on identical mode
+		if (ComparisonContext.getCurrent().isOnlyIdenticalMode()) {
+			return span;
+		}
+		return super.getBlockingKey();
+	}
+
+	@Override
+	public IMarker getMarker() {
+		IMarker marker = null;
+		IResource ifile = WorkbenchUtils.getIResourceFromURI(uri);
+		if (ifile != null && ifile.exists()) {
+			try {
+				marker = ifile.createMarker(IMarker.TEXT);
+				marker.setAttribute(IMarker.LOCATION, ifile.getName());
+				marker.setAttribute(IMarker.LINE_NUMBER, lineNumber);
+			} catch (CoreException e) {
+				e.printStackTrace();
+			}
+		}
+		return marker;
+	}
+
+}
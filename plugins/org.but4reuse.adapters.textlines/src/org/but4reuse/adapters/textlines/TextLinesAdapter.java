@@ -7,19 +7,31 @@ import java.io.FileInputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import org.but4reuse.adapters.IAdapter;
+import org.but4reuse.adapters.ICacheableAdapter;
 import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.helper.AdaptationCache;
+import org.but4reuse.adapters.textlines.activator.Activator;
+import org.but4reuse.adapters.textlines.preferences.TextLinesAdapterPreferencePage;
 import org.but4reuse.utils.files.FileUtils;
+import org.but4reuse.utils.files.MappedTextFile;
+import org.but4reuse.utils.files.MappedTextFile.LineVisitor;
+import org.but4reuse.utils.files.TextSpan;
 import org.eclipse.core.runtime.IProgressMonitor;
 
 /**
- * Text Lines adapter
+ * Text Lines adapter. For big files the memory mapped mode can be selected in
+ * the preferences. In this mode the file is memory mapped and each line
+ * element only keeps the offset, the length and the hash of its line, so the
+ * heap used does not depend on the size of the lines.
  * 
  * @author jabier.martinez
  */
-public class TextLinesAdapter implements IAdapter {
+public class TextLinesAdapter implements ICacheableAdapter {
 
 	@Override
 	/**
@@ -33,11 +45,20 @@ public class TextLinesAdapter implements IAdapter {
 		return false;
 	}
 
+	@Override
+	public String getCacheKey() {
+		return AdaptationCache.getPreferencesKey(Activator.getDefault().getPreferenceStore(),
+				TextLinesAdapterPreferencePage.MEMORY_MAPPED);
+	}
+
 	@Override
 	/**
 	 * Create a LineElement from each line in the file
 	 */
 	public List<IElement> adapt(URI uri, IProgressMonitor monitor) {
+		if (Activator.getDefault().getPreferenceStore().getBoolean(TextLinesAdapterPreferencePage.MEMORY_MAPPED)) {
+			return adaptMapped(uri, monitor);
+		}
 		List<IElement> elements = new ArrayList<IElement>();
 		File file = FileUtils.getFile(uri);
 		try {
@@ -68,6 +89,49 @@ public class TextLinesAdapter implements IAdapter {
 		return elements;
 	}
 
+	/**
+	 * Create a MappedLineElement from each line in the memory mapped file.
+	 * Identical lines share the same span.
+	 * 
+	 * @param uri
+	 * @param monitor
+	 * @return the elements
+	 */
+	private List<IElement> adaptMapped(final URI uri, final IProgressMonitor monitor) {
+		final List<IElement> elements = new ArrayList<IElement>();
+		File file = FileUtils.getFile(uri);
+		MappedTextFile mappedFile = null;
+		try {
+			mappedFile = new MappedTextFile(file);
+			final MappedTextFile text = mappedFile;
+			final Map<TextSpan, TextSpan> distinctSpans = new HashMap<TextSpan, TextSpan>();
+			text.scanLines(new LineVisitor() {
+				@Override
+				public boolean visit(int lineNumber, TextSpan line) {
+					List<TextSpan> pieces = TAB_SEPARATED ? text.split(line, '\t') : Collections.singletonList(line);
+					for (TextSpan piece : pieces) {
+						TextSpan span = distinctSpans.get(piece);
+						if (span == null) {
+							distinctSpans.put(piece, piece);
+							span = piece;
+						}
+						elements.add(new MappedLineElement(span, uri, lineNumber));
+					}
+					// user cancel
+					return !monitor.isCanceled();
+				}
+			});
+		} catch (Exception e) {
+			e.printStackTrace();
+		} finally {
+			// release the mapping, the spans will read the file if needed
+			if (mappedFile != null) {
+				mappedFile.close();
+			}
+		}
+		return elements;
+	}
+
 	@Override
 	public void construct(URI uri, List<IElement> elements, IProgressMonitor monitor) {
 		try {
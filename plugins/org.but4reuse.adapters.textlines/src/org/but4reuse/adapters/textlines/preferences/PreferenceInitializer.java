@@ -0,0 +1,20 @@
+package org.but4reuse.adapters.textlines.preferences;
+
+import org.but4reuse.adapters.textlines.activator.Activator;
+import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
+import org.eclipse.jface.preference.IPreferenceStore;
+
+/**
+ * Initialize preferences
+ * 
+ * @author jabier.martinez
+ * 
+ */
+public class PreferenceInitializer extends AbstractPreferenceInitializer {
+
+	public void initializeDefaultPreferences() {
+		IPreferenceStore store = Activator.getDefault().getPreferenceStore();
+		store.setDefault(TextLinesAdapterPreferencePage.MEMORY_MAPPED, false);
+	}
+
+}
@@ -0,0 +1,36 @@
+package org.but4reuse.adapters.textlines.preferences;
+
+import org.but4reuse.adapters.textlines.activator.Activator;
+import org.eclipse.jface.preference.BooleanFieldEditor;
+import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPreferencePage;
+
+/**
+ * Preference page for text lines adapter
+ * 
+ * @author jabier.martinez
+ */
+public class TextLinesAdapterPreferencePage extends FieldEditorPreferencePage implements IWorkbenchPreferencePage {
+
+	public static final String MEMORY_MAPPED = "MEMORY_MAPPED";
+
+	public TextLinesAdapterPreferencePage() {
+		super(GRID);
+		this.setPreferenceStore(Activator.getDefault().getPreferenceStore());
+	}
+
+	/**
+	 * Creates the field editors.
+	 */
+	public void createFieldEditors() {
+		BooleanFieldEditor bfe = new BooleanFieldEditor(MEMORY_MAPPED,
+				"Memory mapped files: for big files, the lines are not loaded in memory", getFieldEditorParent());
+		addField(bfe);
+	}
+
+	@Override
+	public void init(IWorkbench workbench) {
+	}
+
+}
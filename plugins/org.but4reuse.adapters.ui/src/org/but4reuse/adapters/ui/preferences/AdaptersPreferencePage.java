@@ -3,6 +3,7 @@ package org.but4reuse.adapters.ui.preferences;
 import org.but4reuse.adapters.preferences.PreferencesHelper;
 import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPreferencePage;
 
@@ -27,6 +28,14 @@ public class AdaptersPreferencePage extends FieldEditorPreferencePage implements
 				"Adapt concurrently (Known issue in file-system access. Do not use it for filestructure nor eclipse adapters)",
 				getFieldEditorParent());
 		addField(bfe);
+		IntegerFieldEditor threads = new IntegerFieldEditor(PreferencesHelper.ADAPT_CONCURRENTLY_THREADS,
+				"Number of threads to adapt concurrently (0 to use the number of processors)", getFieldEditorParent());
+		threads.setValidRange(0, Integer.MAX_VALUE);
+		addField(threads);
+		BooleanFieldEditor cache = new BooleanFieldEditor(PreferencesHelper.ADAPTATION_CACHE,
+				"Reuse the elements of the artefacts that did not change since the last adaptation (adaptation cache)",
+				getFieldEditorParent());
+		addField(cache);
 	}
 
 	@Override
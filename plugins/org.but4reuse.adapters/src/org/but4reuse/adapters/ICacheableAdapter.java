@@ -0,0 +1,21 @@
+package org.but4reuse.adapters;
+
+/**
+ * Adapter whose elements can be stored in the adaptation cache. The elements
+ * of the adapters that do not implement it are never cached.
+ * 
+ * @author jabier.martinez
+ */
+public interface ICacheableAdapter extends IAdapter {
+
+	/**
+	 * Fingerprint of the configuration of the adapter. The cached elements are
+	 * only reused while it does not change so it must include every
+	 * preference that modifies the result of the adapt method.
+	 * 
+	 * @return the configuration key, empty if the adapter has no
+	 *         configuration, or null to not use the cache
+	 */
+	public String getCacheKey();
+
+}
@@ -0,0 +1,316 @@
+package org.but4reuse.adapters.helper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.net.URI;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.but4reuse.adapters.IAdapter;
+import org.but4reuse.adapters.ICacheableAdapter;
+import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.activator.Activator;
+import org.but4reuse.utils.files.FileUtils;
+import org.eclipse.jface.preference.IPreferenceStore;
+
+/**
+ * Persistent cache of the elements obtained by an adapter for a given
+ * artefact. Only the adapters implementing ICacheableAdapter are cached. The
+ * entries are identified by the artefact URI, the adapter id and the
+ * configuration key of the adapter and they are only valid while the
+ * fingerprint of the artefact content does not change. The fingerprint of a
+ * file is the MD5 checksum of its content and the fingerprint of a folder is
+ * calculated from the relative path of all the files inside, the content of
+ * the small files and the length and last modification date of the others.
+ * Only the elements that can be serialised are cached,
+ * otherwise the artefact will just be adapted again the next time.
+ * 
+ * @author jabier.martinez
+ */
+public class AdaptationCache {
+
+	private static final String CACHE_FOLDER = "adaptationCache";
+	private static final String CACHE_EXTENSION = ".cache";
+	// files of a folder whose content is part of the fingerprint
+	private static final long SMALL_FILE_LENGTH = 64 * 1024;
+
+	/**
+	 * Check if the elements of an adapter can be cached with its current
+	 * configuration
+	 * 
+	 * @param adapter
+	 * @return true if it implements ICacheableAdapter and provides a cache key
+	 */
+	public static boolean isCacheable(IAdapter adapter) {
+		return getAdapterKey(adapter) != null;
+	}
+
+	/**
+	 * Get the cached elements
+	 * 
+	 * @param uri
+	 *            of the artefact
+	 * @param adapter
+	 * @param fingerprint
+	 *            the current fingerprint of the artefact, see getFingerprint
+	 * @return the list of elements or null if they were not cached, the
+	 *         artefact changed or the adapter is not cacheable
+	 */
+	@SuppressWarnings("unchecked")
+	public static List<IElement> get(URI uri, IAdapter adapter, String fingerprint) {
+		if (fingerprint == null) {
+			return null;
+		}
+		String adapterKey = getAdapterKey(adapter);
+		File cacheFile = getCacheFile(uri, adapterKey);
+		if (cacheFile == null || !cacheFile.exists()) {
+			return null;
+		}
+		ObjectInputStream in = null;
+		try {
+			in = new AdapterObjectInputStream(new BufferedInputStream(new FileInputStream(cacheFile)), adapter);
+			String cachedURI = (String) in.readObject();
+			String cachedAdapter = (String) in.readObject();
+			String cachedFingerprint = (String) in.readObject();
+			if (!uri.toString().equals(cachedURI) || !adapterKey.equals(cachedAdapter)
+					|| !fingerprint.equals(cachedFingerprint)) {
+				// outdated
+				return null;
+			}
+			return (List<IElement>) in.readObject();
+		} catch (Exception e) {
+			// corrupted or incompatible, it will be overwritten
+			return null;
+		} finally {
+			close(in);
+		}
+	}
+
+	/**
+	 * Cache the elements
+	 * 
+	 * @param uri
+	 *            of the artefact
+	 * @param adapter
+	 * @param fingerprint
+	 *            the fingerprint of the artefact when it was adapted
+	 * @param elements
+	 */
+	public static void put(URI uri, IAdapter adapter, String fingerprint, List<IElement> elements) {
+		if (fingerprint == null) {
+			return;
+		}
+		String adapterKey = getAdapterKey(adapter);
+		File cacheFile = getCacheFile(uri, adapterKey);
+		if (cacheFile == null) {
+			return;
+		}
+		// write in a temporary file so a concurrent reader never sees a
+		// partial entry
+		File tmpFile = new File(cacheFile.getParentFile(), cacheFile.getName() + "."
+				+ Thread.currentThread().getId() + ".tmp");
+		ObjectOutputStream out = null;
+		boolean written = false;
+		try {
+			FileUtils.createFile(tmpFile);
+			out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+			out.writeObject(uri.toString());
+			out.writeObject(adapterKey);
+			out.writeObject(fingerprint);
+			out.writeObject(new ArrayList<IElement>(elements));
+			written = true;
+		} catch (IOException e) {
+			// for example, not serialisable elements. They will not be cached
+			System.err.println("AdaptationCache: the elements of " + uri + " with " + adapterKey
+					+ " could not be cached");
+			e.printStackTrace();
+		} catch (StackOverflowError e) {
+			System.err.println("AdaptationCache: the elements of " + uri + " with " + adapterKey
+					+ " could not be cached, the graph of elements is too deep");
+		} finally {
+			close(out);
+		}
+		if (written) {
+			FileUtils.replace(cacheFile, tmpFile);
+		} else {
+			tmpFile.delete();
+		}
+	}
+
+	/**
+	 * Remove all the cached elements
+	 */
+	public static void clear() {
+		File cacheFolder = getCacheFolder();
+		if (cacheFolder != null) {
+			FileUtils.deleteFile(cacheFolder);
+		}
+	}
+
+	/**
+	 * Get the fingerprint of the content of an artefact
+	 * 
+	 * @param uri
+	 * @return the fingerprint or null if it is not a local file or folder
+	 */
+	public static String getFingerprint(URI uri) {
+		File file = null;
+		try {
+			file = FileUtils.getFile(uri);
+		} catch (Exception e) {
+			return null;
+		}
+		if (file == null || !file.exists()) {
+			return null;
+		}
+		if (!file.isDirectory()) {
+			return FileUtils.getChecksumMD5(file);
+		}
+		try {
+			MessageDigest md = MessageDigest.getInstance("MD5");
+			updateFolderFingerprint(md, file, "");
+			return toHex(md.digest());
+		} catch (Exception e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	private static void updateFolderFingerprint(MessageDigest md, File folder, String relativePath) throws Exception {
+		File[] files = folder.listFiles();
+		if (files == null) {
+			return;
+		}
+		// listFiles order is not guaranteed
+		Arrays.sort(files);
+		for (File file : files) {
+			String path = relativePath + "/" + file.getName();
+			md.update(path.getBytes("UTF-8"));
+			if (file.isDirectory()) {
+				updateFolderFingerprint(md, file, path);
+			} else if (file.length() <= SMALL_FILE_LENGTH) {
+				md.update(Files.readAllBytes(file.toPath()));
+			} else {
+				// Limitation: a big file modified within the granularity of
+				// the file system modification date (up to 2 seconds) without
+				// changing its length keeps the same fingerprint, so the
+				// outdated elements would be used. Reading the content of all
+				// the big files would cost as much as adapting them.
+				md.update((file.length() + ":" + file.lastModified()).getBytes("UTF-8"));
+			}
+		}
+	}
+
+	private static File getCacheFolder() {
+		if (Activator.getDefault() == null) {
+			return null;
+		}
+		return Activator.getDefault().getStateLocation().append(CACHE_FOLDER).toFile();
+	}
+
+	private static File getCacheFile(URI uri, String adapterKey) {
+		File cacheFolder = getCacheFolder();
+		if (cacheFolder == null || adapterKey == null) {
+			return null;
+		}
+		try {
+			MessageDigest md = MessageDigest.getInstance("MD5");
+			md.update(uri.toString().getBytes("UTF-8"));
+			md.update(adapterKey.getBytes("UTF-8"));
+			return new File(cacheFolder, toHex(md.digest()) + CACHE_EXTENSION);
+		} catch (Exception e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * The adapter id and its configuration key
+	 * 
+	 * @param adapter
+	 * @return the key or null if the adapter is not cacheable
+	 */
+	private static String getAdapterKey(IAdapter adapter) {
+		if (!(adapter instanceof ICacheableAdapter)) {
+			return null;
+		}
+		String cacheKey = ((ICacheableAdapter) adapter).getCacheKey();
+		if (cacheKey == null) {
+			return null;
+		}
+		String id = AdaptersHelper.getAdapterId(adapter);
+		if (id == null) {
+			id = adapter.getClass().getName();
+		}
+		return id + "#" + cacheKey;
+	}
+
+	/**
+	 * Helper for the adapters to create their cache key from their preferences
+	 * 
+	 * @param preferenceStore
+	 * @param names
+	 *            of the preferences that modify the adaptation
+	 * @return the preferences and their values
+	 */
+	public static String getPreferencesKey(IPreferenceStore preferenceStore, String... names) {
+		StringBuilder key = new StringBuilder();
+		for (String name : names) {
+			key.append(name).append('=').append(preferenceStore.getString(name)).append(';');
+		}
+		return key.toString();
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuffer sb = new StringBuffer();
+		for (int i = 0; i < bytes.length; i++) {
+			sb.append(Integer.toString((bytes[i] & 0xff) + 0x100, 16).substring(1));
+		}
+		return sb.toString();
+	}
+
+	private static void close(Closeable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * The elements classes are defined in the bundle of the adapter so we use
+	 * its class loader to read them
+	 */
+	private static class AdapterObjectInputStream extends ObjectInputStream {
+
+		private ClassLoader classLoader;
+
+		public AdapterObjectInputStream(InputStream in, IAdapter adapter) throws IOException {
+			super(in);
+			classLoader = adapter.getClass().getClassLoader();
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			try {
+				return Class.forName(desc.getName(), false, classLoader);
+			} catch (ClassNotFoundException e) {
+				return super.resolveClass(desc);
+			}
+		}
+	}
+}
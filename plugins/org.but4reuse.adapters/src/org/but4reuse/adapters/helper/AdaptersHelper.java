@@ -5,9 +5,12 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.but4reuse.adapters.IAdapter;
 import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.preferences.PreferencesHelper;
 import org.but4reuse.artefactmodel.Artefact;
 import org.but4reuse.artefactmodel.ArtefactModel;
 import org.but4reuse.artefactmodel.ComposedArtefact;
@@ -38,6 +41,9 @@ public class AdaptersHelper {
 
 	private static List<IAdapter> cache_adapters;
 
+	// adapter class name to its declared max concurrency
+	private static Map<String, Integer> adaptersMaxConcurrency = new ConcurrentHashMap<String, Integer>();
+
 	/**
 	 * Get all adapters
 	 * 
@@ -235,7 +241,22 @@ public class AdaptersHelper {
 				e.printStackTrace();
 				return elements;
 			}
+			// Check if the elements were already cached. The fingerprint is
+			// calculated before adapting so a modification during the
+			// adaptation will not be hidden by the cache
+			boolean useCache = PreferencesHelper.isAdaptationCache() && AdaptationCache.isCacheable(adapter);
+			String fingerprint = null;
+			if (useCache) {
+				fingerprint = AdaptationCache.getFingerprint(uri);
+				List<IElement> cached = AdaptationCache.get(uri, adapter, fingerprint);
+				if (cached != null) {
+					return cached;
+				}
+			}
 			elements = adapter.adapt(uri, new NullProgressMonitor());
+			if (useCache) {
+				AdaptationCache.put(uri, adapter, fingerprint, elements);
+			}
 		}
 		return elements;
 	}
@@ -295,6 +316,44 @@ public class AdaptersHelper {
 		return null;
 	}
 
+	/**
+	 * Get the maximum number of artefacts that can be adapted at the same time
+	 * with a given adapter. It is read from the extension only the first time
+	 * for each adapter class.
+	 * 
+	 * @param adapter
+	 * @return the declared maximum or 0 if there is no limit
+	 */
+	public static int getAdapterMaxConcurrency(IAdapter adapter) {
+		String className = adapter.getClass().getName();
+		Integer max = adaptersMaxConcurrency.get(className);
+		if (max == null) {
+			max = readAdapterMaxConcurrency(adapter);
+			adaptersMaxConcurrency.put(className, max);
+		}
+		return max;
+	}
+
+	private static int readAdapterMaxConcurrency(IAdapter adapter) {
+		IConfigurationElement[] adapterExtensionPoints = Platform.getExtensionRegistry()
+				.getConfigurationElementsFor(ADAPTERS_EXTENSIONPOINT);
+		for (IConfigurationElement adapterExtensionPoint : adapterExtensionPoints) {
+			// compare the class names, creating the adapters is not needed
+			if (adapter.getClass().getName().equals(adapterExtensionPoint.getAttribute("class"))) {
+				String max = adapterExtensionPoint.getAttribute("maxConcurrency");
+				if (max != null && max.length() > 0) {
+					try {
+						return Integer.parseInt(max.trim());
+					} catch (NumberFormatException e) {
+						e.printStackTrace();
+					}
+				}
+				return 0;
+			}
+		}
+		return 0;
+	}
+
 	/**
 	 * Get adapter icon
 	 * 
@@ -1,5 +1,6 @@
 package org.but4reuse.adapters.impl;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -8,18 +9,31 @@ import java.util.Map;
 
 import org.but4reuse.adapters.IDependencyObject;
 import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.preferences.ComparisonContext;
 import org.but4reuse.adapters.preferences.PreferencesHelper;
+import org.but4reuse.utils.metrics.MetricsRegistry;
+import org.but4reuse.utils.metrics.MetricsRegistry.Counter;
 import org.but4reuse.utils.strings.StringUtils;
 import org.eclipse.swt.widgets.Display;
 
 /**
- * Abstract Element
+ * Abstract Element. Elements are serializable to be stored in the adaptation
+ * cache, fields that cannot be serialized will just prevent the caching.
  * 
  * @author jabier.martinez
  */
-public abstract class AbstractElement implements IElement, IDependencyObject {
+public abstract class AbstractElement implements IElement, IDependencyObject, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	public static final String MAIN_DEPENDENCY_ID = "depends on";
+
+	// number of calls to the similarity method from equals (and from
+	// countedSimilarity) and manual decisions. The counters are striped by
+	// thread so they are cheap in the comparison hot path
+	private static final Counter COMPARISONS = MetricsRegistry.getDefault().getCounter("Element comparisons");
+	private static final Counter MANUAL_COMPARISONS = MetricsRegistry.getDefault().getCounter(
+			"Manual element comparisons");
 	/**
 	 * Abstract IElement
 	 * 
@@ -40,6 +54,21 @@ public abstract class AbstractElement implements IElement, IDependencyObject {
 		return 1;
 	}
 
+	/**
+	 * Blocking key of the element. It is a cheap signature used by
+	 * ElementsMatchingMap to partition the elements before calling the
+	 * similarity method. Two elements with different blocking keys must never
+	 * be considered as equal. Default implementation returns null, meaning
+	 * that no blocking key is declared and that the element will be compared
+	 * with all the others. Override it together with the similarity method to
+	 * improve performance.
+	 * 
+	 * @return the blocking key or null
+	 */
+	public Object getBlockingKey() {
+		return null;
+	}
+
 	@Override
 	public String toString() {
 		return getText();
@@ -130,25 +159,39 @@ public abstract class AbstractElement implements IElement, IDependencyObject {
 		}
 	}
 
+	/**
+	 * Call the similarity method counting it as an element comparison, for the
+	 * code that compares elements without using equals
+	 * 
+	 * @param element
+	 * @param anotherElement
+	 * @return the similarity
+	 */
+	public static double countedSimilarity(IElement element, IElement anotherElement) {
+		COMPARISONS.increment();
+		return element.similarity(anotherElement);
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		if (obj instanceof IElement) {
 			// get threshold
-			double automaticThreshold = PreferencesHelper.getAutomaticEqualThreshold();
+			ComparisonContext context = ComparisonContext.getCurrent();
+			double automaticThreshold = context.getAutomaticEqualThreshold();
+			COMPARISONS.increment();
 			double similarity = similarity((IElement) obj);
 			if (similarity >= automaticThreshold) {
 				// The similarity was greater than the equal threshold
 				return true;
 			}
 			// check if we should ask the user
-			if (!PreferencesHelper.isManualEqualActivated()
-					|| PreferencesHelper.isDeactivateManualEqualOnlyForThisTime()) {
+			if (!context.isManualEqualActivated() || PreferencesHelper.isDeactivateManualEqualOnlyForThisTime()) {
 				// no? ok, so it is not equal
 				return false;
 			}
 
 			// check if we should really ask
-			double manualThreshold = PreferencesHelper.getManualEqualThreshold();
+			double manualThreshold = context.getManualEqualThreshold();
 			if (similarity < manualThreshold) {
 				return false;
 			}
@@ -160,6 +203,7 @@ public abstract class AbstractElement implements IElement, IDependencyObject {
 			}
 
 			// ok, let's ask the user
+			MANUAL_COMPARISONS.increment();
 			boolean userDecision = manualEqual(similarity, (IElement) obj);
 			if (userDecision) {
 				ManualEqualCache.add(this, (IElement) obj, true);
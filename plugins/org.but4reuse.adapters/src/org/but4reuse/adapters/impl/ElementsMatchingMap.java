@@ -0,0 +1,248 @@
+package org.but4reuse.adapters.impl;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.but4reuse.adapters.IElement;
+
+/**
+ * Elements matching map. A map with IElements as keys that partitions the
+ * elements using the blocking key declared in AbstractElement so the equals
+ * method (and therefore the similarity method) is only called for the elements
+ * inside the same partition. Elements without blocking key are partitioned
+ * using their hashCode, so with the default hashCode of AbstractElement the
+ * behaviour is the same as the exhaustive comparison with all the elements.
+ * The iteration order is the insertion order (as in LinkedHashMap). Not thread
+ * safe.
+ * 
+ * @author jabier.martinez
+ */
+public class ElementsMatchingMap<V> extends AbstractMap<IElement, V> {
+
+	// insertion order, nodes are compared by identity
+	private Set<Node<V>> nodes = new LinkedHashSet<Node<V>>();
+
+	// partitions of the elements with blocking key
+	private Map<Object, List<Node<V>>> keyedBuckets = new HashMap<Object, List<Node<V>>>();
+
+	// partitions of the elements without blocking key
+	private Map<Integer, List<Node<V>>> hashBuckets = new HashMap<Integer, List<Node<V>>>();
+
+	@Override
+	public V get(Object key) {
+		Node<V> node = findNode(key);
+		if (node == null) {
+			return null;
+		}
+		return node.value;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return findNode(key) != null;
+	}
+
+	@Override
+	public V put(IElement key, V value) {
+		Node<V> node = findNode(key);
+		if (node != null) {
+			// keep the first added element as the key
+			V oldValue = node.value;
+			node.value = value;
+			return oldValue;
+		}
+		node = new Node<V>(key, value);
+		List<Node<V>> bucket = getBucket(node.blockingKey, node.hash, true);
+		bucket.add(node);
+		nodes.add(node);
+		return null;
+	}
+
+	@Override
+	public V remove(Object key) {
+		Node<V> node = findNode(key);
+		if (node == null) {
+			return null;
+		}
+		removeNode(node);
+		return node.value;
+	}
+
+	@Override
+	public int size() {
+		return nodes.size();
+	}
+
+	@Override
+	public void clear() {
+		nodes.clear();
+		keyedBuckets.clear();
+		hashBuckets.clear();
+	}
+
+	@Override
+	public Set<Map.Entry<IElement, V>> entrySet() {
+		return new AbstractSet<Map.Entry<IElement, V>>() {
+
+			@Override
+			public Iterator<Map.Entry<IElement, V>> iterator() {
+				final Iterator<Node<V>> i = nodes.iterator();
+				return new Iterator<Map.Entry<IElement, V>>() {
+					Node<V> current;
+
+					@Override
+					public boolean hasNext() {
+						return i.hasNext();
+					}
+
+					@Override
+					public Map.Entry<IElement, V> next() {
+						current = i.next();
+						return current;
+					}
+
+					@Override
+					public void remove() {
+						if (current == null) {
+							throw new IllegalStateException();
+						}
+						i.remove();
+						removeFromBucket(current);
+						current = null;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return nodes.size();
+			}
+		};
+	}
+
+	/**
+	 * Find the node whose element is equal to the given one. Only the elements
+	 * of the same partition are compared.
+	 * 
+	 * @param key
+	 * @return the node or null if not found
+	 */
+	private Node<V> findNode(Object key) {
+		if (!(key instanceof IElement)) {
+			return null;
+		}
+		IElement element = (IElement) key;
+		Object blockingKey = getBlockingKey(element);
+		List<Node<V>> bucket = getBucket(blockingKey, blockingKey == null ? element.hashCode() : 0, false);
+		if (bucket == null) {
+			return null;
+		}
+		for (Node<V> node : bucket) {
+			if (node.key == element || element.equals(node.key)) {
+				return node;
+			}
+		}
+		return null;
+	}
+
+	private List<Node<V>> getBucket(Object blockingKey, int hash, boolean create) {
+		List<Node<V>> bucket;
+		if (blockingKey != null) {
+			bucket = keyedBuckets.get(blockingKey);
+			if (bucket == null && create) {
+				bucket = new ArrayList<Node<V>>(1);
+				keyedBuckets.put(blockingKey, bucket);
+			}
+		} else {
+			bucket = hashBuckets.get(hash);
+			if (bucket == null && create) {
+				bucket = new ArrayList<Node<V>>(1);
+				hashBuckets.put(hash, bucket);
+			}
+		}
+		return bucket;
+	}
+
+	private void removeNode(Node<V> node) {
+		nodes.remove(node);
+		removeFromBucket(node);
+	}
+
+	private void removeFromBucket(Node<V> node) {
+		List<Node<V>> bucket = getBucket(node.blockingKey, node.hash, false);
+		if (bucket != null) {
+			bucket.remove(node);
+			if (bucket.isEmpty()) {
+				if (node.blockingKey != null) {
+					keyedBuckets.remove(node.blockingKey);
+				} else {
+					hashBuckets.remove(node.hash);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the blocking key of an element
+	 * 
+	 * @param element
+	 * @return the blocking key or null if the element does not declare it
+	 */
+	public static Object getBlockingKey(IElement element) {
+		if (element instanceof AbstractElement) {
+			return ((AbstractElement) element).getBlockingKey();
+		}
+		return null;
+	}
+
+	/**
+	 * Node of the map. The blocking key and the hash are calculated only once
+	 * when added. Equals and hashCode are not overridden so nodes are compared
+	 * by identity.
+	 */
+	private static class Node<V> implements Map.Entry<IElement, V> {
+		IElement key;
+		Object blockingKey;
+		int hash;
+		V value;
+
+		Node(IElement key, V value) {
+			this.key = key;
+			this.value = value;
+			this.blockingKey = ElementsMatchingMap.getBlockingKey(key);
+			if (blockingKey == null) {
+				this.hash = key.hashCode();
+			}
+		}
+
+		@Override
+		public IElement getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return value;
+		}
+
+		@Override
+		public V setValue(V value) {
+			V oldValue = this.value;
+			this.value = value;
+			return oldValue;
+		}
+
+		@Override
+		public String toString() {
+			return key + "=" + value;
+		}
+	}
+
+}
@@ -0,0 +1,182 @@
+package org.but4reuse.adapters.preferences;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
+
+/**
+ * Comparison context. Snapshot of the preferences used to compare elements
+ * (equal thresholds, identical mode and the settings of the adapters) so the
+ * comparisons do not read the preferences each time. By default the context
+ * is captured the first time it is used and captured again after any change
+ * in the preferences. An analysis can also bind a context so all its
+ * comparisons use the same one, including the ones running in other threads.
+ * The bound context is global so only one analysis can be bound at a time,
+ * binding another one fails until the first one is unbound. It is not a
+ * thread local because the comparisons of an analysis run in pools of
+ * threads shared with other tasks.
+ * 
+ * @author jabier.martinez
+ */
+public class ComparisonContext {
+
+	private static volatile ComparisonContext current;
+	private static final AtomicReference<ComparisonContext> bound = new AtomicReference<ComparisonContext>();
+
+	// adapter preference stores with a listener to invalidate the context
+	private static Set<IPreferenceStore> listenedStores = Collections
+			.newSetFromMap(new ConcurrentHashMap<IPreferenceStore, Boolean>());
+
+	private final double automaticEqualThreshold;
+	private final double manualEqualThreshold;
+	private final boolean manualEqualActivated;
+	private final boolean onlyIdenticalMode;
+
+	// adapter settings, read from their preference store only once
+	private final ConcurrentHashMap<IPreferenceStore, ConcurrentHashMap<String, Object>> adapterSettings = new ConcurrentHashMap<IPreferenceStore, ConcurrentHashMap<String, Object>>();
+
+	private ComparisonContext(double automaticEqualThreshold, double manualEqualThreshold,
+			boolean manualEqualActivated) {
+		this.automaticEqualThreshold = automaticEqualThreshold;
+		this.manualEqualThreshold = manualEqualThreshold;
+		this.manualEqualActivated = manualEqualActivated;
+		// same as PreferencesHelper.isOnlyIdenticalMode
+		this.onlyIdenticalMode = automaticEqualThreshold == 1 && (!manualEqualActivated || manualEqualThreshold == 1);
+	}
+
+	/**
+	 * Capture a new context from the current preferences
+	 * 
+	 * @return the context
+	 */
+	public static ComparisonContext capture() {
+		return new ComparisonContext(PreferencesHelper.getAutomaticEqualThreshold(),
+				PreferencesHelper.getManualEqualThreshold(), PreferencesHelper.isManualEqualActivated());
+	}
+
+	/**
+	 * Get the context to be used in the comparisons
+	 * 
+	 * @return the bound context or the one of the current preferences
+	 */
+	public static ComparisonContext getCurrent() {
+		ComparisonContext context = bound.get();
+		if (context != null) {
+			return context;
+		}
+		context = current;
+		if (context == null) {
+			context = capture();
+			current = context;
+		}
+		return context;
+	}
+
+	/**
+	 * Use this context for all the comparisons until unbind is called
+	 * 
+	 * @param context
+	 * @throws IllegalStateException
+	 *             if another analysis already bound a context
+	 */
+	public static void bind(ComparisonContext context) {
+		if (!bound.compareAndSet(null, context)) {
+			throw new IllegalStateException("Another analysis is running with its own comparison context");
+		}
+	}
+
+	/**
+	 * Stop using a bound context. Nothing is done if another context is bound.
+	 * 
+	 * @param context
+	 *            the context given to bind
+	 */
+	public static void unbind(ComparisonContext context) {
+		bound.compareAndSet(context, null);
+	}
+
+	/**
+	 * The preferences changed, the context will be captured again
+	 */
+	public static void invalidate() {
+		current = null;
+	}
+
+	public double getAutomaticEqualThreshold() {
+		return automaticEqualThreshold;
+	}
+
+	public double getManualEqualThreshold() {
+		return manualEqualThreshold;
+	}
+
+	public boolean isManualEqualActivated() {
+		return manualEqualActivated;
+	}
+
+	public boolean isOnlyIdenticalMode() {
+		return onlyIdenticalMode;
+	}
+
+	/**
+	 * Get a setting of an adapter
+	 * 
+	 * @param store
+	 *            the preference store of the adapter
+	 * @param key
+	 * @return the value in this context
+	 */
+	public String getString(IPreferenceStore store, String key) {
+		ConcurrentHashMap<String, Object> settings = getSettings(store);
+		Object value = settings.get(key);
+		if (value == null) {
+			value = store.getString(key);
+			settings.put(key, value);
+		}
+		return (String) value;
+	}
+
+	/**
+	 * Get a setting of an adapter
+	 * 
+	 * @param store
+	 *            the preference store of the adapter
+	 * @param key
+	 * @return the value in this context
+	 */
+	public boolean getBoolean(IPreferenceStore store, String key) {
+		ConcurrentHashMap<String, Object> settings = getSettings(store);
+		Object value = settings.get(key);
+		if (value == null) {
+			value = store.getBoolean(key);
+			settings.put(key, value);
+		}
+		return (Boolean) value;
+	}
+
+	private ConcurrentHashMap<String, Object> getSettings(IPreferenceStore store) {
+		ConcurrentHashMap<String, Object> settings = adapterSettings.get(store);
+		if (settings == null) {
+			listen(store);
+			adapterSettings.putIfAbsent(store, new ConcurrentHashMap<String, Object>());
+			settings = adapterSettings.get(store);
+		}
+		return settings;
+	}
+
+	private static void listen(IPreferenceStore store) {
+		if (listenedStores.add(store)) {
+			store.addPropertyChangeListener(new IPropertyChangeListener() {
+				@Override
+				public void propertyChange(PropertyChangeEvent event) {
+					invalidate();
+				}
+			});
+		}
+	}
+}
@@ -23,6 +23,8 @@ public class PreferenceInitializer extends AbstractPreferenceInitializer {
 		store.setDefault(PreferencesHelper.ASK_USER_THRESHOLD, 0.90);
 		store.setDefault(PreferencesHelper.ASK_USER_DEACTIVATED_FOR_THIS_TIME, false);
 		store.setDefault(PreferencesHelper.ADAPT_CONCURRENTLY, false);
+		store.setDefault(PreferencesHelper.ADAPT_CONCURRENTLY_THREADS, 0);
+		store.setDefault(PreferencesHelper.ADAPTATION_CACHE, false);
 	}
 
 }
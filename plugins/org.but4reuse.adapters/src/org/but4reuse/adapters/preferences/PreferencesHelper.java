@@ -2,6 +2,8 @@ package org.but4reuse.adapters.preferences;
 
 import org.but4reuse.adapters.activator.Activator;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.jface.preference.IPreferenceStore;
 
@@ -15,11 +17,25 @@ public class PreferencesHelper {
 	static IEclipsePreferences prefs = InstanceScope.INSTANCE
 			.getNode(Activator.getDefault().getBundle().getSymbolicName());
 
+	static {
+		// the comparison context is a snapshot of these preferences
+		prefs.addPreferenceChangeListener(new IPreferenceChangeListener() {
+			@Override
+			public void preferenceChange(PreferenceChangeEvent event) {
+				if (!ASK_USER_DEACTIVATED_FOR_THIS_TIME.equals(event.getKey())) {
+					ComparisonContext.invalidate();
+				}
+			}
+		});
+	}
+
 	public static final String AUTOMATIC_EQUAL_THRESHOLD = "automatic_threshold";
 	public static final String ASK_USER_THRESHOLD = "ask_user_threshold";
 	public static final String ASK_USER = "ask_user";
 	public static final String ASK_USER_DEACTIVATED_FOR_THIS_TIME = "ask_user_deactivated_for_this_time";
 	public static final String ADAPT_CONCURRENTLY = "adapt_concurrently";
+	public static final String ADAPT_CONCURRENTLY_THREADS = "adapt_concurrently_threads";
+	public static final String ADAPTATION_CACHE = "adaptation_cache";
 
 	public static boolean isOnlyIdenticalMode() {
 		if (getAutomaticEqualThreshold() == 1) {
@@ -61,4 +77,23 @@ public class PreferencesHelper {
 	public static boolean isAdaptConcurrently() {
 		return prefs.getBoolean(ADAPT_CONCURRENTLY, false);
 	}
+
+	/**
+	 * Number of threads to adapt concurrently
+	 * 
+	 * @return the number of threads or 0 to use the number of processors
+	 */
+	public static int getAdaptConcurrentlyThreads() {
+		return prefs.getInt(ADAPT_CONCURRENTLY_THREADS, 0);
+	}
+
+	/**
+	 * Whether the adapted elements are stored in the adaptation cache to be
+	 * reused while the artefacts do not change
+	 * 
+	 * @return true if activated
+	 */
+	public static boolean isAdaptationCache() {
+		return prefs.getBoolean(ADAPTATION_CACHE, false);
+	}
 }
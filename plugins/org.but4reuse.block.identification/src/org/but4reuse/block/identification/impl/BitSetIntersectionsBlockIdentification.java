@@ -0,0 +1,121 @@
+package org.but4reuse.block.identification.impl;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.but4reuse.adaptedmodel.AdaptedArtefact;
+import org.but4reuse.adaptedmodel.AdaptedModelFactory;
+import org.but4reuse.adaptedmodel.Block;
+import org.but4reuse.adaptedmodel.BlockElement;
+import org.but4reuse.adaptedmodel.ElementWrapper;
+import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.impl.ElementsMatchingMap;
+import org.but4reuse.block.identification.IBlockIdentification;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Same blocks as the IntersectionsBlockIdentification but the artefacts where
+ * each element appears are represented as a bitset. Elements with the same
+ * bitset are grouped in one pass and the groups are then ordered by frequency,
+ * instead of searching the most frequent element and its intersection for
+ * each block.
+ * 
+ * @author jabier.martinez
+ */
+public class BitSetIntersectionsBlockIdentification implements IBlockIdentification {
+
+	@Override
+	public List<Block> identifyBlocks(List<AdaptedArtefact> adaptedArtefacts, IProgressMonitor monitor) {
+
+		// Blocks Empty
+		List<Block> blocks = new ArrayList<Block>();
+
+		// For each element, the artefacts where it appears and its element
+		// wrappers. ElementsMatchingMap maintains elements order
+		Map<IElement, ElementOccurrences> R = new ElementsMatchingMap<ElementOccurrences>();
+		int n = adaptedArtefacts.size();
+		for (int i = 0; i < n; i++) {
+			monitor.subTask("Block Creation. Intersections algorithm (bitsets). Preparation step " + (i + 1) + "/"
+					+ n);
+			AdaptedArtefact currentList = adaptedArtefacts.get(i);
+			for (ElementWrapper ew : currentList.getOwnedElementWrappers()) {
+
+				// user cancel
+				if (monitor.isCanceled()) {
+					return blocks;
+				}
+
+				IElement e = (IElement) ew.getElement();
+				ElementOccurrences occurrences = R.get(e);
+				if (occurrences == null) {
+					occurrences = new ElementOccurrences(n);
+					R.put(e, occurrences);
+				}
+				occurrences.elementWrappers.add(ew);
+				// the same element can be repeated in an artefact, the bit is
+				// set only once
+				occurrences.artefacts.set(i);
+			}
+		}
+
+		monitor.subTask("Block Creation. Intersections algorithm (bitsets). Creating Blocks");
+
+		// Group the elements with exactly the same artefacts. LinkedHashMap to
+		// maintain the order of the first element of each group
+		Map<BitSet, List<ElementOccurrences>> groups = new LinkedHashMap<BitSet, List<ElementOccurrences>>();
+		for (ElementOccurrences occurrences : R.values()) {
+			List<ElementOccurrences> group = groups.get(occurrences.artefacts);
+			if (group == null) {
+				group = new ArrayList<ElementOccurrences>();
+				groups.put(occurrences.artefacts, group);
+			}
+			group.add(occurrences);
+		}
+
+		// The most frequent groups first. The sort is stable so, with the same
+		// frequency, the group of the first found element goes first
+		List<List<ElementOccurrences>> orderedGroups = new ArrayList<List<ElementOccurrences>>(groups.values());
+		Collections.sort(orderedGroups, new Comparator<List<ElementOccurrences>>() {
+			@Override
+			public int compare(List<ElementOccurrences> g1, List<ElementOccurrences> g2) {
+				return Integer.compare(g2.get(0).artefacts.cardinality(), g1.get(0).artefacts.cardinality());
+			}
+		});
+
+		// Create the blocks
+		for (List<ElementOccurrences> group : orderedGroups) {
+			Block block = AdaptedModelFactory.eINSTANCE.createBlock();
+			for (ElementOccurrences occurrences : group) {
+				BlockElement be = AdaptedModelFactory.eINSTANCE.createBlockElement();
+				be.getElementWrappers().addAll(occurrences.elementWrappers);
+				block.getOwnedBlockElements().add(be);
+			}
+			blocks.add(block);
+
+			// user cancel
+			if (monitor.isCanceled()) {
+				return blocks;
+			}
+		}
+
+		// finished
+		return blocks;
+	}
+
+	/**
+	 * The artefacts where an element appears and its element wrappers
+	 */
+	private static class ElementOccurrences {
+		BitSet artefacts;
+		List<ElementWrapper> elementWrappers = new ArrayList<ElementWrapper>();
+
+		ElementOccurrences(int numberOfArtefacts) {
+			artefacts = new BitSet(numberOfArtefacts);
+		}
+	}
+}
@@ -1,8 +1,6 @@
 package org.but4reuse.block.identification.impl;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -12,6 +10,7 @@ import org.but4reuse.adaptedmodel.Block;
 import org.but4reuse.adaptedmodel.BlockElement;
 import org.but4reuse.adaptedmodel.ElementWrapper;
 import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.impl.ElementsMatchingMap;
 import org.but4reuse.block.identification.IBlockIdentification;
 import org.eclipse.core.runtime.IProgressMonitor;
 
@@ -33,11 +32,11 @@ public class SimilarElementsBlockIdentification implements IBlockIdentification
 
 		// In R we will have, for each element, the indexes of the artefacts
 		// where they appear
-		Map<IElement, List<Integer>> R = new LinkedHashMap<IElement, List<Integer>>();
+		Map<IElement, List<Integer>> R = new ElementsMatchingMap<List<Integer>>();
 
 		// A map from IElement to the IElementWrappers that contains similar
 		// IElement
-		Map<IElement, List<ElementWrapper>> eewmap = new HashMap<IElement, List<ElementWrapper>>();
+		Map<IElement, List<ElementWrapper>> eewmap = new ElementsMatchingMap<List<ElementWrapper>>();
 		int n = adaptedArtefacts.size();
 		for (int i = 0; i < n; i++) {
 			monitor.subTask("Block Creation. Preparation step " + (i + 1) + "/" + n);
@@ -1,23 +1,37 @@
 package org.but4reuse.constraints.discovery.datamining;
 
-import java.io.File;
-import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 import org.but4reuse.adaptedmodel.AdaptedModel;
-import org.but4reuse.constraints.discovery.datamining.utils.ArffUtils;
+import org.but4reuse.adaptedmodel.Block;
+import org.but4reuse.adaptedmodel.helpers.BlockPresenceMatrix;
+import org.but4reuse.constraints.discovery.datamining.activator.Activator;
+import org.but4reuse.constraints.discovery.datamining.fpgrowth.AssociationRule;
+import org.but4reuse.constraints.discovery.datamining.fpgrowth.FPGrowth;
+import org.but4reuse.constraints.discovery.datamining.fpgrowth.FrequentItemSet;
+import org.but4reuse.constraints.discovery.datamining.preferences.AssociationRulesPreferencePage;
+import org.but4reuse.feature.constraints.AndConstraintPart;
+import org.but4reuse.feature.constraints.BasicExcludesConstraint;
+import org.but4reuse.feature.constraints.BasicRequiresConstraint;
+import org.but4reuse.feature.constraints.BlockConstraintPart;
+import org.but4reuse.feature.constraints.Constraint;
 import org.but4reuse.feature.constraints.IConstraint;
 import org.but4reuse.feature.constraints.IConstraintsDiscovery;
+import org.but4reuse.feature.constraints.ImpliesConstraintPart;
 import org.but4reuse.featurelist.FeatureList;
-import org.but4reuse.utils.files.FileUtils;
-import org.but4reuse.utils.workbench.WorkbenchUtils;
-import org.eclipse.core.resources.IResource;
+import org.but4reuse.utils.metrics.MetricsRegistry;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.emf.common.util.URI;
+import org.eclipse.jface.preference.IPreferenceStore;
 
 /**
- * Apriori association rules
+ * Apriori association rules. The artefacts are the transactions and the
+ * blocks are the items. The frequent sets of blocks are mined with FP-growth
+ * and the association rules with enough confidence are the requires
+ * constraints. Pairs of frequent blocks that (almost) never appear together
+ * are the mutual exclusion constraints. The blocks present in all the
+ * artefacts are ignored as they only create trivial rules.
  * 
  * @author jabier.martinez
  */
@@ -26,37 +40,94 @@ public class APrioriConstraintsDiscovery implements IConstraintsDiscovery {
 	public List<IConstraint> discover(FeatureList featureList, final AdaptedModel adaptedModel, Object extra,
 			IProgressMonitor monitor) {
 		monitor.subTask("Constraints discovery with APriori association rules learner");
+		List<IConstraint> constraints = new ArrayList<IConstraint>();
 
-		// TODO improve checks!
-		// Here we try to find the folder to save it
-		URI uri = adaptedModel.getOwnedAdaptedArtefacts().get(0).getArtefact().eResource().getURI();
-		java.net.URI uri2 = null;
-		try {
-			uri2 = new java.net.URI(uri.toString());
-		} catch (URISyntaxException e1) {
-			e1.printStackTrace();
-		}
-		IResource res = WorkbenchUtils.getIResourceFromURI(uri2);
-		File artefactModelFile = WorkbenchUtils.getFileFromIResource(res);
-
-		// create folder
-		File dataminingFolder = new File(artefactModelFile.getParentFile(), "dataminingFolder");
-		dataminingFolder.mkdir();
-
-		String arffFileContent = ArffUtils.createArffFileContent(adaptedModel, false);
-		File data = new File(dataminingFolder, "data.arff");
-		try {
-			FileUtils.writeFile(data, arffFileContent);
-		} catch (Exception e) {
-			e.printStackTrace();
+		IPreferenceStore store = Activator.getDefault().getPreferenceStore();
+		double minSupport = store.getDouble(AssociationRulesPreferencePage.MIN_SUPPORT);
+		double minConfidence = store.getDouble(AssociationRulesPreferencePage.MIN_CONFIDENCE);
+		int maxAntecedentSize = store.getInt(AssociationRulesPreferencePage.MAX_ANTECEDENT_SIZE);
+
+		// the transactions without the common blocks
+		BlockPresenceMatrix matrix = BlockPresenceMatrix.get(adaptedModel);
+		List<Block> blocks = matrix.getBlocks();
+		int nbArtefacts = matrix.getAdaptedArtefacts().size();
+		BitSet commonBlocks = matrix.getCommonBlocks();
+		List<BitSet> transactions = new ArrayList<BitSet>();
+		for (int a = 0; a < nbArtefacts; a++) {
+			BitSet transaction = matrix.getBlocksOfAdaptedArtefact(a);
+			transaction.andNot(commonBlocks);
+			transactions.add(transaction);
 		}
+		int minSupportCount = (int) Math.max(1, Math.ceil(minSupport * nbArtefacts));
 
-		// Refresh
-		WorkbenchUtils.refreshIResource(res.getParent());
+		// REQUIRES
+		if (store.getBoolean(AssociationRulesPreferencePage.REQUIRES)) {
+			long start = System.nanoTime();
+			List<FrequentItemSet> itemSets = new FPGrowth(minSupportCount, maxAntecedentSize + 1).mine(transactions);
+			if (monitor.isCanceled()) {
+				return constraints;
+			}
+			for (AssociationRule rule : AssociationRule.getAssociationRules(itemSets, minConfidence)) {
+				Constraint constraint;
+				BitSet antecedent = rule.getAntecedent();
+				Block consequent = blocks.get(rule.getConsequent());
+				if (antecedent.cardinality() == 1) {
+					constraint = new BasicRequiresConstraint(blocks.get(antecedent.nextSetBit(0)), consequent);
+				} else {
+					constraint = new Constraint();
+					for (int b = antecedent.nextSetBit(0); b >= 0; b = antecedent.nextSetBit(b + 1)) {
+						if (!constraint.getConstraintParts().isEmpty()) {
+							constraint.addConstraintPart(new AndConstraintPart());
+						}
+						constraint.addConstraintPart(new BlockConstraintPart(blocks.get(b)));
+					}
+					constraint.addConstraintPart(new ImpliesConstraintPart());
+					constraint.addConstraintPart(new BlockConstraintPart(consequent));
+				}
+				constraint.addExplanation(getExplanation(rule.getSupport(), nbArtefacts, rule.getConfidence()));
+				constraint.setNumberOfReasons(rule.getSupport());
+				constraints.add(constraint);
+			}
+			MetricsRegistry.getDefault().stop("Constraints discovery [Association rules requires]", start);
+		}
 
-		// TODO we rely on another tool
-		List<IConstraint> constraints = new ArrayList<IConstraint>();
+		// EXCLUDES
+		if (store.getBoolean(AssociationRulesPreferencePage.EXCLUDES)) {
+			long start = System.nanoTime();
+			List<Integer> frequentBlocks = new ArrayList<Integer>();
+			for (int b = 0; b < blocks.size(); b++) {
+				if (!commonBlocks.get(b) && matrix.getAdaptedArtefactsOfBlock(b).cardinality() >= minSupportCount) {
+					frequentBlocks.add(b);
+				}
+			}
+			for (int i = 0; i < frequentBlocks.size(); i++) {
+				if (monitor.isCanceled()) {
+					return constraints;
+				}
+				int b1 = frequentBlocks.get(i);
+				BitSet artefacts1 = matrix.getAdaptedArtefactsOfBlock(b1);
+				for (int j = i + 1; j < frequentBlocks.size(); j++) {
+					int b2 = frequentBlocks.get(j);
+					BitSet artefacts2 = matrix.getAdaptedArtefactsOfBlock(b2);
+					double confidence = AssociationRule.getExcludesConfidence(artefacts1, artefacts2);
+					if (confidence >= minConfidence) {
+						BitSet any = (BitSet) artefacts1.clone();
+						any.xor(artefacts2);
+						int support = any.cardinality();
+						Constraint constraint = new BasicExcludesConstraint(blocks.get(b1), blocks.get(b2));
+						constraint.addExplanation(getExplanation(support, nbArtefacts, confidence));
+						constraint.setNumberOfReasons(support);
+						constraints.add(constraint);
+					}
+				}
+			}
+			MetricsRegistry.getDefault().stop("Constraints discovery [Association rules excludes]", start);
+		}
 		return constraints;
 	}
 
+	private String getExplanation(int support, int nbArtefacts, double confidence) {
+		return "Support " + support + "/" + nbArtefacts + " artefacts, confidence " + confidence;
+	}
+
 }
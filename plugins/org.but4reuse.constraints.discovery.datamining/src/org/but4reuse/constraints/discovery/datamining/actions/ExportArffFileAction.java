@@ -1,6 +1,10 @@
 package org.but4reuse.constraints.discovery.datamining.actions;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
 import java.net.URI;
 
 import org.but4reuse.adaptedmodel.AdaptedModel;
@@ -41,20 +45,30 @@ public class ExportArffFileAction implements IViewActionDelegate {
 		String constructionURI = inputDialog.getValue();
 		AdaptedModel adaptedModel = AdaptedModelManager.getAdaptedModel();
 
-		// Create instances
-		String arffFileContent = ArffUtils.createArffFileContent(adaptedModel, false);
-
-		// Save it and refresh
+		// Create instances, save it and refresh
+		Writer writer = null;
 		try {
 			URI uri = new URI(constructionURI);
 			File file = FileUtils.getFile(uri);
-			FileUtils.writeFile(file, arffFileContent);
+			FileUtils.createFile(file);
+			writer = new BufferedWriter(new FileWriter(file, false));
+			ArffUtils.writeArffFileContent(adaptedModel, false, writer);
+			writer.close();
+			writer = null;
 			IResource res = WorkbenchUtils.getIResourceFromURI(uri);
 			if (res != null) {
 				WorkbenchUtils.refreshIResource(res);
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
+		} finally {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
 		}
 
 	}
@@ -0,0 +1,127 @@
+package org.but4reuse.constraints.discovery.datamining.fpgrowth;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Association rule with one item as consequent
+ * 
+ * @author jabier.martinez
+ */
+public class AssociationRule {
+
+	private BitSet antecedent;
+	private int consequent;
+	private int support;
+	private double confidence;
+
+	public AssociationRule(BitSet antecedent, int consequent, int support, double confidence) {
+		this.antecedent = antecedent;
+		this.consequent = consequent;
+		this.support = support;
+		this.confidence = confidence;
+	}
+
+	/**
+	 * Create the association rules of the frequent item sets. A rule is not
+	 * created if a rule with a smaller antecedent and the same consequent was
+	 * already created.
+	 * 
+	 * @param itemSets
+	 *            all the frequent item sets
+	 * @param minConfidence
+	 * @return the rules ordered by size of the antecedent
+	 */
+	public static List<AssociationRule> getAssociationRules(List<FrequentItemSet> itemSets, double minConfidence) {
+		int maxSize = 0;
+		Map<BitSet, Integer> supports = new HashMap<BitSet, Integer>();
+		for (FrequentItemSet itemSet : itemSets) {
+			supports.put(itemSet.getItems(), itemSet.getSupport());
+			maxSize = Math.max(maxSize, itemSet.size());
+		}
+		List<AssociationRule> rules = new ArrayList<AssociationRule>();
+		// antecedents of the created rules for each consequent
+		Map<Integer, Set<BitSet>> created = new HashMap<Integer, Set<BitSet>>();
+		for (int size = 2; size <= maxSize; size++) {
+			for (FrequentItemSet itemSet : itemSets) {
+				if (itemSet.size() != size) {
+					continue;
+				}
+				BitSet items = itemSet.getItems();
+				for (int c = items.nextSetBit(0); c >= 0; c = items.nextSetBit(c + 1)) {
+					BitSet antecedent = (BitSet) items.clone();
+					antecedent.clear(c);
+					// all the subsets of a frequent item set are frequent
+					double confidence = (double) itemSet.getSupport() / supports.get(antecedent);
+					if (confidence < minConfidence || isRedundant(antecedent, created.get(c))) {
+						continue;
+					}
+					rules.add(new AssociationRule(antecedent, c, itemSet.getSupport(), confidence));
+					Set<BitSet> antecedents = created.get(c);
+					if (antecedents == null) {
+						antecedents = new HashSet<BitSet>();
+						created.put(c, antecedents);
+					}
+					antecedents.add(antecedent);
+				}
+			}
+		}
+		return rules;
+	}
+
+	/**
+	 * Confidence of the mutual exclusion of two items, the lowest confidence
+	 * of "a implies not b" and "b implies not a"
+	 * 
+	 * @param transactions1
+	 *            the transactions containing the first item
+	 * @param transactions2
+	 *            the transactions containing the second item
+	 * @return the confidence, 1 if they never appear together
+	 */
+	public static double getExcludesConfidence(BitSet transactions1, BitSet transactions2) {
+		BitSet both = (BitSet) transactions1.clone();
+		both.and(transactions2);
+		return 1 - (double) both.cardinality() / Math.min(transactions1.cardinality(), transactions2.cardinality());
+	}
+
+	private static boolean isRedundant(BitSet antecedent, Set<BitSet> antecedents) {
+		if (antecedents == null) {
+			return false;
+		}
+		for (BitSet other : antecedents) {
+			BitSet notContained = (BitSet) other.clone();
+			notContained.andNot(antecedent);
+			if (notContained.isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public BitSet getAntecedent() {
+		return antecedent;
+	}
+
+	public int getConsequent() {
+		return consequent;
+	}
+
+	/**
+	 * @return number of transactions containing the antecedent and the
+	 *         consequent
+	 */
+	public int getSupport() {
+		return support;
+	}
+
+	public double getConfidence() {
+		return confidence;
+	}
+
+}
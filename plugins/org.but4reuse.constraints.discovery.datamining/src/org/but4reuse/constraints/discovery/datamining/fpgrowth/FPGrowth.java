@@ -0,0 +1,200 @@
+package org.but4reuse.constraints.discovery.datamining.fpgrowth;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FP-growth frequent item sets mining. The transactions are compressed in a
+ * prefix tree (FP-tree) ordered by item frequency and the frequent item sets
+ * are mined from the conditional trees of each item without generating
+ * candidates as Apriori does.
+ * 
+ * @author jabier.martinez
+ */
+public class FPGrowth {
+
+	private int minSupport;
+	private int maxSize;
+
+	// position of each item in the descending frequency order
+	private int[] rank;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param minSupport
+	 *            minimum number of transactions containing an item set
+	 * @param maxSize
+	 *            maximum number of items of an item set
+	 */
+	public FPGrowth(int minSupport, int maxSize) {
+		this.minSupport = Math.max(1, minSupport);
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Mine the frequent item sets
+	 * 
+	 * @param transactions
+	 *            the items of each transaction
+	 * @return the frequent item sets
+	 */
+	public List<FrequentItemSet> mine(List<BitSet> transactions) {
+		List<FrequentItemSet> result = new ArrayList<FrequentItemSet>();
+		if (maxSize < 1) {
+			return result;
+		}
+
+		// count and rank the items
+		int nbItems = 0;
+		for (BitSet transaction : transactions) {
+			nbItems = Math.max(nbItems, transaction.length());
+		}
+		final int[] counts = new int[nbItems];
+		for (BitSet transaction : transactions) {
+			for (int i = transaction.nextSetBit(0); i >= 0; i = transaction.nextSetBit(i + 1)) {
+				counts[i]++;
+			}
+		}
+		List<Integer> frequentItems = new ArrayList<Integer>();
+		for (int i = 0; i < nbItems; i++) {
+			if (counts[i] >= minSupport) {
+				frequentItems.add(i);
+			}
+		}
+		Collections.sort(frequentItems, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				if (counts[i1] != counts[i2]) {
+					return counts[i2] - counts[i1];
+				}
+				return i1 - i2;
+			}
+		});
+		rank = new int[nbItems];
+		for (int r = 0; r < frequentItems.size(); r++) {
+			rank[frequentItems.get(r)] = r;
+		}
+
+		// build the tree with the frequent items of each transaction
+		Tree tree = new Tree();
+		for (BitSet transaction : transactions) {
+			List<Integer> path = new ArrayList<Integer>();
+			for (int i = transaction.nextSetBit(0); i >= 0; i = transaction.nextSetBit(i + 1)) {
+				if (counts[i] >= minSupport) {
+					path.add(i);
+				}
+			}
+			tree.add(sort(path), 1);
+		}
+
+		mine(tree, new BitSet(), result);
+		return result;
+	}
+
+	private void mine(Tree tree, BitSet suffix, List<FrequentItemSet> result) {
+		// from the least frequent item
+		List<Integer> items = sort(new ArrayList<Integer>(tree.heads.keySet()));
+		for (int x = items.size() - 1; x >= 0; x--) {
+			int item = items.get(x);
+			int support = tree.supports.get(item);
+			if (support < minSupport) {
+				continue;
+			}
+			BitSet itemSet = (BitSet) suffix.clone();
+			itemSet.set(item);
+			result.add(new FrequentItemSet(itemSet, support));
+			if (itemSet.cardinality() >= maxSize) {
+				continue;
+			}
+
+			// conditional pattern base of the item
+			List<List<Integer>> paths = new ArrayList<List<Integer>>();
+			List<Integer> pathCounts = new ArrayList<Integer>();
+			Map<Integer, Integer> supports = new HashMap<Integer, Integer>();
+			for (Node node = tree.heads.get(item); node != null; node = node.next) {
+				List<Integer> path = new ArrayList<Integer>();
+				for (Node parent = node.parent; parent.parent != null; parent = parent.parent) {
+					path.add(parent.item);
+					Integer s = supports.get(parent.item);
+					supports.put(parent.item, s == null ? node.count : s + node.count);
+				}
+				if (!path.isEmpty()) {
+					Collections.reverse(path);
+					paths.add(path);
+					pathCounts.add(node.count);
+				}
+			}
+
+			// conditional tree with the frequent items of the base
+			Tree conditionalTree = new Tree();
+			for (int p = 0; p < paths.size(); p++) {
+				List<Integer> path = new ArrayList<Integer>();
+				for (Integer i : paths.get(p)) {
+					if (supports.get(i) >= minSupport) {
+						path.add(i);
+					}
+				}
+				conditionalTree.add(path, pathCounts.get(p));
+			}
+			if (!conditionalTree.heads.isEmpty()) {
+				mine(conditionalTree, itemSet, result);
+			}
+		}
+	}
+
+	private List<Integer> sort(List<Integer> items) {
+		Collections.sort(items, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				return rank[i1] - rank[i2];
+			}
+		});
+		return items;
+	}
+
+	/**
+	 * FP-tree
+	 */
+	private static class Tree {
+		Node root = new Node(-1, null);
+		// first node of each item, the others are linked with next
+		Map<Integer, Node> heads = new HashMap<Integer, Node>();
+		Map<Integer, Integer> supports = new HashMap<Integer, Integer>();
+
+		void add(List<Integer> path, int count) {
+			Node node = root;
+			for (Integer item : path) {
+				Node child = node.children.get(item);
+				if (child == null) {
+					child = new Node(item, node);
+					node.children.put(item, child);
+					child.next = heads.get(item);
+					heads.put(item, child);
+				}
+				child.count += count;
+				Integer support = supports.get(item);
+				supports.put(item, support == null ? count : support + count);
+				node = child;
+			}
+		}
+	}
+
+	private static class Node {
+		int item;
+		int count;
+		Node parent;
+		Node next;
+		Map<Integer, Node> children = new HashMap<Integer, Node>();
+
+		Node(int item, Node parent) {
+			this.item = item;
+			this.parent = parent;
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package org.but4reuse.constraints.discovery.datamining.fpgrowth;
+
+import java.util.BitSet;
+
+/**
+ * Frequent item set
+ * 
+ * @author jabier.martinez
+ */
+public class FrequentItemSet {
+
+	private BitSet items;
+	private int support;
+
+	public FrequentItemSet(BitSet items, int support) {
+		this.items = items;
+		this.support = support;
+	}
+
+	public BitSet getItems() {
+		return items;
+	}
+
+	/**
+	 * @return number of transactions containing all the items
+	 */
+	public int getSupport() {
+		return support;
+	}
+
+	public int size() {
+		return items.cardinality();
+	}
+
+	@Override
+	public String toString() {
+		return items + " " + support;
+	}
+
+}
@@ -0,0 +1,53 @@
+package org.but4reuse.constraints.discovery.datamining.preferences;
+
+import org.but4reuse.constraints.discovery.datamining.activator.Activator;
+import org.but4reuse.utils.ui.preferences.DoubleScaleFieldEditor;
+import org.eclipse.jface.preference.BooleanFieldEditor;
+import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPreferencePage;
+
+/**
+ * Preference page for association rules constraints discovery
+ * 
+ * @author jabier.martinez
+ */
+public class AssociationRulesPreferencePage extends FieldEditorPreferencePage implements IWorkbenchPreferencePage {
+
+	public static final String MIN_SUPPORT = "MIN_SUPPORT";
+	public static final String MIN_CONFIDENCE = "MIN_CONFIDENCE";
+	public static final String MAX_ANTECEDENT_SIZE = "MAX_ANTECEDENT_SIZE";
+	public static final String REQUIRES = "REQUIRES";
+	public static final String EXCLUDES = "EXCLUDES";
+
+	public AssociationRulesPreferencePage() {
+		super(GRID);
+		this.setPreferenceStore(Activator.getDefault().getPreferenceStore());
+	}
+
+	/**
+	 * Creates the field editors.
+	 */
+	public void createFieldEditors() {
+		DoubleScaleFieldEditor support = new DoubleScaleFieldEditor(MIN_SUPPORT,
+				"Minimum support (percentage of artefacts): ", getFieldEditorParent());
+		addField(support);
+		DoubleScaleFieldEditor confidence = new DoubleScaleFieldEditor(MIN_CONFIDENCE, "Minimum confidence: ",
+				getFieldEditorParent());
+		addField(confidence);
+		IntegerFieldEditor antecedent = new IntegerFieldEditor(MAX_ANTECEDENT_SIZE,
+				"Maximum number of blocks in the left side of requires: ", getFieldEditorParent());
+		antecedent.setValidRange(1, 10);
+		addField(antecedent);
+		BooleanFieldEditor bfeR = new BooleanFieldEditor(REQUIRES, "Requires", getFieldEditorParent());
+		addField(bfeR);
+		BooleanFieldEditor bfeE = new BooleanFieldEditor(EXCLUDES, "Mutual exclusion", getFieldEditorParent());
+		addField(bfeE);
+	}
+
+	@Override
+	public void init(IWorkbench workbench) {
+	}
+
+}
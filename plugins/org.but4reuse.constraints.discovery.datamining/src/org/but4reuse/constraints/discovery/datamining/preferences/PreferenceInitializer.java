@@ -0,0 +1,24 @@
+package org.but4reuse.constraints.discovery.datamining.preferences;
+
+import org.but4reuse.constraints.discovery.datamining.activator.Activator;
+import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
+import org.eclipse.jface.preference.IPreferenceStore;
+
+/**
+ * Initialize preferences
+ * 
+ * @author jabier.martinez
+ * 
+ */
+public class PreferenceInitializer extends AbstractPreferenceInitializer {
+
+	public void initializeDefaultPreferences() {
+		IPreferenceStore store = Activator.getDefault().getPreferenceStore();
+		store.setDefault(AssociationRulesPreferencePage.MIN_SUPPORT, 0.1);
+		store.setDefault(AssociationRulesPreferencePage.MIN_CONFIDENCE, 1.0);
+		store.setDefault(AssociationRulesPreferencePage.MAX_ANTECEDENT_SIZE, 2);
+		store.setDefault(AssociationRulesPreferencePage.REQUIRES, true);
+		store.setDefault(AssociationRulesPreferencePage.EXCLUDES, true);
+	}
+
+}
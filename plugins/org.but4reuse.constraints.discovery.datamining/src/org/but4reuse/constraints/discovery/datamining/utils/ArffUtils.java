@@ -1,12 +1,14 @@
 package org.but4reuse.constraints.discovery.datamining.utils;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.BitSet;
 import java.util.List;
 
-import org.but4reuse.adaptedmodel.AdaptedArtefact;
 import org.but4reuse.adaptedmodel.AdaptedModel;
 import org.but4reuse.adaptedmodel.Block;
-import org.but4reuse.adaptedmodel.helpers.AdaptedModelHelper;
+import org.but4reuse.adaptedmodel.helpers.BlockPresenceMatrix;
 
 /**
  * Arff utils
@@ -31,58 +33,78 @@ public class ArffUtils {
 	 * @return
 	 */
 	public static String createArffFileContent(AdaptedModel adaptedModel, boolean ignoreCommonBlocks) {
+		StringWriter writer = new StringWriter();
+		try {
+			writeArffFileContent(adaptedModel, ignoreCommonBlocks, writer);
+		} catch (IOException e) {
+			// not possible with a string writer
+			e.printStackTrace();
+		}
+		return writer.toString();
+	}
 
-		StringBuilder sb = new StringBuilder();
+	/**
+	 * Write the arff content row by row
+	 * 
+	 * @param adaptedModel
+	 * @param ignoreCommonBlocks
+	 * @param writer
+	 * @throws IOException
+	 */
+	public static void writeArffFileContent(AdaptedModel adaptedModel, boolean ignoreCommonBlocks, Writer writer)
+			throws IOException {
 		String relationName = AdaptedModelHelper.getName(adaptedModel);
 		if (relationName == null || relationName.length() == 0) {
 			relationName = "ArtefactInstances";
 		} else {
 			relationName = relationName.replaceAll(" ", "");
 		}
-		sb.append("@relation ");
-		sb.append(relationName);
-		sb.append("\n\n");
+		writer.write("@relation ");
+		writer.write(relationName);
+		writer.write("\n\n");
 		
 		// ignore common
-		List<Block> commonBlocks = new ArrayList<Block>();
+		BlockPresenceMatrix matrix = BlockPresenceMatrix.get(adaptedModel);
+		BitSet commonBlocks = new BitSet();
 		if (ignoreCommonBlocks) {
-			commonBlocks = AdaptedModelHelper.getCommonBlocks(adaptedModel);
+			commonBlocks = matrix.getCommonBlocks();
 		}
 
 		// declare attributes (the blocks)
-		for (Block block : adaptedModel.getOwnedBlocks()) {
+		List<Block> blocks = matrix.getBlocks();
+		for (int b = 0; b < blocks.size(); b++) {
 			// ignore common
-			if (!commonBlocks.contains(block)) {
-				sb.append("@attribute '");
-				sb.append(block.getName());
-				sb.append("' {0,1}\n");
+			if (!commonBlocks.get(b)) {
+				writer.write("@attribute '");
+				writer.write(blocks.get(b).getName());
+				writer.write("' {0,1}\n");
 			}
 		}
 		
-		sb.append("\n@data\n");
+		writer.write("\n@data\n");
 
 		// feed the instances (the artefacts)
-		for (AdaptedArtefact adaptedArtefact : adaptedModel.getOwnedAdaptedArtefacts()) {
+		StringBuilder row = new StringBuilder();
+		for (int a = 0; a < matrix.getAdaptedArtefacts().size(); a++) {
 			// Create the instance
-			List<Block> blocks = AdaptedModelHelper.getBlocksOfAdaptedArtefact(adaptedArtefact);
-			// ignore common
-			blocks.removeAll(commonBlocks);
-			for (Block block : adaptedModel.getOwnedBlocks()) {
+			row.setLength(0);
+			for (int b = 0; b < blocks.size(); b++) {
 				// ignore common
-				if (!commonBlocks.contains(block)) {
-					if (blocks.contains(block)) {
-						sb.append("1,");
+				if (!commonBlocks.get(b)) {
+					if (matrix.isPresent(b, a)) {
+						row.append("1,");
 					} else {
-						sb.append("0,");
+						row.append("0,");
 					}
 				}
 			}
 			// remove last comma
-			sb.setLength(sb.length() - 1);
-			sb.append("\n");
+			if (row.length() > 0) {
+				row.setLength(row.length() - 1);
+			}
+			row.append("\n");
+			writer.write(row.toString());
 		}
-		
-		return sb.toString();
 	}
 
 }
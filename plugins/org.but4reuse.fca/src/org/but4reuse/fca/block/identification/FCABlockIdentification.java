@@ -1,10 +1,14 @@
 package org.but4reuse.fca.block.identification;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.but4reuse.adaptedmodel.AdaptedArtefact;
@@ -13,6 +17,7 @@ import org.but4reuse.adaptedmodel.Block;
 import org.but4reuse.adaptedmodel.BlockElement;
 import org.but4reuse.adaptedmodel.ElementWrapper;
 import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.impl.ElementsMatchingMap;
 import org.but4reuse.block.identification.IBlockIdentification;
 import org.but4reuse.fca.utils.FCAUtils;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -42,13 +47,14 @@ public class FCABlockIdentification implements IBlockIdentification {
 
 		// In R we will have, for each element, the indexes of the artefacts
 		// where they appear
-		LinkedHashMap<IElement, List<Integer>> R = new LinkedHashMap<IElement, List<Integer>>();
+		Map<IElement, BitSet> R = new ElementsMatchingMap<BitSet>();
 
-		Map<Attribute, IElement> attrIElementMap = new HashMap<Attribute, IElement>();
+		// Each attribute corresponds to the elements with the same artefacts
+		Map<Attribute, List<IElement>> attrIElementsMap = new HashMap<Attribute, List<IElement>>();
 
 		// A map from IElement to the IElementWrappers that contains similar
 		// IElement
-		Map<IElement, List<ElementWrapper>> eewmap = new HashMap<IElement, List<ElementWrapper>>();
+		Map<IElement, List<ElementWrapper>> eewmap = new ElementsMatchingMap<List<ElementWrapper>>();
 		for (int i = 0; i < adaptedArtefacts.size(); i++) {
 
 			// Creates an entity.
@@ -72,34 +78,42 @@ public class FCABlockIdentification implements IBlockIdentification {
 				ews.add(ew);
 				eewmap.put(e, ews);
 
-				List<Integer> artefactIndexes = R.get(e);
+				BitSet artefactIndexes = R.get(e);
 				if (artefactIndexes == null) {
-					artefactIndexes = new ArrayList<Integer>();
+					artefactIndexes = new BitSet(adaptedArtefacts.size());
+					R.put(e, artefactIndexes);
 				}
-				artefactIndexes.add(i);
-				R.put(e, artefactIndexes);
+				artefactIndexes.set(i);
 			}
 		}
 
 		monitor.subTask("Block Creation. Creating Blocks");
 
-		// Iterate on eewmap to create blocks with their block elements
-		int ei = 0;
-		while (!R.isEmpty()) {
-			// get first
-			IElement e = R.keySet().iterator().next();
+		// Reduced context: the elements that appear in the same artefacts are
+		// always in the same concept, so they share one attribute and the
+		// lattice is built over the different sets of artefacts
+		Map<BitSet, List<IElement>> elementsByArtefacts = new LinkedHashMap<BitSet, List<IElement>>();
+		for (Entry<IElement, BitSet> entry : R.entrySet()) {
+			List<IElement> elements = elementsByArtefacts.get(entry.getValue());
+			if (elements == null) {
+				elements = new ArrayList<IElement>();
+				elementsByArtefacts.put(entry.getValue(), elements);
+			}
+			elements.add(entry.getKey());
+		}
 
+		int ei = 0;
+		for (Entry<BitSet, List<IElement>> entry : elementsByArtefacts.entrySet()) {
 			// Creates a binary attribute.
-			BinaryAttribute attr = new BinaryAttribute("Element " + ei);
-			attrIElementMap.put(attr, e);
+			BinaryAttribute attr = new BinaryAttribute("Elements " + ei);
+			attrIElementsMap.put(attr, entry.getValue());
 			fc.addAttribute(attr);
 			ei++;
 
-			List<Integer> artIndexes = R.get(e);
-			for (Integer ia : artIndexes) {
+			BitSet artIndexes = entry.getKey();
+			for (int ia = artIndexes.nextSetBit(0); ia >= 0; ia = artIndexes.nextSetBit(ia + 1)) {
 				fc.addPair(fc.getEntity("Artefact " + ia), attr);
 			}
-			R.remove(e);
 		}
 
 		// Generate concept lattice
@@ -114,36 +128,44 @@ public class FCABlockIdentification implements IBlockIdentification {
 				Block block = AdaptedModelFactory.eINSTANCE.createBlock();
 				Set<Attribute> attrs = c.getSimplifiedIntent();
 				for (Attribute attr : attrs) {
-					IElement e = attrIElementMap.get(attr);
-					BlockElement be = AdaptedModelFactory.eINSTANCE.createBlockElement();
-					for (ElementWrapper ew : eewmap.get(e)) {
-						be.getElementWrappers().add(ew);
+					// expand to the block elements
+					for (IElement e : attrIElementsMap.get(attr)) {
+						BlockElement be = AdaptedModelFactory.eINSTANCE.createBlockElement();
+						for (ElementWrapper ew : eewmap.get(e)) {
+							be.getElementWrappers().add(ew);
+						}
+						block.getOwnedBlockElements().add(be);
 					}
-					block.getOwnedBlockElements().add(be);
 				}
 				blocks.add(block);
 			}
 		}
 
-		blocks = reorderBlocksByFrequency(R, blocks);
+		blocks = reorderBlocksByFrequency(blocks);
 
 		// finished
 		return blocks;
 	}
 
-	// insertion sort
-	private List<Block> reorderBlocksByFrequency(LinkedHashMap<IElement, List<Integer>> R, List<Block> blocks) {
-		Block temp;
-		for (int i = 1; i < blocks.size(); i++) {
-			for (int j = i; j > 0; j--) {
-				if(blocks.get(j).getOwnedBlockElements().get(0).getElementWrappers().size() > blocks.get(j-1).getOwnedBlockElements().get(0).getElementWrappers().size()){
-					temp = blocks.get(j);
-					blocks.set(j, blocks.get(j - 1));
-					blocks.set(j - 1, temp);
-				}
+	/**
+	 * Sort the blocks by the number of element wrappers of their first block
+	 * element, the most frequent first. The sort is stable.
+	 * 
+	 * @param blocks
+	 * @return the sorted blocks
+	 */
+	private List<Block> reorderBlocksByFrequency(List<Block> blocks) {
+		Collections.sort(blocks, new Comparator<Block>() {
+			@Override
+			public int compare(Block b1, Block b2) {
+				return Integer.compare(getFrequency(b2), getFrequency(b1));
 			}
-		}
+		});
 		return blocks;
 	}
 
+	private int getFrequency(Block block) {
+		return block.getOwnedBlockElements().get(0).getElementWrappers().size();
+	}
+
 }
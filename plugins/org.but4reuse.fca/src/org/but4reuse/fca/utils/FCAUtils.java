@@ -6,7 +6,7 @@ import java.util.Map;
 import org.but4reuse.adaptedmodel.AdaptedArtefact;
 import org.but4reuse.adaptedmodel.AdaptedModel;
 import org.but4reuse.adaptedmodel.Block;
-import org.but4reuse.adaptedmodel.helpers.AdaptedModelHelper;
+import org.but4reuse.adaptedmodel.helpers.BlockPresenceMatrix;
 import org.but4reuse.artefactmodel.Artefact;
 import org.but4reuse.featurelist.Feature;
 import org.but4reuse.featurelist.FeatureList;
@@ -53,8 +53,10 @@ public class FCAUtils {
 		}
 
 		// Add pairs
-		for (AdaptedArtefact aa : adaptedModel.getOwnedAdaptedArtefacts()) {
-			for (Block block : AdaptedModelHelper.getBlocksOfAdaptedArtefact(aa)) {
+		BlockPresenceMatrix matrix = BlockPresenceMatrix.get(adaptedModel);
+		for (int a = 0; a < matrix.getAdaptedArtefacts().size(); a++) {
+			AdaptedArtefact aa = matrix.getAdaptedArtefacts().get(a);
+			for (Block block : matrix.getBlocks(matrix.getBlocksOfAdaptedArtefact(a))) {
 				fc.addPair(fc.getEntity(aa.getArtefact().getName()), blockNameMap.get(block.getName()));
 			}
 		}
@@ -89,8 +91,10 @@ public class FCAUtils {
 		}
 
 		// Add pairs
-		for (AdaptedArtefact aa : adaptedModel.getOwnedAdaptedArtefacts()) {
-			for (Block block : AdaptedModelHelper.getBlocksOfAdaptedArtefact(aa)) {
+		BlockPresenceMatrix matrix = BlockPresenceMatrix.get(adaptedModel);
+		for (int a = 0; a < matrix.getAdaptedArtefacts().size(); a++) {
+			AdaptedArtefact aa = matrix.getAdaptedArtefacts().get(a);
+			for (Block block : matrix.getBlocks(matrix.getBlocksOfAdaptedArtefact(a))) {
 				fc.addPair(fc.getEntity(block.getName()), artefactNameMap.get(aa.getArtefact().getName()));
 			}
 		}
@@ -222,8 +226,10 @@ public class FCAUtils {
 		}
 
 		// Add pairs
-		for (AdaptedArtefact aa : adaptedModel.getOwnedAdaptedArtefacts()) {
-			for (Block block : AdaptedModelHelper.getBlocksOfAdaptedArtefact(aa)) {
+		BlockPresenceMatrix matrix = BlockPresenceMatrix.get(adaptedModel);
+		for (int a = 0; a < matrix.getAdaptedArtefacts().size(); a++) {
+			AdaptedArtefact aa = matrix.getAdaptedArtefacts().get(a);
+			for (Block block : matrix.getBlocks(matrix.getBlocksOfAdaptedArtefact(a))) {
 				fc.addPair(fc.getEntity(aa.getArtefact().getName()), blockNameMap.get("B: " + block.getName()));
 			}
 		}
@@ -6,23 +6,25 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.but4reuse.adaptedmodel.AdaptedModel;
 import org.but4reuse.adaptedmodel.Block;
 import org.but4reuse.adaptedmodel.BlockElement;
 import org.but4reuse.adaptedmodel.ElementWrapper;
 import org.but4reuse.adaptedmodel.helpers.AdaptedModelHelper;
-import org.but4reuse.adaptedmodel.manager.AdaptedModelManager;
 import org.but4reuse.adapters.IDependencyObject;
 import org.but4reuse.adapters.IElement;
-import org.but4reuse.feature.constraints.BasicExcludesConstraint;
-import org.but4reuse.feature.constraints.BasicRequiresConstraint;
-import org.but4reuse.feature.constraints.Constraint;
 import org.but4reuse.feature.constraints.IConstraint;
 import org.but4reuse.feature.constraints.IConstraintsDiscovery;
 import org.but4reuse.feature.constraints.activator.Activator;
 import org.but4reuse.feature.constraints.preferences.BinaryRelationPreferencePage;
 import org.but4reuse.featurelist.FeatureList;
+import org.but4reuse.utils.metrics.MetricsRegistry;
 import org.eclipse.core.runtime.IProgressMonitor;
 
 /**
@@ -44,7 +46,8 @@ public class BinaryRelationConstraintsDiscovery implements IConstraintsDiscovery
 
 		// for binary relations we explore the matrix n*n where n is the number
 		// of blocks. We ignore the matrix diagonal so it is n*n - n for
-		// requires and (n*n-n)/2 for mutual exclusion
+		// requires and (n*n-n)/2 for mutual exclusion. The index avoids
+		// checking the pairs of blocks without any shared dependency
 		int n = adaptedModel.getOwnedBlocks().size();
 		// TODO monitor is not used, only for reporting messages
 		// monitor.beginTask("Binary Relation Constraints discovery", (n * n -
@@ -53,75 +56,112 @@ public class BinaryRelationConstraintsDiscovery implements IConstraintsDiscovery
 		onlyOneReason = Activator.getDefault().getPreferenceStore()
 				.getBoolean(BinaryRelationPreferencePage.ONLY_ONE_REASON);
 
-		// REQUIRES
-		// Block Level
-		// TODO feature level
-		boolean requires = Activator.getDefault().getPreferenceStore()
-				.getBoolean(BinaryRelationPreferencePage.REQUIRES);
-		if (requires) {
-			long start = System.currentTimeMillis();
-			for (Block b1 : adaptedModel.getOwnedBlocks()) {
-				for (Block b2 : adaptedModel.getOwnedBlocks()) {
-					if (b1 != b2) {
-						monitor.subTask("Checking Requires relations of " + b1.getName() + " with " + b2.getName());
-						// check monitor
-						if (monitor.isCanceled()) {
-							return constraintList;
-						}
-						// here we have all binary combinations A and B, B and A
-						// etc.
-						// requires b1 -> b2
-						List<String> messages = blockRequiresAnotherBlockB(b1, b2);
-						if (messages.size() > 0) {
-							Constraint constraint = new BasicRequiresConstraint(b1, b2);
-							constraint.setExplanations(messages);
-							constraint.setNumberOfReasons(messages.size());
-							constraintList.add(constraint);
-						}
-						// monitor.worked(1);
+		// The index is built once and then the blocks are processed in
+		// parallel
+		List<Block> blocks = new ArrayList<Block>(adaptedModel.getOwnedBlocks());
+		BinaryRelationIndex index = new BinaryRelationIndex(blocks);
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			// REQUIRES
+			// Block Level
+			// TODO feature level
+			boolean requires = Activator.getDefault().getPreferenceStore()
+					.getBoolean(BinaryRelationPreferencePage.REQUIRES);
+			if (requires) {
+				long start = System.nanoTime();
+				index.buildRequiresIndex();
+				List<Future<List<IConstraint>>> futures = new ArrayList<Future<List<IConstraint>>>();
+				for (int i = 0; i < n; i++) {
+					futures.add(executor.submit(requiresTask(index, i, monitor)));
+				}
+				// here we have all binary combinations A and B, B and A etc.
+				for (int i = 0; i < n; i++) {
+					monitor.subTask("Checking Requires relations of " + blocks.get(i).getName());
+					// check monitor
+					if (monitor.isCanceled() || !addResults(constraintList, futures.get(i))) {
+						return constraintList;
 					}
 				}
+				MetricsRegistry.getDefault().stop("Constraints discovery [Requires]", start);
 			}
-			AdaptedModelManager.registerTime("Constraints discovery [Requires]", System.currentTimeMillis() - start);
-		}
-		// EXCLUDES
-		boolean excludes = Activator.getDefault().getPreferenceStore()
-				.getBoolean(BinaryRelationPreferencePage.EXCLUDES);
-		if (excludes) {
-			long start = System.currentTimeMillis();
-			for (int y = 0; y < n; y++) {
-				Block b1 = adaptedModel.getOwnedBlocks().get(y);
-				for (int x = 0; x < n; x++) {
-					// mutual exclusion, not(b1 and b2), as it is mutual we do
-					// not need to check the opposite
-					if (x != y && y < x) {
-						Block b2 = adaptedModel.getOwnedBlocks().get(x);
-						monitor.subTask(
-								"Checking Mutual Exclusion relations of " + b1.getName() + " with " + b2.getName());
-						// check monitor
-						if (monitor.isCanceled()) {
-							return constraintList;
-						}
-						// mutual exclusion
-						List<String> messages = blockExcludesAnotherBlock(b1, b2);
-						if (messages.size() > 0) {
-							Constraint constraint = new BasicExcludesConstraint(b1, b2);
-							constraint.setExplanations(messages);
-							constraint.setNumberOfReasons(messages.size());
-							constraintList.add(constraint);
-						}
-
-						// monitor.worked(1);
+			// EXCLUDES
+			boolean excludes = Activator.getDefault().getPreferenceStore()
+					.getBoolean(BinaryRelationPreferencePage.EXCLUDES);
+			if (excludes) {
+				long start = System.nanoTime();
+				index.buildExcludesIndex();
+				List<Future<List<IConstraint>>> futures = new ArrayList<Future<List<IConstraint>>>();
+				for (int y = 0; y < n; y++) {
+					futures.add(executor.submit(excludesTask(index, y, monitor)));
+				}
+				// mutual exclusion, not(b1 and b2), as it is mutual we do not
+				// need to check the opposite
+				for (int y = 0; y < n; y++) {
+					monitor.subTask("Checking Mutual Exclusion relations of " + blocks.get(y).getName());
+					// check monitor
+					if (monitor.isCanceled() || !addResults(constraintList, futures.get(y))) {
+						return constraintList;
 					}
 				}
+				MetricsRegistry.getDefault().stop("Constraints discovery [Mutual exclusion]", start);
 			}
-			AdaptedModelManager.registerTime("Constraints discovery [Mutual exclusion]",
-					System.currentTimeMillis() - start);
+		} finally {
+			executor.shutdownNow();
 		}
 		// monitor.done();
 		return constraintList;
 	}
 
+	private Callable<List<IConstraint>> requiresTask(final BinaryRelationIndex index, final int i,
+			final IProgressMonitor monitor) {
+		return new Callable<List<IConstraint>>() {
+			@Override
+			public List<IConstraint> call() throws Exception {
+				if (monitor.isCanceled()) {
+					return null;
+				}
+				return index.getRequiresConstraints(i, onlyOneReason);
+			}
+		};
+	}
+
+	private Callable<List<IConstraint>> excludesTask(final BinaryRelationIndex index, final int y,
+			final IProgressMonitor monitor) {
+		return new Callable<List<IConstraint>>() {
+			@Override
+			public List<IConstraint> call() throws Exception {
+				if (monitor.isCanceled()) {
+					return null;
+				}
+				return index.getExcludesConstraints(y, onlyOneReason);
+			}
+		};
+	}
+
+	/**
+	 * Wait for the constraints of a block and add them
+	 * 
+	 * @param constraintList
+	 * @param future
+	 * @return false if it was cancelled or interrupted
+	 */
+	private boolean addResults(List<IConstraint> constraintList, Future<List<IConstraint>> future) {
+		try {
+			List<IConstraint> constraints = future.get();
+			if (constraints == null) {
+				return false;
+			}
+			constraintList.addAll(constraints);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+
 	/**
 	 * exists e in b1 : exists de in e.dependencies : de containedIn b2
 	 * 
@@ -173,7 +213,6 @@ public class BinaryRelationConstraintsDiscovery implements IConstraintsDiscovery
 	 * @return
 	 */
 	public static List<String> blockExcludesAnotherBlock(Block b1, Block b2) {
-		List<String> messages = new ArrayList<String>();
 		// Create the global maps of dependency ids and dependency objects
 		Map<String, List<IDependencyObject>> map1 = new HashMap<String, List<IDependencyObject>>();
 		Map<String, List<IDependencyObject>> map2 = new HashMap<String, List<IDependencyObject>>();
@@ -183,6 +222,21 @@ public class BinaryRelationConstraintsDiscovery implements IConstraintsDiscovery
 		for (BlockElement e2 : b2.getOwnedBlockElements()) {
 			map2 = getDepedencyTypesAndPointedObjects(map2, e2);
 		}
+		return getExcludesMessages(map1, map2, onlyOneReason);
+	}
+
+	/**
+	 * Mutual exclusion messages from the dependency ids and pointed objects
+	 * of two blocks
+	 * 
+	 * @param map1
+	 * @param map2
+	 * @param onlyOneReason
+	 * @return the messages
+	 */
+	public static List<String> getExcludesMessages(Map<String, List<IDependencyObject>> map1,
+			Map<String, List<IDependencyObject>> map2, boolean onlyOneReason) {
+		List<String> messages = new ArrayList<String>();
 		for (String key : map1.keySet()) {
 			List<IDependencyObject> pointed1 = map1.get(key);
 			List<IDependencyObject> pointed2 = map2.get(key);
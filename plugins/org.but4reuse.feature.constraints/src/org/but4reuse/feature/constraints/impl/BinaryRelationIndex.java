@@ -0,0 +1,236 @@
+package org.but4reuse.feature.constraints.impl;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.but4reuse.adaptedmodel.Block;
+import org.but4reuse.adaptedmodel.BlockElement;
+import org.but4reuse.adaptedmodel.ElementWrapper;
+import org.but4reuse.adaptedmodel.helpers.AdaptedModelHelper;
+import org.but4reuse.adapters.IDependencyObject;
+import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.impl.ElementsMatchingMap;
+import org.but4reuse.feature.constraints.BasicExcludesConstraint;
+import org.but4reuse.feature.constraints.BasicRequiresConstraint;
+import org.but4reuse.feature.constraints.Constraint;
+import org.but4reuse.feature.constraints.IConstraint;
+
+/**
+ * Index for the binary relation constraints discovery. It is built once for
+ * all the blocks so the constraints of a block are obtained with one sweep
+ * over its dependencies instead of checking all the pairs of blocks. Once
+ * built it is only read so the blocks can be processed in parallel.
+ * 
+ * @author jabier.martinez
+ */
+public class BinaryRelationIndex {
+
+	private List<Block> blocks;
+
+	// Requires: the elements and dependencies of each block and the block
+	// elements where each dependency target is found
+	private List<HashSet<IElement>> elementsOfBlocks;
+	private Map<BlockElement, List<IDependencyObject>> dependencies;
+	private ElementsMatchingMap<List<Owner>> owners;
+
+	// Excludes: the pointed objects of each block and, for each block, the
+	// blocks pointing to at least one of its pointed objects
+	private List<Map<String, List<IDependencyObject>>> pointedObjects;
+	private List<BitSet> excludesCandidates;
+
+	public BinaryRelationIndex(List<Block> blocks) {
+		this.blocks = blocks;
+	}
+
+	/**
+	 * Build the index of the owners of the dependency targets
+	 */
+	public void buildRequiresIndex() {
+		elementsOfBlocks = new ArrayList<HashSet<IElement>>();
+		dependencies = new HashMap<BlockElement, List<IDependencyObject>>();
+		owners = new ElementsMatchingMap<List<Owner>>();
+		for (int i = 0; i < blocks.size(); i++) {
+			Block block = blocks.get(i);
+			elementsOfBlocks.add(AdaptedModelHelper.getElementsOfBlockHashSet(block));
+			for (BlockElement be : block.getOwnedBlockElements()) {
+				dependencies.put(be, BinaryRelationConstraintsDiscovery.getAllDependencies(be));
+				for (ElementWrapper ew : be.getElementWrappers()) {
+					IElement element = (IElement) ew.getElement();
+					List<Owner> elementOwners = owners.get(element);
+					if (elementOwners == null) {
+						elementOwners = new ArrayList<Owner>();
+						owners.put(element, elementOwners);
+					}
+					// only the first element wrapper of each block element
+					if (elementOwners.isEmpty() || elementOwners.get(elementOwners.size() - 1).blockElement != be) {
+						elementOwners.add(new Owner(i, be, element));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Build the index of the blocks pointing to the same dependency objects
+	 */
+	public void buildExcludesIndex() {
+		pointedObjects = new ArrayList<Map<String, List<IDependencyObject>>>();
+		// for each dependency id, the blocks pointing to each object. Elements
+		// are matched with their equals method, other dependency objects with
+		// their hashCode and equals
+		Map<String, ElementsMatchingMap<BitSet>> pointingToElements = new HashMap<String, ElementsMatchingMap<BitSet>>();
+		Map<String, Map<IDependencyObject, BitSet>> pointingToObjects = new HashMap<String, Map<IDependencyObject, BitSet>>();
+		for (int i = 0; i < blocks.size(); i++) {
+			Map<String, List<IDependencyObject>> map = new HashMap<String, List<IDependencyObject>>();
+			for (BlockElement be : blocks.get(i).getOwnedBlockElements()) {
+				map = BinaryRelationConstraintsDiscovery.getDepedencyTypesAndPointedObjects(map, be);
+			}
+			pointedObjects.add(map);
+			for (String key : map.keySet()) {
+				for (IDependencyObject o : map.get(key)) {
+					BitSet pointing;
+					if (o instanceof IElement) {
+						ElementsMatchingMap<BitSet> objects = pointingToElements.get(key);
+						if (objects == null) {
+							objects = new ElementsMatchingMap<BitSet>();
+							pointingToElements.put(key, objects);
+						}
+						pointing = objects.get(o);
+						if (pointing == null) {
+							pointing = new BitSet(blocks.size());
+							objects.put((IElement) o, pointing);
+						}
+					} else {
+						Map<IDependencyObject, BitSet> objects = pointingToObjects.get(key);
+						if (objects == null) {
+							objects = new HashMap<IDependencyObject, BitSet>();
+							pointingToObjects.put(key, objects);
+						}
+						pointing = objects.get(o);
+						if (pointing == null) {
+							pointing = new BitSet(blocks.size());
+							objects.put(o, pointing);
+						}
+					}
+					pointing.set(i);
+				}
+			}
+		}
+		excludesCandidates = new ArrayList<BitSet>();
+		for (int i = 0; i < blocks.size(); i++) {
+			excludesCandidates.add(new BitSet(blocks.size()));
+		}
+		for (ElementsMatchingMap<BitSet> objects : pointingToElements.values()) {
+			addExcludesCandidates(objects.values());
+		}
+		for (Map<IDependencyObject, BitSet> objects : pointingToObjects.values()) {
+			addExcludesCandidates(objects.values());
+		}
+	}
+
+	private void addExcludesCandidates(Iterable<BitSet> pointingBlocks) {
+		for (BitSet pointing : pointingBlocks) {
+			if (pointing.cardinality() > 1) {
+				for (int i = pointing.nextSetBit(0); i >= 0; i = pointing.nextSetBit(i + 1)) {
+					excludesCandidates.get(i).or(pointing);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Requires constraints of a block, the same as checking
+	 * blockRequiresAnotherBlockB with all the other blocks
+	 * 
+	 * @param i
+	 *            the index of the block
+	 * @param onlyOneReason
+	 * @return the constraints in the order of the required blocks
+	 */
+	public List<IConstraint> getRequiresConstraints(int i, boolean onlyOneReason) {
+		Block b1 = blocks.get(i);
+		HashSet<IElement> elementsOfB1 = elementsOfBlocks.get(i);
+		// required block index and messages
+		Map<Integer, List<String>> messages = new TreeMap<Integer, List<String>>();
+		for (BlockElement e : b1.getOwnedBlockElements()) {
+			for (IDependencyObject deo : dependencies.get(e)) {
+				// Check if the dependency object is already in b1
+				if (elementsOfB1.contains(deo)) {
+					continue;
+				}
+				List<Owner> deoOwners = owners.get(deo);
+				if (deoOwners == null) {
+					continue;
+				}
+				for (Owner owner : deoOwners) {
+					if (owner.block == i) {
+						continue;
+					}
+					List<String> b2Messages = messages.get(owner.block);
+					if (b2Messages == null) {
+						b2Messages = new ArrayList<String>();
+						messages.put(owner.block, b2Messages);
+					} else if (onlyOneReason) {
+						continue;
+					}
+					b2Messages.add(((IElement) e.getElementWrappers().get(0).getElement()).getText() + "->"
+							+ owner.element.getText());
+				}
+			}
+		}
+		List<IConstraint> constraints = new ArrayList<IConstraint>();
+		for (Integer b2 : messages.keySet()) {
+			List<String> b2Messages = messages.get(b2);
+			Constraint constraint = new BasicRequiresConstraint(b1, blocks.get(b2));
+			constraint.setExplanations(b2Messages);
+			constraint.setNumberOfReasons(b2Messages.size());
+			constraints.add(constraint);
+		}
+		return constraints;
+	}
+
+	/**
+	 * Excludes constraints of a block with the blocks after it, the same as
+	 * checking blockExcludesAnotherBlock with them
+	 * 
+	 * @param y
+	 *            the index of the block
+	 * @param onlyOneReason
+	 * @return the constraints in the order of the blocks
+	 */
+	public List<IConstraint> getExcludesConstraints(int y, boolean onlyOneReason) {
+		List<IConstraint> constraints = new ArrayList<IConstraint>();
+		BitSet candidates = excludesCandidates.get(y);
+		for (int x = candidates.nextSetBit(y + 1); x >= 0; x = candidates.nextSetBit(x + 1)) {
+			List<String> messages = BinaryRelationConstraintsDiscovery.getExcludesMessages(pointedObjects.get(y),
+					pointedObjects.get(x), onlyOneReason);
+			if (messages.size() > 0) {
+				Constraint constraint = new BasicExcludesConstraint(blocks.get(y), blocks.get(x));
+				constraint.setExplanations(messages);
+				constraint.setNumberOfReasons(messages.size());
+				constraints.add(constraint);
+			}
+		}
+		return constraints;
+	}
+
+	/**
+	 * A block element containing a dependency target
+	 */
+	private static class Owner {
+		int block;
+		BlockElement blockElement;
+		IElement element;
+
+		Owner(int block, BlockElement blockElement, IElement element) {
+			this.block = block;
+			this.blockElement = blockElement;
+			this.element = element;
+		}
+	}
+}
@@ -10,6 +10,7 @@ import org.but4reuse.adaptedmodel.AdaptedModel;
 import org.but4reuse.adaptedmodel.Block;
 import org.but4reuse.adaptedmodel.BlockElement;
 import org.but4reuse.adaptedmodel.ElementWrapper;
+import org.but4reuse.adaptedmodel.helpers.BlockPresenceMatrix;
 import org.but4reuse.artefactmodel.Artefact;
 import org.but4reuse.feature.constraints.BasicExcludesConstraint;
 import org.but4reuse.feature.constraints.BasicRequiresConstraint;
@@ -102,10 +103,10 @@ public class ConstraintsHelper {
 				matrix[i][0] = featureList.getOwnedFeatures().get(i - 1).getName();
 			}
 			// calculate feature-specific heuristic
+			double[][] presence = BlockPresenceMatrix.get(adaptedModel).getPresenceInFeatures(featureList);
 			for (int r = 1; r < featuresSize; r++) {
 				for (int c = 1; c < blocksSize; c++) {
-					matrix[r][c] = new Double(percentageOfBlockInFeature(adaptedModel.getOwnedBlocks().get(c - 1),
-							featureList.getOwnedFeatures().get(r - 1))).toString();
+					matrix[r][c] = Double.toString(presence[r - 1][c - 1]);
 				}
 			}
 		}
@@ -120,6 +121,14 @@ public class ConstraintsHelper {
 	 * @return
 	 */
 	public static double percentageOfBlockInFeature(Block block, Feature feature) {
+		if (block.eContainer() instanceof AdaptedModel) {
+			BlockPresenceMatrix matrix = BlockPresenceMatrix.get((AdaptedModel) block.eContainer());
+			int blockIndex = matrix.getBlockIndex(block);
+			if (blockIndex != -1) {
+				return matrix.getPercentageOfBlockInFeature(blockIndex, feature);
+			}
+		}
+		// the block is not owned by an adapted model, direct calculation
 		List<Artefact> artefacts = feature.getImplementedInArtefacts();
 		List<Artefact> foundArtefacts = new ArrayList<Artefact>();
 		List<BlockElement> blockElements = block.getOwnedBlockElements();
@@ -135,7 +144,7 @@ public class ConstraintsHelper {
 				}
 			}
 		}
-		return new Double(foundArtefacts.size()) / new Double(artefacts.size());
+		return (double) foundArtefacts.size() / artefacts.size();
 	}
 
 	/**
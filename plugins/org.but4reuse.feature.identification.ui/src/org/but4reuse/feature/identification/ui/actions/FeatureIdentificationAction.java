@@ -2,12 +2,9 @@ package org.but4reuse.feature.identification.ui.actions;
 
 import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
-import java.util.ArrayList;
 import java.util.List;
 
 import org.but4reuse.adaptedmodel.AdaptedModel;
-import org.but4reuse.adaptedmodel.Block;
-import org.but4reuse.adaptedmodel.helpers.AdaptedModelHelper;
 import org.but4reuse.adaptedmodel.manager.AdaptedModelManager;
 import org.but4reuse.adapters.IAdapter;
 import org.but4reuse.adapters.helper.AdaptersHelper;
@@ -16,12 +13,9 @@ import org.but4reuse.adapters.ui.AdaptersSelectionDialog;
 import org.but4reuse.artefactmodel.Artefact;
 import org.but4reuse.artefactmodel.ArtefactModel;
 import org.but4reuse.artefactmodel.ArtefactModelFactory;
-import org.but4reuse.block.identification.IBlockIdentification;
 import org.but4reuse.block.identification.helper.BlockIdentificationHelper;
-import org.but4reuse.feature.constraints.IConstraint;
-import org.but4reuse.feature.constraints.IConstraintsDiscovery;
 import org.but4reuse.feature.constraints.helper.ConstraintsDiscoveryHelper;
-import org.but4reuse.feature.constraints.impl.ConstraintsHelper;
+import org.but4reuse.feature.identification.FeatureIdentificationHelper;
 import org.but4reuse.utils.emf.EMFUtils;
 import org.but4reuse.utils.workbench.WorkbenchUtils;
 import org.but4reuse.visualisation.helpers.VisualisationsHelper;
@@ -105,61 +99,11 @@ public class FeatureIdentificationAction implements IObjectActionDelegate, IView
 								int totalWork = AdaptersHelper.getActiveArtefacts(artefactModel).size() + 1 + 1
 										+ VisualisationsHelper.getSelectedVisualisations().size();
 								monitor.beginTask("Feature Identification", totalWork);
-								AdaptedModel adaptedModel = AdaptedModelHelper.adapt(artefactModel, adapters, monitor);
-
-								monitor.subTask("Calculating existing blocks");
 								PreferencesHelper.setDeactivateManualEqualOnlyForThisTime(false);
-
-								IBlockIdentification a = BlockIdentificationHelper.getSelectedBlockIdentification();
-								long startTime = System.currentTimeMillis();
-								List<Block> blocks = a.identifyBlocks(adaptedModel.getOwnedAdaptedArtefacts(), monitor);
-								long stopTime = System.currentTimeMillis();
-								long elapsedTime = stopTime - startTime;
-								AdaptedModelManager.registerTime("Block identification " + a.getClass().getSimpleName(),
-										elapsedTime);
-
-								blocks = AdaptedModelHelper.checkBlockNames(blocks);
-
-								adaptedModel.getOwnedBlocks().addAll(blocks);
-								monitor.worked(1);
-
-								monitor.subTask("Constraints discovery");
-								List<IConstraintsDiscovery> constraintsDiscoveryAlgorithms = ConstraintsDiscoveryHelper
-										.getSelectedConstraintsDiscoveryAlgorithms();
-								List<IConstraint> constraints = new ArrayList<IConstraint>();
-								for (IConstraintsDiscovery constraintsDiscovery : constraintsDiscoveryAlgorithms) {
-									startTime = System.currentTimeMillis();
-									List<IConstraint> discovered = constraintsDiscovery.discover(null, adaptedModel,
-											null, monitor);
-									stopTime = System.currentTimeMillis();
-									elapsedTime = stopTime - startTime;
-									AdaptedModelManager.registerTime(
-											"Constraints discovery " + constraintsDiscovery.getClass().getSimpleName(),
-											elapsedTime);
-									// System.out.println(elapsedTime / 1000.0);
-									if (constraints.isEmpty()) {
-										constraints.addAll(discovered);
-									} else {
-										// Only add the ones that are not
-										// already there
-										List<IConstraint> toBeAdded = new ArrayList<IConstraint>();
-										for (IConstraint d : discovered) {
-											boolean found = false;
-											for (IConstraint c : constraints) {
-												if (ConstraintsHelper.equalsConstraint(d, c)) {
-													found = true;
-													break;
-												}
-											}
-											if (!found) {
-												toBeAdded.add(d);
-											}
-										}
-										constraints.addAll(toBeAdded);
-									}
-								}
-								adaptedModel.setConstraints(constraints);
-								monitor.worked(1);
+								AdaptedModel adaptedModel = FeatureIdentificationHelper.identifyFeatures(artefactModel,
+										adapters, BlockIdentificationHelper.getSelectedBlockIdentification(),
+										ConstraintsDiscoveryHelper.getSelectedConstraintsDiscoveryAlgorithms(),
+										monitor);
 
 								monitor.subTask("Preparing visualisations");
 								VisualisationsHelper.notifyVisualisations(null, adaptedModel, null, monitor);
@@ -0,0 +1,144 @@
+package org.but4reuse.feature.identification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.but4reuse.adaptedmodel.AdaptedModel;
+import org.but4reuse.adaptedmodel.Block;
+import org.but4reuse.adaptedmodel.helpers.AdaptedModelHelper;
+import org.but4reuse.adapters.IAdapter;
+import org.but4reuse.adapters.preferences.ComparisonContext;
+import org.but4reuse.artefactmodel.ArtefactModel;
+import org.but4reuse.block.identification.IBlockIdentification;
+import org.but4reuse.block.identification.helper.BlockIdentificationHelper;
+import org.but4reuse.feature.constraints.IConstraint;
+import org.but4reuse.feature.constraints.IConstraintsDiscovery;
+import org.but4reuse.feature.constraints.helper.ConstraintsDiscoveryHelper;
+import org.but4reuse.feature.constraints.impl.ConstraintsHelper;
+import org.but4reuse.utils.metrics.MetricsRegistry;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Feature identification helper. The feature identification pipeline (adapt,
+ * block identification and constraints discovery) without any user interface
+ * so it can be used from the workbench actions or headless.
+ * 
+ * @author jabier.martinez
+ */
+public class FeatureIdentificationHelper {
+
+	/**
+	 * Adapt the artefacts, identify the blocks and discover the constraints
+	 * 
+	 * @param artefactModel
+	 * @param adapters
+	 * @param blockIdentification
+	 * @param constraintsDiscoveryAlgorithms
+	 * @param monitor
+	 * @return the adapted model with the blocks and the constraints
+	 * @throws IllegalStateException
+	 *             if another analysis is running, see ComparisonContext
+	 */
+	public static AdaptedModel identifyFeatures(ArtefactModel artefactModel, List<IAdapter> adapters,
+			IBlockIdentification blockIdentification, List<IConstraintsDiscovery> constraintsDiscoveryAlgorithms,
+			IProgressMonitor monitor) {
+		// the same comparison settings during all the analysis, it fails if
+		// another analysis is running
+		ComparisonContext context = ComparisonContext.capture();
+		ComparisonContext.bind(context);
+		try {
+			return identifyFeaturesWithContext(artefactModel, adapters, blockIdentification,
+					constraintsDiscoveryAlgorithms, monitor);
+		} finally {
+			ComparisonContext.unbind(context);
+		}
+	}
+
+	private static AdaptedModel identifyFeaturesWithContext(ArtefactModel artefactModel, List<IAdapter> adapters,
+			IBlockIdentification blockIdentification, List<IConstraintsDiscovery> constraintsDiscoveryAlgorithms,
+			IProgressMonitor monitor) {
+		AdaptedModel adaptedModel = AdaptedModelHelper.adapt(artefactModel, adapters, monitor);
+		if (monitor.isCanceled()) {
+			return adaptedModel;
+		}
+
+		monitor.subTask("Calculating existing blocks");
+		MetricsRegistry metrics = MetricsRegistry.getDefault();
+		long startTime = System.nanoTime();
+		List<Block> blocks = blockIdentification.identifyBlocks(adaptedModel.getOwnedAdaptedArtefacts(), monitor);
+		metrics.stop("Block identification " + blockIdentification.getClass().getSimpleName(), startTime);
+
+		blocks = AdaptedModelHelper.checkBlockNames(blocks);
+
+		adaptedModel.getOwnedBlocks().addAll(blocks);
+		monitor.worked(1);
+		if (monitor.isCanceled()) {
+			return adaptedModel;
+		}
+
+		monitor.subTask("Constraints discovery");
+		List<IConstraint> constraints = new ArrayList<IConstraint>();
+		for (IConstraintsDiscovery constraintsDiscovery : constraintsDiscoveryAlgorithms) {
+			startTime = System.nanoTime();
+			List<IConstraint> discovered = constraintsDiscovery.discover(null, adaptedModel, null, monitor);
+			metrics.stop("Constraints discovery " + constraintsDiscovery.getClass().getSimpleName(), startTime);
+			if (constraints.isEmpty()) {
+				constraints.addAll(discovered);
+			} else {
+				// Only add the ones that are not already there
+				List<IConstraint> toBeAdded = new ArrayList<IConstraint>();
+				for (IConstraint d : discovered) {
+					boolean found = false;
+					for (IConstraint c : constraints) {
+						if (ConstraintsHelper.equalsConstraint(d, c)) {
+							found = true;
+							break;
+						}
+					}
+					if (!found) {
+						toBeAdded.add(d);
+					}
+				}
+				constraints.addAll(toBeAdded);
+			}
+		}
+		adaptedModel.setConstraints(constraints);
+		monitor.worked(1);
+		return adaptedModel;
+	}
+
+	/**
+	 * Get a block identification algorithm by the name used in the extension
+	 * or by its class name
+	 * 
+	 * @param name
+	 * @return the algorithm or null if not found
+	 */
+	public static IBlockIdentification getBlockIdentification(String name) {
+		for (IBlockIdentification algo : BlockIdentificationHelper.getAllBlockIdentificationAlgorithms()) {
+			if (name.equals(BlockIdentificationHelper.getAlgorithmName(algo))
+					|| name.equals(algo.getClass().getSimpleName()) || name.equals(algo.getClass().getName())) {
+				return algo;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get a constraints discovery algorithm by the name used in the extension
+	 * or by its class name
+	 * 
+	 * @param name
+	 * @return the algorithm or null if not found
+	 */
+	public static IConstraintsDiscovery getConstraintsDiscovery(String name) {
+		for (IConstraintsDiscovery algo : ConstraintsDiscoveryHelper.getAllConstraintsDiscoveryAlgorithms()) {
+			if (name.equals(ConstraintsDiscoveryHelper.getAlgorithmName(algo))
+					|| name.equals(algo.getClass().getSimpleName()) || name.equals(algo.getClass().getName())) {
+				return algo;
+			}
+		}
+		return null;
+	}
+
+}
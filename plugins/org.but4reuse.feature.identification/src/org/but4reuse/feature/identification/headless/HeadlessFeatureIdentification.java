@@ -0,0 +1,222 @@
+package org.but4reuse.feature.identification.headless;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.but4reuse.adaptedmodel.AdaptedArtefact;
+import org.but4reuse.adaptedmodel.AdaptedModel;
+import org.but4reuse.adaptedmodel.ElementWrapper;
+import org.but4reuse.adaptedmodel.manager.AdaptedModelManager;
+import org.but4reuse.adapters.IAdapter;
+import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.helper.AdaptersHelper;
+import org.but4reuse.adapters.preferences.PreferencesHelper;
+import org.but4reuse.artefactmodel.ArtefactModel;
+import org.but4reuse.block.identification.IBlockIdentification;
+import org.but4reuse.block.identification.helper.BlockIdentificationHelper;
+import org.but4reuse.feature.constraints.IConstraintsDiscovery;
+import org.but4reuse.feature.constraints.helper.ConstraintsDiscoveryHelper;
+import org.but4reuse.feature.constraints.impl.ConstraintsHelper;
+import org.but4reuse.feature.identification.FeatureIdentificationHelper;
+import org.but4reuse.utils.emf.EMFUtils;
+import org.but4reuse.utils.files.FileUtils;
+import org.but4reuse.utils.metrics.MetricsRegistry;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+
+/**
+ * Headless feature identification. Eclipse application that runs the feature
+ * identification pipeline without workbench and saves the adapted model, the
+ * constraints and the time measures in the output folder. The visualisations
+ * are not used.
+ * 
+ * Arguments: -artefactModel path [-adapters id1,id2] [-blockIdentification
+ * name] [-constraintsDiscovery name1,name2] [-output folder]. By default, the
+ * adapters of the artefact model and the algorithms selected in the
+ * preferences are used, and the output is the folder of the artefact model.
+ * 
+ * @author jabier.martinez
+ */
+public class HeadlessFeatureIdentification implements IApplication {
+
+	public static final String ARTEFACT_MODEL = "-artefactModel";
+	public static final String ADAPTERS = "-adapters";
+	public static final String BLOCK_IDENTIFICATION = "-blockIdentification";
+	public static final String CONSTRAINTS_DISCOVERY = "-constraintsDiscovery";
+	public static final String OUTPUT = "-output";
+
+	public static final Integer EXIT_ERROR = 1;
+
+	@Override
+	public Object start(IApplicationContext context) throws Exception {
+		String[] args = (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+		Map<String, String> arguments;
+		try {
+			arguments = getArguments(args);
+		} catch (IllegalArgumentException e) {
+			return error(e.getMessage());
+		}
+
+		// Artefact model
+		String artefactModelPath = arguments.get(ARTEFACT_MODEL);
+		if (artefactModelPath == null) {
+			return error("Missing " + ARTEFACT_MODEL);
+		}
+		File artefactModelFile = new File(artefactModelPath).getAbsoluteFile();
+		ArtefactModel artefactModel = null;
+		EObject eObject = EMFUtils.getEObject(artefactModelFile.toURI());
+		if (eObject instanceof ArtefactModel) {
+			artefactModel = (ArtefactModel) eObject;
+		}
+		if (artefactModel == null) {
+			return error("Artefact model not found: " + artefactModelFile);
+		}
+
+		// Adapters
+		String adapterIds = arguments.get(ADAPTERS);
+		if (adapterIds == null) {
+			adapterIds = artefactModel.getAdapters();
+		}
+		List<IAdapter> adapters = AdaptersHelper.getAdaptersByIds(adapterIds);
+		if (adapters.isEmpty()) {
+			return error("No adapters found: " + adapterIds);
+		}
+
+		// Block identification
+		IBlockIdentification blockIdentification;
+		String blockIdentificationName = arguments.get(BLOCK_IDENTIFICATION);
+		if (blockIdentificationName == null) {
+			blockIdentification = BlockIdentificationHelper.getSelectedBlockIdentification();
+		} else {
+			blockIdentification = FeatureIdentificationHelper.getBlockIdentification(blockIdentificationName);
+		}
+		if (blockIdentification == null) {
+			return error("Block identification algorithm not found: " + blockIdentificationName);
+		}
+
+		// Constraints discovery
+		List<IConstraintsDiscovery> constraintsDiscoveryAlgorithms;
+		String constraintsDiscoveryNames = arguments.get(CONSTRAINTS_DISCOVERY);
+		if (constraintsDiscoveryNames == null) {
+			constraintsDiscoveryAlgorithms = ConstraintsDiscoveryHelper.getSelectedConstraintsDiscoveryAlgorithms();
+		} else {
+			constraintsDiscoveryAlgorithms = new ArrayList<IConstraintsDiscovery>();
+			for (String name : constraintsDiscoveryNames.split(",")) {
+				IConstraintsDiscovery constraintsDiscovery = FeatureIdentificationHelper
+						.getConstraintsDiscovery(name);
+				if (constraintsDiscovery == null) {
+					return error("Constraints discovery algorithm not found: " + name);
+				}
+				constraintsDiscoveryAlgorithms.add(constraintsDiscovery);
+			}
+		}
+
+		// Output
+		File output = artefactModelFile.getParentFile();
+		if (arguments.get(OUTPUT) != null) {
+			output = new File(arguments.get(OUTPUT)).getAbsoluteFile();
+		}
+		output.mkdirs();
+
+		// Nobody can answer the manual equal dialogs
+		PreferencesHelper.setDeactivateManualEqualOnlyForThisTime(true);
+		AdaptedModel adaptedModel;
+		try {
+			adaptedModel = FeatureIdentificationHelper.identifyFeatures(artefactModel, adapters,
+					blockIdentification, constraintsDiscoveryAlgorithms, new NullProgressMonitor());
+		} finally {
+			PreferencesHelper.setDeactivateManualEqualOnlyForThisTime(false);
+		}
+
+		save(artefactModel.eResource().getResourceSet(), adaptedModel, output);
+		return IApplication.EXIT_OK;
+	}
+
+	@Override
+	public void stop() {
+		// nothing to do
+	}
+
+	/**
+	 * Save the adapted model, the constraints and the time measures
+	 * 
+	 * @param resourceSet
+	 *            with the artefact model
+	 * @param adaptedModel
+	 * @param output
+	 * @throws Exception
+	 */
+	private void save(ResourceSet resourceSet, AdaptedModel adaptedModel, File output) throws Exception {
+		// The elements are not serialised, keep at least their text
+		for (AdaptedArtefact adaptedArtefact : adaptedModel.getOwnedAdaptedArtefacts()) {
+			for (ElementWrapper ew : adaptedArtefact.getOwnedElementWrappers()) {
+				if (ew.getText() == null && ew.getElement() instanceof IElement) {
+					ew.setText(((IElement) ew.getElement()).getText());
+				}
+			}
+		}
+		File adaptedModelFile = new File(output, "adaptedModel.adaptedmodel");
+		Resource resource = resourceSet.createResource(EMFUtils.uriToEMFURI(adaptedModelFile.toURI()));
+		resource.getContents().add(adaptedModel);
+		EMFUtils.saveResourceIgnoringDangling(resource);
+
+		FileUtils.writeFile(new File(output, "constraints.txt"),
+				ConstraintsHelper.getTextWithExplanations(ConstraintsHelper.getCalculatedConstraints(adaptedModel)));
+
+		StringBuilder text = new StringBuilder();
+		for (Entry<String, Long> entry : AdaptedModelManager.getElapsedTimeRegistry().entrySet()) {
+			text.append(entry.getKey() + ";" + entry.getValue() + "\n");
+		}
+		FileUtils.writeFile(new File(output, "timeMeasures.csv"), text.toString());
+		// timers with nanoseconds and used heap, and the counters
+		MetricsRegistry metrics = MetricsRegistry.getDefault();
+		FileUtils.writeFile(new File(output, "metrics.csv"), metrics.toCSV());
+		FileUtils.writeFile(new File(output, "metrics.json"), metrics.toJSON());
+	}
+
+	/**
+	 * Get the arguments as a map from option to value. All the options take a
+	 * value.
+	 * 
+	 * @param args
+	 * @return a non null map
+	 * @throws IllegalArgumentException
+	 *             if an option is unknown or its value is missing
+	 */
+	private Map<String, String> getArguments(String[] args) {
+		List<String> options = Arrays.asList(ARTEFACT_MODEL, ADAPTERS, BLOCK_IDENTIFICATION, CONSTRAINTS_DISCOVERY,
+				OUTPUT);
+		Map<String, String> arguments = new HashMap<String, String>();
+		if (args != null) {
+			for (int i = 0; i < args.length; i++) {
+				if (!options.contains(args[i])) {
+					throw new IllegalArgumentException("Unknown argument: " + args[i]);
+				}
+				// the next option is not taken as the value
+				if (i + 1 == args.length || args[i + 1].startsWith("-")) {
+					throw new IllegalArgumentException("Missing value of " + args[i]);
+				}
+				arguments.put(args[i], args[i + 1]);
+				i++;
+			}
+		}
+		return arguments;
+	}
+
+	private Integer error(String message) {
+		System.err.println(message);
+		System.err.println("Usage: " + ARTEFACT_MODEL + " path [" + ADAPTERS + " id1,id2] [" + BLOCK_IDENTIFICATION
+				+ " name] [" + CONSTRAINTS_DISCOVERY + " name1,name2] [" + OUTPUT + " folder]");
+		return EXIT_ERROR;
+	}
+
+}
@@ -1,10 +1,10 @@
 package org.but4reuse.feature.location.impl;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.StringTokenizer;
+import java.util.TreeSet;
 
 import org.but4reuse.adaptedmodel.AdaptedModel;
 import org.but4reuse.adaptedmodel.Block;
@@ -17,6 +17,8 @@ import org.but4reuse.feature.location.lsi.activator.Activator;
 import org.but4reuse.feature.location.lsi.location.preferences.LSIPreferencePage;
 import org.but4reuse.featurelist.Feature;
 import org.but4reuse.featurelist.FeatureList;
+import org.but4reuse.wordclouds.util.TermIndex;
+import org.but4reuse.wordclouds.util.TermVector;
 import org.eclipse.core.runtime.IProgressMonitor;
 
 import Jama.Matrix;
@@ -64,70 +66,92 @@ public class FeatureLocationLSI implements IFeatureLocation {
 		if (list.size() == 0)
 			return locatedFeatures;
 
-		for (Feature f : featureList.getOwnedFeatures()) {
+		/*
+		 * The term-document matrix does not depend on the features so it is
+		 * created, decomposed and reduced only once. Each document is kept as
+		 * a sparse vector (term index -> number of occurrences)
+		 */
+		TermIndex termIndex = createTermIndex(list);
+		if (termIndex.size() == 0)
+			return locatedFeatures;
+		List<TermVector> documents = new ArrayList<TermVector>();
+		for (HashMap<String, Integer> t : list) {
+			documents.add(termIndex.createQueryVector(t));
+		}
 
-			double vecQ[] = createQuery(list, getFeatureWords(f));
+		/*
+		 * Here we use the LSI for comparing words from the feature and words
+		 * form the block
+		 * https://fr.wikipedia.org/wiki/Analyse_s%C3%A9mantique_latente
+		 */
+		monitor.subTask("Latent Semantic Indexing. Singular value decomposition");
+		Matrix m = new Matrix(createMatrix(termIndex, documents));
+		SingularValueDecomposition svd = m.svd();
 
-			/*
-			 * Here we use the LSI for comparing words from the feature and
-			 * words form the block
-			 * https://fr.wikipedia.org/wiki/Analyse_s%C3%A9mantique_latente
-			 */
+		// Here we get the singular values sorted from the highest to the
+		// smallest
+		double[] singularValues = svd.getSingularValues();
+		// Here the U matrix from SVD -> M = U*S*V
+		Matrix u = svd.getU();
 
-			Matrix m = new Matrix(createMatrix(list));
-			SingularValueDecomposition svd = m.svd();
+		/*
+		 * Here we get the number of dimensions
+		 */
+		boolean fixed = Activator.getDefault().getPreferenceStore().getBoolean(LSIPreferencePage.FIXED);
+		int nbDim;
+
+		double dim = Activator.getDefault().getPreferenceStore().getDouble(LSIPreferencePage.DIM);
+		if (fixed)
+			nbDim = (int) dim;
+		else {
+			nbDim = (int) (dim * m.getColumnDimension());
+		}
 
-			// Here we get the singular value matix
-			Matrix s = svd.getS();
-			// Here the U matrix from SVD -> M = U*S*V
-			Matrix u = svd.getU();
+		// We check if the matrix is not to small, and update the number of
+		// dimensions
+		nbDim = Math.min(nbDim, Math.min(m.getColumnDimension(), u.getColumnDimension()));
+		if (nbDim < 1)
+			return locatedFeatures;
 
-			/*
-			 * Here we get the number of dimensions
-			 */
-			boolean fixed = Activator.getDefault().getPreferenceStore().getBoolean(LSIPreferencePage.FIXED);
-			int nbDim;
-
-			double dim = Activator.getDefault().getPreferenceStore().getDouble(LSIPreferencePage.DIM);
-			if (fixed)
-				nbDim = (int) dim;
-			else {
-				nbDim = (int) (dim * s.getRowDimension());
+		/*
+		 * Here, rank-reduce. The U and S matrix are sorted by singular value
+		 * the highest to the smallest so we just keep the first nbDim columns.
+		 * Formula for a vector v (column vector) in the new space: vk = Sk^-1 *
+		 * Uk^t * v. Sk is diagonal so Sk^-1 * Uk^t is computed directly.
+		 */
+		double[][] uArray = u.getArray();
+		double[][] projection = new double[nbDim][termIndex.size()];
+		for (int k = 0; k < nbDim; k++) {
+			double inverse = singularValues[k] == 0 ? 0 : 1 / singularValues[k];
+			for (int term = 0; term < termIndex.size(); term++) {
+				projection[k][term] = uArray[term][k] * inverse;
 			}
+		}
 
-			// We check if the matrix is not to small, and update the number of
-			// dimensions
-			nbDim = Math.min(nbDim, s.getRowDimension());
-
-			/*
-			 * Here, rand-reduce The the U and S matrix are sorted by singular
-			 * value the highest to the smallest so we just remove the last rows
-			 * and columns.
-			 */
-			Matrix sk = s.getMatrix(0, nbDim - 1, 0, nbDim - 1);
-			Matrix uk = u.getMatrix(0, u.getRowDimension() - 1, 0, nbDim - 1);
-
-			Matrix q = new Matrix(vecQ, vecQ.length);
+		// Documents in the new space
+		List<double[]> documentVectors = new ArrayList<double[]>();
+		for (TermVector document : documents) {
+			documentVectors.add(project(projection, document));
+		}
 
-			/*
-			 * Here we define the new query vector in the new space. Formula For
-			 * the query q (column vector) : qk = Sk^-1 * Uk^t * q
-			 */
-			q = (sk.inverse().times(uk.transpose()).times(q));
+		// Queries in the new space, all the features in one batch
+		List<Feature> features = featureList.getOwnedFeatures();
+		List<double[]> queryVectors = new ArrayList<double[]>();
+		for (Feature f : features) {
+			queryVectors.add(project(projection, termIndex.createQueryVector(getFeatureWords(f))));
+		}
 
-			for (int i = 0; i < m.getColumnDimension(); i++) {
+		for (int fi = 0; fi < features.size(); fi++) {
+			Feature f = features.get(fi);
+			monitor.subTask("Latent Semantic Indexing. Locating " + f.getName() + " " + (fi + 1) + "/"
+					+ features.size());
+			if (monitor.isCanceled()) {
+				return locatedFeatures;
+			}
+			double[] q = queryVectors.get(fi);
+			for (int i = 0; i < documentVectors.size(); i++) {
 				Block b = featureBlocks.get(i);
-				// Here we get the document vector
-				Matrix ve = m.getMatrix(0, m.getRowDimension() - 1, i, i);
-				/*
-				 * Here we difine the document vector in the new space Formula
-				 * For a document d (columns vector) : dk = Sk^-1 * Uk^t * d
-				 */
-				Matrix vector = sk.inverse().times(uk.transpose()).times(ve);
-
-				double vecDoc[] = vector.getColumnPackedCopy();
-
-				double cos = cosine(q.getColumnPackedCopy(), vecDoc);
+				double cos = cosine(q, documentVectors.get(i));
 				/*
 				 * If the cosine between the feature vector and the block vector
 				 * is > 0 it means that it's relevant to think that there are
@@ -146,6 +170,26 @@ public class FeatureLocationLSI implements IFeatureLocation {
 		return locatedFeatures;
 	}
 
+	/**
+	 * Project a sparse vector in the reduced space
+	 * 
+	 * @param projection
+	 *            Sk^-1 * Uk^t
+	 * @param vector
+	 * @return the vector in the reduced space
+	 */
+	private static double[] project(double[][] projection, TermVector vector) {
+		double[] result = new double[projection.length];
+		for (int i = 0; i < vector.size(); i++) {
+			int term = vector.getTermId(i);
+			double value = vector.getValue(i);
+			for (int k = 0; k < projection.length; k++) {
+				result[k] += projection[k][term] * value;
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * It will give the words from the feature
 	 * 
@@ -192,42 +236,17 @@ public class FeatureLocationLSI implements IFeatureLocation {
 	}
 
 	static public double[] createQuery(ArrayList<HashMap<String, Integer>> list, HashMap<String, Integer> map) {
-		ArrayList<String> words = new ArrayList<String>();
-
-		/*
-		 * We count all different words In the matrix we must have for each
-		 * words how many times it was found in the document even if it's 0
-		 */
-		int cpt = 0;
-		for (HashMap<String, Integer> t : list) {
-			for (String s : t.keySet()) {
-				if (!words.contains(s)) {
-					cpt++;
-					words.add(s);
-				}
-			}
-		}
-
-		/*
-		 * We sort the words list ( From LSI not necessary but made generally)
-		 */
-		Collections.sort(words);
-		if (cpt == 0)
+		TermIndex termIndex = createTermIndex(list);
+		if (termIndex.size() == 0)
 			return null;
 
-		double tab[] = new double[words.size()];
-
-		int i = 0;
-		for (String w : words) {
-			if (map.containsKey(w))
-				tab[i] = map.get(w);
-			else
-				// If a words isn't in the HashMap it means that the word
-				// did appear in the document so we see it time
-				tab[i] = 0;
-			i++;
+		// If a words isn't in the HashMap it means that the word did not
+		// appear so it stays 0
+		double tab[] = new double[termIndex.size()];
+		TermVector query = termIndex.createQueryVector(map);
+		for (int i = 0; i < query.size(); i++) {
+			tab[query.getTermId(i)] = query.getValue(i);
 		}
-
 		return tab;
 	}
 
@@ -242,50 +261,54 @@ public class FeatureLocationLSI implements IFeatureLocation {
 	 * @return A matrix
 	 */
 	public static double[][] createMatrix(ArrayList<HashMap<String, Integer>> list) {
-		ArrayList<String> words = new ArrayList<String>();
-
-		/*
-		 * We count all different words In the matrix we must have for each
-		 * words how many times it was found in the document even if it's 0
-		 */
-		int cpt = 0;
+		TermIndex termIndex = createTermIndex(list);
+		if (termIndex.size() == 0)
+			return null;
+		List<TermVector> documents = new ArrayList<TermVector>();
 		for (HashMap<String, Integer> t : list) {
-			for (String s : t.keySet()) {
-				if (!words.contains(s)) {
-					cpt++;
-					words.add(s);
-				}
-			}
+			documents.add(termIndex.createQueryVector(t));
 		}
+		return createMatrix(termIndex, documents);
+	}
 
-		/*
-		 * We sort the words list ( From LSI not necessary but made generally)
-		 */
-		Collections.sort(words);
-		if (cpt == 0)
-			return null;
-
-		/*
-		 * We fill the matrix we have one HashMap per document In the HashMap we
-		 * have a words and how many times it was found
-		 */
-		double matrix[][] = new double[cpt][list.size()];
+	/**
+	 * Dense matrix from the sparse documents. In the matrix we must have for
+	 * each words how many times it was found in the document even if it's 0
+	 * 
+	 * @param termIndex
+	 * @param documents
+	 *            sparse vectors
+	 * @return A matrix
+	 */
+	private static double[][] createMatrix(TermIndex termIndex, List<TermVector> documents) {
+		double matrix[][] = new double[termIndex.size()][documents.size()];
 		int i = 0;
-		for (HashMap<String, Integer> t : list) {
-			for (String w : words) {
-				if (t.containsKey(w))
-					matrix[words.indexOf(w)][i] = t.get(w);
-				else
-					// If a words isn't in the HashMap it means that the word
-					// did appear in the document so we see it time
-					matrix[words.indexOf(w)][i] = 0;
+		for (TermVector document : documents) {
+			for (int entry = 0; entry < document.size(); entry++) {
+				matrix[document.getTermId(entry)][i] = document.getValue(entry);
 			}
 			i++;
 		}
-
 		return matrix;
 	}
 
+	/**
+	 * All the different words of the documents sorted (From LSI not necessary
+	 * but made generally). The term id is the row index in the matrix
+	 * 
+	 * @param list
+	 * @return the term index
+	 */
+	private static TermIndex createTermIndex(ArrayList<HashMap<String, Integer>> list) {
+		TreeSet<String> words = new TreeSet<String>();
+		for (HashMap<String, Integer> t : list) {
+			words.addAll(t.keySet());
+		}
+		TermIndex termIndex = new TermIndex();
+		termIndex.addTerms(words);
+		return termIndex;
+	}
+
 	/**
 	 * Calculate the cosine between two vector
 	 * 
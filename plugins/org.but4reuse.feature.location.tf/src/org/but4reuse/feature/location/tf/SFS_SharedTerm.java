@@ -1,9 +1,7 @@
 package org.but4reuse.feature.location.tf;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.but4reuse.adaptedmodel.AdaptedModel;
 import org.but4reuse.adaptedmodel.Block;
@@ -15,7 +13,8 @@ import org.but4reuse.feature.location.LocatedFeaturesUtils;
 import org.but4reuse.feature.location.impl.StrictFeatureSpecificFeatureLocation;
 import org.but4reuse.featurelist.Feature;
 import org.but4reuse.featurelist.FeatureList;
-import org.but4reuse.wordclouds.util.TermFrequencyUtils;
+import org.but4reuse.wordclouds.util.TermIndex;
+import org.but4reuse.wordclouds.util.TermVector;
 import org.eclipse.core.runtime.IProgressMonitor;
 
 public class SFS_SharedTerm implements IFeatureLocation {
@@ -30,25 +29,21 @@ public class SFS_SharedTerm implements IFeatureLocation {
 
 		List<LocatedFeature> locatedFeatures = new ArrayList<LocatedFeature>();
 
+		// The words of features and elements are processed only once
+		TermIndex termIndex = new TermIndex();
+
 		// Get all the features of a given block and all its elements
 		for (Block block : adaptedModel.getOwnedBlocks()) {
 			monitor.subTask("Feature location FCA SFS and Shared Term. Checking Elements at " + block.getName());
 			List<Feature> blockFeatures = LocatedFeaturesUtils.getFeaturesOfBlock(sfsLocatedBlocks, block);
 			List<IElement> blockElements = AdaptedModelHelper.getElementsOfBlock(block);
 
-			// Cache of feature words
-			Map<Feature,List<String>> fWordsMap = new HashMap<Feature,List<String>>();
 			// For each element, we associate it to the feature with has at least one shared term
 			for (IElement e : blockElements) {
+				TermVector elementVector = termIndex.getElementVector(e);
 				List<Feature> maxFeatures = new ArrayList<Feature>();
 				for (Feature f : blockFeatures) {
-					List<String> featureWords = fWordsMap.get(f);
-					if (featureWords == null) {
-						featureWords = TermFrequencyUtils.getFeatureWords(f);
-						fWordsMap.put(f, featureWords);
-					}
-					List<String> elementWords = TermFrequencyUtils.getElementWords(e);
-					int tf = TermFrequencyUtils.calculateTermFrequency(featureWords, elementWords);
+					int tf = (int) termIndex.getFeatureVector(f).dot(elementVector);
 					if (tf > 0) {
 						maxFeatures.add(f);
 					}
@@ -1,9 +1,7 @@
 package org.but4reuse.feature.location.tf;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.but4reuse.adaptedmodel.AdaptedModel;
 import org.but4reuse.adaptedmodel.Block;
@@ -15,7 +13,8 @@ import org.but4reuse.feature.location.LocatedFeaturesUtils;
 import org.but4reuse.feature.location.impl.StrictFeatureSpecificFeatureLocation;
 import org.but4reuse.featurelist.Feature;
 import org.but4reuse.featurelist.FeatureList;
-import org.but4reuse.wordclouds.util.TermFrequencyUtils;
+import org.but4reuse.wordclouds.util.TermIndex;
+import org.but4reuse.wordclouds.util.TermVector;
 import org.eclipse.core.runtime.IProgressMonitor;
 
 public class SFS_TF implements IFeatureLocation {
@@ -30,6 +29,9 @@ public class SFS_TF implements IFeatureLocation {
 
 		List<LocatedFeature> locatedFeatures = new ArrayList<LocatedFeature>();
 
+		// The words of features and elements are processed only once
+		TermIndex termIndex = new TermIndex();
+
 		// Get all the features of a given block and all its elements
 		for (Block block : adaptedModel.getOwnedBlocks()) {
 			monitor.subTask("Feature location FCA SFS and Term Frequency. Features competing for Elements at "
@@ -37,20 +39,13 @@ public class SFS_TF implements IFeatureLocation {
 			List<Feature> blockFeatures = LocatedFeaturesUtils.getFeaturesOfBlock(sfsLocatedBlocks, block);
 			List<IElement> blockElements = AdaptedModelHelper.getElementsOfBlock(block);
 
-			// Cache of feature words
-			Map<Feature, List<String>> fWordsMap = new HashMap<Feature, List<String>>();
 			// For each element, we associate it to the feature with higher tf
 			for (IElement e : blockElements) {
+				TermVector elementVector = termIndex.getElementVector(e);
 				int maxTFfound = 0;
 				List<Feature> maxFeatures = new ArrayList<Feature>();
 				for (Feature f : blockFeatures) {
-					List<String> featureWords = fWordsMap.get(f);
-					if (featureWords == null) {
-						featureWords = TermFrequencyUtils.getFeatureWords(f);
-						fWordsMap.put(f, featureWords);
-					}
-					List<String> elementWords = TermFrequencyUtils.getElementWords(e);
-					int tf = TermFrequencyUtils.calculateTermFrequency(featureWords, elementWords);
+					int tf = (int) termIndex.getFeatureVector(f).dot(elementVector);
 					if (tf == maxTFfound) {
 						maxFeatures.add(f);
 					} else if (tf > maxTFfound) {
@@ -1,7 +1,6 @@
 package org.but4reuse.feature.location.tf;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -16,8 +15,9 @@ import org.but4reuse.feature.location.impl.StrictFeatureSpecificFeatureLocation;
 import org.but4reuse.featurelist.Feature;
 import org.but4reuse.featurelist.FeatureList;
 import org.but4reuse.wordclouds.util.TermFrequencyUtils;
+import org.but4reuse.wordclouds.util.TermIndex;
+import org.but4reuse.wordclouds.util.TermVector;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.mcavallo.opencloud.Cloud;
 
 public class SFS_TFIDF implements IFeatureLocation {
 
@@ -31,6 +31,9 @@ public class SFS_TFIDF implements IFeatureLocation {
 
 		List<LocatedFeature> locatedFeatures = new ArrayList<LocatedFeature>();
 
+		// The words of features and elements are processed only once
+		TermIndex termIndex = new TermIndex();
+
 		// Get all the features of a given block and all its elements
 		for (Block block : adaptedModel.getOwnedBlocks()) {
 			// user cancel
@@ -43,19 +46,27 @@ public class SFS_TFIDF implements IFeatureLocation {
 			List<Feature> blockFeatures = LocatedFeaturesUtils.getFeaturesOfBlock(sfsLocatedBlocks, block);
 			List<IElement> blockElements = AdaptedModelHelper.getElementsOfBlock(block);
 
-			// cache for feature tfidf clouds
-			Map<Feature, Cloud> fCloudMap = new HashMap<Feature, Cloud>();
+			// tf-idf vectors of the features of the block, the documents are
+			// the features of the block
+			List<TermVector> featureDocuments = new ArrayList<TermVector>();
+			for (Feature f : blockFeatures) {
+				featureDocuments.add(termIndex.getFeatureCloudVector(f));
+			}
+			Map<Integer, Integer> documentFrequencies = TermIndex.getDocumentFrequencies(featureDocuments);
+			List<TermVector> tfidfVectors = new ArrayList<TermVector>();
+			for (TermVector featureDocument : featureDocuments) {
+				tfidfVectors.add(TermFrequencyUtils.createTfIdfVector(termIndex, featureDocument,
+						documentFrequencies, featureDocuments.size()));
+			}
+
 			// For each element, we associate it to the feature with higher tf
 			for (IElement e : blockElements) {
+				TermVector elementVector = termIndex.getElementVector(e);
 				double maxTFIDFfound = 0.0;
 				List<Feature> maxFeatures = new ArrayList<Feature>();
-				for (Feature f : blockFeatures) {
-					Cloud tfidfFCloud = fCloudMap.get(f);
-					if (tfidfFCloud == null) {
-						tfidfFCloud = TermFrequencyUtils.createFeatureTfIdfCloud(f, blockFeatures);
-						fCloudMap.put(f, tfidfFCloud);
-					}
-					double tfidf = TermFrequencyUtils.calculateTfIdf(tfidfFCloud, e);
+				for (int fi = 0; fi < blockFeatures.size(); fi++) {
+					Feature f = blockFeatures.get(fi);
+					double tfidf = tfidfVectors.get(fi).dot(elementVector);
 					if (tfidf == maxTFIDFfound) {
 						maxFeatures.add(f);
 					} else if (tfidf > maxTFIDFfound) {
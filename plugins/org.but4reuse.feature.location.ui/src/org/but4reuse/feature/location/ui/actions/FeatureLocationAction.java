@@ -26,6 +26,7 @@ import org.but4reuse.feature.location.helper.FeatureLocationHelper;
 import org.but4reuse.featurelist.FeatureList;
 import org.but4reuse.featurelist.helpers.FeatureListHelper;
 import org.but4reuse.utils.emf.EMFUtils;
+import org.but4reuse.utils.metrics.MetricsRegistry;
 import org.but4reuse.visualisation.helpers.VisualisationsHelper;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.action.IAction;
@@ -98,12 +99,10 @@ public class FeatureLocationAction implements IObjectActionDelegate {
 								monitor.subTask("Calculating existing blocks");
 								PreferencesHelper.setDeactivateManualEqualOnlyForThisTime(false);
 								IBlockIdentification a = BlockIdentificationHelper.getSelectedBlockIdentification();
-								long startTime = System.currentTimeMillis();
+								MetricsRegistry metrics = MetricsRegistry.getDefault();
+								long startTime = System.nanoTime();
 								List<Block> blocks = a.identifyBlocks(adaptedModel.getOwnedAdaptedArtefacts(), monitor);
-								long stopTime = System.currentTimeMillis();
-								long elapsedTime = stopTime - startTime;
-								AdaptedModelManager.registerTime(
-										"Block identification " + a.getClass().getSimpleName(), elapsedTime);
+								metrics.stop("Block identification " + a.getClass().getSimpleName(), startTime);
 
 								blocks = AdaptedModelHelper.checkBlockNames(blocks);
 								adaptedModel.getOwnedBlocks().addAll(blocks);
@@ -114,8 +113,11 @@ public class FeatureLocationAction implements IObjectActionDelegate {
 										.getSelectedConstraintsDiscoveryAlgorithms();
 								List<IConstraint> constraints = new ArrayList<IConstraint>();
 								for (IConstraintsDiscovery constraintsDiscovery : constraintsDiscoveryAlgorithms) {
+									startTime = System.nanoTime();
 									List<IConstraint> discovered = constraintsDiscovery.discover(null, adaptedModel,
 											null, monitor);
+									metrics.stop("Constraints discovery "
+											+ constraintsDiscovery.getClass().getSimpleName(), startTime);
 									if (constraints.isEmpty()) {
 										constraints.addAll(discovered);
 									} else {
@@ -143,13 +145,11 @@ public class FeatureLocationAction implements IObjectActionDelegate {
 								monitor.subTask("Feature location");
 								IFeatureLocation featureLocationAlgorithm = FeatureLocationHelper
 										.getSelectedFeatureLocation();
-								startTime = System.currentTimeMillis();
+								startTime = System.nanoTime();
 								List<LocatedFeature> locatedFeatures = featureLocationAlgorithm.locateFeatures(
 										featureList, adaptedModel, monitor);
-								stopTime = System.currentTimeMillis();
-								elapsedTime = stopTime - startTime;
-								AdaptedModelManager.registerTime("Feature location "
-										+ featureLocationAlgorithm.getClass().getSimpleName(), elapsedTime);
+								metrics.stop("Feature location " + featureLocationAlgorithm.getClass().getSimpleName(),
+										startTime);
 
 								// get the location threshold
 								double threshold = FeatureLocationHelper.getPreferenceStore().getDouble(
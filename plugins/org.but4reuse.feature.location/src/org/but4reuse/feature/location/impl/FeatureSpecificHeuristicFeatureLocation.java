@@ -5,6 +5,7 @@ import java.util.List;
 
 import org.but4reuse.adaptedmodel.AdaptedModel;
 import org.but4reuse.adaptedmodel.Block;
+import org.but4reuse.adaptedmodel.helpers.BlockPresenceMatrix;
 import org.but4reuse.feature.constraints.IConstraint;
 import org.but4reuse.feature.constraints.impl.ConstraintsHelper;
 import org.but4reuse.feature.location.IFeatureLocation;
@@ -25,24 +26,23 @@ public class FeatureSpecificHeuristicFeatureLocation implements IFeatureLocation
 	public List<LocatedFeature> locateFeatures(FeatureList featureList, AdaptedModel adaptedModel,
 			IProgressMonitor monitor) {
 		List<LocatedFeature> locatedFeatures = new ArrayList<LocatedFeature>();
-		String[][] matrix = ConstraintsHelper.createMatrixOfPresenceOfBlocksInFeatures(featureList, adaptedModel);
+		BlockPresenceMatrix matrix = BlockPresenceMatrix.get(adaptedModel);
+		double[][] presence = matrix.getPresenceInFeatures(featureList);
 		List<IConstraint> constraints = ConstraintsHelper.getCalculatedConstraints(adaptedModel);
 		// for each feature
-		for (int r = 1; r < matrix.length; r++) {
+		for (int f = 0; f < presence.length; f++) {
 			if (monitor.isCanceled()) {
 				return locatedFeatures;
 			}
-			Feature feature = featureList.getOwnedFeatures().get(r - 1);
+			Feature feature = featureList.getOwnedFeatures().get(f);
 			monitor.subTask("Locating " + feature.getName());
 
 			List<Block> blocks = new ArrayList<Block>();
 
-			String[] cells = matrix[r];
-			for (int ce = cells.length - 1; ce > 0; ce--) {
+			for (int b = presence[f].length - 1; b >= 0; b--) {
 				// Only those Blocks that are ALWAYS
-				if (Double.parseDouble(matrix[r][ce]) == 1) {
-					Block block = adaptedModel.getOwnedBlocks().get(ce - 1);
-					blocks.add(block);
+				if (presence[f][b] == 1) {
+					blocks.add(matrix.getBlocks().get(b));
 				}
 			}
 
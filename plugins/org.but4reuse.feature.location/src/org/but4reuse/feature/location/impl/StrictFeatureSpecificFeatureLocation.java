@@ -1,12 +1,13 @@
 package org.but4reuse.feature.location.impl;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 import org.but4reuse.adaptedmodel.AdaptedArtefact;
 import org.but4reuse.adaptedmodel.AdaptedModel;
 import org.but4reuse.adaptedmodel.Block;
-import org.but4reuse.adaptedmodel.helpers.AdaptedModelHelper;
+import org.but4reuse.adaptedmodel.helpers.BlockPresenceMatrix;
 import org.but4reuse.artefactmodel.Artefact;
 import org.but4reuse.feature.location.IFeatureLocation;
 import org.but4reuse.feature.location.LocatedFeature;
@@ -25,37 +26,33 @@ public class StrictFeatureSpecificFeatureLocation implements IFeatureLocation {
 	public List<LocatedFeature> locateFeatures(FeatureList featureList, AdaptedModel adaptedModel,
 			IProgressMonitor monitor) {
 		List<LocatedFeature> locatedFeatures = new ArrayList<LocatedFeature>();
+		BlockPresenceMatrix matrix = BlockPresenceMatrix.get(adaptedModel);
 		for (Feature f : featureList.getOwnedFeatures()) {
 			// user cancel
 			if (monitor.isCanceled()) {
 				return locatedFeatures;
 			}
 
-			List<Block> featureBlocks = null;
+			BitSet featureBlocks = null;
 			// Here we calculate the common blocks of the artefacts that
 			// implements the features
 			for (Artefact a : f.getImplementedInArtefacts()) {
-				AdaptedArtefact aa = AdaptedModelHelper.getAdaptedArtefact(adaptedModel, a);
 				if (featureBlocks == null) {
-					featureBlocks = new ArrayList<Block>();
-					featureBlocks = AdaptedModelHelper.getBlocksOfAdaptedArtefact(aa);
+					featureBlocks = matrix.getBlocksOfArtefact(a);
 				} else {
-					List<Block> blocksOfAA = AdaptedModelHelper.getBlocksOfAdaptedArtefact(aa);
-					featureBlocks.retainAll(blocksOfAA);
+					featureBlocks.and(matrix.getBlocksOfArtefact(a));
 				}
 			}
-			// Remove the Blocks that are already present in other artefacts
-			// that do not implement the feature
-			for (AdaptedArtefact aa : adaptedModel.getOwnedAdaptedArtefacts()) {
-				if (!f.getImplementedInArtefacts().contains(aa.getArtefact())) {
-					List<Block> blocksOfAA = AdaptedModelHelper.getBlocksOfAdaptedArtefact(aa);
-					if (featureBlocks != null) {
-						featureBlocks.removeAll(blocksOfAA);
+			if (featureBlocks != null) {
+				// Remove the Blocks that are already present in other artefacts
+				// that do not implement the feature
+				List<AdaptedArtefact> adaptedArtefacts = matrix.getAdaptedArtefacts();
+				for (int aa = 0; aa < adaptedArtefacts.size(); aa++) {
+					if (!f.getImplementedInArtefacts().contains(adaptedArtefacts.get(aa).getArtefact())) {
+						featureBlocks.andNot(matrix.getBlocksOfAdaptedArtefact(aa));
 					}
 				}
-			}
-			if (featureBlocks != null) {
-				for (Block commonBlock : featureBlocks) {
+				for (Block commonBlock : matrix.getBlocks(featureBlocks)) {
 					// Add the located features
 					locatedFeatures.add(new LocatedFeature(f, commonBlock, 1));
 				}
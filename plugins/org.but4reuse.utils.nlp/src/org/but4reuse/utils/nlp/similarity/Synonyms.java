@@ -1,8 +1,12 @@
 package org.but4reuse.utils.nlp.similarity;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
+import org.but4reuse.utils.cache.LRUCache;
 import org.but4reuse.utils.nlp.POSUtils;
 import org.but4reuse.utils.nlp.WordNetUtils;
 
@@ -23,13 +27,37 @@ import edu.mit.jwi.item.Pointer;
  */
 public class Synonyms {
 
+	// WordNet lookups are done once per word
+	private static LRUCache<String, Set<String>> synonymsCache = new LRUCache<String, Set<String>>(10000);
+
 	public static boolean isSynonym(String word1, String word2) {
+		return getSynonyms(word1).contains(word2);
+	}
+
+	/**
+	 * Get the lemmas of the hypernyms of the first meaning of the word for
+	 * each of its parts of speech
+	 * 
+	 * @param word
+	 * @return the words that are synonyms of the word
+	 */
+	public static Set<String> getSynonyms(String word) {
+		Set<String> synonyms = synonymsCache.get(word);
+		if (synonyms == null) {
+			synonyms = Collections.unmodifiableSet(calculateSynonyms(word));
+			synonymsCache.put(word, synonyms);
+		}
+		return synonyms;
+	}
+
+	private static Set<String> calculateSynonyms(String word1) {
+		Set<String> synonyms = new HashSet<String>();
 		try {
 			IDictionary dict = WordNetUtils.getDictionary();
 
 			List<POS> possiblePOS = POSUtils.getPartsOfSpeech(word1);
 			if (possiblePOS.isEmpty()) {
-				return false;
+				return synonyms;
 			}
 
 			// All possible parts of speech: example house can be noun and verb
@@ -53,18 +81,16 @@ public class Synonyms {
 					words = dict.getSynset(sid).getWords();
 					for (Iterator<IWord> i = words.iterator(); i.hasNext();) {
 						IWord iw = i.next();
-						if (iw.getLemma().equals(word2)) {
-							return true;
-						}
+						synonyms.add(iw.getLemma());
 					}
 				}
 			}
 
 		} catch (Exception e) {
+			// the ones found before the error
 			e.printStackTrace();
-			return false;
 		}
-		return false;
+		return synonyms;
 	}
 
 }
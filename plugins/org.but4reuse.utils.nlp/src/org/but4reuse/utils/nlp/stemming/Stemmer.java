@@ -1,5 +1,6 @@
 package org.but4reuse.utils.nlp.stemming;
 
+import org.but4reuse.utils.cache.LRUCache;
 import org.tartarus.snowball.SnowballStemmer;
 import org.tartarus.snowball.ext.englishStemmer;
 
@@ -11,6 +12,8 @@ import org.tartarus.snowball.ext.englishStemmer;
  */
 public class Stemmer {
 
+	private static LRUCache<String, String> rootsCache = new LRUCache<String, String>(10000);
+
 	/**
 	 * Get the root of a word using the snowball library
 	 * 
@@ -18,6 +21,15 @@ public class Stemmer {
 	 * @return the root or the same word
 	 */
 	public static String getRoot(String word) {
+		String root = rootsCache.get(word);
+		if (root == null) {
+			root = calculateRoot(word);
+			rootsCache.put(word, root);
+		}
+		return root;
+	}
+
+	private static String calculateRoot(String word) {
 		SnowballStemmer stemmer = new englishStemmer();
 		stemmer.setCurrent(word);
 		stemmer.stem();
@@ -0,0 +1,54 @@
+package org.but4reuse.utils.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache. When it is full, the least recently used entry is removed.
+ * It is thread safe.
+ * 
+ * @author jabier.martinez
+ */
+public class LRUCache<K, V> {
+
+	private Map<K, V> map;
+
+	/**
+	 * LRU cache
+	 * 
+	 * @param maxEntries
+	 *            maximum number of entries
+	 */
+	public LRUCache(final int maxEntries) {
+		map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Get a value
+	 * 
+	 * @param key
+	 * @return the value or null if it is not cached
+	 */
+	public synchronized V get(K key) {
+		return map.get(key);
+	}
+
+	public synchronized void put(K key, V value) {
+		map.put(key, value);
+	}
+
+	public synchronized void clear() {
+		map.clear();
+	}
+
+	public synchronized int size() {
+		return map.size();
+	}
+}
@@ -14,9 +14,12 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
 import java.security.MessageDigest;
@@ -40,6 +43,18 @@ import org.osgi.framework.Bundle;
  */
 public class FileUtils {
 
+	// bytes read at once when calculating checksums
+	private static final int CHECKSUM_BUFFER_SIZE = 64 * 1024;
+
+	// one direct buffer per thread, allocating direct buffers is expensive and
+	// their memory is only released by the garbage collector
+	private static final ThreadLocal<ByteBuffer> CHECKSUM_BUFFER = new ThreadLocal<ByteBuffer>() {
+		@Override
+		protected ByteBuffer initialValue() {
+			return ByteBuffer.allocateDirect(CHECKSUM_BUFFER_SIZE);
+		}
+	};
+
 	/**
 	 * Try to return a file related to a uri
 	 * 
@@ -311,15 +326,17 @@ public class FileUtils {
 	 * @return the checksum
 	 */
 	public static String getChecksumMD5(File file) {
+		FileChannel channel = null;
 		try {
 			MessageDigest md = MessageDigest.getInstance("MD5");
-			FileInputStream fis = new FileInputStream(file);
-
-			byte[] dataBytes = new byte[1024];
-
-			int nread = 0;
-			while ((nread = fis.read(dataBytes)) != -1) {
-				md.update(dataBytes, 0, nread);
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+			ByteBuffer buffer = CHECKSUM_BUFFER.get();
+			buffer.clear();
+			while (channel.read(buffer) != -1) {
+				buffer.flip();
+				md.update(buffer);
+				buffer.clear();
 			}
 
 			byte[] mdbytes = md.digest();
@@ -329,11 +346,18 @@ public class FileUtils {
 			for (int i = 0; i < mdbytes.length; i++) {
 				sb.append(Integer.toString((mdbytes[i] & 0xff) + 0x100, 16).substring(1));
 			}
-			fis.close();
 			return sb.toString();
 		} catch (Exception e) {
 			e.printStackTrace();
 			return null;
+		} finally {
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
 		}
 	}
 
@@ -0,0 +1,387 @@
+package org.but4reuse.utils.files;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Memory mapped text file. The file is mapped in segments so files bigger
+ * than 2GB are supported, and the content is never loaded in the heap. The
+ * lines and the parts of a line are identified by their offset and length
+ * (see TextSpan) and their text is only decoded when it is requested.
+ * 
+ * The separators are searched as bytes so the charset must be compatible with
+ * ASCII (e.g. UTF-8 or ISO-8859-1). The file must not be modified while the
+ * spans are used. Once the file is scanned, close releases the mapping so the
+ * file is not locked (on Windows a mapped file cannot be deleted or
+ * modified). After closing, and after deserialization, the text of the spans
+ * is read from the file when requested and the file is only mapped again if
+ * it is scanned or split.
+ * 
+ * @author jabier.martinez
+ */
+public class MappedTextFile implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int SEGMENT_BITS = 30;
+	private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+	private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	private File file;
+	private long length;
+	private String charsetName;
+	private transient volatile MappedByteBuffer[] segments;
+
+	/**
+	 * Visitor of the lines of the file
+	 */
+	public interface LineVisitor {
+
+		/**
+		 * Visit a line
+		 * 
+		 * @param lineNumber
+		 *            starting with zero
+		 * @param line
+		 *            the span of the line without the line break
+		 * @return false to stop the scan
+		 */
+		boolean visit(int lineNumber, TextSpan line);
+	}
+
+	/**
+	 * Map a file using the default charset
+	 * 
+	 * @param file
+	 * @throws IOException
+	 */
+	public MappedTextFile(File file) throws IOException {
+		this(file, Charset.defaultCharset());
+	}
+
+	/**
+	 * Map a file
+	 * 
+	 * @param file
+	 * @param charset
+	 *            used to decode the text
+	 * @throws IOException
+	 */
+	public MappedTextFile(File file, Charset charset) throws IOException {
+		this.file = file;
+		this.charsetName = charset.name();
+		map();
+	}
+
+	private void map() throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			length = channel.size();
+			int count = (int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+			MappedByteBuffer[] mapped = new MappedByteBuffer[count];
+			for (int i = 0; i < count; i++) {
+				long position = i * SEGMENT_SIZE;
+				mapped[i] = channel.map(MapMode.READ_ONLY, position, Math.min(SEGMENT_SIZE, length - position));
+			}
+			segments = mapped;
+		} finally {
+			// the mapping stays valid after closing the channel
+			raf.close();
+		}
+	}
+
+	private MappedByteBuffer[] getSegments() {
+		MappedByteBuffer[] mapped = segments;
+		if (mapped == null) {
+			synchronized (this) {
+				if (segments == null) {
+					try {
+						map();
+					} catch (IOException e) {
+						throw new IllegalStateException("The file could not be mapped " + file, e);
+					}
+				}
+				mapped = segments;
+			}
+		}
+		return mapped;
+	}
+
+	/**
+	 * Release the mapping. The spans remain valid, their text will be read
+	 * from the file. It must not be called while other threads scan or split
+	 * the file.
+	 */
+	public synchronized void close() {
+		MappedByteBuffer[] mapped = segments;
+		segments = null;
+		if (mapped != null) {
+			for (MappedByteBuffer segment : mapped) {
+				unmap(segment);
+			}
+		}
+	}
+
+	/**
+	 * Unmap a buffer without waiting for the garbage collector. There is no
+	 * public API for this so the JDK internals are used when available.
+	 * 
+	 * @param buffer
+	 */
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			// Java 9 and later
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			invokeCleaner.invoke(theUnsafe.get(null), buffer);
+			return;
+		} catch (Exception e) {
+			// not available
+		}
+		try {
+			// Java 7 and 8
+			Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+			cleanerMethod.setAccessible(true);
+			Object cleaner = cleanerMethod.invoke(buffer);
+			if (cleaner != null) {
+				cleaner.getClass().getMethod("clean").invoke(cleaner);
+			}
+		} catch (Exception e) {
+			// it will be unmapped when the buffer is garbage collected
+		}
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Length of the file
+	 * 
+	 * @return number of bytes
+	 */
+	public long length() {
+		return length;
+	}
+
+	/**
+	 * Get a byte
+	 * 
+	 * @param position
+	 * @return the byte
+	 */
+	public byte get(long position) {
+		return getSegments()[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT_MASK));
+	}
+
+	/**
+	 * Visit the lines of the file. The line breaks are \n, \r\n or \r and the
+	 * last line is not visited if it is empty, as in BufferedReader.readLine.
+	 * 
+	 * @param visitor
+	 */
+	public void scanLines(LineVisitor visitor) {
+		MappedByteBuffer[] mapped = getSegments();
+		int lineNumber = 0;
+		long lineStart = 0;
+		long hash = TextSpan.HASH_SEED;
+		boolean afterCarriageReturn = false;
+		long position = 0;
+		for (MappedByteBuffer segment : mapped) {
+			int limit = segment.limit();
+			for (int i = 0; i < limit; i++, position++) {
+				byte b = segment.get(i);
+				if (b == '\n' && afterCarriageReturn) {
+					// second byte of \r\n
+					afterCarriageReturn = false;
+					lineStart = position + 1;
+				} else if (b == '\n' || b == '\r') {
+					TextSpan line = new TextSpan(this, lineStart, toLength(position - lineStart), hash);
+					if (!visitor.visit(lineNumber++, line)) {
+						return;
+					}
+					hash = TextSpan.HASH_SEED;
+					afterCarriageReturn = b == '\r';
+					lineStart = position + 1;
+				} else {
+					hash = TextSpan.hash(hash, b);
+					afterCarriageReturn = false;
+				}
+			}
+		}
+		if (lineStart < length) {
+			visitor.visit(lineNumber, new TextSpan(this, lineStart, toLength(length - lineStart), hash));
+		}
+	}
+
+	/**
+	 * Get a span
+	 * 
+	 * @param offset
+	 * @param length
+	 * @return the span with the hash of its content
+	 */
+	public TextSpan getSpan(long offset, int length) {
+		long hash = TextSpan.HASH_SEED;
+		for (long p = offset; p < offset + length; p++) {
+			hash = TextSpan.hash(hash, get(p));
+		}
+		return new TextSpan(this, offset, length, hash);
+	}
+
+	/**
+	 * Split a line with the same result as String.split with a single
+	 * character separator, the trailing empty parts are not included
+	 * 
+	 * @param line
+	 * @param separator
+	 *            an ASCII character
+	 * @return the spans of the parts
+	 */
+	public List<TextSpan> split(TextSpan line, char separator) {
+		List<TextSpan> parts = new ArrayList<TextSpan>();
+		long offset = line.getOffset();
+		if (line.getLength() == 0) {
+			parts.add(line);
+			return parts;
+		}
+		long end = offset + line.getLength();
+		long partStart = offset;
+		long hash = TextSpan.HASH_SEED;
+		int nonEmptyParts = 0;
+		for (long p = offset; p < end; p++) {
+			byte b = get(p);
+			if (b == separator) {
+				parts.add(new TextSpan(this, partStart, toLength(p - partStart), hash));
+				if (p > partStart) {
+					nonEmptyParts = parts.size();
+				}
+				hash = TextSpan.HASH_SEED;
+				partStart = p + 1;
+			} else {
+				hash = TextSpan.hash(hash, b);
+			}
+		}
+		parts.add(new TextSpan(this, partStart, toLength(end - partStart), hash));
+		if (end > partStart) {
+			nonEmptyParts = parts.size();
+		}
+		// remove trailing empty parts
+		while (parts.size() > nonEmptyParts) {
+			parts.remove(parts.size() - 1);
+		}
+		return parts;
+	}
+
+	/**
+	 * Decode a text
+	 * 
+	 * @param offset
+	 * @param length
+	 * @return the text
+	 */
+	public String getText(long offset, int length) {
+		return new String(getBytes(offset, length), Charset.forName(charsetName));
+	}
+
+	/**
+	 * Get the bytes of a span from the mapping or, if it was closed, from the
+	 * file
+	 * 
+	 * @param offset
+	 * @param length
+	 * @return the bytes
+	 */
+	private byte[] getBytes(long offset, int length) {
+		byte[] bytes = new byte[length];
+		MappedByteBuffer[] mapped = segments;
+		if (mapped == null) {
+			readBytes(offset, bytes);
+			return bytes;
+		}
+		int done = 0;
+		while (done < length) {
+			long position = offset + done;
+			// duplicate so concurrent reads do not share the buffer position
+			ByteBuffer segment = mapped[(int) (position >>> SEGMENT_BITS)].duplicate();
+			segment.position((int) (position & SEGMENT_MASK));
+			int n = Math.min(length - done, segment.remaining());
+			segment.get(bytes, done, n);
+			done += n;
+		}
+		return bytes;
+	}
+
+	private void readBytes(long offset, byte[] bytes) {
+		FileChannel channel = null;
+		try {
+			// not a RandomAccessFile so the file can be deleted meanwhile on
+			// Windows
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, offset + buffer.position()) < 0) {
+					throw new IOException("Unexpected end of file");
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("The file could not be read " + file, e);
+		} finally {
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compare the content of two spans of this or another file
+	 * 
+	 * @param offset
+	 * @param other
+	 * @param otherOffset
+	 * @param length
+	 * @return true if the bytes are the same
+	 */
+	public boolean contentEquals(long offset, MappedTextFile other, long otherOffset, int length) {
+		if (other == this && offset == otherOffset) {
+			return true;
+		}
+		if (segments == null || other.segments == null) {
+			// not mapped, read the spans at once
+			return Arrays.equals(getBytes(offset, length), other.getBytes(otherOffset, length));
+		}
+		for (int i = 0; i < length; i++) {
+			if (get(offset + i) != other.get(otherOffset + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int toLength(long length) {
+		if (length > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Line longer than " + Integer.MAX_VALUE + " bytes");
+		}
+		return (int) length;
+	}
+}
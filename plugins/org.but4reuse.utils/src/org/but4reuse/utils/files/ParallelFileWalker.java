@@ -0,0 +1,185 @@
+package org.but4reuse.utils.files;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Parallel file walker. The directories are listed and the files are visited
+ * in a pool of threads, the result is merged in the same order as a
+ * sequential depth-first traversal where the children of a directory are
+ * sorted by name. This way the order is stable whatever the number of threads
+ * or the order of the file system. By default the walks share one pool with
+ * as many threads as processors, so concurrent walks (e.g. the adaptations of
+ * several artefacts) do not create more threads.
+ * 
+ * @author jabier.martinez
+ */
+public class ParallelFileWalker {
+
+	private static final Comparator<File> BY_NAME = new Comparator<File>() {
+		@Override
+		public int compare(File f1, File f2) {
+			return f1.getName().compareTo(f2.getName());
+		}
+	};
+
+	private static ForkJoinPool sharedPool;
+
+	/**
+	 * Visitor of the files. It is called from several threads at the same time
+	 * so it must not modify shared state.
+	 */
+	public interface Visitor<T> {
+
+		/**
+		 * Visit a file or a directory
+		 * 
+		 * @param file
+		 * @return the result for this file
+		 */
+		T visit(File file);
+
+		/**
+		 * Check if the children of a directory must be visited
+		 * 
+		 * @param directory
+		 * @param result
+		 *            the result of visiting the directory
+		 * @return true to visit its children
+		 */
+		boolean visitChildren(File directory, T result);
+	}
+
+	/**
+	 * The result of visiting a file with a reference to the node of its
+	 * directory
+	 */
+	public static class Node<T> {
+		private File file;
+		private T result;
+		private Node<T> parent;
+		private List<Node<T>> children = Collections.emptyList();
+
+		Node(File file, Node<T> parent) {
+			this.file = file;
+			this.parent = parent;
+		}
+
+		public File getFile() {
+			return file;
+		}
+
+		public T getResult() {
+			return result;
+		}
+
+		/**
+		 * Parent node
+		 * 
+		 * @return the node of the directory or null for the root
+		 */
+		public Node<T> getParent() {
+			return parent;
+		}
+	}
+
+	/**
+	 * Walk a file tree using the shared pool
+	 * 
+	 * @param root
+	 * @param visitor
+	 * @param monitor
+	 *            if cancelled the pending directories are not listed
+	 * @return the nodes in depth-first order, the root first
+	 */
+	public static <T> List<Node<T>> walk(File root, Visitor<T> visitor, IProgressMonitor monitor) {
+		return walk(root, visitor, getSharedPool(), monitor);
+	}
+
+	/**
+	 * Walk a file tree
+	 * 
+	 * @param root
+	 * @param visitor
+	 * @param pool
+	 *            the pool running the visits, it is not shut down
+	 * @param monitor
+	 *            if cancelled the pending directories are not listed
+	 * @return the nodes in depth-first order, the root first
+	 */
+	public static <T> List<Node<T>> walk(File root, Visitor<T> visitor, ForkJoinPool pool, IProgressMonitor monitor) {
+		Node<T> rootNode = new Node<T>(root, null);
+		pool.invoke(new VisitTask<T>(rootNode, visitor, monitor));
+		List<Node<T>> nodes = new ArrayList<Node<T>>();
+		flatten(rootNode, nodes);
+		return nodes;
+	}
+
+	/**
+	 * Get the pool shared by the walks, created the first time. Its threads
+	 * are daemon threads so it is never shut down.
+	 * 
+	 * @return the shared pool
+	 */
+	private static synchronized ForkJoinPool getSharedPool() {
+		if (sharedPool == null) {
+			sharedPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		}
+		return sharedPool;
+	}
+
+	private static <T> void flatten(Node<T> node, List<Node<T>> nodes) {
+		nodes.add(node);
+		for (Node<T> child : node.children) {
+			flatten(child, nodes);
+		}
+	}
+
+	/**
+	 * Visit a file and fork the visit of its children
+	 */
+	private static class VisitTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private Node<T> node;
+		private Visitor<T> visitor;
+		private IProgressMonitor monitor;
+
+		VisitTask(Node<T> node, Visitor<T> visitor, IProgressMonitor monitor) {
+			this.node = node;
+			this.visitor = visitor;
+			this.monitor = monitor;
+		}
+
+		@Override
+		protected void compute() {
+			File file = node.file;
+			node.result = visitor.visit(file);
+			if (!file.isDirectory() || monitor.isCanceled() || !visitor.visitChildren(file, node.result)) {
+				return;
+			}
+			File[] files = file.listFiles();
+			if (files == null || files.length == 0) {
+				return;
+			}
+			Arrays.sort(files, BY_NAME);
+			List<Node<T>> children = new ArrayList<Node<T>>(files.length);
+			List<VisitTask<T>> tasks = new ArrayList<VisitTask<T>>(files.length);
+			for (File child : files) {
+				Node<T> childNode = new Node<T>(child, node);
+				children.add(childNode);
+				tasks.add(new VisitTask<T>(childNode, visitor, monitor));
+			}
+			node.children = children;
+			invokeAll(tasks);
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package org.but4reuse.utils.files;
+
+import java.io.Serializable;
+import java.lang.ref.SoftReference;
+
+/**
+ * A part of a memory mapped text file, usually a line or a cell. It only keeps
+ * the offset, the length and a 64 bits hash of the content computed while
+ * scanning. Two spans are equal when their content is the same, wherever they
+ * are, so they can be used as keys without decoding the text. The equality
+ * only compares the length and the hash so it never reads the file, even
+ * after the mapping is released. Two different contents with the same length
+ * and hash would be considered equal, which is unlikely enough for the
+ * comparisons of the elements.
+ * 
+ * @author jabier.martinez
+ */
+public class TextSpan implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	static final long HASH_SEED = 17;
+	private static final long HASH_PRIME = 1000003;
+
+	private MappedTextFile file;
+	private long offset;
+	private int length;
+	private long hash;
+	// decoded text, it can be released if the memory is needed
+	private transient SoftReference<String> text;
+
+	TextSpan(MappedTextFile file, long offset, int length, long hash) {
+		this.file = file;
+		this.offset = offset;
+		this.length = length;
+		this.hash = hash;
+	}
+
+	/**
+	 * Rolling hash of the content, updated byte by byte while scanning
+	 * 
+	 * @param hash
+	 *            the hash of the previous bytes
+	 * @param b
+	 * @return the hash including b
+	 */
+	static long hash(long hash, byte b) {
+		return hash * HASH_PRIME + (b & 0xFF);
+	}
+
+	/**
+	 * Decode the text. It is kept while there is enough memory so the file is
+	 * not read again each time, for example to calculate the similarity of
+	 * two lines once the mapping is released.
+	 * 
+	 * @return the text
+	 */
+	public String getText() {
+		SoftReference<String> reference = text;
+		String decoded = reference == null ? null : reference.get();
+		if (decoded == null) {
+			decoded = file.getText(offset, length);
+			text = new SoftReference<String>(decoded);
+		}
+		return decoded;
+	}
+
+	public MappedTextFile getFile() {
+		return file;
+	}
+
+	public long getOffset() {
+		return offset;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	public long getHash() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof TextSpan)) {
+			return false;
+		}
+		TextSpan span = (TextSpan) obj;
+		return hash == span.hash && length == span.length;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	@Override
+	public String toString() {
+		return getText();
+	}
+}
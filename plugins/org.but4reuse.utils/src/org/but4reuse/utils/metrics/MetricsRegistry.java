@@ -0,0 +1,359 @@
+package org.but4reuse.utils.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Metrics registry. Thread safe registry of the timers and counters of an
+ * analysis. A timer accumulates the elapsed nanoseconds of a stage, the number
+ * of times it was measured and the highest used heap observed at the end of
+ * the stage (it is a sample, not the peak during the stage). A counter
+ * accumulates a number of events (e.g. comparisons) or a size (e.g. elements
+ * of an artefact). The registration order is kept and the
+ * registry can be exported as CSV or JSON.
+ * 
+ * @author jabier.martinez
+ */
+public class MetricsRegistry {
+
+	private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+	private static final Comparator<Metric> ORDER = new Comparator<Metric>() {
+		@Override
+		public int compare(Metric m1, Metric m2) {
+			return Long.compare(m1.order, m2.order);
+		}
+	};
+
+	private ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<String, Timer>();
+	private ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<String, Counter>();
+	private AtomicLong order = new AtomicLong();
+
+	/**
+	 * The registry of the current analysis
+	 * 
+	 * @return the default registry
+	 */
+	public static MetricsRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Register the time since a start obtained with System.nanoTime()
+	 * 
+	 * @param stage
+	 * @param startNanos
+	 * @return the elapsed nanoseconds
+	 */
+	public long stop(String stage, long startNanos) {
+		long elapsed = System.nanoTime() - startNanos;
+		registerTime(stage, elapsed);
+		return elapsed;
+	}
+
+	/**
+	 * Register the elapsed time of a stage. If the stage was already
+	 * registered the time is added, see setTime to replace it.
+	 * 
+	 * @param stage
+	 * @param nanos
+	 */
+	public void registerTime(String stage, long nanos) {
+		getTimer(stage).add(nanos, getUsedHeap());
+	}
+
+	/**
+	 * Set the elapsed time of a stage. If the stage was already registered
+	 * the previous time is replaced.
+	 * 
+	 * @param stage
+	 * @param nanos
+	 */
+	public void setTime(String stage, long nanos) {
+		getTimer(stage).set(nanos, getUsedHeap());
+	}
+
+	private static long getUsedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Get a timer
+	 * 
+	 * @param stage
+	 * @return the timer, created the first time
+	 */
+	public Timer getTimer(String stage) {
+		Timer timer = timers.get(stage);
+		if (timer == null) {
+			Timer created = new Timer(stage, order.getAndIncrement());
+			timer = timers.putIfAbsent(stage, created);
+			if (timer == null) {
+				timer = created;
+			}
+		}
+		return timer;
+	}
+
+	/**
+	 * Get a counter. Counters survive a clear so they can be kept in static
+	 * fields of the code that increments them.
+	 * 
+	 * @param name
+	 * @return the counter, created the first time
+	 */
+	public Counter getCounter(String name) {
+		Counter counter = counters.get(name);
+		if (counter == null) {
+			Counter created = new Counter(name, order.getAndIncrement());
+			counter = counters.putIfAbsent(name, created);
+			if (counter == null) {
+				counter = created;
+			}
+		}
+		return counter;
+	}
+
+	/**
+	 * Add a value to a counter
+	 * 
+	 * @param name
+	 * @param delta
+	 */
+	public void add(String name, long delta) {
+		getCounter(name).add(delta);
+	}
+
+	/**
+	 * Remove the timers and reset the counters. Used when a new analysis
+	 * starts.
+	 */
+	public void clear() {
+		timers.clear();
+		for (Counter counter : counters.values()) {
+			counter.reset();
+		}
+	}
+
+	/**
+	 * Get the timers
+	 * 
+	 * @return the timers in registration order
+	 */
+	public List<Timer> getTimers() {
+		List<Timer> list = new ArrayList<Timer>(timers.values());
+		Collections.sort(list, ORDER);
+		return list;
+	}
+
+	/**
+	 * Get the counters with a value
+	 * 
+	 * @return the non zero counters in registration order
+	 */
+	public List<Counter> getCounters() {
+		List<Counter> list = new ArrayList<Counter>();
+		for (Counter counter : counters.values()) {
+			if (counter.get() != 0) {
+				list.add(counter);
+			}
+		}
+		Collections.sort(list, ORDER);
+		return list;
+	}
+
+	/**
+	 * Get the elapsed times
+	 * 
+	 * @return a copy with the milliseconds of each stage
+	 */
+	public Map<String, Long> getElapsedMillis() {
+		Map<String, Long> map = new LinkedHashMap<String, Long>();
+		for (Timer timer : getTimers()) {
+			map.put(timer.getName(), timer.getMillis());
+		}
+		return map;
+	}
+
+	/**
+	 * Export as CSV with one line per timer and per counter
+	 * 
+	 * @return the csv content
+	 */
+	public String toCSV() {
+		StringBuilder text = new StringBuilder();
+		text.append("Metric;Name;Count;Nanoseconds;Milliseconds;UsedHeapBytes\n");
+		for (Timer timer : getTimers()) {
+			text.append("timer;" + timer.getName() + ";" + timer.getCount() + ";" + timer.getNanos() + ";"
+					+ timer.getMillis() + ";" + timer.getUsedHeap() + "\n");
+		}
+		for (Counter counter : getCounters()) {
+			text.append("counter;" + counter.getName() + ";" + counter.get() + ";;;\n");
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Export as JSON with the list of timers and the list of counters
+	 * 
+	 * @return the json content
+	 */
+	public String toJSON() {
+		StringBuilder text = new StringBuilder();
+		text.append("{\n  \"timers\": [");
+		String separator = "\n";
+		for (Timer timer : getTimers()) {
+			text.append(separator + "    {\"name\": " + quote(timer.getName()) + ", \"count\": " + timer.getCount()
+					+ ", \"nanos\": " + timer.getNanos() + ", \"usedHeap\": " + timer.getUsedHeap() + "}");
+			separator = ",\n";
+		}
+		text.append("\n  ],\n  \"counters\": [");
+		separator = "\n";
+		for (Counter counter : getCounters()) {
+			text.append(separator + "    {\"name\": " + quote(counter.getName()) + ", \"value\": " + counter.get()
+					+ "}");
+			separator = ",\n";
+		}
+		text.append("\n  ]\n}\n");
+		return text.toString();
+	}
+
+	private static String quote(String text) {
+		StringBuilder quoted = new StringBuilder("\"");
+		for (char c : text.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				quoted.append('\\').append(c);
+			} else if (c < ' ') {
+				quoted.append(String.format("\\u%04x", (int) c));
+			} else {
+				quoted.append(c);
+			}
+		}
+		return quoted.append('"').toString();
+	}
+
+	/**
+	 * Named metric
+	 */
+	public static abstract class Metric {
+		final String name;
+		final long order;
+
+		Metric(String name, long order) {
+			this.name = name;
+			this.order = order;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+
+	/**
+	 * Accumulated time of a stage
+	 */
+	public static class Timer extends Metric {
+		private long count;
+		private long nanos;
+		private long usedHeap;
+
+		Timer(String name, long order) {
+			super(name, order);
+		}
+
+		synchronized void add(long elapsedNanos, long usedHeap) {
+			count++;
+			nanos += elapsedNanos;
+			this.usedHeap = Math.max(this.usedHeap, usedHeap);
+		}
+
+		synchronized void set(long elapsedNanos, long usedHeap) {
+			count = 1;
+			nanos = elapsedNanos;
+			this.usedHeap = usedHeap;
+		}
+
+		public synchronized long getCount() {
+			return count;
+		}
+
+		public synchronized long getNanos() {
+			return nanos;
+		}
+
+		public long getMillis() {
+			return getNanos() / 1000000;
+		}
+
+		/**
+		 * Used heap at the end of the stage, the highest one if it was
+		 * measured several times
+		 * 
+		 * @return bytes
+		 */
+		public synchronized long getUsedHeap() {
+			return usedHeap;
+		}
+	}
+
+	/**
+	 * Counter of events or sizes. The value is striped by thread so counting
+	 * from a hot path in several threads does not contend on a single
+	 * variable, the stripes are added when the value is read.
+	 */
+	public static class Counter extends Metric {
+		// padding between stripes to avoid false sharing
+		private static final int PADDING = 8;
+		private static final int STRIPES = stripes();
+
+		private AtomicLongArray values = new AtomicLongArray(STRIPES * PADDING);
+
+		Counter(String name, long order) {
+			super(name, order);
+		}
+
+		private static int stripes() {
+			int stripes = 1;
+			while (stripes < 2 * Runtime.getRuntime().availableProcessors()) {
+				stripes <<= 1;
+			}
+			return stripes;
+		}
+
+		private static int index() {
+			long id = Thread.currentThread().getId();
+			return (int) ((id ^ (id >>> 16)) & (STRIPES - 1)) * PADDING;
+		}
+
+		public void increment() {
+			values.incrementAndGet(index());
+		}
+
+		public void add(long delta) {
+			values.addAndGet(index(), delta);
+		}
+
+		public long get() {
+			long value = 0;
+			for (int i = 0; i < STRIPES; i++) {
+				value += values.get(i * PADDING);
+			}
+			return value;
+		}
+
+		void reset() {
+			for (int i = 0; i < STRIPES; i++) {
+				values.set(i * PADDING, 0);
+			}
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package org.but4reuse.utils.strings;
 
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.StringTokenizer;
@@ -112,4 +113,27 @@ public class StringUtils {
 	public static String validName(String name) {
 		return name.replaceAll(" ", "_");
 	}
+
+	/**
+	 * get checksum of a string using MD5 hashing algorithm
+	 * 
+	 * @param string
+	 * @return the checksum
+	 */
+	public static String getChecksumMD5(String string) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("MD5");
+			byte[] mdbytes = md.digest(string.getBytes("UTF-8"));
+
+			// Convert to hex format
+			StringBuffer sb = new StringBuffer();
+			for (int i = 0; i < mdbytes.length; i++) {
+				sb.append(Integer.toString((mdbytes[i] & 0xff) + 0x100, 16).substring(1));
+			}
+			return sb.toString();
+		} catch (Exception e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
 }
@@ -15,6 +15,7 @@ import org.but4reuse.adaptedmodel.helpers.AdaptedModelHelper;
 import org.but4reuse.adaptedmodel.manager.AdaptedModelManager;
 import org.but4reuse.adapters.IDependencyObject;
 import org.but4reuse.adapters.IElement;
+import org.but4reuse.adapters.impl.ElementsMatchingMap;
 import org.but4reuse.artefactmodel.Artefact;
 import org.but4reuse.featurelist.FeatureList;
 import org.but4reuse.utils.workbench.WorkbenchUtils;
@@ -75,7 +76,7 @@ public class ElementsGraphVisualisation implements IVisualisation {
 		monitor.subTask("Creating the Elements graph visualisation");
 		// Create graph
 		Map<BlockElement, Integer> idMap = new HashMap<BlockElement, Integer>();
-		Map<IElement, List<ElementWrapper>> ieews = new HashMap<IElement, List<ElementWrapper>>();
+		Map<IElement, List<ElementWrapper>> ieews = new ElementsMatchingMap<List<ElementWrapper>>();
 
 		// Add block elements
 		Graph graph = new TinkerGraph();
@@ -5,6 +5,7 @@ import java.util.List;
 
 import org.but4reuse.adaptedmodel.AdaptedModel;
 import org.but4reuse.featurelist.FeatureList;
+import org.but4reuse.utils.metrics.MetricsRegistry;
 import org.but4reuse.visualisation.IVisualisation;
 import org.but4reuse.visualisation.activator.Activator;
 import org.eclipse.core.runtime.CoreException;
@@ -60,7 +61,9 @@ public class VisualisationsHelper {
 			IProgressMonitor monitor) {
 		List<IVisualisation> all = getSelectedVisualisations();
 		for (IVisualisation v : all) {
+			long start = System.nanoTime();
 			v.prepare(featureList, adaptedModel, extra, monitor);
+			MetricsRegistry.getDefault().stop("Visualisation " + v.getClass().getSimpleName(), start);
 			v.show();
 		}
 	}
@@ -5,6 +5,7 @@ import java.net.URISyntaxException;
 
 import org.but4reuse.adaptedmodel.AdaptedModel;
 import org.but4reuse.adaptedmodel.Block;
+import org.but4reuse.adaptedmodel.helpers.BlockPresenceMatrix;
 import org.but4reuse.feature.constraints.impl.ConstraintsHelper;
 import org.but4reuse.featurelist.Feature;
 import org.but4reuse.featurelist.FeatureList;
@@ -32,6 +33,7 @@ import org.eclipse.swt.widgets.TableItem;
  */
 public class BlocksOnFeaturesHeatMapVisualisation implements IVisualisation {
 	String[][] matrix;
+	double[][] presence;
 	Boolean[][] locatedMatrix;
 	URI adaptedModelURI;
 	FeatureList featureList;
@@ -49,6 +51,7 @@ public class BlocksOnFeaturesHeatMapVisualisation implements IVisualisation {
 
 			// calculate the matrix
 			matrix = ConstraintsHelper.createMatrixOfPresenceOfBlocksInFeatures(featureList, adaptedModel);
+			presence = BlockPresenceMatrix.get(adaptedModel).getPresenceInFeatures(featureList);
 
 			locatedMatrix = createLocatedMatrix();
 			if (location == null) {
@@ -111,8 +114,7 @@ public class BlocksOnFeaturesHeatMapVisualisation implements IVisualisation {
 						if (r != 0) {
 							for (int ce = 1; ce < cells.length; ce++) {
 								if (cells[ce] != null) {
-									double value = Double.parseDouble(cells[ce]);
-									item.setBackground(ce, getGradientColor(value));
+									item.setBackground(ce, getGradientColor(presence[r - 1][ce - 1]));
 									if (locatedMatrix[r][ce] != null) {
 										item.setImage(ce, location);
 									}
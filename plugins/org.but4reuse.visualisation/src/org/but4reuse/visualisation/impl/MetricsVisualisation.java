@@ -1,22 +1,28 @@
 package org.but4reuse.visualisation.impl;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map.Entry;
 
 import org.but4reuse.adaptedmodel.AdaptedArtefact;
 import org.but4reuse.adaptedmodel.AdaptedModel;
 import org.but4reuse.adaptedmodel.Block;
 import org.but4reuse.adaptedmodel.helpers.AdaptedModelHelper;
+import org.but4reuse.adaptedmodel.helpers.BlockPresenceMatrix;
 import org.but4reuse.adaptedmodel.manager.AdaptedModelManager;
 import org.but4reuse.adapters.IAdapter;
 import org.but4reuse.adapters.helper.AdaptersHelper;
 import org.but4reuse.feature.constraints.impl.ConstraintsHelper;
 import org.but4reuse.featurelist.Feature;
 import org.but4reuse.featurelist.FeatureList;
+import org.but4reuse.utils.files.FileUtils;
+import org.but4reuse.utils.metrics.MetricsRegistry;
+import org.but4reuse.utils.metrics.MetricsRegistry.Counter;
+import org.but4reuse.utils.metrics.MetricsRegistry.Timer;
 import org.but4reuse.utils.workbench.WorkbenchUtils;
 import org.but4reuse.visualisation.IVisualisation;
+import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.swt.widgets.Display;
 
@@ -34,6 +40,25 @@ public class MetricsVisualisation implements IVisualisation {
 		this.featureList = featureList;
 		this.adaptedModel = adaptedModel;
 		monitor.subTask("Metrics Visualisation");
+
+		// Save the timers and counters
+		IContainer output = AdaptedModelManager.getDefaultOutput();
+		if (output != null) {
+			File folder = new File(WorkbenchUtils.getFileFromIResource(output), "metrics");
+			folder.mkdir();
+			String name = AdaptedModelHelper.getName(adaptedModel);
+			if (name == null) {
+				name = "default";
+			}
+			MetricsRegistry metrics = MetricsRegistry.getDefault();
+			try {
+				FileUtils.writeFile(new File(folder, name + "_metrics.csv"), metrics.toCSV());
+				FileUtils.writeFile(new File(folder, name + "_metrics.json"), metrics.toJSON());
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+			WorkbenchUtils.refreshIResource(output);
+		}
 	}
 
 	@Override
@@ -166,11 +191,7 @@ public class MetricsVisualisation implements IVisualisation {
 					text.append("\n");
 				}
 
-				text.append("--------------------------------------------\n");
-				text.append("Times in milliseconds\n");
-				for (Entry<String, Long> entry : AdaptedModelManager.getElapsedTimeRegistry().entrySet()) {
-					text.append(entry.getKey() + "= " + entry.getValue() + "\n");
-				}
+				appendRegistry(text);
 
 				String name = AdaptedModelHelper.getName(adaptedModel);
 				if (name == null) {
@@ -183,6 +204,25 @@ public class MetricsVisualisation implements IVisualisation {
 				view.scrollable.setText(text.toString());
 			}
 
+			private void appendRegistry(StringBuilder text) {
+				MetricsRegistry metrics = MetricsRegistry.getDefault();
+				text.append("--------------------------------------------\n");
+				text.append("Times in milliseconds\n");
+				for (Timer timer : metrics.getTimers()) {
+					text.append(timer.getName() + "= " + timer.getMillis() + "\n");
+				}
+				text.append("\nTimers\n");
+				text.append("Stage;Count;Nanoseconds;UsedHeapMB\n");
+				for (Timer timer : metrics.getTimers()) {
+					text.append(timer.getName() + ";" + timer.getCount() + ";" + timer.getNanos() + ";"
+							+ timer.getUsedHeap() / (1024 * 1024) + "\n");
+				}
+				text.append("\nCounters\n");
+				for (Counter counter : metrics.getCounters()) {
+					text.append(counter.getName() + "= " + counter.get() + "\n");
+				}
+			}
+
 			private void appendUsedAdapters(StringBuilder text) {
 				text.append("Adapter= ");
 				for (IAdapter adapter : AdaptedModelManager.getAdapters()) {
@@ -199,11 +239,11 @@ public class MetricsVisualisation implements IVisualisation {
 				}
 				text.setLength(text.length()-1);
 				text.append("\n");
-				for (AdaptedArtefact aa : adaptedModel.getOwnedAdaptedArtefacts()) {
-					text.append(aa.getArtefact().getName() + ";");
-					List<Block> blocksOfAA = AdaptedModelHelper.getBlocksOfAdaptedArtefact(aa);
-					for (Block b : adaptedModel.getOwnedBlocks()) {
-						if (blocksOfAA.contains(b)) {
+				BlockPresenceMatrix matrix = BlockPresenceMatrix.get(adaptedModel);
+				for (int a = 0; a < matrix.getAdaptedArtefacts().size(); a++) {
+					text.append(matrix.getAdaptedArtefacts().get(a).getArtefact().getName() + ";");
+					for (int b = 0; b < matrix.getBlocks().size(); b++) {
+						if (matrix.isPresent(b, a)) {
 							text.append("1;");
 						} else {
 							text.append("0;");
@@ -1,15 +1,10 @@
 package org.but4reuse.visualisation.impl.visualiser.featurelist;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
-import org.but4reuse.adaptedmodel.AdaptedArtefact;
 import org.but4reuse.adaptedmodel.AdaptedModel;
 import org.but4reuse.adaptedmodel.Block;
-import org.but4reuse.adaptedmodel.BlockElement;
-import org.but4reuse.adaptedmodel.ElementWrapper;
-import org.but4reuse.artefactmodel.Artefact;
+import org.but4reuse.adaptedmodel.helpers.BlockPresenceMatrix;
 import org.but4reuse.featurelist.Feature;
 import org.but4reuse.featurelist.FeatureList;
 import org.but4reuse.utils.files.FileUtils;
@@ -53,7 +48,10 @@ public class BlocksOnFeaturesContentProvider extends SimpleContentProvider {
 		Map<Feature, IMarkupKind> map = markupProvider.getFeaturesAndNames();
 
 		// Add blocks as members
-		for (Block block : adaptedModel.getOwnedBlocks()) {
+		BlockPresenceMatrix matrix = BlockPresenceMatrix.get(adaptedModel);
+		double[][] presence = matrix.getPresenceInFeatures(featureList);
+		for (int b = 0; b < matrix.getBlocks().size(); b++) {
+			Block block = matrix.getBlocks().get(b);
 			IMember member = new SimpleMember(block.getName());
 			member.setSize(block.getOwnedBlockElements().size());
 			// TODO Do not touch tooltip, unfortunately it is used by Visualiser
@@ -62,9 +60,9 @@ public class BlocksOnFeaturesContentProvider extends SimpleContentProvider {
 			// block.getOwnedBlockElements().size());
 
 			// Add stripes
-			for (Feature feature : featureList.getOwnedFeatures()) {
-
-				if (percentageOfBlockInFeature(block, feature) > 0) {
+			for (int f = 0; f < featureList.getOwnedFeatures().size(); f++) {
+				Feature feature = featureList.getOwnedFeatures().get(f);
+				if (presence[f][b] > 0) {
 					IMarkupKind featureKind = map.get(feature);
 					Stripe stripe = new Stripe(featureKind, 0, member.getSize());
 					markupProvider.addMarkup(member.getFullname(), stripe);
@@ -77,25 +75,6 @@ public class BlocksOnFeaturesContentProvider extends SimpleContentProvider {
 		markupProvider.processMarkups();
 	}
 
-	private double percentageOfBlockInFeature(Block block, Feature feature) {
-		List<Artefact> artefacts = feature.getImplementedInArtefacts();
-		List<Artefact> foundArtefacts = new ArrayList<Artefact>();
-		List<BlockElement> blockElements = block.getOwnedBlockElements();
-		for (BlockElement be : blockElements) {
-			for (ElementWrapper ew : be.getElementWrappers()) {
-				AdaptedArtefact aa = (AdaptedArtefact) ew.eContainer();
-				for (Artefact a : artefacts) {
-					if (aa.getArtefact().equals(a)) {
-						if (!foundArtefacts.contains(a)) {
-							foundArtefacts.add(a);
-						}
-					}
-				}
-			}
-		}
-		return new Double(foundArtefacts.size()) / new Double(artefacts.size());
-	}
-
 	@Override
 	public ImageDescriptor getMemberViewIcon() {
 		return FileUtils.getImageFromPlugin("org.but4reuse.featurelist.edit", "/icons/full/obj16/Feature.gif");
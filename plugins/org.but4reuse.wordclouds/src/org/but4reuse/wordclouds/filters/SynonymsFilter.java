@@ -1,6 +1,10 @@
 package org.but4reuse.wordclouds.filters;
 
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.but4reuse.utils.nlp.similarity.Synonyms;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -15,26 +19,46 @@ public class SynonymsFilter implements IWordsProcessing {
 
 	@Override
 	public List<String> processWords(List<String> words, IProgressMonitor monitor) {
-		for (int i = 0; i < words.size(); i++) {
-			for (int j = 0; j < words.size(); j++) {
-				if (i != j) {
-					String word1 = words.get(i);
-					String word2 = words.get(j);
-					if (!word1.equals(word2)) {
-						boolean synonym = Synonyms.isSynonym(word1, word2);
-						if (synonym) {
-							// replace with the smallest
-							if (word1.compareTo(word2) > 0) {
-								words.set(i, words.get(j));
-							} else {
-								words.set(j, words.get(i));
-							}
-						}
-					}
+		// classes of synonyms of the different words, each word points to a
+		// word of its class until the representative
+		Set<String> differentWords = new LinkedHashSet<String>(words);
+		Map<String, String> classes = new HashMap<String, String>();
+		for (String word : differentWords) {
+			for (String synonym : Synonyms.getSynonyms(word)) {
+				if (!synonym.equals(word) && differentWords.contains(synonym)) {
+					merge(classes, word, synonym);
 				}
 			}
 		}
+		// replace with the smallest of its class
+		for (int i = 0; i < words.size(); i++) {
+			words.set(i, getRepresentative(classes, words.get(i)));
+		}
 		return words;
 	}
 
+	private static void merge(Map<String, String> classes, String word1, String word2) {
+		String representative1 = getRepresentative(classes, word1);
+		String representative2 = getRepresentative(classes, word2);
+		if (representative1.compareTo(representative2) > 0) {
+			classes.put(representative1, representative2);
+		} else if (representative1.compareTo(representative2) < 0) {
+			classes.put(representative2, representative1);
+		}
+	}
+
+	private static String getRepresentative(Map<String, String> classes, String word) {
+		String representative = word;
+		String next = classes.get(representative);
+		while (next != null) {
+			representative = next;
+			next = classes.get(representative);
+		}
+		// shorten the path for the next time
+		if (!representative.equals(word)) {
+			classes.put(word, representative);
+		}
+		return representative;
+	}
+
 }
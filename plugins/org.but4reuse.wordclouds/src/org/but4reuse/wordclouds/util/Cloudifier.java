@@ -1,18 +1,26 @@
 package org.but4reuse.wordclouds.util;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.but4reuse.utils.cache.LRUCache;
 import org.but4reuse.wordclouds.activator.Activator;
 import org.but4reuse.wordclouds.filters.IWordsProcessing;
 import org.but4reuse.wordclouds.filters.WordCloudFiltersHelper;
 import org.but4reuse.wordclouds.preferences.WordCloudPreferences;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
 import org.mcavallo.opencloud.Cloud;
 import org.mcavallo.opencloud.Tag;
 
 public class Cloudifier {
 
+	private static LRUCache<ProcessingKey, List<String>> processedWordsCache;
+
 	public static Cloud cloudify(List<String> words, IProgressMonitor monitor) {
 		List<String> tags = processWords(words, monitor);
 		Cloud c = new Cloud();
@@ -38,22 +46,28 @@ public class Cloudifier {
 			words = cachedProcessedWords;
 		}
 
-		Cloud c = new Cloud();
-		c.setMaxTagsToDisplay(Activator.getDefault().getPreferenceStore().getInt(WordCloudPreferences.WORDCLOUD_NB_W));
-		c.setMaxWeight(50);
-		c.setMinWeight(5);
+		Cloud c = createTfIdfCloud();
 
-		List<String> wordsChecked = new ArrayList<String>();
+		// Vectors of the documents and number of documents containing each
+		// word
+		TermIndex termIndex = new TermIndex();
+		List<TermVector> documents = new ArrayList<TermVector>();
+		for (List<String> document : words) {
+			documents.add(termIndex.createVector(document));
+		}
+		Map<Integer, Integer> documentFrequencies = TermIndex.getDocumentFrequencies(documents);
 
 		double nbBlock = words.size();
 		double nbWords = words.get(index).size();
 
+		Set<Integer> wordsChecked = new HashSet<Integer>();
 		for (String w : words.get(index)) {
 			/*
 			 * If we already add this words in the cloud we check the next
 			 * words.
 			 */
-			if (TermFrequencyUtils.calculateTermFrequency(w, wordsChecked) != 0) {
+			int termId = termIndex.getTermId(w);
+			if (!wordsChecked.add(termId)) {
 				continue;
 			}
 			/*
@@ -61,18 +75,30 @@ public class Cloudifier {
 			 * https://fr.wikipedia.org/wiki/TF-IDF )
 			 */
 
-			double nbBlock_isPresent = nbDocContainsWords(words, w);
-			double nbTimeW = TermFrequencyUtils.calculateTermFrequency(w, words.get(index));
+			double nbBlock_isPresent = documentFrequencies.get(termId);
+			double nbTimeW = documents.get(index).get(termId);
 			double idf = Math.log(nbBlock / nbBlock_isPresent);
 			double td = (nbTimeW / nbWords);
 			double score = td * idf;
 
 			c.addTag(new Tag(w, score));
-			wordsChecked.add(w);
 		}
 		return c;
 	}
 
+	/**
+	 * Create an empty cloud for tf-idf scores
+	 * 
+	 * @return the cloud
+	 */
+	static Cloud createTfIdfCloud() {
+		Cloud c = new Cloud();
+		c.setMaxTagsToDisplay(Activator.getDefault().getPreferenceStore().getInt(WordCloudPreferences.WORDCLOUD_NB_W));
+		c.setMaxWeight(50);
+		c.setMinWeight(5);
+		return c;
+	}
+
 	public static List<String> processWords(List<String> words, IProgressMonitor monitor) {
 		List<IWordsProcessing> processors = WordCloudFiltersHelper.getSortedSelectedFilters();
 		return processWords(words, processors, monitor);
@@ -80,33 +106,63 @@ public class Cloudifier {
 
 	public static List<String> processWords(List<String> words, List<IWordsProcessing> processors,
 			IProgressMonitor monitor) {
-		for (IWordsProcessing processor : processors) {
-			words = processor.processWords(words, monitor);
+		// the same words are processed for the clouds, the renaming and the
+		// feature location
+		ProcessingKey key = new ProcessingKey(words, processors);
+		List<String> processedWords = getProcessedWordsCache().get(key);
+		if (processedWords == null) {
+			// some filters modify the list
+			processedWords = new ArrayList<String>(words);
+			for (IWordsProcessing processor : processors) {
+				processedWords = processor.processWords(processedWords, monitor);
+			}
+			getProcessedWordsCache().put(key, new ArrayList<String>(processedWords));
+		}
+		return new ArrayList<String>(processedWords);
+	}
+
+	private static synchronized LRUCache<ProcessingKey, List<String>> getProcessedWordsCache() {
+		if (processedWordsCache == null) {
+			processedWordsCache = new LRUCache<ProcessingKey, List<String>>(1000);
+			// the filters use the stop words, multi words and synonyms of
+			// the preferences
+			Activator.getDefault().getPreferenceStore().addPropertyChangeListener(new IPropertyChangeListener() {
+				@Override
+				public void propertyChange(PropertyChangeEvent event) {
+					processedWordsCache.clear();
+				}
+			});
 		}
-		return words;
+		return processedWordsCache;
 	}
 
 	/**
-	 * Count how many lists contain the string word
-	 * 
-	 * @param list
-	 *            It will search the word in each sub list of list parameter.
-	 * @param words
-	 *            The word that we want to find.
-	 * @return How many time we find the tag.
+	 * The words and the chain of filters that processed them
 	 */
+	private static class ProcessingKey {
+		private List<String> words;
+		private List<Class<?>> processors = new ArrayList<Class<?>>();
+
+		public ProcessingKey(List<String> words, List<IWordsProcessing> processors) {
+			this.words = new ArrayList<String>(words);
+			for (IWordsProcessing processor : processors) {
+				this.processors.add(processor.getClass());
+			}
+		}
 
-	private static int nbDocContainsWords(List<List<String>> list, String word) {
-		int cpt = 0;
-		for (List<String> l : list) {
-			for (String w : l) {
-				if (w.compareToIgnoreCase(word) == 0) {
-					cpt++;
-					break;
-				}
+		@Override
+		public int hashCode() {
+			return 31 * words.hashCode() + processors.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ProcessingKey)) {
+				return false;
 			}
+			ProcessingKey other = (ProcessingKey) obj;
+			return words.equals(other.words) && processors.equals(other.processors);
 		}
-		return cpt;
 	}
 
 }
@@ -1,7 +1,9 @@
 package org.but4reuse.wordclouds.util;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.but4reuse.adapters.IElement;
 import org.but4reuse.adapters.impl.AbstractElement;
@@ -81,6 +83,37 @@ public class TermFrequencyUtils {
 		return score;
 	}
 
+	/**
+	 * Create the tf-idf vector of a document, the same scores as the tf-idf
+	 * cloud of the document (including the filtering of the tags by the cloud)
+	 * 
+	 * @param termIndex
+	 * @param document
+	 *            the vector of occurrences of the document
+	 * @param documentFrequencies
+	 *            the number of documents containing each term
+	 * @param nbDocuments
+	 * @return the vector with the tf-idf score of the terms of the cloud
+	 */
+	public static TermVector createTfIdfVector(TermIndex termIndex, TermVector document,
+			Map<Integer, Integer> documentFrequencies, int nbDocuments) {
+		Cloud cloud = Cloudifier.createTfIdfCloud();
+		for (int i = 0; i < document.size(); i++) {
+			int termId = document.getTermId(i);
+			double idf = Math.log((double) nbDocuments / documentFrequencies.get(termId));
+			double tf = document.getValue(i) / document.getSum();
+			cloud.addTag(new Tag(termIndex.getTerm(termId), tf * idf));
+		}
+		Map<Integer, Double> scores = new HashMap<Integer, Double>();
+		for (Tag tag : cloud.tags()) {
+			Integer termId = termIndex.getTermId(tag.getName());
+			if (termId != null) {
+				scores.put(termId, tag.getScore());
+			}
+		}
+		return new TermVector(scores);
+	}
+
 	public static List<IWordsProcessing> getBasicProcessors() {
 		List<IWordsProcessing> processors = new ArrayList<IWordsProcessing>();
 		processors.add(new IgnoreUpperCaseProcessing());
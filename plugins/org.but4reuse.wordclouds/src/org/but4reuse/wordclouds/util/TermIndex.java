@@ -0,0 +1,182 @@
+package org.but4reuse.wordclouds.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.but4reuse.adapters.IElement;
+import org.but4reuse.featurelist.Feature;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+/**
+ * Term index for one analysis. It assigns an id to each term of the
+ * vocabulary and keeps the term vectors of the features and elements so their
+ * words are tokenized and processed only once. Terms are case insensitive as
+ * in TermFrequencyUtils. It is not thread safe.
+ * 
+ * @author jabier.martinez
+ */
+public class TermIndex {
+
+	private Map<String, Integer> termIds = new HashMap<String, Integer>();
+	private List<String> terms = new ArrayList<String>();
+
+	// features and elements are identified by their instance, the equals of
+	// the elements is a similarity
+	private Map<Feature, TermVector> featureVectors = new IdentityHashMap<Feature, TermVector>();
+	private Map<Feature, TermVector> featureCloudVectors = new IdentityHashMap<Feature, TermVector>();
+	private Map<IElement, TermVector> elementVectors = new IdentityHashMap<IElement, TermVector>();
+
+	/**
+	 * Number of terms of the vocabulary
+	 * 
+	 * @return the size
+	 */
+	public int size() {
+		return terms.size();
+	}
+
+	public String getTerm(int termId) {
+		return terms.get(termId);
+	}
+
+	/**
+	 * Get the id of a term
+	 * 
+	 * @param term
+	 * @return the id or null if it is not in the vocabulary
+	 */
+	public Integer getTermId(String term) {
+		return termIds.get(term.toLowerCase());
+	}
+
+	private int addTerm(String term) {
+		String key = term.toLowerCase();
+		Integer termId = termIds.get(key);
+		if (termId == null) {
+			termId = terms.size();
+			termIds.put(key, termId);
+			terms.add(key);
+		}
+		return termId;
+	}
+
+	/**
+	 * Add terms to the vocabulary. The ids are assigned in the iteration order
+	 * and the terms that are already in the vocabulary keep their id
+	 * 
+	 * @param words
+	 */
+	public void addTerms(Collection<String> words) {
+		for (String word : words) {
+			addTerm(word);
+		}
+	}
+
+	/**
+	 * Create a vector with the occurrences of the words. The new words are
+	 * added to the vocabulary
+	 * 
+	 * @param words
+	 * @return term vector
+	 */
+	public TermVector createVector(List<String> words) {
+		Map<Integer, Integer> vector = new HashMap<Integer, Integer>();
+		for (String word : words) {
+			int termId = addTerm(word);
+			Integer occurrences = vector.get(termId);
+			vector.put(termId, occurrences == null ? 1 : occurrences + 1);
+		}
+		return new TermVector(vector);
+	}
+
+	/**
+	 * Create a vector with the occurrences of the words that are part of the
+	 * vocabulary. The other words are ignored
+	 * 
+	 * @param words
+	 *            word -> number of occurrences
+	 * @return term vector
+	 */
+	public TermVector createQueryVector(Map<String, Integer> words) {
+		Map<Integer, Integer> vector = new HashMap<Integer, Integer>();
+		for (Entry<String, Integer> entry : words.entrySet()) {
+			Integer termId = getTermId(entry.getKey());
+			if (termId != null) {
+				Integer occurrences = vector.get(termId);
+				vector.put(termId, occurrences == null ? entry.getValue() : occurrences + entry.getValue());
+			}
+		}
+		return new TermVector(vector);
+	}
+
+	/**
+	 * Get the vector of the words of a feature, see
+	 * TermFrequencyUtils.getFeatureWords
+	 * 
+	 * @param feature
+	 * @return term vector
+	 */
+	public TermVector getFeatureVector(Feature feature) {
+		TermVector vector = featureVectors.get(feature);
+		if (vector == null) {
+			vector = createVector(TermFrequencyUtils.getFeatureWords(feature));
+			featureVectors.put(feature, vector);
+		}
+		return vector;
+	}
+
+	/**
+	 * Get the vector of the words of a feature once processed by the word
+	 * cloud filters, as in the tf-idf clouds of the features
+	 * 
+	 * @param feature
+	 * @return term vector
+	 */
+	public TermVector getFeatureCloudVector(Feature feature) {
+		TermVector vector = featureCloudVectors.get(feature);
+		if (vector == null) {
+			vector = createVector(Cloudifier.processWords(TermFrequencyUtils.getFeatureWords(feature),
+					new NullProgressMonitor()));
+			featureCloudVectors.put(feature, vector);
+		}
+		return vector;
+	}
+
+	/**
+	 * Get the vector of the words of an element, see
+	 * TermFrequencyUtils.getElementWords
+	 * 
+	 * @param element
+	 * @return term vector
+	 */
+	public TermVector getElementVector(IElement element) {
+		TermVector vector = elementVectors.get(element);
+		if (vector == null) {
+			vector = createVector(TermFrequencyUtils.getElementWords(element));
+			elementVectors.put(element, vector);
+		}
+		return vector;
+	}
+
+	/**
+	 * Number of documents containing each term
+	 * 
+	 * @param documents
+	 * @return term id -> document frequency
+	 */
+	public static Map<Integer, Integer> getDocumentFrequencies(List<TermVector> documents) {
+		Map<Integer, Integer> frequencies = new HashMap<Integer, Integer>();
+		for (TermVector document : documents) {
+			for (int i = 0; i < document.size(); i++) {
+				Integer frequency = frequencies.get(document.getTermId(i));
+				frequencies.put(document.getTermId(i), frequency == null ? 1 : frequency + 1);
+			}
+		}
+		return frequencies;
+	}
+}
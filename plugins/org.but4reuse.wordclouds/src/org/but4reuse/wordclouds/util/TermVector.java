@@ -0,0 +1,105 @@
+package org.but4reuse.wordclouds.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Sparse vector of a term index. The term ids are sorted so the dot product
+ * of two vectors is a merge of their entries.
+ * 
+ * @author jabier.martinez
+ */
+public class TermVector {
+
+	private int[] termIds;
+	private double[] values;
+	private double sum;
+
+	/**
+	 * Term vector
+	 * 
+	 * @param vector
+	 *            term id -> value
+	 */
+	public TermVector(Map<Integer, ? extends Number> vector) {
+		termIds = new int[vector.size()];
+		int i = 0;
+		for (Integer termId : vector.keySet()) {
+			termIds[i] = termId;
+			i++;
+		}
+		Arrays.sort(termIds);
+		values = new double[termIds.length];
+		for (Entry<Integer, ? extends Number> entry : vector.entrySet()) {
+			double value = entry.getValue().doubleValue();
+			values[Arrays.binarySearch(termIds, entry.getKey())] = value;
+			sum += value;
+		}
+	}
+
+	/**
+	 * Number of terms with a value
+	 * 
+	 * @return the number of entries
+	 */
+	public int size() {
+		return termIds.length;
+	}
+
+	public int getTermId(int entry) {
+		return termIds[entry];
+	}
+
+	public double getValue(int entry) {
+		return values[entry];
+	}
+
+	/**
+	 * Get the value of a term
+	 * 
+	 * @param termId
+	 * @return the value or zero
+	 */
+	public double get(int termId) {
+		int entry = Arrays.binarySearch(termIds, termId);
+		if (entry < 0) {
+			return 0;
+		}
+		return values[entry];
+	}
+
+	/**
+	 * Sum of the values. For a vector of occurrences, the number of words of
+	 * the document
+	 * 
+	 * @return the sum
+	 */
+	public double getSum() {
+		return sum;
+	}
+
+	/**
+	 * Dot product
+	 * 
+	 * @param another
+	 * @return the sum of the products of the values of the same terms
+	 */
+	public double dot(TermVector another) {
+		double dot = 0;
+		int i = 0;
+		int j = 0;
+		while (i < termIds.length && j < another.termIds.length) {
+			if (termIds[i] == another.termIds[j]) {
+				dot += values[i] * another.values[j];
+				i++;
+				j++;
+			} else if (termIds[i] < another.termIds[j]) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+		return dot;
+	}
+}
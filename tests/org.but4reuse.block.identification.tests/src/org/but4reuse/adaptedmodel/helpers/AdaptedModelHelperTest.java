@@ -0,0 +1,45 @@
+package org.but4reuse.adaptedmodel.helpers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.but4reuse.adaptedmodel.AdaptedArtefact;
+import org.but4reuse.adaptedmodel.ElementWrapper;
+import org.but4reuse.adapters.IElement;
+import org.but4reuse.tests.utils.TestElement;
+import org.but4reuse.utils.metrics.MetricsRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the similarity of the element wrappers
+ * 
+ * @author jabier.martinez
+ */
+public class AdaptedModelHelperTest {
+
+	/**
+	 * The similarity is the one of the wrapped elements and each call is
+	 * counted as a comparison
+	 */
+	@Test
+	public void similarityOfWrappedElements() {
+		List<IElement> elements = new ArrayList<IElement>();
+		for (int id : new int[] { 1, 1, 2 }) {
+			TestElement element = new TestElement();
+			element.id = id;
+			elements.add(element);
+		}
+		AdaptedArtefact artefact = AdaptedModelHelper.wrapElementsToCreateAdaptedArtefact(elements);
+		ElementWrapper ew1 = artefact.getOwnedElementWrappers().get(0);
+		ElementWrapper ew2 = artefact.getOwnedElementWrappers().get(1);
+		ElementWrapper ew3 = artefact.getOwnedElementWrappers().get(2);
+
+		long comparisons = MetricsRegistry.getDefault().getCounter("Element comparisons").get();
+		Assert.assertEquals(1.0, AdaptedModelHelper.similarity(ew1, ew2), 0);
+		Assert.assertEquals(0.0, AdaptedModelHelper.similarity(ew1, ew3), 0);
+		Assert.assertTrue(AdaptedModelHelper.isIdentical(ew1, ew2));
+		Assert.assertEquals(comparisons + 3, MetricsRegistry.getDefault().getCounter("Element comparisons").get());
+	}
+
+}
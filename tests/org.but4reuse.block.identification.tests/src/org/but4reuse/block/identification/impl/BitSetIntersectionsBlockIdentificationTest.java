@@ -0,0 +1,101 @@
+package org.but4reuse.block.identification.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.but4reuse.adaptedmodel.AdaptedArtefact;
+import org.but4reuse.adaptedmodel.Block;
+import org.but4reuse.adaptedmodel.helpers.AdaptedModelHelper;
+import org.but4reuse.adapters.IElement;
+import org.but4reuse.block.identification.IBlockIdentification;
+import org.but4reuse.tests.utils.TestElement;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for bitset-based intersections block identification. The blocks must
+ * be the same as the ones of the Intersections block identification.
+ * 
+ * @author jabier.martinez
+ * 
+ */
+public class BitSetIntersectionsBlockIdentificationTest {
+
+	/**
+	 * Same 3 artefacts as in IntersectionsBlockIdentificationTest
+	 */
+	@Test
+	public void sameBlocksAsIntersections() {
+		int[][] artefacts = new int[][] { range(0, 10), range(0, 30), range(0, 100) };
+		assertSameBlocks(artefacts);
+	}
+
+	/**
+	 * Artefacts with overlapping elements, repeated elements inside an
+	 * artefact and groups with the same frequency
+	 */
+	@Test
+	public void sameBlocksAsIntersectionsOverlapping() {
+		int[][] artefacts = new int[][] { concat(range(0, 10), range(20, 30)), concat(range(5, 25), range(5, 8)),
+				concat(range(0, 5), range(15, 40)), concat(range(35, 45), range(0, 3)) };
+		assertSameBlocks(artefacts);
+	}
+
+	/**
+	 * Run both algorithms and check that the blocks have the same elements in
+	 * the same order
+	 * 
+	 * @param artefacts
+	 */
+	private void assertSameBlocks(int[][] artefacts) {
+		IBlockIdentification expectedAlgo = new IntersectionsBlockIdentification();
+		List<Block> expected = expectedAlgo.identifyBlocks(createAdaptedArtefacts(artefacts),
+				new NullProgressMonitor());
+
+		IBlockIdentification algo = new BitSetIntersectionsBlockIdentification();
+		List<Block> blocks = algo.identifyBlocks(createAdaptedArtefacts(artefacts), new NullProgressMonitor());
+
+		Assert.assertEquals(expected.size(), blocks.size());
+		for (int b = 0; b < expected.size(); b++) {
+			List<IElement> expectedElements = AdaptedModelHelper.getElementsOfBlock(expected.get(b));
+			List<IElement> elements = AdaptedModelHelper.getElementsOfBlock(blocks.get(b));
+			Assert.assertEquals(expectedElements.size(), elements.size());
+			for (int i = 0; i < expectedElements.size(); i++) {
+				Assert.assertEquals(((TestElement) expectedElements.get(i)).id, ((TestElement) elements.get(i)).id);
+				Assert.assertEquals(expected.get(b).getOwnedBlockElements().get(i).getElementWrappers().size(), blocks
+						.get(b).getOwnedBlockElements().get(i).getElementWrappers().size());
+			}
+		}
+	}
+
+	private List<AdaptedArtefact> createAdaptedArtefacts(int[][] artefacts) {
+		List<AdaptedArtefact> adaptedArtefacts = new ArrayList<AdaptedArtefact>();
+		for (int[] ids : artefacts) {
+			List<IElement> elements = new ArrayList<IElement>();
+			for (int id : ids) {
+				TestElement e = new TestElement();
+				e.id = id;
+				elements.add(e);
+			}
+			adaptedArtefacts.add(AdaptedModelHelper.wrapElementsToCreateAdaptedArtefact(elements));
+		}
+		return adaptedArtefacts;
+	}
+
+	private int[] range(int from, int to) {
+		int[] ids = new int[to - from];
+		for (int i = from; i < to; i++) {
+			ids[i - from] = i;
+		}
+		return ids;
+	}
+
+	private int[] concat(int[] ids1, int[] ids2) {
+		int[] ids = new int[ids1.length + ids2.length];
+		System.arraycopy(ids1, 0, ids, 0, ids1.length);
+		System.arraycopy(ids2, 0, ids, ids1.length, ids2.length);
+		return ids;
+	}
+
+}
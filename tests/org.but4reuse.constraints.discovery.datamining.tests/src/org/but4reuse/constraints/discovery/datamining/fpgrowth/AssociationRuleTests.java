@@ -0,0 +1,68 @@
+package org.but4reuse.constraints.discovery.datamining.fpgrowth;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Association rules of the frequent item sets
+ * 
+ * @author jabier.martinez
+ */
+public class AssociationRuleTests {
+
+	/**
+	 * Sorted string of the rules so the order of the mining is not relevant
+	 */
+	static String toString(List<AssociationRule> rules) {
+		List<String> strings = new ArrayList<String>();
+		for (AssociationRule rule : rules) {
+			strings.add(rule.getAntecedent() + " -> " + rule.getConsequent() + " " + rule.getSupport() + " "
+					+ rule.getConfidence());
+		}
+		Collections.sort(strings);
+		return strings.toString();
+	}
+
+	@Test
+	public void testRequiresRules() {
+		List<FrequentItemSet> itemSets = new FPGrowth(2, 3).mine(FPGrowthTests.createTransactions());
+		// {1, 2} -> 0 is not created because {2} -> 0 was already created
+		Assert.assertEquals("[{0} -> 1 3 0.75, {0} -> 2 3 0.75, {1} -> 0 3 0.75, {2} -> 0 3 1.0]",
+				toString(AssociationRule.getAssociationRules(itemSets, 0.75)));
+		Assert.assertEquals("[{2} -> 0 3 1.0]", toString(AssociationRule.getAssociationRules(itemSets, 1)));
+		Assert.assertEquals("[]", toString(AssociationRule.getAssociationRules(new ArrayList<FrequentItemSet>(),
+				0.5)));
+	}
+
+	@Test
+	public void testRulesWithSeveralItems() {
+		List<BitSet> transactions = new ArrayList<BitSet>();
+		transactions.add(FPGrowthTests.bitSet(0, 1, 2));
+		transactions.add(FPGrowthTests.bitSet(0, 1, 2));
+		transactions.add(FPGrowthTests.bitSet(0, 3));
+		transactions.add(FPGrowthTests.bitSet(1, 3));
+		transactions.add(FPGrowthTests.bitSet(0, 3));
+		transactions.add(FPGrowthTests.bitSet(1, 3));
+		// 0 and 1 together imply 2 but not alone
+		List<FrequentItemSet> itemSets = new FPGrowth(2, 3).mine(transactions);
+		Assert.assertEquals("[{0, 1} -> 2 2 1.0, {2} -> 0 2 1.0, {2} -> 1 2 1.0]",
+				toString(AssociationRule.getAssociationRules(itemSets, 0.9)));
+	}
+
+	@Test
+	public void testExcludesConfidence() {
+		// transactions of each item in FPGrowthTests.createTransactions
+		BitSet item1 = FPGrowthTests.bitSet(0, 1, 3, 4);
+		BitSet item2 = FPGrowthTests.bitSet(0, 2, 4);
+		BitSet item3 = FPGrowthTests.bitSet(3);
+		Assert.assertEquals(1.0, AssociationRule.getExcludesConfidence(item2, item3), 0);
+		Assert.assertEquals(1.0 / 3, AssociationRule.getExcludesConfidence(item1, item2), 1e-9);
+		Assert.assertEquals(0.0, AssociationRule.getExcludesConfidence(item1, item3), 0);
+	}
+
+}
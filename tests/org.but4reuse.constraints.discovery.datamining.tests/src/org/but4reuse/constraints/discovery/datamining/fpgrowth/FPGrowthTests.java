@@ -0,0 +1,121 @@
+package org.but4reuse.constraints.discovery.datamining.fpgrowth;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * FP-growth frequent item sets
+ * 
+ * @author jabier.martinez
+ */
+public class FPGrowthTests {
+
+	/**
+	 * Five transactions with four items
+	 */
+	static List<BitSet> createTransactions() {
+		List<BitSet> transactions = new ArrayList<BitSet>();
+		transactions.add(bitSet(0, 1, 2));
+		transactions.add(bitSet(0, 1));
+		transactions.add(bitSet(0, 2));
+		transactions.add(bitSet(1, 3));
+		transactions.add(bitSet(0, 1, 2));
+		return transactions;
+	}
+
+	static BitSet bitSet(int... items) {
+		BitSet bitSet = new BitSet();
+		for (int item : items) {
+			bitSet.set(item);
+		}
+		return bitSet;
+	}
+
+	/**
+	 * Sorted string of the item sets so the order of the mining is not
+	 * relevant
+	 */
+	static String toString(List<FrequentItemSet> itemSets) {
+		List<String> strings = new ArrayList<String>();
+		for (FrequentItemSet itemSet : itemSets) {
+			strings.add(itemSet.toString());
+		}
+		Collections.sort(strings);
+		return strings.toString();
+	}
+
+	@Test
+	public void testFrequentItemSets() {
+		List<FrequentItemSet> itemSets = new FPGrowth(2, 3).mine(createTransactions());
+		Assert.assertEquals("[{0, 1, 2} 2, {0, 1} 3, {0, 2} 3, {0} 4, {1, 2} 2, {1} 4, {2} 3]",
+				toString(itemSets));
+	}
+
+	@Test
+	public void testMinSupportBoundary() {
+		// a support equal to the minimum is frequent
+		Assert.assertEquals("[{0, 1} 3, {0, 2} 3, {0} 4, {1} 4, {2} 3]",
+				toString(new FPGrowth(3, 3).mine(createTransactions())));
+		Assert.assertEquals("[{0} 4, {1} 4]", toString(new FPGrowth(4, 3).mine(createTransactions())));
+		Assert.assertEquals("[]", toString(new FPGrowth(5, 3).mine(createTransactions())));
+	}
+
+	@Test
+	public void testMaxSize() {
+		Assert.assertEquals("[{0, 1} 3, {0, 2} 3, {0} 4, {1, 2} 2, {1} 4, {2} 3]",
+				toString(new FPGrowth(2, 2).mine(createTransactions())));
+		Assert.assertEquals("[]", toString(new FPGrowth(1, 0).mine(createTransactions())));
+	}
+
+	@Test
+	public void testEmptyInput() {
+		Assert.assertTrue(new FPGrowth(1, 3).mine(new ArrayList<BitSet>()).isEmpty());
+		List<BitSet> emptyTransactions = new ArrayList<BitSet>();
+		emptyTransactions.add(new BitSet());
+		emptyTransactions.add(new BitSet());
+		Assert.assertTrue(new FPGrowth(1, 3).mine(emptyTransactions).isEmpty());
+	}
+
+	/**
+	 * Same result as checking all the possible item sets
+	 */
+	@Test
+	public void testSameAsBruteForce() {
+		Random random = new Random(7);
+		int nbItems = 8;
+		List<BitSet> transactions = new ArrayList<BitSet>();
+		for (int t = 0; t < 40; t++) {
+			BitSet transaction = new BitSet();
+			for (int i = 0; i < nbItems; i++) {
+				if (random.nextInt(3) > 0) {
+					transaction.set(i);
+				}
+			}
+			transactions.add(transaction);
+		}
+		int minSupport = 10;
+		List<FrequentItemSet> expected = new ArrayList<FrequentItemSet>();
+		for (int mask = 1; mask < 1 << nbItems; mask++) {
+			BitSet items = BitSet.valueOf(new long[] { mask });
+			int support = 0;
+			for (BitSet transaction : transactions) {
+				BitSet missing = (BitSet) items.clone();
+				missing.andNot(transaction);
+				if (missing.isEmpty()) {
+					support++;
+				}
+			}
+			if (support >= minSupport) {
+				expected.add(new FrequentItemSet(items, support));
+			}
+		}
+		Assert.assertEquals(toString(expected), toString(new FPGrowth(minSupport, nbItems).mine(transactions)));
+	}
+
+}
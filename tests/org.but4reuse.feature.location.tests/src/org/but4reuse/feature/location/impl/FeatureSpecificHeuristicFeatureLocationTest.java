@@ -0,0 +1,100 @@
+package org.but4reuse.feature.location.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.but4reuse.adaptedmodel.AdaptedArtefact;
+import org.but4reuse.adaptedmodel.AdaptedModel;
+import org.but4reuse.adaptedmodel.AdaptedModelFactory;
+import org.but4reuse.adaptedmodel.Block;
+import org.but4reuse.adaptedmodel.helpers.AdaptedModelHelper;
+import org.but4reuse.adaptedmodel.helpers.BlockPresenceMatrix;
+import org.but4reuse.artefactmodel.Artefact;
+import org.but4reuse.artefactmodel.ArtefactModelFactory;
+import org.but4reuse.block.identification.IBlockIdentification;
+import org.but4reuse.block.identification.impl.IntersectionsBlockIdentification;
+import org.but4reuse.feature.location.IFeatureLocation;
+import org.but4reuse.feature.location.LocatedFeature;
+import org.but4reuse.featurelist.Feature;
+import org.but4reuse.featurelist.FeatureList;
+import org.but4reuse.featurelist.FeatureListFactory;
+import org.but4reuse.tests.utils.TestElementsCreator;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Feature Specific heuristic and block presence matrix
+ * 
+ * @author jabier.martinez
+ * 
+ */
+public class FeatureSpecificHeuristicFeatureLocationTest {
+
+	@Test
+	public void locatedFeatures() {
+		// Prepare
+		IBlockIdentification algo = new IntersectionsBlockIdentification();
+		List<AdaptedArtefact> adaptedArtefacts = new ArrayList<AdaptedArtefact>();
+		AdaptedArtefact a1 = AdaptedModelHelper.wrapElementsToCreateAdaptedArtefact(TestElementsCreator
+				.createElements(10));
+		Artefact one = ArtefactModelFactory.eINSTANCE.createArtefact();
+		a1.setArtefact(one);
+		AdaptedArtefact a2 = AdaptedModelHelper.wrapElementsToCreateAdaptedArtefact(TestElementsCreator
+				.createElements(30));
+		Artefact two = ArtefactModelFactory.eINSTANCE.createArtefact();
+		a2.setArtefact(two);
+		AdaptedArtefact a3 = AdaptedModelHelper.wrapElementsToCreateAdaptedArtefact(TestElementsCreator
+				.createElements(100));
+		Artefact three = ArtefactModelFactory.eINSTANCE.createArtefact();
+		a3.setArtefact(three);
+		adaptedArtefacts.add(a1);
+		adaptedArtefacts.add(a2);
+		adaptedArtefacts.add(a3);
+		List<Block> blocks = algo.identifyBlocks(adaptedArtefacts, new NullProgressMonitor());
+
+		AdaptedModel adaptedModel = AdaptedModelFactory.eINSTANCE.createAdaptedModel();
+		adaptedModel.getOwnedAdaptedArtefacts().addAll(adaptedArtefacts);
+		adaptedModel.getOwnedBlocks().addAll(blocks);
+
+		FeatureList featureList = FeatureListFactory.eINSTANCE.createFeatureList();
+		Feature f1 = FeatureListFactory.eINSTANCE.createFeature();
+		f1.getImplementedInArtefacts().add(a1.getArtefact());
+		f1.getImplementedInArtefacts().add(a2.getArtefact());
+		f1.getImplementedInArtefacts().add(a3.getArtefact());
+		featureList.getOwnedFeatures().add(f1);
+
+		Feature f2 = FeatureListFactory.eINSTANCE.createFeature();
+		f2.getImplementedInArtefacts().add(a2.getArtefact());
+		f2.getImplementedInArtefacts().add(a3.getArtefact());
+		featureList.getOwnedFeatures().add(f2);
+
+		Feature f3 = FeatureListFactory.eINSTANCE.createFeature();
+		f3.getImplementedInArtefacts().add(a3.getArtefact());
+		featureList.getOwnedFeatures().add(f3);
+
+		// presence matrix
+		BlockPresenceMatrix matrix = BlockPresenceMatrix.get(adaptedModel);
+		Assert.assertSame(matrix, BlockPresenceMatrix.get(adaptedModel));
+		double[][] presence = matrix.getPresenceInFeatures(featureList);
+		Assert.assertEquals(1, presence[0][0], 0);
+		Assert.assertEquals(2.0 / 3.0, presence[0][1], 0);
+		Assert.assertEquals(1.0 / 3.0, presence[0][2], 0);
+		Assert.assertEquals(0.5, presence[1][2], 0);
+		Assert.assertEquals(1, presence[2][2], 0);
+		Assert.assertEquals(blocks.subList(0, 2), matrix.getBlocksOfAdaptedArtefact(a2));
+		Assert.assertEquals(blocks.subList(0, 1), AdaptedModelHelper.getCommonBlocks(adaptedModel));
+
+		// test it
+		IFeatureLocation fl = new FeatureSpecificHeuristicFeatureLocation();
+		List<LocatedFeature> locatedFeatures = fl.locateFeatures(featureList, adaptedModel, new NullProgressMonitor());
+
+		// f1 in the first block, f2 in the first two and f3 in all
+		Assert.assertEquals(6, locatedFeatures.size());
+
+		// the adapted model changed so the matrix is calculated again
+		adaptedModel.getOwnedBlocks().remove(blocks.get(2));
+		Assert.assertNotSame(matrix, BlockPresenceMatrix.get(adaptedModel));
+		Assert.assertEquals(2, BlockPresenceMatrix.get(adaptedModel).getBlocks().size());
+	}
+}
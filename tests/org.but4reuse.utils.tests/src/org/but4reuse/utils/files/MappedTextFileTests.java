@@ -0,0 +1,83 @@
+package org.but4reuse.utils.files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.but4reuse.utils.files.MappedTextFile.LineVisitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Memory mapped text file
+ * 
+ * @author jabier.martinez
+ */
+public class MappedTextFileTests {
+
+	@Test
+	public void testLinesAndSplit() throws IOException {
+		File file = File.createTempFile("mapped", ".csv");
+		try {
+			String content = "a;b;;\r\n\nx;\u00e9;y\rlast;b";
+			Files.write(file.toPath(), content.getBytes(Charset.forName("UTF-8")));
+			final MappedTextFile text = new MappedTextFile(file, Charset.forName("UTF-8"));
+			final List<String> lines = new ArrayList<String>();
+			final List<TextSpan> cells = new ArrayList<TextSpan>();
+			text.scanLines(new LineVisitor() {
+				@Override
+				public boolean visit(int lineNumber, TextSpan line) {
+					lines.add(lineNumber + ":" + line.getText());
+					cells.addAll(text.split(line, ';'));
+					return true;
+				}
+			});
+			Assert.assertEquals("[0:a;b;;, 1:, 2:x;\u00e9;y, 3:last;b]", lines.toString());
+			// same as String.split, the trailing empty cells are not included
+			Assert.assertEquals("[a, b, , x, \u00e9, y, last, b]", cells.toString());
+			// same content in different positions
+			Assert.assertEquals(cells.get(1), cells.get(7));
+			Assert.assertEquals(cells.get(1).hashCode(), cells.get(7).hashCode());
+			Assert.assertFalse(cells.get(0).equals(cells.get(1)));
+			// after releasing the mapping the content is read from the file
+			text.close();
+			Assert.assertEquals("\u00e9", cells.get(4).getText());
+			Assert.assertEquals(cells.get(1), cells.get(7));
+			Assert.assertFalse(cells.get(0).equals(cells.get(1)));
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testCompareAfterClose() throws IOException {
+		File file = File.createTempFile("mapped", ".txt");
+		final List<TextSpan> lines = new ArrayList<TextSpan>();
+		try {
+			Files.write(file.toPath(), "same\nother\nsame\nsamf".getBytes(Charset.forName("UTF-8")));
+			MappedTextFile text = new MappedTextFile(file, Charset.forName("UTF-8"));
+			text.scanLines(new LineVisitor() {
+				@Override
+				public boolean visit(int lineNumber, TextSpan line) {
+					lines.add(line);
+					return true;
+				}
+			});
+			Assert.assertEquals("other", lines.get(1).getText());
+			text.close();
+		} finally {
+			file.delete();
+		}
+		// the file does not exist anymore, the comparisons must not read it
+		Assert.assertEquals(lines.get(0), lines.get(2));
+		Assert.assertEquals(lines.get(0).hashCode(), lines.get(2).hashCode());
+		Assert.assertFalse(lines.get(0).equals(lines.get(1)));
+		Assert.assertFalse(lines.get(0).equals(lines.get(3)));
+		// the text already decoded is kept
+		Assert.assertEquals("other", lines.get(1).getText());
+	}
+
+}
@@ -0,0 +1,64 @@
+package org.but4reuse.utils.files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.but4reuse.utils.files.ParallelFileWalker.Node;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Parallel file walker
+ * 
+ * @author jabier.martinez
+ */
+public class ParallelFileWalkerTests {
+
+	@Test
+	public void testDepthFirstOrder() throws IOException {
+		File root = Files.createTempDirectory("walker").toFile();
+		try {
+			new File(root, "b/skipped").mkdirs();
+			new File(root, "a/c").mkdirs();
+			new File(root, "a/d.txt").createNewFile();
+			new File(root, "a/c/e.txt").createNewFile();
+			new File(root, "b/f.txt").createNewFile();
+
+			ParallelFileWalker.Visitor<String> visitor = new ParallelFileWalker.Visitor<String>() {
+				@Override
+				public String visit(File file) {
+					return file.getName();
+				}
+
+				@Override
+				public boolean visitChildren(File directory, String result) {
+					return !result.equals("skipped");
+				}
+			};
+			for (int parallelism = 1; parallelism <= 4; parallelism++) {
+				ForkJoinPool pool = new ForkJoinPool(parallelism);
+				List<Node<String>> nodes;
+				try {
+					nodes = ParallelFileWalker.walk(root, visitor, pool, new NullProgressMonitor());
+				} finally {
+					pool.shutdown();
+				}
+				StringBuilder order = new StringBuilder();
+				for (Node<String> node : nodes.subList(1, nodes.size())) {
+					order.append(node.getParent().getResult() + "/" + node.getResult() + " ");
+				}
+				Assert.assertEquals(root.getName() + "/a a/c c/e.txt a/d.txt " + root.getName()
+						+ "/b b/f.txt b/skipped ", order.toString());
+			}
+			// the shared pool
+			Assert.assertEquals(8, ParallelFileWalker.walk(root, visitor, new NullProgressMonitor()).size());
+		} finally {
+			FileUtils.deleteFile(root);
+		}
+	}
+
+}
@@ -0,0 +1,71 @@
+package org.but4reuse.utils.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.but4reuse.utils.metrics.MetricsRegistry.Timer;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Metrics registry
+ * 
+ * @author jabier.martinez
+ */
+public class MetricsRegistryTests {
+
+	@Test
+	public void testConcurrentRegistration() throws InterruptedException {
+		final MetricsRegistry metrics = new MetricsRegistry();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < 8; t++) {
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < 1000; i++) {
+						metrics.registerTime("Stage " + (i % 10), 5);
+						metrics.add("Comparisons", 1);
+					}
+				}
+			};
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		List<Timer> timers = metrics.getTimers();
+		Assert.assertEquals(10, timers.size());
+		for (Timer timer : timers) {
+			Assert.assertEquals(800, timer.getCount());
+			Assert.assertEquals(4000, timer.getNanos());
+			Assert.assertTrue(timer.getUsedHeap() > 0);
+		}
+		Assert.assertEquals(8000, metrics.getCounter("Comparisons").get());
+	}
+
+	@Test
+	public void testOrderAndClear() {
+		MetricsRegistry metrics = new MetricsRegistry();
+		metrics.registerTime("Adapt", 3000000);
+		metrics.registerTime("Block identification", 1000000);
+		metrics.add("Elements \"a\"", 4);
+		Assert.assertEquals("[Adapt, Block identification]", metrics.getElapsedMillis().keySet().toString());
+		Assert.assertEquals(Long.valueOf(3), metrics.getElapsedMillis().get("Adapt"));
+		Assert.assertTrue(metrics.toCSV().contains("counter;Elements \"a\";4;;;"));
+		Assert.assertTrue(metrics.toJSON().contains("{\"name\": \"Elements \\\"a\\\"\", \"value\": 4}"));
+
+		metrics.registerTime("Adapt", 2000000);
+		Assert.assertEquals(Long.valueOf(5), metrics.getElapsedMillis().get("Adapt"));
+		// replace instead of adding
+		metrics.setTime("Adapt", 2000000);
+		Assert.assertEquals(Long.valueOf(2), metrics.getElapsedMillis().get("Adapt"));
+		Assert.assertEquals(1, metrics.getTimer("Adapt").getCount());
+
+		metrics.clear();
+		Assert.assertTrue(metrics.getTimers().isEmpty());
+		Assert.assertTrue(metrics.getCounters().isEmpty());
+		Assert.assertEquals(0, metrics.getCounter("Elements \"a\"").get());
+	}
+
+}